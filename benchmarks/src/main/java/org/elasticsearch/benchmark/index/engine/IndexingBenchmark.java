@@ -0,0 +1,440 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.index.engine;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.benchmark.index.mapper.MapperServiceFactory;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.env.ShardLock;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.codec.CodecService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.engine.EngineConfig;
+import org.elasticsearch.index.engine.InternalEngine;
+import org.elasticsearch.index.fielddata.FieldDataContext;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.Mapping;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.mapper.TimeSeriesRoutingHashFieldMapper;
+import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.EngineResetLock;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.threadpool.DefaultBuiltInExecutorBuilders;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the indexing hot path of a primary shard end to end: parsing the source with the {@code DocumentParser}, resolving the version
+ * through the {@code LiveVersionMap}, adding the document to the Lucene index writer and writing the operation to the translog with the
+ * {@code TranslogWriter}, for several shapes of documents. Every invocation indexes a single document, so the throughput is the number of
+ * documents indexed per second. Run with {@code -prof gc} to also report the allocations per document ({@code gc.alloc.rate.norm}).
+ * <p>
+ * The Lucene index lives in a {@link ByteBuffersDirectory} to leave the disk out of the picture. The translog needs a real file system;
+ * it goes into the temporary directory, which should point to a tmpfs for stable results, e.g. with {@code -Djava.io.tmpdir=/dev/shm}.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-XX:+UseParallelGC" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class IndexingBenchmark {
+
+    private static final long PRIMARY_TERM = 1L;
+    private static final int NUM_SOURCES = 10_000;
+    private static final long START_TIME = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    public enum DocumentShape {
+        /**
+         * Flat log lines with a handful of keyword, text and numeric fields.
+         */
+        LOGS(Settings.EMPTY, """
+            {
+              "properties": {
+                "@timestamp": { "type": "date" },
+                "host": { "properties": { "name": { "type": "keyword" } } },
+                "service": { "type": "keyword" },
+                "level": { "type": "keyword" },
+                "status": { "type": "integer" },
+                "bytes": { "type": "long" },
+                "message": { "type": "text" }
+              }
+            }""") {
+            @Override
+            String source(Random random, long timestamp) {
+                return String.format(
+                    Locale.ROOT,
+                    """
+                        {"@timestamp":%d,"host":{"name":"host-%d"},"service":"service-%d","level":"%s","status":%d,"bytes":%d,\
+                        "message":"GET /products/%d HTTP/1.1 took %d ms for client 10.0.%d.%d"}""",
+                    timestamp,
+                    random.nextInt(100),
+                    random.nextInt(20),
+                    LEVELS[random.nextInt(LEVELS.length)],
+                    200 + random.nextInt(4) * 100,
+                    random.nextInt(100_000),
+                    random.nextInt(10_000),
+                    random.nextInt(1_000),
+                    random.nextInt(256),
+                    random.nextInt(256)
+                );
+            }
+        },
+        /**
+         * Documents with deep object hierarchies and an array of nested objects, which produces several Lucene documents per source.
+         */
+        NESTED(Settings.EMPTY, """
+            {
+              "properties": {
+                "@timestamp": { "type": "date" },
+                "order": {
+                  "properties": {
+                    "customer": {
+                      "properties": {
+                        "address": {
+                          "properties": {
+                            "geo": { "properties": { "city": { "type": "keyword" }, "zip": { "type": "keyword" } } },
+                            "street": { "type": "text" }
+                          }
+                        },
+                        "name": { "type": "keyword" }
+                      }
+                    },
+                    "lines": {
+                      "type": "nested",
+                      "properties": {
+                        "product": { "properties": { "sku": { "type": "keyword" }, "category": { "type": "keyword" } } },
+                        "quantity": { "type": "integer" },
+                        "price": { "type": "double" }
+                      }
+                    }
+                  }
+                }
+              }
+            }""") {
+            @Override
+            String source(Random random, long timestamp) {
+                StringBuilder lines = new StringBuilder();
+                int numLines = 1 + random.nextInt(5);
+                for (int i = 0; i < numLines; i++) {
+                    if (i > 0) {
+                        lines.append(',');
+                    }
+                    lines.append(
+                        String.format(
+                            Locale.ROOT,
+                            """
+                                {"product":{"sku":"sku-%d","category":"category-%d"},"quantity":%d,"price":%.2f}""",
+                            random.nextInt(100_000),
+                            random.nextInt(50),
+                            1 + random.nextInt(10),
+                            random.nextDouble() * 100
+                        )
+                    );
+                }
+                return String.format(
+                    Locale.ROOT,
+                    """
+                        {"@timestamp":%d,"order":{"customer":{"name":"customer-%d","address":{"street":"%d Main Street",\
+                        "geo":{"city":"city-%d","zip":"%05d"}}},"lines":[%s]}}""",
+                    timestamp,
+                    random.nextInt(10_000),
+                    random.nextInt(1_000),
+                    random.nextInt(500),
+                    random.nextInt(100_000),
+                    lines
+                );
+            }
+        },
+        /**
+         * Metrics of a time series data stream, indexed with routing on the dimensions and sorted by time series.
+         */
+        TSDB(
+            Settings.builder()
+                .put("index.mode", "time_series")
+                .put("index.routing_path", "host")
+                .put("index.time_series.start_time", "2025-01-01T00:00:00Z")
+                .put("index.time_series.end_time", "2035-01-01T00:00:00Z")
+                .build(),
+            """
+                {
+                  "properties": {
+                    "@timestamp": { "type": "date" },
+                    "host": { "type": "keyword", "time_series_dimension": true },
+                    "container": { "type": "keyword", "time_series_dimension": true },
+                    "cpu": { "type": "double", "time_series_metric": "gauge" },
+                    "memory": { "type": "long", "time_series_metric": "gauge" },
+                    "network_in": { "type": "long", "time_series_metric": "counter" },
+                    "network_out": { "type": "long", "time_series_metric": "counter" }
+                  }
+                }"""
+        ) {
+            @Override
+            String source(Random random, long timestamp) {
+                return String.format(
+                    Locale.ROOT,
+                    """
+                        {"@timestamp":%d,"host":"host-%d","container":"container-%d","cpu":%.4f,"memory":%d,"network_in":%d,\
+                        "network_out":%d}""",
+                    timestamp,
+                    random.nextInt(100),
+                    random.nextInt(10),
+                    random.nextDouble(),
+                    random.nextInt(1 << 30),
+                    random.nextInt(1 << 30),
+                    random.nextInt(1 << 30)
+                );
+            }
+
+            @Override
+            String routing(Random random) {
+                return TimeSeriesRoutingHashFieldMapper.encode(random.nextInt());
+            }
+
+            @Override
+            boolean providesIds() {
+                return false;
+            }
+        },
+        /**
+         * The same log lines as {@link #LOGS} in a {@code logsdb} index, which uses synthetic source and sorts by timestamp.
+         */
+        LOGSDB(Settings.builder().put("index.mode", "logsdb").build(), LOGS.mapping) {
+            @Override
+            String source(Random random, long timestamp) {
+                return LOGS.source(random, timestamp);
+            }
+        };
+
+        private static final String[] LEVELS = new String[] { "DEBUG", "INFO", "WARN", "ERROR" };
+
+        private final Settings settings;
+        private final String mapping;
+
+        DocumentShape(Settings settings, String mapping) {
+            this.settings = settings;
+            this.mapping = mapping;
+        }
+
+        abstract String source(Random random, long timestamp);
+
+        String routing(Random random) {
+            return null;
+        }
+
+        /**
+         * Whether documents come with an {@code _id}, rather than the {@code _id} being derived from the document.
+         */
+        boolean providesIds() {
+            return true;
+        }
+    }
+
+    @Param({ "LOGS", "NESTED", "TSDB", "LOGSDB" })
+    private DocumentShape shape;
+
+    /**
+     * Whether documents without an {@code _id} are indexed with an auto-generated one, which skips the version lookups of
+     * append-only indexing, or with an {@code _id} provided by the client, which goes through the version map.
+     */
+    @Param({ "false", "true" })
+    private boolean autoGeneratedIds;
+
+    /**
+     * The number of documents indexed between two refreshes, which bounds the size of the version map.
+     */
+    @Param({ "10000" })
+    private int refreshInterval;
+
+    private MapperService mapperService;
+    private SourceToParse[] sources;
+    private ThreadPool threadPool;
+    private Path translogPath;
+    private Store store;
+    private InternalEngine engine;
+    private long docCount;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        mapperService = MapperServiceFactory.create(shape.settings, shape.mapping);
+        Random random = new Random(42);
+        sources = new SourceToParse[NUM_SOURCES];
+        for (int i = 0; i < NUM_SOURCES; i++) {
+            // a millisecond apart, so that the generated time series ids do not collide
+            String source = shape.source(random, START_TIME + i);
+            sources[i] = new SourceToParse(null, new BytesArray(source), XContentType.JSON, shape.routing(random));
+        }
+        // dynamic mapping updates are applied before indexing, as they only happen for the first documents of an index in practice
+        for (SourceToParse source : sources) {
+            ParsedDocument parsedDocument = mapperService.documentMapper()
+                .parse(shape.providesIds() ? withId(source, "warmup") : source);
+            Mapping update = parsedDocument.dynamicMappingsUpdate();
+            if (update != null) {
+                mapperService.merge(
+                    MapperService.SINGLE_MAPPING_NAME,
+                    update.toCompressedXContent(),
+                    MapperService.MergeReason.MAPPING_UPDATE
+                );
+            }
+        }
+        threadPool = new ThreadPool(
+            Settings.builder().put("node.name", "benchmark").build(),
+            MeterRegistry.NOOP,
+            new DefaultBuiltInExecutorBuilders()
+        );
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws IOException {
+        IndexSettings indexSettings = mapperService.getIndexSettings();
+        ShardId shardId = new ShardId(indexSettings.getIndex(), 0);
+        translogPath = Files.createTempDirectory("indexing-benchmark-translog");
+        store = new Store(shardId, indexSettings, new ByteBuffersDirectory(), new ShardLock(shardId) {
+            @Override
+            protected void closeInternal() {}
+        });
+        store.createEmpty();
+        String translogUUID = Translog.createEmptyTranslog(translogPath, SequenceNumbers.NO_OPS_PERFORMED, shardId, PRIMARY_TERM);
+        store.associateIndexWithNewTranslog(translogUUID);
+
+        Sort indexSort = indexSettings.getIndexSortConfig()
+            .buildIndexSort(
+                mapperService::fieldType,
+                (fieldType, searchLookup) -> fieldType.fielddataBuilder(FieldDataContext.noRuntimeFields("index sort"))
+                    .build(new IndexFieldDataCache.None(), new NoneCircuitBreakerService())
+            );
+        EngineConfig config = new EngineConfig(
+            shardId,
+            threadPool,
+            null,
+            indexSettings,
+            null,
+            store,
+            indexSettings.getMergePolicy(mapperService.mappingLookup().hasTimestampField()),
+            Lucene.STANDARD_ANALYZER,
+            IndexSearcher.getDefaultSimilarity(),
+            new CodecService(mapperService, BigArrays.NON_RECYCLING_INSTANCE),
+            new Engine.EventListener() {
+            },
+            IndexSearcher.getDefaultQueryCache(),
+            IndexSearcher.getDefaultQueryCachingPolicy(),
+            new TranslogConfig(shardId, translogPath, indexSettings, BigArrays.NON_RECYCLING_INSTANCE),
+            TimeValue.timeValueMinutes(5),
+            List.of(),
+            List.of(),
+            indexSort,
+            new NoneCircuitBreakerService(),
+            () -> SequenceNumbers.NO_OPS_PERFORMED,
+            () -> RetentionLeases.EMPTY,
+            () -> PRIMARY_TERM,
+            IndexModule.DEFAULT_SNAPSHOT_COMMIT_SUPPLIER,
+            null,
+            System::nanoTime,
+            null,
+            true,
+            mapperService,
+            new EngineResetLock()
+        );
+        engine = new InternalEngine(config);
+        engine.skipTranslogRecovery();
+        docCount = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        IOUtils.close(engine, store);
+        IOUtils.rm(translogPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        mapperService.close();
+    }
+
+    @Benchmark
+    public Engine.IndexResult index() throws IOException {
+        final long doc = docCount++;
+        SourceToParse source = sources[(int) (doc % NUM_SOURCES)];
+        if (shape.providesIds()) {
+            source = withId(source, Long.toString(doc));
+        }
+        final boolean autoGeneratedId = autoGeneratedIds && shape.providesIds();
+        Engine.Index operation = IndexShard.prepareIndex(
+            mapperService,
+            source,
+            SequenceNumbers.UNASSIGNED_SEQ_NO,
+            PRIMARY_TERM,
+            Versions.MATCH_ANY,
+            VersionType.INTERNAL,
+            Engine.Operation.Origin.PRIMARY,
+            autoGeneratedId ? System.currentTimeMillis() : IndexRequest.UNSET_AUTO_GENERATED_TIMESTAMP,
+            false,
+            SequenceNumbers.UNASSIGNED_SEQ_NO,
+            SequenceNumbers.UNASSIGNED_PRIMARY_TERM,
+            System.nanoTime()
+        );
+        Engine.IndexResult result = engine.index(operation);
+        if (result.getFailure() != null) {
+            throw new AssertionError("failed to index document", result.getFailure());
+        }
+        if ((doc + 1) % refreshInterval == 0) {
+            engine.refresh("benchmark");
+        }
+        return result;
+    }
+
+    private static SourceToParse withId(SourceToParse source, String id) {
+        return new SourceToParse(id, source.source(), source.getXContentType(), source.routing());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.search.fetch;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.benchmark.search.fetch.subphase.FetchSourcePhaseBenchmark;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.transport.BytesRefRecycler;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of the hits of a search response into pooled pages, the way the REST layer writes chunked responses.
+ * Run with {@code -prof gc} to see the allocation rate per operation.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SearchHitsSerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int numHits;
+
+    /**
+     * {@code source} only returns the source, {@code fields} also returns fields, and {@code filter_path} filters the response which
+     * requires the source to be parsed rather than copied as is.
+     */
+    @Param({ "source", "fields", "filter_path" })
+    private String mode;
+
+    private final BytesRefRecycler recycler = new BytesRefRecycler(new PageCacheRecycler(Settings.EMPTY));
+    private SearchHits searchHits;
+    private Set<String> includes;
+
+    @Setup
+    public void setup() throws IOException {
+        BytesReference source = Streams.readFully(FetchSourcePhaseBenchmark.class.getResourceAsStream("300b_example.json"));
+        SearchShardTarget shard = new SearchShardTarget("node", new ShardId("index", "_na_", 0), null);
+        SearchHit[] hits = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            SearchHit hit = SearchHit.unpooled(i, Integer.toString(i));
+            hit.shard(shard);
+            hit.score(1.0f);
+            hit.sourceRef(source);
+            if (mode.equals("fields")) {
+                Map<String, DocumentField> fields = new HashMap<>();
+                fields.put("message", new DocumentField("message", List.of("short message " + i)));
+                fields.put("count", new DocumentField("count", List.of(i, i + 1)));
+                hit.addDocumentFields(fields, Collections.emptyMap());
+            }
+            hits[i] = hit;
+        }
+        searchHits = SearchHits.unpooled(hits, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f);
+        includes = mode.equals("filter_path") ? Set.of("hits.hits._id", "hits.hits._source") : Collections.emptySet();
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        try (RecyclerBytesStreamOutput out = new RecyclerBytesStreamOutput(recycler)) {
+            XContentBuilder builder = new XContentBuilder(
+                XContentType.JSON.xContent(),
+                out,
+                includes,
+                Collections.emptySet(),
+                XContentType.JSON.toParsedMediaType()
+            );
+            builder.startObject();
+            Iterator<? extends ToXContent> chunks = searchHits.toXContentChunked(ToXContent.EMPTY_PARAMS);
+            while (chunks.hasNext()) {
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+            builder.endObject();
+            builder.close();
+            return out.size();
+        }
+    }
+}
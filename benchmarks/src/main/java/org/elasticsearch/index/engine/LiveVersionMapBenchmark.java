@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.mapper.Uid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link LiveVersionMap} backed by concurrent hash maps and a keyed lock with the one backed by {@link StripedVersionHash}es
+ * for puts, gets and puts racing with refreshes that swap the maps. This lives in the engine package since the version map is only
+ * accessible from there.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class LiveVersionMapBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean stripedHash;
+
+    @Param({ "100000" })
+    private int numIds;
+
+    private LiveVersionMap map;
+    private BytesRef[] uids;
+
+    @Setup
+    public void setup() {
+        map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, stripedHash);
+        uids = new BytesRef[numIds];
+        for (int i = 0; i < numIds; i++) {
+            uids[i] = Uid.encodeId(UUIDs.base64UUID());
+            try (Releasable ignored = map.acquireLock(uids[i])) {
+                map.putIndexUnderLock(uids[i], new IndexVersionValue(null, 1, i, 1));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        SplittableRandom random;
+        long seqNo;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            random = new SplittableRandom(Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void put(ThreadState state) {
+        final BytesRef uid = uids[state.random.nextInt(uids.length)];
+        try (Releasable ignored = map.acquireLock(uid)) {
+            map.putIndexUnderLock(uid, new IndexVersionValue(null, 1, state.seqNo++, 1));
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VersionValue get(ThreadState state) {
+        final BytesRef uid = uids[state.random.nextInt(uids.length)];
+        try (Releasable ignored = map.acquireLock(uid)) {
+            return map.getUnderLock(uid);
+        }
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(7)
+    public void putDuringRefresh(ThreadState state) {
+        put(state);
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(1)
+    public void refresh() throws IOException {
+        map.beforeRefresh();
+        map.afterRefresh(true);
+    }
+}
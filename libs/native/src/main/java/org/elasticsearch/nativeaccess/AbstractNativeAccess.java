@@ -51,6 +51,12 @@ abstract class AbstractNativeAccess implements NativeAccess {
         return javaLib.newBuffer(len);
     }
 
+    @Override
+    public CloseableByteBuffer newSharedBuffer(int len) {
+        assert len > 0;
+        return javaLib.newSharedBuffer(len);
+    }
+
     @Override
     public boolean isMemoryLocked() {
         return isMemoryLocked;
@@ -95,6 +95,14 @@ public interface NativeAccess {
      */
     CloseableByteBuffer newBuffer(int len);
 
+    /**
+     * Creates a new {@link CloseableByteBuffer} that can be used and closed by any thread. The caller must make sure that no
+     * thread uses the buffer anymore once it is closed.
+     * @param len the number of bytes the buffer should allocate
+     * @return the buffer
+     */
+    CloseableByteBuffer newSharedBuffer(int len);
+
     /**
      * Possible stats for execution filtering.
      */
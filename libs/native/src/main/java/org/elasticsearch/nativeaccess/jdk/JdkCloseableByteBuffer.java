@@ -20,8 +20,8 @@ class JdkCloseableByteBuffer implements CloseableByteBuffer {
     final MemorySegment segment;
     private final ByteBuffer bufferView;
 
-    JdkCloseableByteBuffer(int len) {
-        this.arena = Arena.ofConfined();
+    JdkCloseableByteBuffer(Arena arena, int len) {
+        this.arena = arena;
         this.segment = arena.allocate(len);
         this.bufferView = segment.asByteBuffer();
     }
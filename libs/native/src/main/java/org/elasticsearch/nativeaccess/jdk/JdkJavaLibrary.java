@@ -12,9 +12,16 @@ package org.elasticsearch.nativeaccess.jdk;
 import org.elasticsearch.nativeaccess.CloseableByteBuffer;
 import org.elasticsearch.nativeaccess.lib.JavaLibrary;
 
+import java.lang.foreign.Arena;
+
 class JdkJavaLibrary implements JavaLibrary {
     @Override
     public CloseableByteBuffer newBuffer(int len) {
-        return new JdkCloseableByteBuffer(len);
+        return new JdkCloseableByteBuffer(Arena.ofConfined(), len);
+    }
+
+    @Override
+    public CloseableByteBuffer newSharedBuffer(int len) {
+        return new JdkCloseableByteBuffer(Arena.ofShared(), len);
     }
 }
@@ -585,6 +585,16 @@ public class JsonXContentGenerator implements XContentGenerator {
         writeEndRaw();
     }
 
+    @Override
+    public boolean writeRawFieldIfDirect(String name, XContentType contentType, CheckedConsumer<OutputStream, IOException> writer)
+        throws IOException {
+        if (mayWriteRawData(contentType) == false) {
+            return false;
+        }
+        writeDirectField(name, writer);
+        return true;
+    }
+
     @Override
     public void flush() throws IOException {
         generator.flush();
@@ -1214,6 +1214,17 @@ public final class XContentBuilder implements Closeable, Flushable {
         return this;
     }
 
+    /**
+     * Writes a raw field whose bytes, in the provided content type, are copied as is to the output by the provided writer, which avoids
+     * going through an intermediate stream and buffer. Returns {@code false} without writing anything if the bytes cannot be copied as
+     * is, because the output is filtered, pretty-printed or of another content type, in which case the caller must fall back to
+     * {@link #rawField(String, InputStream, XContentType)}.
+     */
+    public boolean rawFieldIfDirect(String name, XContentType contentType, CheckedConsumer<OutputStream, IOException> writer)
+        throws IOException {
+        return generator.writeRawFieldIfDirect(name, contentType, writer);
+    }
+
     /**
      * Writes a value with the source coming directly from the bytes in the stream
      */
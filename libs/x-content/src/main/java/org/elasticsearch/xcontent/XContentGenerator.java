@@ -119,6 +119,14 @@ public interface XContentGenerator extends Closeable, Flushable {
      */
     void writeDirectField(String name, CheckedConsumer<OutputStream, IOException> writer) throws IOException;
 
+    /**
+     * Write a raw field whose value, in the provided content type, is written directly to the output stream if the generator may copy
+     * it as is. Returns {@code false} without writing anything if the value must be parsed instead, because the generator is filtered,
+     * pretty-printed or produces another content type, see {@link #writeRawField(String, InputStream, XContentType)}.
+     */
+    boolean writeRawFieldIfDirect(String name, XContentType contentType, CheckedConsumer<OutputStream, IOException> writer)
+        throws IOException;
+
     default void copyCurrentEvent(XContentParser parser) throws IOException {
         switch (parser.currentToken()) {
             case START_OBJECT:
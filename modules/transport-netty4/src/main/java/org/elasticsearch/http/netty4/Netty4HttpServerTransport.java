@@ -394,7 +394,8 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
             final HttpObjectAggregator aggregator = new Netty4HttpAggregator(
                 handlingSettings.maxContentLength(),
                 httpPreRequest -> enabled.get() == false
-                    || ((httpPreRequest.rawPath().endsWith("/_bulk") == false)
+                    || ((httpPreRequest.rawPath().endsWith("/_bulk") == false
+                        && httpPreRequest.rawPath().endsWith("/_bulk/stream") == false)
                         || httpPreRequest.rawPath().startsWith("/_xpack/monitoring/_bulk")),
                 decoder
             );
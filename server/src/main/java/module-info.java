@@ -248,6 +248,8 @@ module org.elasticsearch.server {
     exports org.elasticsearch.index.fielddata.fieldcomparator;
     exports org.elasticsearch.index.fielddata.ordinals;
     exports org.elasticsearch.index.fielddata.plain;
+    exports org.elasticsearch.index.fielddata.projection;
+    exports org.elasticsearch.index.fielddata.sketch;
     exports org.elasticsearch.index.fieldvisitor;
     exports org.elasticsearch.index.flush;
     exports org.elasticsearch.index.get;
@@ -254,6 +254,12 @@ public class TransportVersions {
     public static final TransportVersion ESQL_FIELD_ATTRIBUTE_DROP_TYPE = def(9_075_0_00);
     public static final TransportVersion ESQL_TIME_SERIES_SOURCE_STATUS = def(9_076_0_00);
     public static final TransportVersion ESQL_HASH_OPERATOR_STATUS_OUTPUT_TIME = def(9_077_0_00);
+    public static final TransportVersion REQUEST_CACHE_OFF_HEAP_STATS = def(9_078_0_00);
+    public static final TransportVersion REFRESH_STATS_ADAPTIVE_INTERVAL = def(9_079_0_00);
+    public static final TransportVersion QUERY_PLANNER_PROFILE = def(9_080_0_00);
+    public static final TransportVersion SEARCH_SCHEDULER_STATS = def(9_081_0_00);
+    public static final TransportVersion SKIPPED_SEGMENTS_PROFILE = def(9_082_0_00);
+    public static final TransportVersion ADAPTIVE_SELECTION_FETCH_STATS = def(9_083_0_00);
 
     /*
      * STOP! READ THIS FIRST! No, really,
@@ -381,6 +381,7 @@ import org.elasticsearch.rest.action.document.RestIndexAction.AutoIdHandler;
 import org.elasticsearch.rest.action.document.RestIndexAction.CreateHandler;
 import org.elasticsearch.rest.action.document.RestMultiGetAction;
 import org.elasticsearch.rest.action.document.RestMultiTermVectorsAction;
+import org.elasticsearch.rest.action.document.RestStreamingBulkAction;
 import org.elasticsearch.rest.action.document.RestTermVectorsAction;
 import org.elasticsearch.rest.action.document.RestUpdateAction;
 import org.elasticsearch.rest.action.info.RestClusterInfoAction;
@@ -403,6 +404,7 @@ import org.elasticsearch.rest.action.synonyms.RestGetSynonymsAction;
 import org.elasticsearch.rest.action.synonyms.RestGetSynonymsSetsAction;
 import org.elasticsearch.rest.action.synonyms.RestPutSynonymRuleAction;
 import org.elasticsearch.rest.action.synonyms.RestPutSynonymsAction;
+import org.elasticsearch.search.scheduler.SearchTaskScheduler;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.telemetry.TelemetryProvider;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -410,6 +412,7 @@ import org.elasticsearch.usage.UsageService;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -502,7 +505,12 @@ public class ActionModule extends AbstractModule {
                 new RestHeaderDefinition(Task.TRACE_PARENT_HTTP_HEADER, false),
                 new RestHeaderDefinition(Task.X_ELASTIC_PRODUCT_ORIGIN_HTTP_HEADER, false)
             )
-        ).collect(Collectors.toSet());
+        ).collect(Collectors.toCollection(HashSet::new));
+        // the search scheduler reads the class of a search from this header on the data nodes
+        final String searchClassHeader = SearchTaskScheduler.CLASS_HEADER_SETTING.get(settings);
+        if (searchClassHeader.isEmpty() == false && headers.stream().noneMatch(h -> h.getName().equals(searchClassHeader))) {
+            headers.add(new RestHeaderDefinition(searchClassHeader, false));
+        }
         final RestInterceptor restInterceptor = getRestServerComponent(
             "REST interceptor",
             actionPlugins,
@@ -933,6 +941,7 @@ public class ActionModule extends AbstractModule {
         registerHandler.accept(new RestTermVectorsAction());
         registerHandler.accept(new RestMultiTermVectorsAction());
         registerHandler.accept(new RestBulkAction(settings, bulkService));
+        registerHandler.accept(new RestStreamingBulkAction(settings, bulkService));
         registerHandler.accept(new RestUpdateAction());
 
         registerHandler.accept(new RestSearchAction(restController.getSearchUsageHolder(), clusterSupportsFeature));
@@ -35,6 +35,7 @@ import org.elasticsearch.node.AdaptiveSelectionStats;
 import org.elasticsearch.repositories.RepositoriesStats;
 import org.elasticsearch.script.ScriptCacheStats;
 import org.elasticsearch.script.ScriptStats;
+import org.elasticsearch.search.scheduler.SearchSchedulerStats;
 import org.elasticsearch.threadpool.ThreadPoolStats;
 import org.elasticsearch.transport.TransportStats;
 import org.elasticsearch.xcontent.ToXContent;
@@ -105,6 +106,9 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
     @Nullable
     private final NodeAllocationStats nodeAllocationStats;
 
+    @Nullable
+    private final SearchSchedulerStats searchSchedulerStats;
+
     public NodeStats(StreamInput in) throws IOException {
         super(in);
         timestamp = in.readVLong();
@@ -131,6 +135,9 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
         nodeAllocationStats = in.getTransportVersion().onOrAfter(TransportVersions.V_8_14_0)
             ? in.readOptionalWriteable(NodeAllocationStats::new)
             : null;
+        searchSchedulerStats = in.getTransportVersion().onOrAfter(TransportVersions.SEARCH_SCHEDULER_STATS)
+            ? in.readOptionalWriteable(SearchSchedulerStats::new)
+            : null;
     }
 
     public NodeStats(
@@ -152,7 +159,8 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
         @Nullable ScriptCacheStats scriptCacheStats,
         @Nullable IndexingPressureStats indexingPressureStats,
         @Nullable RepositoriesStats repositoriesStats,
-        @Nullable NodeAllocationStats nodeAllocationStats
+        @Nullable NodeAllocationStats nodeAllocationStats,
+        @Nullable SearchSchedulerStats searchSchedulerStats
     ) {
         super(node);
         this.timestamp = timestamp;
@@ -173,6 +181,7 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
         this.indexingPressureStats = indexingPressureStats;
         this.repositoriesStats = repositoriesStats;
         this.nodeAllocationStats = nodeAllocationStats;
+        this.searchSchedulerStats = searchSchedulerStats;
     }
 
     public NodeStats withNodeAllocationStats(
@@ -198,7 +207,8 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
             scriptCacheStats,
             indexingPressureStats,
             repositoriesStats,
-            nodeAllocationStats
+            nodeAllocationStats,
+            searchSchedulerStats
         );
     }
 
@@ -314,6 +324,11 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
         return nodeAllocationStats;
     }
 
+    @Nullable
+    public SearchSchedulerStats getSearchSchedulerStats() {
+        return searchSchedulerStats;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
@@ -343,6 +358,9 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_14_0)) {
             out.writeOptionalWriteable(nodeAllocationStats);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.SEARCH_SCHEDULER_STATS)) {
+            out.writeOptionalWriteable(searchSchedulerStats);
+        }
     }
 
     @Override
@@ -384,6 +402,7 @@ public class NodeStats extends BaseNodeResponse implements ChunkedToXContent {
                 (builder, p) -> builder.value(ifPresent(getIndexingPressureStats()), p)
                     .value(ifPresent(getRepositoriesStats()), p)
                     .value(ifPresent(getNodeAllocationStats()), p)
+                    .value(ifPresent(getSearchSchedulerStats()), p)
             )
         );
     }
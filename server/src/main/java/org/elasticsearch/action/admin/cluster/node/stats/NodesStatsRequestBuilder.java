@@ -165,6 +165,11 @@ public class NodesStatsRequestBuilder extends NodesOperationRequestBuilder<
         return this;
     }
 
+    public NodesStatsRequestBuilder setSearchScheduler(boolean searchScheduler) {
+        addOrRemoveMetric(searchScheduler, Metric.SEARCH_SCHEDULER);
+        return this;
+    }
+
     /**
      * Helper method for adding metrics to a request
      */
@@ -95,7 +95,8 @@ public class NodesStatsRequestParameters implements Writeable {
         SCRIPT_CACHE("script_cache"),
         INDEXING_PRESSURE("indexing_pressure"),
         REPOSITORIES("repositories"),
-        ALLOCATIONS("allocations");
+        ALLOCATIONS("allocations"),
+        SEARCH_SCHEDULER("search_scheduler");
 
         public static final Set<Metric> ALL = Collections.unmodifiableSet(EnumSet.allOf(Metric.class));
         public static final Set<String> ALL_NAMES = ALL.stream().map(Metric::metricName).collect(toUnmodifiableSet());
@@ -117,6 +118,11 @@ public class NodesStatsRequestParameters implements Writeable {
         }
 
         public static void writeSetTo(StreamOutput out, EnumSet<Metric> metrics) throws IOException {
+            if (out.getTransportVersion().before(TransportVersions.SEARCH_SCHEDULER_STATS) && metrics.contains(SEARCH_SCHEDULER)) {
+                // older nodes do not know this metric
+                metrics = EnumSet.copyOf(metrics);
+                metrics.remove(SEARCH_SCHEDULER);
+            }
             if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_16_0)) {
                 out.writeEnumSet(metrics);
             } else {
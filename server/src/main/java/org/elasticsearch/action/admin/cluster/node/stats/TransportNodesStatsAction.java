@@ -175,7 +175,8 @@ public class TransportNodesStatsAction extends TransportNodesAction<
             metrics.contains(Metric.ADAPTIVE_SELECTION),
             metrics.contains(Metric.SCRIPT_CACHE),
             metrics.contains(Metric.INDEXING_PRESSURE),
-            metrics.contains(Metric.REPOSITORIES)
+            metrics.contains(Metric.REPOSITORIES),
+            metrics.contains(Metric.SEARCH_SCHEDULER)
         );
     }
 
@@ -148,6 +148,11 @@ class BulkPrimaryExecutionContext {
         return locationToSync;
     }
 
+    /** returns the position of the current item in the request */
+    public int getCurrentItemIndex() {
+        return currentIndex;
+    }
+
     private BulkItemRequest getCurrentItem() {
         return request.items()[currentIndex];
     }
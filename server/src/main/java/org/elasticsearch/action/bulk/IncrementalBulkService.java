@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static org.elasticsearch.common.settings.Setting.boolSetting;
@@ -59,6 +60,21 @@ public class IncrementalBulkService {
         return new Handler(client, indexingPressure, waitForActiveShards, timeout, refresh);
     }
 
+    /**
+     * Creates a handler for a bulk request of unbounded length. Rather than collecting the responses of all bulk requests that the items
+     * are split into until the last items are added, the handler passes the response of each of these requests to the given consumer as
+     * soon as it completes, in the order in which the items were added.
+     */
+    public Handler newStreamingBulkRequest(
+        @Nullable String waitForActiveShards,
+        @Nullable TimeValue timeout,
+        @Nullable String refresh,
+        Consumer<BulkResponse> responseConsumer
+    ) {
+        ensureEnabled();
+        return new Handler(client, indexingPressure, waitForActiveShards, timeout, refresh, responseConsumer);
+    }
+
     private void ensureEnabled() {
         if (enabledForTests.get() == false) {
             throw new AssertionError("Unexpected incremental bulk request");
@@ -95,6 +111,8 @@ public class IncrementalBulkService {
         private final ActiveShardCount waitForActiveShards;
         private final TimeValue timeout;
         private final String refresh;
+        @Nullable
+        private final Consumer<BulkResponse> responseConsumer;
 
         private final ArrayList<Releasable> releasables = new ArrayList<>(4);
         private final ArrayList<BulkResponse> responses = new ArrayList<>(2);
@@ -112,11 +130,23 @@ public class IncrementalBulkService {
             @Nullable String waitForActiveShards,
             @Nullable TimeValue timeout,
             @Nullable String refresh
+        ) {
+            this(client, indexingPressure, waitForActiveShards, timeout, refresh, null);
+        }
+
+        protected Handler(
+            Client client,
+            IndexingPressure indexingPressure,
+            @Nullable String waitForActiveShards,
+            @Nullable TimeValue timeout,
+            @Nullable String refresh,
+            @Nullable Consumer<BulkResponse> responseConsumer
         ) {
             this.client = client;
             this.waitForActiveShards = waitForActiveShards != null ? ActiveShardCount.parseString(waitForActiveShards) : null;
             this.timeout = timeout;
             this.refresh = refresh;
+            this.responseConsumer = responseConsumer;
             this.incrementalOperation = indexingPressure.startIncrementalCoordinating(0, 0, false);
             createNewBulkRequest(EMPTY_STATE);
         }
@@ -126,6 +156,15 @@ public class IncrementalBulkService {
         }
 
         public void addItems(List<DocWriteRequest<?>> items, Releasable releasable, Runnable nextItems) {
+            addItems(items, releasable, nextItems, false);
+        }
+
+        /**
+         * Adds the given items to the current bulk request, which is sent once indexing pressure asks for it to be split or if
+         * {@code flush} is set. The given runnable is invoked once the handler is ready to accept more items, which is after the response
+         * to the bulk request if one was sent.
+         */
+        public void addItems(List<DocWriteRequest<?>> items, Releasable releasable, Runnable nextItems, boolean flush) {
             assert closed == false;
             assert bulkInProgress == false;
             if (bulkActionLevelFailure != null) {
@@ -134,7 +173,9 @@ public class IncrementalBulkService {
             } else {
                 assert bulkRequest != null;
                 if (internalAddItems(items, releasable)) {
-                    Optional<Releasable> maybeSplit = incrementalOperation.maybeSplit();
+                    Optional<Releasable> maybeSplit = flush && bulkRequest.numberOfActions() > 0
+                        ? Optional.of(incrementalOperation.split())
+                        : incrementalOperation.maybeSplit();
                     if (maybeSplit.isPresent()) {
                         Releasable coordinating = maybeSplit.get();
                         final boolean isFirstRequest = incrementalRequestSubmitted == false;
@@ -178,7 +219,16 @@ public class IncrementalBulkService {
                 errorResponse(listener);
             } else {
                 assert bulkRequest != null;
-                if (internalAddItems(items, releasable)) {
+                if (internalAddItems(items, releasable) == false) {
+                    errorResponse(listener);
+                } else if (incrementalRequestSubmitted && bulkRequest.numberOfActions() == 0) {
+                    // all items were part of earlier requests already
+                    incrementalOperation.split().close();
+                    releasables.forEach(Releasable::close);
+                    releasables.clear();
+                    bulkRequest = null;
+                    listener.onResponse(combineResponses());
+                } else {
                     Releasable coordinating = incrementalOperation.split();
                     final ArrayList<Releasable> toRelease = new ArrayList<>(releasables);
                     releasables.clear();
@@ -203,8 +253,6 @@ public class IncrementalBulkService {
                         toRelease.forEach(Releasable::close);
                         coordinating.close();
                     }));
-                } else {
-                    errorResponse(listener);
                 }
             }
         }
@@ -238,10 +286,18 @@ public class IncrementalBulkService {
         }
 
         private void handleBulkSuccess(BulkResponse bulkResponse) {
-            responses.add(bulkResponse);
+            addResponse(bulkResponse);
             bulkRequest = null;
         }
 
+        private void addResponse(BulkResponse bulkResponse) {
+            if (responseConsumer != null) {
+                responseConsumer.accept(bulkResponse);
+            } else {
+                responses.add(bulkResponse);
+            }
+        }
+
         private void handleBulkFailure(boolean isFirstRequest, Exception e) {
             assert bulkActionLevelFailure == null;
             globalFailure = isFirstRequest;
@@ -258,7 +314,7 @@ public class IncrementalBulkService {
                 bulkItemResponses[idx++] = BulkItemResponse.failure(idx, item.opType(), failure);
             }
 
-            responses.add(new BulkResponse(bulkItemResponses, 0, 0));
+            addResponse(new BulkResponse(bulkItemResponses, 0, 0));
         }
 
         private boolean internalAddItems(List<DocWriteRequest<?>> items, Releasable releasable) {
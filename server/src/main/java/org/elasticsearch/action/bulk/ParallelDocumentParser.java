@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.RefCountingRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.plugins.internal.DocumentParsingProvider;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses the documents of the index requests of a {@link BulkShardRequest} in parallel before the request is executed on the primary,
+ * see {@link IndexSettings#INDEX_BULK_PARALLEL_PARSING_SETTING}. The items are still applied to the shard one after the other in the
+ * order of the request. An item only uses its parsed document if the mapping of the shard did not change since the documents were
+ * parsed. Items that follow a dynamic mapping update are therefore parsed again against the updated mapping, just like they are without
+ * parsing ahead, and so are documents that failed to parse, which then fail with the same exception.
+ */
+final class ParallelDocumentParser {
+
+    /**
+     * The minimum number of documents that each parsing task handles, shard requests with fewer than two tasks worth of documents are
+     * not parsed ahead.
+     */
+    static final int MIN_DOCUMENTS_PER_TASK = 16;
+
+    private final DocumentMapper documentMapper;
+    private final AtomicReferenceArray<ParsedDocument> documents;
+
+    private ParallelDocumentParser(DocumentMapper documentMapper, int numberOfItems) {
+        this.documentMapper = documentMapper;
+        this.documents = new AtomicReferenceArray<>(numberOfItems);
+    }
+
+    /**
+     * Returns whether the documents of the given request should be parsed ahead.
+     */
+    static boolean isEnabled(BulkShardRequest request, IndexShard primary) {
+        return request.items().length >= 2 * MIN_DOCUMENTS_PER_TASK
+            && primary.indexSettings().getValue(IndexSettings.INDEX_BULK_PARALLEL_PARSING_SETTING);
+    }
+
+    /**
+     * Parses the documents of all index requests of the given request with the current mapping of the primary, using up to
+     * {@code maxTasks} tasks of which all but one are forked to the given executor. Completes the listener once all documents are
+     * parsed, with {@code null} if the shard has no mapping yet. Documents that could not be forked or failed to parse are left for
+     * the execution of their item.
+     */
+    static void parse(
+        BulkShardRequest request,
+        IndexShard primary,
+        DocumentParsingProvider documentParsingProvider,
+        Executor executor,
+        int maxTasks,
+        ActionListener<ParallelDocumentParser> listener
+    ) {
+        final DocumentMapper documentMapper = primary.mapperService().documentMapper();
+        if (documentMapper == null) {
+            // the first document creates the mapping, which has to happen sequentially anyway
+            listener.onResponse(null);
+            return;
+        }
+        final BulkItemRequest[] items = request.items();
+        final ParallelDocumentParser parser = new ParallelDocumentParser(documentMapper, items.length);
+        final int tasks = Math.max(1, Math.min(maxTasks, items.length / MIN_DOCUMENTS_PER_TASK));
+        final int itemsPerTask = (items.length + tasks - 1) / tasks;
+        try (RefCountingRunnable refs = new RefCountingRunnable(() -> listener.onResponse(parser))) {
+            for (int from = itemsPerTask; from < items.length; from += itemsPerTask) {
+                final int start = from;
+                final int end = Math.min(items.length, from + itemsPerTask);
+                final Releasable ref = refs.acquire();
+                try {
+                    executor.execute(() -> {
+                        try (ref) {
+                            parser.parseItems(items, start, end, documentParsingProvider);
+                        }
+                    });
+                } catch (EsRejectedExecutionException e) {
+                    // these documents are parsed when their items are executed
+                    ref.close();
+                }
+            }
+            parser.parseItems(items, 0, Math.min(items.length, itemsPerTask), documentParsingProvider);
+        }
+    }
+
+    private void parseItems(BulkItemRequest[] items, int from, int to, DocumentParsingProvider documentParsingProvider) {
+        for (int i = from; i < to; i++) {
+            final BulkItemRequest item = items[i];
+            if (item.getPrimaryResponse() == null && item.request() instanceof IndexRequest indexRequest) {
+                try {
+                    documents.set(
+                        i,
+                        documentMapper.parse(TransportShardBulkAction.newSourceToParse(indexRequest, documentParsingProvider))
+                    );
+                } catch (Exception e) {
+                    // the item parses the document again when it is executed, failing with the same exception
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the parsed document of the item at the given position in the request if it was parsed with the given document mapper, or
+     * {@code null} if it has to be parsed again. Each document is only handed out once.
+     */
+    @Nullable
+    ParsedDocument take(int itemIndex, @Nullable DocumentMapper currentDocumentMapper) {
+        if (currentDocumentMapper != documentMapper) {
+            return null;
+        }
+        return documents.getAndSet(itemIndex, null);
+    }
+}
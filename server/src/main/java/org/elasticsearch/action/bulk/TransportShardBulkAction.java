@@ -39,6 +39,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Strings;
@@ -53,6 +54,7 @@ import org.elasticsearch.index.mapper.InferenceMetadataFieldsMapper;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
@@ -99,6 +101,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
     private final Consumer<Runnable> postWriteAction;
 
     private final DocumentParsingProvider documentParsingProvider;
+    private final int maxParallelParsingTasks;
 
     @Inject
     public TransportShardBulkAction(
@@ -138,6 +141,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         this.mappingUpdatedAction = mappingUpdatedAction;
         this.postWriteAction = WriteAckDelay.create(settings, threadPool);
         this.documentParsingProvider = documentParsingProvider;
+        this.maxParallelParsingTasks = EsExecutors.allocatedProcessors(settings);
     }
 
     private static final TransportRequestOptions TRANSPORT_REQUEST_OPTIONS = TransportRequestOptions.of(
@@ -170,14 +174,36 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         IndexShard primary,
         ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> outerListener
     ) {
+        final boolean parallelParsing = ParallelDocumentParser.isEnabled(request, primary);
         var listener = ActionListener.releaseBefore(
             indexingPressure.trackPrimaryOperationExpansion(
                 primaryOperationCount(request),
-                getMaxOperationMemoryOverhead(request),
+                // parsing ahead expands all operations at the same time rather than one after the other
+                parallelParsing ? getTotalOperationMemoryOverhead(request) : getMaxOperationMemoryOverhead(request),
                 force(request)
             ),
             outerListener
         );
+        if (parallelParsing) {
+            ParallelDocumentParser.parse(
+                request,
+                primary,
+                documentParsingProvider,
+                executor(primary),
+                maxParallelParsingTasks,
+                listener.delegateFailure((l, parsedDocuments) -> performOnPrimary(request, primary, parsedDocuments, l))
+            );
+        } else {
+            performOnPrimary(request, primary, null, listener);
+        }
+    }
+
+    private void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        @Nullable ParallelDocumentParser parsedDocuments,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener
+    ) {
         ClusterStateObserver observer = new ClusterStateObserver(clusterService, request.timeout(), logger, threadPool.getThreadContext());
         performOnPrimary(request, primary, updateHelper, threadPool::absoluteTimeInMillis, (update, shardId, mappingListener) -> {
             assert update != null;
@@ -202,7 +228,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             var index = primary.shardId().getIndex();
             var indexMetadata = clusterState.metadata().lookupProject(index).map(p -> p.index(index)).orElse(null);
             return indexMetadata == null || (indexMetadata.mapping() != null && indexMetadata.getMappingVersion() != initialMappingVersion);
-        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider);
+        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider, parsedDocuments);
     }
 
     @Override
@@ -262,6 +288,36 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         @Nullable PostWriteRefresh postWriteRefresh,
         @Nullable Consumer<Runnable> postWriteAction,
         DocumentParsingProvider documentParsingProvider
+    ) {
+        performOnPrimary(
+            request,
+            primary,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            listener,
+            executor,
+            postWriteRefresh,
+            postWriteAction,
+            documentParsingProvider,
+            null
+        );
+    }
+
+    static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        Executor executor,
+        @Nullable PostWriteRefresh postWriteRefresh,
+        @Nullable Consumer<Runnable> postWriteAction,
+        DocumentParsingProvider documentParsingProvider,
+        @Nullable ParallelDocumentParser parsedDocuments
     ) {
         new ActionRunnable<>(listener) {
 
@@ -281,7 +337,8 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                         mappingUpdater,
                         waitForMappingUpdate,
                         onMappingUpdateDone,
-                        documentParsingProvider
+                        documentParsingProvider,
+                        parsedDocuments
                     ) == false) {
                         // We are waiting for a mapping update on another thread, that will invoke this action again once its done
                         // so we just break out here.
@@ -358,6 +415,33 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
         ActionListener<Void> itemDoneListener,
         DocumentParsingProvider documentParsingProvider
+    ) throws Exception {
+        return executeBulkItemRequest(
+            context,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            itemDoneListener,
+            documentParsingProvider,
+            null
+        );
+    }
+
+    /**
+     * Same as {@link #executeBulkItemRequest(BulkPrimaryExecutionContext, UpdateHelper, LongSupplier, MappingUpdatePerformer,
+     * ObjLongConsumer, ActionListener, DocumentParsingProvider)}, but indexes the document parsed ahead for the current item if there is
+     * one that is still valid.
+     */
+    static boolean executeBulkItemRequest(
+        BulkPrimaryExecutionContext context,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<Void> itemDoneListener,
+        DocumentParsingProvider documentParsingProvider,
+        @Nullable ParallelDocumentParser parsedDocuments
     ) throws Exception {
         final DocWriteRequest.OpType opType = context.getCurrent().opType();
 
@@ -406,21 +490,16 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             );
         } else {
             final IndexRequest request = context.getRequestToExecute();
-
-            XContentMeteringParserDecorator meteringParserDecorator = documentParsingProvider.newMeteringParserDecorator(request);
-            final SourceToParse sourceToParse = new SourceToParse(
-                request.id(),
-                request.source(),
-                request.getContentType(),
-                request.routing(),
-                request.getDynamicTemplates(),
-                request.getIncludeSourceOnError(),
-                meteringParserDecorator
-            );
+            final SourceToParse sourceToParse = newSourceToParse(request, documentParsingProvider);
+            // updates are translated into index requests against the current document, those are never parsed ahead
+            final ParsedDocument parsedDocument = parsedDocuments != null && updateResult == null
+                ? parsedDocuments.take(context.getCurrentItemIndex(), primary.mapperService().documentMapper())
+                : null;
             result = primary.applyIndexOperationOnPrimary(
                 version,
                 request.versionType(),
                 sourceToParse,
+                parsedDocument,
                 request.ifSeqNo(),
                 request.ifPrimaryTerm(),
                 request.getAutoGeneratedTimestamp(),
@@ -443,6 +522,19 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return true;
     }
 
+    static SourceToParse newSourceToParse(IndexRequest request, DocumentParsingProvider documentParsingProvider) {
+        XContentMeteringParserDecorator meteringParserDecorator = documentParsingProvider.newMeteringParserDecorator(request);
+        return new SourceToParse(
+            request.id(),
+            request.source(),
+            request.getContentType(),
+            request.routing(),
+            request.getDynamicTemplates(),
+            request.getIncludeSourceOnError(),
+            meteringParserDecorator
+        );
+    }
+
     private static String[] getStoredFieldsSpec(IndexShard indexShard) {
         if (InferenceMetadataFieldsMapper.isEnabled(indexShard.mapperService().mappingLookup())) {
             if (indexShard.mapperService().mappingLookup().inferenceFields().size() > 0) {
@@ -684,6 +776,10 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return request.maxOperationSizeInBytes() * MAX_EXPANDED_OPERATION_MEMORY_OVERHEAD_FACTOR;
     }
 
+    private static long getTotalOperationMemoryOverhead(BulkShardRequest request) {
+        return request.totalSizeInBytes() * MAX_EXPANDED_OPERATION_MEMORY_OVERHEAD_FACTOR;
+    }
+
     @Override
     protected long replicaOperationSize(BulkShardRequest request) {
         return request.ramBytesUsed();
@@ -28,6 +28,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.Tuple;
+import org.elasticsearch.rest.action.search.SearchResponseMetrics;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchShardTarget;
@@ -47,6 +48,7 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -62,11 +64,19 @@ import static org.elasticsearch.action.search.SearchPhaseController.setShardInde
  * in the {@link CircuitBreaker#REQUEST} circuit breaker. Before any partial or final reduce, the memory
  * needed to reduce the aggregations is estimated and a {@link CircuitBreakingException} is thrown if it
  * exceeds the maximum memory allowed in this breaker.
+ * <p>
+ * Partial reduces run one after the other by default, each of them merging a batch of shard results into the result of the previous
+ * one. When more than one concurrent partial reduce is allowed, each batch is reduced on its own on the reduce executor, and the
+ * results of the batches are then merged pairwise until a single one is left.
  */
 public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhaseResult> {
     private static final Logger logger = LogManager.getLogger(QueryPhaseResultConsumer.class);
 
     private final Executor executor;
+    private final Executor reduceExecutor;
+    private final int maxConcurrentReduces;
+    @Nullable
+    private final SearchResponseMetrics searchResponseMetrics;
     private final CircuitBreaker circuitBreaker;
     private final SearchProgressListener progressListener;
     private final AggregationReduceContext.Builder aggReduceContextBuilder;
@@ -90,6 +100,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
 
     private final ArrayDeque<MergeTask> queue = new ArrayDeque<>();
     private final AtomicReference<MergeTask> runningTask = new AtomicReference<>();
+    // the number of partial reduces in flight when they run concurrently, only updated under the lock of this instance
+    private volatile int runningReduces;
     final AtomicReference<Exception> failure = new AtomicReference<>();
 
     final TopDocsStats topDocsStats;
@@ -110,9 +122,47 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         SearchProgressListener progressListener,
         int expectedResultSize,
         Consumer<Exception> onPartialMergeFailure
+    ) {
+        this(
+            request,
+            executor,
+            circuitBreaker,
+            controller,
+            isCanceled,
+            progressListener,
+            expectedResultSize,
+            onPartialMergeFailure,
+            executor,
+            1,
+            null
+        );
+    }
+
+    /**
+     * Creates a {@link QueryPhaseResultConsumer} that incrementally reduces aggregation results as shard results are consumed, with up
+     * to {@code maxConcurrentReduces} partial reduces running concurrently on the {@code reduceExecutor}. Partial reduces run one after
+     * the other when the progress of the search is listened to, so that the listener sees every shard result it was notified of in
+     * the following partial reduce.
+     */
+    public QueryPhaseResultConsumer(
+        SearchRequest request,
+        Executor executor,
+        CircuitBreaker circuitBreaker,
+        SearchPhaseController controller,
+        Supplier<Boolean> isCanceled,
+        SearchProgressListener progressListener,
+        int expectedResultSize,
+        Consumer<Exception> onPartialMergeFailure,
+        Executor reduceExecutor,
+        int maxConcurrentReduces,
+        @Nullable SearchResponseMetrics searchResponseMetrics
     ) {
         super(expectedResultSize);
+        assert maxConcurrentReduces >= 1 : maxConcurrentReduces;
         this.executor = executor;
+        this.reduceExecutor = reduceExecutor;
+        this.maxConcurrentReduces = progressListener == SearchProgressListener.NOOP ? maxConcurrentReduces : 1;
+        this.searchResponseMetrics = searchResponseMetrics;
         this.circuitBreaker = circuitBreaker;
         this.progressListener = progressListener;
         this.topNSize = getTopDocsSize(request);
@@ -202,6 +252,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         if (f != null) {
             throw f;
         }
+        final long startNanos = System.nanoTime();
         List<QuerySearchResult> buffer;
         synchronized (this) {
             // final reduce, we're done with the buffer so we just null it out and continue with a local variable to
@@ -286,6 +337,9 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             addWithoutBreaking(finalSize);
             logger.trace("aggs final reduction [{}] max [{}]", aggsCurrentBufferSize, maxAggsCurrentBufferSize);
         }
+        if (searchResponseMetrics != null) {
+            searchResponseMetrics.recordFinalReduceTime(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        }
         if (progressListener != SearchProgressListener.NOOP) {
             progressListener.notifyFinalReduce(
                 SearchProgressListener.buildSearchShards(results.asList()),
@@ -338,6 +392,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         MergeResult lastMerge,
         int numReducePhases
     ) {
+        final long startNanos = System.nanoTime();
         // ensure consistent ordering
         toConsume.sort(RESULT_COMPARATOR);
 
@@ -389,12 +444,55 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         }
         // we leave the results un-serialized because serializing is slow but we compute the serialized
         // size as an estimate of the memory used by the newly reduced aggregations.
-        return new MergeResult(
+        final MergeResult result = new MergeResult(
+            processedShards,
+            newTopDocs,
+            newAggs == null ? null : DelayableWriteable.referencing(newAggs),
+            newAggs != null ? DelayableWriteable.getSerializedSize(newAggs) : 0
+        );
+        recordPartialReduceTime(startNanos);
+        return result;
+    }
+
+    /**
+     * Merges the results of two partial reduces into one, when partial reduces run concurrently.
+     */
+    private MergeResult mergePartialResults(MergeResult first, MergeResult second) {
+        final long startNanos = System.nanoTime();
+        final List<SearchShard> processedShards = new ArrayList<>(first.processedShards.size() + second.processedShards.size());
+        processedShards.addAll(first.processedShards);
+        processedShards.addAll(second.processedShards);
+        final TopDocs newTopDocs;
+        if (hasTopDocs) {
+            final List<TopDocs> topDocsList = new ArrayList<>(2);
+            addTopDocsToList(first, topDocsList);
+            addTopDocsToList(second, topDocsList);
+            newTopDocs = mergeTopDocs(topDocsList, topNSize, 0);
+        } else {
+            newTopDocs = null;
+        }
+        final InternalAggregations newAggs = hasAggs
+            ? aggregate(
+                Collections.emptyIterator(),
+                Iterators.concat(Iterators.single(first.reducedAggs), Iterators.single(second.reducedAggs)),
+                2,
+                aggReduceContextBuilder.forPartialReduction()
+            )
+            : null;
+        final MergeResult result = new MergeResult(
             processedShards,
             newTopDocs,
             newAggs == null ? null : DelayableWriteable.referencing(newAggs),
             newAggs != null ? DelayableWriteable.getSerializedSize(newAggs) : 0
         );
+        recordPartialReduceTime(startNanos);
+        return result;
+    }
+
+    private void recordPartialReduceTime(long startNanos) {
+        if (searchResponseMetrics != null) {
+            searchResponseMetrics.recordPartialReduceTime(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        }
     }
 
     private static InternalAggregations aggregate(
@@ -429,7 +527,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
     }
 
     private boolean hasPendingMerges() {
-        return queue.isEmpty() == false || runningTask.get() != null;
+        return queue.isEmpty() == false || runningTask.get() != null || runningReduces > 0;
     }
 
     private synchronized void addWithoutBreaking(long size) {
@@ -562,6 +660,10 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
 
     private void tryExecuteNext() {
         assert Thread.holdsLock(this);
+        if (maxConcurrentReduces > 1) {
+            tryExecuteNextConcurrently();
+            return;
+        }
         final MergeTask task;
         if (hasFailure() || runningTask.get() != null) {
             return;
@@ -639,6 +741,145 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         });
     }
 
+    private void tryExecuteNextConcurrently() {
+        assert Thread.holdsLock(this);
+        while (hasFailure() == false && runningReduces < maxConcurrentReduces) {
+            final MergeTask task = queue.poll();
+            if (task == null) {
+                return;
+            }
+            runningReduces++;
+            reduceExecutor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    reduceConcurrently(task);
+                }
+
+                @Override
+                public void onFailure(Exception exc) {
+                    onMergeFailure(exc);
+                }
+
+                @Override
+                public void onAfter() {
+                    // releases the shard results if the task failed or was rejected before consuming them
+                    releaseAggs(task.consumeBuffer());
+                    Runnable next = task.consumeListener();
+                    synchronized (QueryPhaseResultConsumer.this) {
+                        runningReduces--;
+                        tryExecuteNext();
+                    }
+                    if (next != null) {
+                        next.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reduces the buffer of the provided task on its own, then merges the result with the result of the other partial reduces until
+     * no other result is left, in which case it becomes the {@link #mergeResult}.
+     */
+    private void reduceConcurrently(MergeTask task) {
+        final List<QuerySearchResult> toConsume = task.consumeBuffer();
+        if (toConsume == null) {
+            // cancelled
+            return;
+        }
+        // the top docs stats are shared by all partial reduces, so they are only updated under the lock
+        final TopDocsStats batchTopDocsStats = new TopDocsStats(topDocsStats.trackTotalHitsUpTo);
+        long estimatedTotalSize = task.aggsBufferSize;
+        MergeResult newMerge;
+        try {
+            long estimatedMergeSize = estimateRamBytesUsedForReduce(estimatedTotalSize);
+            if (addEstimateUnlessFailed(estimatedMergeSize) == false) {
+                QueryPhaseResultConsumer.releaseAggs(toConsume);
+                return;
+            }
+            estimatedTotalSize += estimatedMergeSize;
+            newMerge = partialReduce(toConsume, task.emptyResults, batchTopDocsStats, null, nextReducePhase());
+        } catch (Exception t) {
+            QueryPhaseResultConsumer.releaseAggs(toConsume);
+            onMergeFailure(t);
+            return;
+        }
+        synchronized (this) {
+            if (hasFailure()) {
+                Releasables.close(newMerge.reducedAggs);
+                return;
+            }
+            topDocsStats.add(batchTopDocsStats);
+            // Update the circuit breaker to remove the size of the source aggregations
+            // and replace the estimation with the serialized size of the newly reduced result.
+            addWithoutBreaking(newMerge.estimatedSize - estimatedTotalSize);
+        }
+        while (true) {
+            final MergeResult other;
+            synchronized (this) {
+                if (hasFailure()) {
+                    Releasables.close(newMerge.reducedAggs);
+                    return;
+                }
+                if (mergeResult == null) {
+                    mergeResult = newMerge;
+                    return;
+                }
+                // another partial reduce completed, merge with its result
+                other = mergeResult;
+                mergeResult = null;
+            }
+            estimatedTotalSize = other.estimatedSize + newMerge.estimatedSize;
+            try {
+                long estimatedMergeSize = estimateRamBytesUsedForReduce(estimatedTotalSize);
+                if (addEstimateUnlessFailed(estimatedMergeSize) == false) {
+                    Releasables.close(other.reducedAggs, newMerge.reducedAggs);
+                    return;
+                }
+                estimatedTotalSize += estimatedMergeSize;
+                nextReducePhase();
+            } catch (Exception t) {
+                Releasables.close(other.reducedAggs, newMerge.reducedAggs);
+                onMergeFailure(t);
+                return;
+            }
+            try {
+                // releases the aggregations of both results
+                newMerge = mergePartialResults(other, newMerge);
+            } catch (Exception t) {
+                onMergeFailure(t);
+                return;
+            }
+            synchronized (this) {
+                if (hasFailure()) {
+                    Releasables.close(newMerge.reducedAggs);
+                    return;
+                }
+                addWithoutBreaking(newMerge.estimatedSize - estimatedTotalSize);
+                if (logger.isTraceEnabled()) {
+                    logger.trace(
+                        "aggs partial merge [{}->{}] max [{}]",
+                        estimatedTotalSize,
+                        newMerge.estimatedSize,
+                        maxAggsCurrentBufferSize
+                    );
+                }
+            }
+        }
+    }
+
+    private synchronized boolean addEstimateUnlessFailed(long estimatedSize) {
+        if (hasFailure()) {
+            return false;
+        }
+        addEstimateAndMaybeBreak(estimatedSize);
+        return true;
+    }
+
+    private synchronized int nextReducePhase() {
+        return ++numReducePhases;
+    }
+
     private static void releaseAggs(List<QuerySearchResult> toConsume) {
         if (toConsume != null) {
             for (QuerySearchResult result : toConsume) {
@@ -13,6 +13,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DelegatingActionListener;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.transport.Transport;
 
@@ -21,8 +22,9 @@ import java.util.function.BiFunction;
 
 /**
  * A wrapper of search action listeners (search results) that unwraps the query
- * result to get the piggybacked queue size and service time EWMA, adding those
- * values to the coordinating nodes' {@link ResponseCollectorService}.
+ * result to get the piggybacked queue size, service time EWMA and pending merges,
+ * adding those values to the coordinating nodes' {@link ResponseCollectorService}.
+ * The response time of fetch results is recorded as well.
  */
 public final class SearchExecutionStatsCollector extends DelegatingActionListener<SearchPhaseResult, SearchPhaseResult> {
 
@@ -57,8 +59,10 @@ public final class SearchExecutionStatsCollector extends DelegatingActionListene
             final long responseDuration = System.nanoTime() - startNanos;
             // EWMA/queue size may be -1 if the query node doesn't support capturing it
             if (serviceTimeEWMA > 0 && queueSize >= 0) {
-                collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA);
+                collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA, queryResult.nodePendingMerges());
             }
+        } else if (nodeId != null && response instanceof FetchSearchResult) {
+            collector.addFetchStatistics(nodeId, System.nanoTime() - startNanos);
         }
         delegate.onResponse(response);
     }
@@ -30,6 +30,7 @@ import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.lucene.grouping.TopFieldGroups;
+import org.elasticsearch.rest.action.search.SearchResponseMetrics;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
@@ -668,6 +669,36 @@ public final class SearchPhaseController {
         SearchRequest request,
         int numShards,
         Consumer<Exception> onPartialMergeFailure
+    ) {
+        return newSearchPhaseResults(
+            executor,
+            circuitBreaker,
+            isCanceled,
+            listener,
+            request,
+            numShards,
+            onPartialMergeFailure,
+            executor,
+            1,
+            null
+        );
+    }
+
+    /**
+     * Returns a new {@link QueryPhaseResultConsumer} instance that reduces search responses incrementally, with up to
+     * {@code maxConcurrentReduces} partial reduces running concurrently on the {@code reduceExecutor}.
+     */
+    SearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(
+        Executor executor,
+        CircuitBreaker circuitBreaker,
+        Supplier<Boolean> isCanceled,
+        SearchProgressListener listener,
+        SearchRequest request,
+        int numShards,
+        Consumer<Exception> onPartialMergeFailure,
+        Executor reduceExecutor,
+        int maxConcurrentReduces,
+        @Nullable SearchResponseMetrics searchResponseMetrics
     ) {
         final int size = request.source() == null || request.source().size() == -1 ? SearchService.DEFAULT_SIZE : request.source().size();
         // Use CountOnlyQueryPhaseResultConsumer for requests without aggs, suggest, etc. things only wanting a total count and
@@ -690,7 +721,10 @@ public final class SearchPhaseController {
             isCanceled,
             listener,
             numShards,
-            onPartialMergeFailure
+            onPartialMergeFailure,
+            reduceExecutor,
+            maxConcurrentReduces,
+            searchResponseMetrics
         );
     }
 
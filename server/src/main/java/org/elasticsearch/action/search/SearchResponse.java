@@ -29,6 +29,7 @@ import org.elasticsearch.core.SimpleRefCounted;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.rest.action.RestActions;
+import org.elasticsearch.rest.action.search.RestSearchAction;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.profile.SearchProfileResults;
@@ -398,11 +399,13 @@ public class SearchResponse extends ActionResponse implements ChunkedToXContentO
     }
 
     private Iterator<ToXContent> getToXContentIterator(boolean wrapInObject, ToXContent.Params params) {
+        // only a top-level response is serialized by its final consumer, embedded ones may be rendered more than once
+        final boolean releaseHitsOnWrite = wrapInObject && params.paramAsBoolean(RestSearchAction.STREAM_HITS_PARAM, false);
         return Iterators.concat(
             wrapInObject ? ChunkedToXContentHelper.startObject() : Collections.emptyIterator(),
             ChunkedToXContentHelper.chunk(SearchResponse.this::headerToXContent),
             Iterators.single(clusters),
-            hits.toXContentChunked(params),
+            releaseHitsOnWrite ? hits.toXContentChunkedReleasingHits(params) : hits.toXContentChunked(params),
             aggregations == null ? Collections.emptyIterator() : ChunkedToXContentHelper.chunk(aggregations),
             suggest == null ? Collections.emptyIterator() : ChunkedToXContentHelper.chunk(suggest),
             profileResults == null ? Collections.emptyIterator() : ChunkedToXContentHelper.chunk(profileResults),
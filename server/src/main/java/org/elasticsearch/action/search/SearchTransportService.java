@@ -288,13 +288,13 @@ public class SearchTransportService {
         SearchTask task,
         final ActionListener<FetchSearchResult> listener
     ) {
-        transportService.sendChildRequest(
-            connection,
-            action,
-            request,
-            task,
-            new ConnectionCountingHandler<>(listener, FetchSearchResult::new, connection)
-        );
+        // fetch responses go through the response wrapper too, so that adaptive replica selection learns the fetch latency of each node
+        final ActionListener<SearchPhaseResult> fetchListener = listener.map(response -> (FetchSearchResult) response);
+        final ActionListener<? super SearchPhaseResult> handler = responseWrapper == null
+            ? fetchListener
+            : responseWrapper.apply(connection, fetchListener);
+        final Writeable.Reader<SearchPhaseResult> reader = FetchSearchResult::new;
+        transportService.sendChildRequest(connection, action, request, task, new ConnectionCountingHandler<>(handler, reader, connection));
     }
 
     /**
@@ -141,6 +141,19 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    /**
+     * The maximum number of partial reduces of a search that run concurrently on the coordinating node. Partial reduces run one
+     * after the other on the executor of the search by default, and on the {@link ThreadPool.Names#SEARCH_REDUCE} executor when more
+     * than one is allowed.
+     */
+    public static final Setting<Integer> PARTIAL_REDUCE_MAX_CONCURRENCY_SETTING = Setting.intSetting(
+        "action.search.partial_reduce.max_concurrency",
+        1,
+        1,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final Setting<Integer> DEFAULT_PRE_FILTER_SHARD_SIZE = Setting.intSetting(
         "action.search.pre_filter_shard_size.default",
         SearchRequest.DEFAULT_PRE_FILTER_SHARD_SIZE,
@@ -1524,7 +1537,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 task.getProgressListener(),
                 searchRequest,
                 shardIterators.size(),
-                exc -> searchTransportService.cancelSearchTask(task, "failed to merge result [" + exc.getMessage() + "]")
+                exc -> searchTransportService.cancelSearchTask(task, "failed to merge result [" + exc.getMessage() + "]"),
+                threadPool.executor(ThreadPool.Names.SEARCH_REDUCE),
+                clusterService.getClusterSettings().get(PARTIAL_REDUCE_MAX_CONCURRENCY_SETTING),
+                searchResponseMetrics
             );
             boolean success = false;
             try {
@@ -43,6 +43,19 @@ public interface CircuitBreaker {
      * writing requests on the network layer.
      */
     String IN_FLIGHT_REQUESTS = "inflight_requests";
+    /**
+     * The query cache breaker tracks the memory used by the node level query
+     * cache. Its limit is the size of the cache, which evicts entries before
+     * reaching it, so it only makes the cache visible to the parent breaker.
+     */
+    String QUERY_CACHE = "query_cache";
+    /**
+     * The request cache hits breaker tracks the memory used by the entries of
+     * the shard request cache that hold the top hits of a search, rather than
+     * only aggregations or hit counts. Entries that would trip it are not
+     * kept in the cache.
+     */
+    String REQUEST_CACHE_HITS = "request_cache_hits";
 
     enum Type {
         // A regular or ChildMemoryCircuitBreaker
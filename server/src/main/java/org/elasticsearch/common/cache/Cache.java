@@ -18,6 +18,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -51,6 +53,12 @@ import java.util.function.ToLongBiFunction;
  * <li>Locks on the list could be taken per node being modified instead of globally.</li>
  * </ol>
  * <p>
+ * The first two of these are available through {@link CacheBuilder#setBufferedPromotions(boolean)}. In that mode a cache hit never
+ * blocks on the LRU lock: the promotion of an existing entry is recorded in one of several striped, bounded read buffers and the
+ * buffers are drained into the LRU list by whichever thread next manages to acquire the lock without waiting. If a read buffer is
+ * full the promotion is dropped, so the LRU order becomes an approximation that favours frequently accessed entries. Insertions,
+ * invalidations and evictions still take the LRU lock and drain the read buffers before any eviction decision is made.
+ * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
  *
@@ -65,6 +73,8 @@ public class Cache<K, V> {
 
     private final LongAdder evictions = new LongAdder();
 
+    private final LongAdder droppedPromotions = new LongAdder();
+
     // positive if entries have an expiration
     private long expireAfterAccessNanos = -1;
 
@@ -92,6 +102,9 @@ public class Cache<K, V> {
     // the removal callback
     private RemovalListener<K, V> removalListener = notification -> {};
 
+    // non-null if promotions of existing entries are recorded in read buffers instead of being applied under the LRU lock
+    private ReadBuffer<Entry<K, V>>[] readBuffers;
+
     // use CacheBuilder to construct
     Cache() {}
 
@@ -138,6 +151,23 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    @SuppressWarnings("unchecked")
+    void setBufferedPromotions(boolean bufferedPromotions) {
+        if (bufferedPromotions) {
+            readBuffers = (ReadBuffer<Entry<K, V>>[]) new ReadBuffer<?>[NUMBER_OF_READ_BUFFERS];
+            for (int i = 0; i < readBuffers.length; i++) {
+                readBuffers[i] = new ReadBuffer<>();
+            }
+        } else {
+            readBuffers = null;
+        }
+    }
+
+    // pkg-private for testing
+    boolean hasBufferedPromotions() {
+        return readBuffers != null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -747,18 +777,24 @@ public class Cache<K, V> {
      * @return the current cache statistics
      */
     public CacheStats stats() {
-        return new CacheStats(this.hits.sum(), misses.sum(), evictions.sum());
+        return new CacheStats(this.hits.sum(), misses.sum(), evictions.sum(), droppedPromotions.sum());
     }
 
     public static class CacheStats {
         private final long hits;
         private final long misses;
         private final long evictions;
+        private final long droppedPromotions;
 
         public CacheStats(long hits, long misses, long evictions) {
+            this(hits, misses, evictions, 0);
+        }
+
+        public CacheStats(long hits, long misses, long evictions, long droppedPromotions) {
             this.hits = hits;
             this.misses = misses;
             this.evictions = evictions;
+            this.droppedPromotions = droppedPromotions;
         }
 
         public long getHits() {
@@ -772,9 +808,30 @@ public class Cache<K, V> {
         public long getEvictions() {
             return evictions;
         }
+
+        /**
+         * The number of promotions that were not applied to the LRU list because the read buffers were full. This is always zero
+         * unless the cache was built with {@link CacheBuilder#setBufferedPromotions(boolean)}.
+         */
+        public long getDroppedPromotions() {
+            return droppedPromotions;
+        }
+
+        /**
+         * The ratio of hits to lookups, or {@code 0} if there were no lookups at all.
+         */
+        public double getHitRatio() {
+            final long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
     }
 
     private void promote(Entry<K, V> entry, long now) {
+        final ReadBuffer<Entry<K, V>>[] buffers = readBuffers;
+        if (buffers != null && entry.state == State.EXISTING && lruLock.isHeldByCurrentThread() == false) {
+            recordPromotion(buffers, entry, now);
+            return;
+        }
         boolean promoted = true;
         lruLock.lock();
         try {
@@ -791,9 +848,99 @@ public class Cache<K, V> {
         }
     }
 
+    /**
+     * Records the promotion of an existing entry in the read buffer of the current thread's stripe without blocking. The read buffers
+     * are drained into the LRU list if the buffer is at least half full and the LRU lock is not held by another thread.
+     */
+    private void recordPromotion(ReadBuffer<Entry<K, V>>[] buffers, Entry<K, V> entry, long now) {
+        final ReadBuffer<Entry<K, V>> buffer = buffers[readBufferIndex()];
+        final boolean recorded = buffer.offer(entry);
+        if (recorded == false) {
+            droppedPromotions.increment();
+        }
+        if ((recorded == false || buffer.size() >= ReadBuffer.DRAIN_THRESHOLD) && lruLock.tryLock()) {
+            try {
+                evict(now);
+            } finally {
+                lruLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        final ReadBuffer<Entry<K, V>>[] buffers = readBuffers;
+        if (buffers != null) {
+            for (ReadBuffer<Entry<K, V>> buffer : buffers) {
+                buffer.drain(entry -> {
+                    if (entry.state == State.EXISTING) {
+                        relinkAtHead(entry);
+                    }
+                });
+            }
+        }
+    }
+
+    private static int readBufferIndex() {
+        final long threadId = Thread.currentThread().getId();
+        return (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9 >>> 16 & (NUMBER_OF_READ_BUFFERS - 1);
+    }
+
+    static final int NUMBER_OF_READ_BUFFERS = 16;
+
+    /**
+     * A bounded, lossy, multiple-producer single-consumer ring buffer of entries awaiting promotion. Producers never block; if the
+     * buffer is full or another producer wins the race for the slot the offer is rejected. The buffer is only drained while holding
+     * the LRU lock.
+     */
+    static final class ReadBuffer<E> {
+        static final int SIZE = 32;
+        static final int DRAIN_THRESHOLD = SIZE / 2;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(E e) {
+            final long head = readCounter;
+            final long tail = writeCounter.get();
+            if (tail - head >= SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & MASK), e);
+                return true;
+            }
+            return false;
+        }
+
+        int size() {
+            return (int) (writeCounter.get() - readCounter);
+        }
+
+        void drain(Consumer<E> consumer) {
+            long head = readCounter;
+            final long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                final int index = (int) (head & MASK);
+                final E e = buffer.get(index);
+                if (e == null) {
+                    // the producer that claimed this slot has not published its element yet, we will pick it up on the next drain
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(e);
+            }
+            readCounter = head;
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
+        drainReadBuffers();
         while (tail != null && shouldPrune(tail, now)) {
             evictEntry(tail);
         }
@@ -20,6 +20,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean bufferedPromotions;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -79,6 +80,18 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether cache hits record the promotion of the entry in a striped read buffer instead of applying it to the LRU list
+     * under the global LRU lock. Buffered promotions are applied in batches and may be dropped under heavy contention, which trades
+     * exact LRU ordering for hits that never block on the LRU lock.
+     *
+     * @param bufferedPromotions whether promotions of existing entries should be buffered
+     */
+    public CacheBuilder<K, V> setBufferedPromotions(boolean bufferedPromotions) {
+        this.bufferedPromotions = bufferedPromotions;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -96,6 +109,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (bufferedPromotions) {
+            cache.setBufferedPromotions(true);
+        }
         return cache;
     }
 }
@@ -17,6 +17,7 @@ import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.subphase.LookupField;
 import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
 
 import java.io.IOException;
@@ -137,30 +138,42 @@ public class DocumentField implements Writeable, Iterable<Object> {
     }
 
     public ToXContentFragment getValidValuesWriter() {
-        return (builder, params) -> {
-            builder.startArray(name);
-            for (Object value : values) {
-                try {
-                    builder.value(value);
-                } catch (RuntimeException e) {
-                    // if the value cannot be serialized, we catch here and return a placeholder value
-                    builder.value("<unserializable>");
-                }
-            }
-            builder.endArray();
-            return builder;
-        };
+        return (builder, params) -> validValuesToXContent(builder);
     }
 
-    public ToXContentFragment getIgnoredValuesWriter() {
-        return (builder, params) -> {
-            builder.startArray(name);
-            for (Object value : ignoredValues) {
+    /**
+     * Writes the valid values of this field as an array, without allocating a {@link ToXContentFragment} like
+     * {@link #getValidValuesWriter()}.
+     */
+    public XContentBuilder validValuesToXContent(XContentBuilder builder) throws IOException {
+        builder.startArray(name);
+        for (Object value : values) {
+            try {
                 builder.value(value);
+            } catch (RuntimeException e) {
+                // if the value cannot be serialized, we catch here and return a placeholder value
+                builder.value("<unserializable>");
             }
-            builder.endArray();
-            return builder;
-        };
+        }
+        builder.endArray();
+        return builder;
+    }
+
+    public ToXContentFragment getIgnoredValuesWriter() {
+        return (builder, params) -> ignoredValuesToXContent(builder);
+    }
+
+    /**
+     * Writes the ignored values of this field as an array, without allocating a {@link ToXContentFragment} like
+     * {@link #getIgnoredValuesWriter()}.
+     */
+    public XContentBuilder ignoredValuesToXContent(XContentBuilder builder) throws IOException {
+        builder.startArray(name);
+        for (Object value : ignoredValues) {
+            builder.value(value);
+        }
+        builder.endArray();
+        return builder;
     }
 
     public static DocumentField fromXContent(XContentParser parser) throws IOException {
@@ -561,7 +561,7 @@ public class XContentHelper {
 
     /**
      * Writes a "raw" (bytes) field, handling cases where the bytes are compressed, and tries to optimize writing using
-     * {@link XContentBuilder#rawField(String, InputStream)}.
+     * {@link XContentBuilder#rawFieldIfDirect} or {@link XContentBuilder#rawField(String, InputStream)}.
      * @deprecated use {@link #writeRawField(String, BytesReference, XContentType, XContentBuilder, Params)} to avoid content type
      * auto-detection
      */
@@ -574,6 +574,11 @@ public class XContentHelper {
                 builder.rawField(field, compressedStreamInput);
             }
         } else {
+            // copy the pages of the source straight to the output rather than through a stream when the source is written as is
+            XContentType xContentType = xContentType(source);
+            if (xContentType != null && builder.rawFieldIfDirect(field, xContentType, source::writeTo)) {
+                return;
+            }
             try (InputStream stream = source.streamInput()) {
                 builder.rawField(field, stream);
             }
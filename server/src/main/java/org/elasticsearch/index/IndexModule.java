@@ -55,6 +55,7 @@ import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
+import org.elasticsearch.index.translog.TranslogGroupCommitService;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -476,6 +477,7 @@ public final class IndexModule {
         BigArrays bigArrays,
         ThreadPool threadPool,
         ThreadPoolMergeExecutorService threadPoolMergeExecutorService,
+        TranslogGroupCommitService translogGroupCommitService,
         ScriptService scriptService,
         ClusterService clusterService,
         Client client,
@@ -530,6 +532,7 @@ public final class IndexModule {
                 bigArrays,
                 threadPool,
                 threadPoolMergeExecutorService,
+                translogGroupCommitService,
                 scriptService,
                 clusterService,
                 client,
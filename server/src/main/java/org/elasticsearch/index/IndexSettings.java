@@ -301,6 +301,28 @@ public final class IndexSettings {
         return DEFAULT_REFRESH_INTERVAL;
     }, new RefreshIntervalValidator(), Property.Dynamic, Property.IndexScope, Property.ServerlessPublic);
 
+    /**
+     * Whether scheduled refreshes of the shards of this index adapt their interval to the load of each shard. The interval stays between
+     * {@link #INDEX_REFRESH_INTERVAL_SETTING} and {@link #INDEX_ADAPTIVE_REFRESH_MAX_INTERVAL_SETTING}.
+     */
+    public static final Setting<Boolean> INDEX_ADAPTIVE_REFRESH_ENABLED_SETTING = Setting.boolSetting(
+        "index.adaptive_refresh.enabled",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
+    /**
+     * The longest interval between scheduled refreshes that the adaptive refresh may pick for a shard that is indexed into.
+     */
+    public static final Setting<TimeValue> INDEX_ADAPTIVE_REFRESH_MAX_INTERVAL_SETTING = Setting.timeSetting(
+        "index.adaptive_refresh.max_interval",
+        TimeValue.timeValueSeconds(30),
+        TimeValue.timeValueMillis(1),
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     static class RefreshIntervalValidator implements Setting.Validator<TimeValue> {
 
         static final String STATELESS_ALLOW_INDEX_REFRESH_INTERVAL_OVERRIDE = "es.stateless.allow.index.refresh_interval.override";
@@ -415,6 +437,28 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * Whether snapshots of translog generations that are no longer written to, as used by peer recoveries and changes snapshots, read
+     * their operations straight out of a memory mapping of the generation instead of copying them into heap buffers first. The
+     * generation that is currently written to is always read through its file channel.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_MAPPED_READS_SETTING = Setting.boolSetting(
+        "index.translog.mapped_reads",
+        false,
+        Property.IndexScope
+    );
+
+    /**
+     * Whether the documents of the index requests of a shard level bulk request are parsed in parallel on the write thread pool before
+     * the requests are applied to the shard one after the other.
+     */
+    public static final Setting<Boolean> INDEX_BULK_PARALLEL_PARSING_SETTING = Setting.boolSetting(
+        "index.bulk.parallel_parsing.enabled",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     /**
      * Index setting to enable / disable deletes garbage collection.
      * This setting is realtime updateable
@@ -856,6 +900,8 @@ public final class IndexSettings {
     private volatile Translog.Durability durability;
     private volatile TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
+    private volatile boolean adaptiveRefreshEnabled;
+    private volatile TimeValue adaptiveRefreshMaxInterval;
     private final boolean fastRefresh;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile TimeValue flushThresholdAge;
@@ -1040,6 +1086,8 @@ public final class IndexSettings {
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
+        adaptiveRefreshEnabled = scopedSettings.get(INDEX_ADAPTIVE_REFRESH_ENABLED_SETTING);
+        adaptiveRefreshMaxInterval = scopedSettings.get(INDEX_ADAPTIVE_REFRESH_MAX_INTERVAL_SETTING);
         fastRefresh = scopedSettings.get(INDEX_FAST_REFRESH_SETTING);
         if (fastRefresh) {
             if (DiscoveryNode.isStateless(nodeSettings) == false) {
@@ -1179,6 +1227,8 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING, this::setFlushAfterMergeThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING, this::setGenerationThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_ADAPTIVE_REFRESH_ENABLED_SETTING, this::setAdaptiveRefreshEnabled);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_ADAPTIVE_REFRESH_MAX_INTERVAL_SETTING, this::setAdaptiveRefreshMaxInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(WEIGHT_MATCHES_MODE_ENABLED_SETTING, this::setWeightMatchesEnabled);
@@ -1237,6 +1287,14 @@ public final class IndexSettings {
         this.refreshInterval = timeValue;
     }
 
+    private void setAdaptiveRefreshEnabled(boolean adaptiveRefreshEnabled) {
+        this.adaptiveRefreshEnabled = adaptiveRefreshEnabled;
+    }
+
+    private void setAdaptiveRefreshMaxInterval(TimeValue adaptiveRefreshMaxInterval) {
+        this.adaptiveRefreshMaxInterval = adaptiveRefreshMaxInterval;
+    }
+
     /**
      * Returns the settings for this index. These settings contain the node and index level settings where
      * settings that are specified on both index and node level are overwritten by the index settings.
@@ -1428,6 +1486,21 @@ public final class IndexSettings {
         return refreshInterval;
     }
 
+    /**
+     * Returns whether the interval between scheduled refreshes adapts to the load of each shard, see
+     * {@link #INDEX_ADAPTIVE_REFRESH_ENABLED_SETTING}.
+     */
+    public boolean isAdaptiveRefreshEnabled() {
+        return adaptiveRefreshEnabled;
+    }
+
+    /**
+     * Returns the upper bound of the adaptive refresh interval, the lower bound is the {@link #getRefreshInterval() refresh interval}.
+     */
+    public TimeValue getAdaptiveRefreshMaxInterval() {
+        return adaptiveRefreshMaxInterval;
+    }
+
     /**
      * Only intended for stateless.
      */
@@ -11,11 +11,15 @@ package org.elasticsearch.index;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.FieldDataContext;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.PrecomputedIndexFieldData;
+import org.elasticsearch.index.fielddata.projection.AggregateProjection;
+import org.elasticsearch.index.fielddata.sketch.CardinalitySketches;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.shard.IndexShard;
@@ -27,9 +31,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public final class IndexWarmer {
 
@@ -41,6 +47,7 @@ public final class IndexWarmer {
         ArrayList<Listener> list = new ArrayList<>();
         final Executor executor = threadPool.executor(ThreadPool.Names.WARMER);
         list.add(new FieldDataWarmer(executor, indexFieldDataService));
+        list.add(new PrecomputedFieldDataWarmer(executor, indexFieldDataService));
 
         Collections.addAll(list, listeners);
         this.listeners = Collections.unmodifiableList(list);
@@ -149,4 +156,69 @@ public final class IndexWarmer {
         }
     }
 
+    /**
+     * Computes the {@link PrecomputedIndexFieldData} of the segments of a new reader, that is the {@link AggregateProjection} and
+     * the {@link CardinalitySketches} of the index, so that searches don't have to.
+     */
+    private static class PrecomputedFieldDataWarmer implements IndexWarmer.Listener {
+
+        private final Executor executor;
+        private final IndexFieldDataService indexFieldDataService;
+
+        PrecomputedFieldDataWarmer(Executor executor, IndexFieldDataService indexFieldDataService) {
+            this.executor = executor;
+            this.indexFieldDataService = indexFieldDataService;
+        }
+
+        @Override
+        public TerminationHandle warmReader(final IndexShard indexShard, final ElasticsearchDirectoryReader reader) {
+            final FieldDataContext fieldDataContext = FieldDataContext.noRuntimeFields("index warming");
+            final Function<String, MappedFieldType> fieldTypes = indexShard.mapperService()::fieldType;
+            final Function<MappedFieldType, IndexFieldData<?>> fieldData = ft -> indexFieldDataService.getForField(ft, fieldDataContext);
+            final List<MappedFieldType> precomputedFieldTypes = new ArrayList<>();
+            final AggregateProjection projection = AggregateProjection.fromSettings(indexShard.indexSettings());
+            if (projection != null) {
+                precomputedFieldTypes.add(projection.fieldType(fieldTypes, fieldData));
+            }
+            final CardinalitySketches sketches = CardinalitySketches.fromSettings(indexShard.indexSettings());
+            if (sketches != null) {
+                for (String field : sketches.fields()) {
+                    precomputedFieldTypes.add(sketches.fieldType(field, fieldTypes, fieldData));
+                }
+            }
+            precomputedFieldTypes.removeIf(Objects::isNull);
+            if (precomputedFieldTypes.isEmpty()) {
+                return TerminationHandle.NO_WAIT;
+            }
+            final CountDownLatch latch = new CountDownLatch(precomputedFieldTypes.size() * reader.leaves().size());
+            for (final MappedFieldType fieldType : precomputedFieldTypes) {
+                final IndexFieldData<?> precomputed = fieldData.apply(fieldType);
+                for (final LeafReaderContext context : reader.leaves()) {
+                    executor.execute(() -> {
+                        try {
+                            final long start = System.nanoTime();
+                            precomputed.load(context);
+                            if (indexShard.warmerService().logger().isTraceEnabled()) {
+                                indexShard.warmerService()
+                                    .logger()
+                                    .trace(
+                                        "warmed [{}] of [{}], took [{}]",
+                                        fieldType.name(),
+                                        context.reader(),
+                                        TimeValue.timeValueNanos(System.nanoTime() - start)
+                                    );
+                            }
+                        } catch (Exception e) {
+                            indexShard.warmerService()
+                                .logger()
+                                .warn(() -> "failed to warm-up [" + fieldType.name() + "] of [" + context.reader() + "]", e);
+                        } finally {
+                            latch.countDown();
+                        }
+                    });
+                }
+            }
+            return () -> latch.await();
+        }
+    }
 }
@@ -9,6 +9,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -25,6 +26,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long offHeapMemorySize;
 
     public RequestCacheStats() {}
 
@@ -33,13 +35,21 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_OFF_HEAP_STATS)) {
+            offHeapMemorySize = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0);
+    }
+
+    public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount, long offHeapMemorySize) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.offHeapMemorySize = offHeapMemorySize;
     }
 
     public void add(RequestCacheStats stats) {
@@ -50,6 +60,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.offHeapMemorySize += stats.offHeapMemorySize;
     }
 
     public long getMemorySizeInBytes() {
@@ -72,12 +83,27 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The number of bytes of cached values held outside of the java heap, which is zero unless
+     * {@code indices.requests.cache.off_heap} is enabled. These bytes are not included in {@link #getMemorySizeInBytes()}.
+     */
+    public long getOffHeapMemorySizeInBytes() {
+        return this.offHeapMemorySize;
+    }
+
+    public ByteSizeValue getOffHeapMemorySize() {
+        return ByteSizeValue.ofBytes(offHeapMemorySize);
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_OFF_HEAP_STATS)) {
+            out.writeVLong(offHeapMemorySize);
+        }
     }
 
     @Override
@@ -85,18 +111,25 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RequestCacheStats that = (RequestCacheStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && hitCount == that.hitCount && missCount == that.missCount;
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && offHeapMemorySize == that.offHeapMemorySize;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, hitCount, missCount);
+        return Objects.hash(memorySize, evictions, hitCount, missCount, offHeapMemorySize);
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.REQUEST_CACHE_STATS);
         builder.humanReadableField(Fields.MEMORY_SIZE_IN_BYTES, Fields.MEMORY_SIZE, getMemorySize());
+        if (offHeapMemorySize > 0) {
+            builder.humanReadableField(Fields.OFF_HEAP_MEMORY_SIZE_IN_BYTES, Fields.OFF_HEAP_MEMORY_SIZE, getOffHeapMemorySize());
+        }
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
@@ -108,6 +141,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String REQUEST_CACHE_STATS = "request_cache";
         static final String MEMORY_SIZE = "memory_size";
         static final String MEMORY_SIZE_IN_BYTES = "memory_size_in_bytes";
+        static final String OFF_HEAP_MEMORY_SIZE = "off_heap_memory_size";
+        static final String OFF_HEAP_MEMORY_SIZE_IN_BYTES = "off_heap_memory_size_in_bytes";
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
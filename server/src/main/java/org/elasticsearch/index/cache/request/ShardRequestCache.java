@@ -22,9 +22,16 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric offHeapMetric = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            offHeapMetric.count()
+        );
     }
 
     public void onHit() {
@@ -36,10 +43,26 @@ public final class ShardRequestCache {
     }
 
     public void onCached(Accountable key, BytesReference value) {
+        onCached(key, value, 0);
+    }
+
+    /**
+     * @param offHeapBytes the number of bytes of the value that are held outside of the java heap
+     */
+    public void onCached(Accountable key, BytesReference value, long offHeapBytes) {
         totalMetric.inc(key.ramBytesUsed() + value.ramBytesUsed());
+        offHeapMetric.inc(offHeapBytes);
     }
 
     public void onRemoval(Accountable key, BytesReference value, boolean evicted) {
+        onRemoval(key, value, evicted, 0);
+    }
+
+    /**
+     * @param offHeapBytes the number of bytes of the value that were held outside of the java heap
+     */
+    public void onRemoval(Accountable key, BytesReference value, boolean evicted, long offHeapBytes) {
+        offHeapMetric.dec(offHeapBytes);
         if (evicted) {
             evictionsMetric.inc();
         }
@@ -122,6 +122,18 @@ public final class EngineConfig {
         }
     }, Property.IndexScope, Property.NodeScope, Property.ServerlessPublic);
 
+    /**
+     * Index setting to hold the versions of recently indexed documents in {@link StripedVersionHash}es and to lock document ids through
+     * the lock stripes of these hashes rather than through a keyed lock. This reduces the memory and allocations per indexing
+     * operation of update-heavy workloads at the cost of unrelated ids occasionally waiting for each other.
+     * This setting is <b>not</b> realtime updateable.
+     */
+    public static final Setting<Boolean> INDEX_STRIPED_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.striped_version_map",
+        false,
+        Property.IndexScope
+    );
+
     // don't convert to Setting<> and register... we only set this in tests and register via a test plugin
     public static final String USE_COMPOUND_FILE = "index.use_compound_file";
 
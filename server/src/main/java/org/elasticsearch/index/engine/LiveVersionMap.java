@@ -15,6 +15,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 
 import java.io.IOException;
@@ -22,10 +23,26 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
-/** Maps _uid value to its version information. */
+/**
+ * Maps _uid value to its version information.
+ * <p>
+ * By default versions are held in concurrent hash maps and each _uid is locked through a {@link KeyedLock}. If the map is created
+ * with {@code stripedHash} set, versions are instead held in {@link StripedVersionHash}es and the _uid locks are the lock stripes of
+ * these hashes, which avoids the per-operation allocations of both the lock and the map entries.
+ */
 public final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
-    private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+    /**
+     * The number of lock stripes if the map uses {@link StripedVersionHash}es. Operations on _uids that share a stripe wait for each
+     * other for as long as the engine holds the _uid lock, so this needs to be well above the number of concurrent writers.
+     */
+    static final int NUMBER_OF_LOCK_STRIPES = 512;
+
+    @Nullable // if the map uses striped locks
+    private final KeyedLock<BytesRef> keyedLock;
+
+    @Nullable // if the map uses concurrent hash maps and a keyed lock
+    private final StripedVersionHash.Locks stripedLocks;
 
     private final LiveVersionMapArchive archive;
 
@@ -34,7 +51,15 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
     }
 
     LiveVersionMap(LiveVersionMapArchive archive) {
+        this(archive, false);
+    }
+
+    LiveVersionMap(LiveVersionMapArchive archive, boolean stripedHash) {
         this.archive = archive;
+        this.keyedLock = stripedHash ? null : new KeyedLock<>();
+        this.stripedLocks = stripedHash ? new StripedVersionHash.Locks(NUMBER_OF_LOCK_STRIPES) : null;
+        this.maps = new Maps(stripedLocks);
+        this.unsafeKeysMap = new Maps(stripedLocks);
     }
 
     public static final class VersionLookup {
@@ -65,13 +90,15 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         // Modifies the map of this instance by merging with the given VersionLookup
         public void merge(VersionLookup versionLookup) {
-            long existingEntriesSize = 0;
+            // the entries are accounted for with the overhead of this map, which may differ from the overhead of the merged map
+            long ramAccounting = 0;
             for (var entry : versionLookup.map.entrySet()) {
                 var existingValue = map.get(entry.getKey());
-                existingEntriesSize += existingValue == null ? 0 : mapEntryBytesUsed(entry.getKey(), existingValue);
+                ramAccounting += entryBytesUsed(entry.getKey(), entry.getValue());
+                ramAccounting -= existingValue == null ? 0 : entryBytesUsed(entry.getKey(), existingValue);
+                map.put(entry.getKey(), entry.getValue());
             }
-            map.putAll(versionLookup.map);
-            adjustRamUsage(versionLookup.ramBytesUsed() - existingEntriesSize);
+            adjustRamUsage(ramAccounting);
             minDeleteTimestamp.accumulateAndGet(versionLookup.minDeleteTimestamp(), Math::min);
         }
 
@@ -85,9 +112,9 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         VersionValue put(BytesRef key, VersionValue value) {
-            long ramAccounting = mapEntryBytesUsed(key, value);
+            long ramAccounting = entryBytesUsed(key, value);
             VersionValue previousValue = map.put(key, value);
-            ramAccounting += previousValue == null ? 0 : -mapEntryBytesUsed(key, previousValue);
+            ramAccounting += previousValue == null ? 0 : -entryBytesUsed(key, previousValue);
             adjustRamUsage(ramAccounting);
             return previousValue;
         }
@@ -111,7 +138,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         VersionValue remove(BytesRef uid) {
             VersionValue previousValue = map.remove(uid);
             if (previousValue != null) {
-                adjustRamUsage(-mapEntryBytesUsed(uid, previousValue));
+                adjustRamUsage(-entryBytesUsed(uid, previousValue));
             }
             return previousValue;
         }
@@ -139,6 +166,10 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
             return (BASE_BYTES_PER_BYTESREF + key.bytes.length) + (BASE_BYTES_PER_CHM_ENTRY + value.ramBytesUsed());
         }
 
+        private long entryBytesUsed(BytesRef key, VersionValue value) {
+            return map instanceof StripedVersionHash ? StripedVersionHash.entryBytesUsed(key, value) : mapEntryBytesUsed(key, value);
+        }
+
         // Used only for testing
         Map<BytesRef, VersionValue> getMap() {
             return map;
@@ -158,14 +189,29 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        @Nullable
+        final StripedVersionHash.Locks stripedLocks;
+
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, StripedVersionHash.Locks stripedLocks) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.stripedLocks = stripedLocks;
+        }
+
+        Maps(@Nullable StripedVersionHash.Locks stripedLocks) {
+            this(newVersionLookup(stripedLocks, 0), VersionLookup.EMPTY, false, stripedLocks);
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        private static VersionLookup newVersionLookup(@Nullable StripedVersionHash.Locks stripedLocks, int expectedSize) {
+            if (stripedLocks != null) {
+                return new VersionLookup(new StripedVersionHash(stripedLocks));
+            }
+            return new VersionLookup(
+                expectedSize > 0
+                    ? ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize)
+                    : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()
+            );
         }
 
         boolean isSafeAccessMode() {
@@ -183,18 +229,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(newVersionLookup(stripedLocks, current.size()), current, shouldInheritSafeAccess(), stripedLocks);
         }
 
         /**
          * similar to `invalidateOldMap` but used only for the `unsafeKeysMap` used for assertions
          */
         Maps invalidateOldMapForAssert() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, stripedLocks);
         }
 
         /**
@@ -202,7 +244,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps invalidateOldMap(LiveVersionMapArchive archive) {
             archive.afterRefresh(old);
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, stripedLocks);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -231,10 +273,10 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap;
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -441,7 +483,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
             // we won't collect the tombstone below since it must be newer than this one.
             if (canRemoveTombstone(maxTimestampToPrune, maxSeqNoToPrune, entry.getValue())) {
                 final BytesRef uid = entry.getKey();
-                try (Releasable lock = keyedLock.tryAcquire(uid)) {
+                try (Releasable lock = stripedLocks == null ? keyedLock.tryAcquire(uid) : stripedLocks.tryAcquire(uid)) {
                     // we use tryAcquire here since this is a best effort and we try to be least disruptive
                     // this method is also called under lock in the engine under certain situations such that this can lead to deadlocks
                     // if we do use a blocking acquire. see #28714
@@ -463,7 +505,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(stripedLocks);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedForTombstones is non-zero after clear since the
@@ -533,13 +575,15 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * this lock to be hold by the caller otherwise the visibility guarantees of this version
      * map are broken. We assert on this lock to be hold when calling these methods.
      * @see KeyedLock
+     * @see StripedVersionHash.Locks
      */
     Releasable acquireLock(BytesRef uid) {
-        return keyedLock.acquire(uid);
+        return stripedLocks == null ? keyedLock.acquire(uid) : stripedLocks.acquire(uid);
     }
 
     boolean assertKeyedLockHeldByCurrentThread(BytesRef uid) {
-        assert keyedLock.isHeldByCurrentThread(uid) : "Thread [" + Thread.currentThread().getName() + "], uid [" + uid.utf8ToString() + "]";
+        assert stripedLocks == null ? keyedLock.isHeldByCurrentThread(uid) : stripedLocks.isHeldByCurrentThread(uid)
+            : "Thread [" + Thread.currentThread().getName() + "], uid [" + uid.utf8ToString() + "]";
         return true;
     }
 
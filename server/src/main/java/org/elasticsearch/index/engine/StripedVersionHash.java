@@ -0,0 +1,282 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.ObjectArray;
+import org.elasticsearch.core.Releasable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A map from _uid to {@link VersionValue} that stores its keys in {@link BytesRefHash}es backed by {@link BigArrays} rather than as
+ * {@link BytesRef} objects referenced from the entries of a concurrent hash map. The keys are spread over the stripes of a {@link Locks}
+ * instance and every stripe is only accessed while holding its lock. The {@link LiveVersionMap} hands out the very same locks as its
+ * per-uid locks, so the operations of a caller that holds the lock of a uid only re-enter a lock the caller already owns.
+ * <p>
+ * Removing a key only clears its value, the bytes of the key are kept until the hash is dropped, which happens on the refresh following
+ * the one the hash was created for.
+ */
+final class StripedVersionHash extends AbstractMap<BytesRef, VersionValue> implements Accountable {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(StripedVersionHash.class);
+
+    /**
+     * Bytes used for each key on top of the length of the key and the {@link VersionValue}: the start offset of the key in the
+     * underlying byte array, its cached hash, the slot in the open addressing table which is at most 60% full and the reference
+     * to the value.
+     */
+    private static final long BASE_BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES + (long) Math.ceil(Long.BYTES / 0.6)
+        + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+    private final Locks locks;
+    // guarded by the lock of the respective stripe, stripes are created on the first put since most of them stay empty
+    private final Stripe[] stripes;
+    private final LongAdder size = new LongAdder();
+
+    StripedVersionHash(Locks locks) {
+        this.locks = locks;
+        this.stripes = new Stripe[locks.numberOfStripes()];
+    }
+
+    /**
+     * Returns the bytes an entry is accounted for in the {@link LiveVersionMap}.
+     */
+    static long entryBytesUsed(BytesRef key, VersionValue value) {
+        return BASE_BYTES_PER_ENTRY + key.length + value.ramBytesUsed();
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        final BytesRef uid = (BytesRef) key;
+        final int stripeIndex = locks.stripe(uid);
+        final ReentrantLock lock = locks.lock(stripeIndex);
+        lock.lock();
+        try {
+            final Stripe stripe = stripes[stripeIndex];
+            if (stripe == null) {
+                return null;
+            }
+            final long id = stripe.keys.find(uid);
+            return id < 0 ? null : stripe.values.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef uid, VersionValue value) {
+        Objects.requireNonNull(value);
+        final int stripeIndex = locks.stripe(uid);
+        final ReentrantLock lock = locks.lock(stripeIndex);
+        lock.lock();
+        try {
+            Stripe stripe = stripes[stripeIndex];
+            if (stripe == null) {
+                stripe = stripes[stripeIndex] = new Stripe();
+            }
+            long id = stripe.keys.add(uid);
+            if (id < 0) {
+                id = -1 - id;
+            } else {
+                stripe.values = BigArrays.NON_RECYCLING_INSTANCE.grow(stripe.values, id + 1);
+            }
+            final VersionValue previous = stripe.values.getAndSet(id, value);
+            if (previous == null) {
+                size.increment();
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        final BytesRef uid = (BytesRef) key;
+        final int stripeIndex = locks.stripe(uid);
+        final ReentrantLock lock = locks.lock(stripeIndex);
+        lock.lock();
+        try {
+            final Stripe stripe = stripes[stripeIndex];
+            if (stripe == null) {
+                return null;
+            }
+            final long id = stripe.keys.find(uid);
+            if (id < 0) {
+                return null;
+            }
+            final VersionValue previous = stripe.values.getAndSet(id, null);
+            if (previous != null) {
+                size.decrement();
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return Math.toIntExact(size.sum());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    /**
+     * Returns a point in time snapshot of the entries. Each stripe is copied while holding its lock, the keys of the returned entries
+     * are copies that do not share bytes with the hash.
+     */
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        final List<Entry<BytesRef, VersionValue>> entries = new ArrayList<>();
+        for (int stripeIndex = 0; stripeIndex < stripes.length; stripeIndex++) {
+            final ReentrantLock lock = locks.lock(stripeIndex);
+            lock.lock();
+            try {
+                final Stripe stripe = stripes[stripeIndex];
+                if (stripe == null) {
+                    continue;
+                }
+                for (long id = 0; id < stripe.keys.size(); id++) {
+                    final VersionValue value = stripe.values.get(id);
+                    if (value != null) {
+                        entries.add(Map.entry(BytesRef.deepCopyOf(stripe.keys.get(id, stripe.spare)), value));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<BytesRef, VersionValue>> iterator() {
+                return entries.iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the memory used by the hash tables, keys and value references of all stripes, excluding the {@link VersionValue}s
+     * themselves. Unlike the accounting of the {@link LiveVersionMap} this includes the keys of removed entries.
+     */
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = SHALLOW_SIZE + RamUsageEstimator.shallowSizeOf(stripes);
+        for (int stripeIndex = 0; stripeIndex < stripes.length; stripeIndex++) {
+            final ReentrantLock lock = locks.lock(stripeIndex);
+            lock.lock();
+            try {
+                final Stripe stripe = stripes[stripeIndex];
+                if (stripe != null) {
+                    ramBytesUsed += stripe.ramBytesUsed();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return ramBytesUsed;
+    }
+
+    private static final class Stripe implements Accountable {
+
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Stripe.class)
+            + RamUsageEstimator.shallowSizeOfInstance(BytesRef.class);
+
+        final BytesRefHash keys = new BytesRefHash(1, BigArrays.NON_RECYCLING_INSTANCE);
+        final BytesRef spare = new BytesRef();
+        ObjectArray<VersionValue> values = BigArrays.NON_RECYCLING_INSTANCE.newObjectArray(1);
+
+        @Override
+        public long ramBytesUsed() {
+            return SHALLOW_SIZE + keys.ramBytesUsed() + values.ramBytesUsed();
+        }
+    }
+
+    /**
+     * A fixed number of reentrant locks that _uids are assigned to by their hash. Unlike a {@link
+     * org.elasticsearch.common.util.concurrent.KeyedLock} acquiring a lock neither allocates nor touches a shared map, at the cost of
+     * operations on different uids of the same stripe having to wait for each other. Callers must not hold the lock of one uid while
+     * blocking on the lock of another uid.
+     */
+    static final class Locks {
+
+        private final ReentrantLock[] locks;
+        private final Releasable[] releasables;
+
+        Locks(int numberOfStripes) {
+            if (Integer.bitCount(numberOfStripes) != 1) {
+                throw new IllegalArgumentException("number of stripes must be a power of two but was [" + numberOfStripes + "]");
+            }
+            this.locks = new ReentrantLock[numberOfStripes];
+            this.releasables = new Releasable[numberOfStripes];
+            for (int i = 0; i < numberOfStripes; i++) {
+                final ReentrantLock lock = new ReentrantLock();
+                locks[i] = lock;
+                releasables[i] = lock::unlock;
+            }
+        }
+
+        int numberOfStripes() {
+            return locks.length;
+        }
+
+        int stripe(BytesRef uid) {
+            final int hash = uid.hashCode();
+            // only the low bits select the stripe, so mix in the high bits as well
+            return (hash ^ (hash >>> 16)) & (locks.length - 1);
+        }
+
+        ReentrantLock lock(int stripe) {
+            return locks[stripe];
+        }
+
+        Releasable acquire(BytesRef uid) {
+            final int stripe = stripe(uid);
+            locks[stripe].lock();
+            return releasables[stripe];
+        }
+
+        Releasable tryAcquire(BytesRef uid) {
+            final int stripe = stripe(uid);
+            return locks[stripe].tryLock() ? releasables[stripe] : null;
+        }
+
+        boolean isHeldByCurrentThread(BytesRef uid) {
+            return locks[stripe(uid)].isHeldByCurrentThread();
+        }
+    }
+}
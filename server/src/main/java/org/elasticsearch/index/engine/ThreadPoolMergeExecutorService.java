@@ -148,6 +148,14 @@ public class ThreadPoolMergeExecutorService {
         assert added;
     }
 
+    /**
+     * Returns the number of merge tasks, across all shards of the node, that are queued or currently running. This does NOT include
+     * merge tasks that are backlogged by their merge scheduler.
+     */
+    public int getPendingMergeCount() {
+        return queuedMergeTasks.size() + runningMergeTasks.size();
+    }
+
     public boolean allDone() {
         return queuedMergeTasks.isEmpty() && runningMergeTasks.isEmpty() && ioThrottledMergeTasksCount.get() == 0L;
     }
@@ -23,6 +23,25 @@ public abstract class NumericDoubleValues extends DoubleValues {
      * constructors, typically implicit.) */
     protected NumericDoubleValues() {}
 
+    /**
+     * Loads the values of a block of docs at once. The docs must be in
+     * increasing order, like the docs that are passed to {@link #advanceExact}
+     * one at a time. The values of the docs that have a value are written in
+     * order at the start of {@code values}, which must be able to hold
+     * {@code count} values.
+     *
+     * @return the number of docs that have a value
+     */
+    public int doubleValues(int[] docs, int count, double[] values) throws IOException {
+        int numValues = 0;
+        for (int i = 0; i < count; i++) {
+            if (advanceExact(docs[i])) {
+                values[numValues++] = doubleValue();
+            }
+        }
+        return numValues;
+    }
+
     // TODO: this interaction with sort comparators is really ugly...
     /** Returns numeric docvalues view of raw double bits */
     public NumericDocValues getRawDoubleValues() {
@@ -0,0 +1,141 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SortField;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.TextSearchInfo;
+import org.elasticsearch.index.mapper.ValueFetcher;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.MultiValueMode;
+import org.elasticsearch.search.aggregations.support.ValuesSourceType;
+import org.elasticsearch.search.sort.BucketedSort;
+import org.elasticsearch.search.sort.SortOrder;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Field data that holds a summary of each segment computed from the doc values of other fields, such as an aggregate projection or
+ * a cardinality sketch, rather than values of documents. It can't be sorted on or aggregated, and is only read by the aggregations
+ * that know about it.
+ * <p>
+ * The summaries live in the field data cache and account for their memory in the {@link CircuitBreaker#FIELDDATA} breaker. The
+ * {@link org.elasticsearch.index.IndexWarmer} computes them for the segments of a new reader before the reader is exposed to
+ * searches, so searches only compute them when warming is disabled or the summary was evicted.
+ */
+public abstract class PrecomputedIndexFieldData<FD extends LeafFieldData> implements IndexFieldData<FD> {
+
+    private final String fieldName;
+    private final IndexFieldDataCache cache;
+    private final CircuitBreakerService breakerService;
+
+    protected PrecomputedIndexFieldData(String fieldName, IndexFieldDataCache cache, CircuitBreakerService breakerService) {
+        this.fieldName = fieldName;
+        this.cache = cache;
+        this.breakerService = breakerService;
+    }
+
+    /**
+     * Computes the summary of a segment.
+     */
+    protected abstract FD build(LeafReaderContext context) throws IOException;
+
+    @Override
+    public final String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public final ValuesSourceType getValuesSourceType() {
+        throw new IllegalArgumentException("[" + fieldName + "] can't be aggregated");
+    }
+
+    @Override
+    public final FD load(LeafReaderContext context) {
+        try {
+            return cache.load(context, this);
+        } catch (ElasticsearchException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ElasticsearchException(e);
+        }
+    }
+
+    @Override
+    public final FD loadDirect(LeafReaderContext context) throws Exception {
+        FD leafFieldData = build(context);
+        // released by the field data cache when the summary is evicted
+        breakerService.getBreaker(CircuitBreaker.FIELDDATA).addEstimateBytesAndMaybeBreak(leafFieldData.ramBytesUsed(), fieldName);
+        return leafFieldData;
+    }
+
+    @Override
+    public final SortField sortField(@Nullable Object missingValue, MultiValueMode sortMode, Nested nested, boolean reverse) {
+        throw new IllegalArgumentException("[" + fieldName + "] can't be sorted on");
+    }
+
+    @Override
+    public final BucketedSort newBucketedSort(
+        BigArrays bigArrays,
+        Object missingValue,
+        MultiValueMode sortMode,
+        Nested nested,
+        SortOrder sortOrder,
+        DocValueFormat format,
+        int bucketSize,
+        BucketedSort.ExtraData extra
+    ) {
+        throw new IllegalArgumentException("[" + fieldName + "] can't be sorted on");
+    }
+
+    /**
+     * A field type that isn't part of the mappings and only gives access to {@link PrecomputedIndexFieldData}.
+     */
+    public static final class FieldType extends MappedFieldType {
+        private final String typeName;
+        private final IndexFieldData.Builder fieldDataBuilder;
+
+        public FieldType(String name, String typeName, IndexFieldData.Builder fieldDataBuilder) {
+            super(name, false, false, false, TextSearchInfo.NONE, Map.of());
+            this.typeName = typeName;
+            this.fieldDataBuilder = fieldDataBuilder;
+        }
+
+        @Override
+        public String typeName() {
+            return typeName;
+        }
+
+        @Override
+        public ValueFetcher valueFetcher(SearchExecutionContext context, String format) {
+            throw new UnsupportedOperationException("[" + name() + "] can't be fetched");
+        }
+
+        @Override
+        public Query termQuery(Object value, SearchExecutionContext context) {
+            throw new IllegalArgumentException("[" + name() + "] can't be queried");
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(FieldDataContext fieldDataContext) {
+            return fieldDataBuilder;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.projection;
+
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.PrecomputedIndexFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An aggregate projection pre-aggregates the documents of each segment into fixed time buckets of a date field, and keeps the doc
+ * count of each bucket along with the count, sum, min and max of the values of some numeric fields. A top level
+ * {@code date_histogram} whose buckets are made of whole projection buckets, and its {@code sum}, {@code avg}, {@code min},
+ * {@code max} and {@code value_count} sub-aggregations on these numeric fields, are computed from the projection of the segments
+ * that the query matches entirely rather than from their documents. The projection of each segment is
+ * {@link PrecomputedIndexFieldData precomputed field data}.
+ */
+public final class AggregateProjection {
+
+    /**
+     * The name of the field whose field data holds the projection of each segment.
+     */
+    public static final String NAME = "_aggregate_projection";
+
+    public static final Setting<String> DATE_FIELD_SETTING = Setting.simpleString(
+        "index.aggregate_projection.date_field",
+        Property.IndexScope,
+        Property.Final
+    );
+    public static final Setting<TimeValue> INTERVAL_SETTING = Setting.timeSetting(
+        "index.aggregate_projection.interval",
+        TimeValue.timeValueMinutes(1),
+        TimeValue.timeValueMillis(1),
+        Property.IndexScope,
+        Property.Final
+    );
+    public static final Setting<List<String>> METRICS_SETTING = Setting.stringListSetting(
+        "index.aggregate_projection.metrics",
+        Property.IndexScope,
+        Property.Final
+    );
+
+    private final String dateField;
+    private final long interval;
+    private final List<String> metrics;
+
+    AggregateProjection(String dateField, long interval, List<String> metrics) {
+        this.dateField = dateField;
+        this.interval = interval;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the aggregate projection of the index, or <code>null</code> if the index doesn't declare one.
+     */
+    @Nullable
+    public static AggregateProjection fromSettings(IndexSettings indexSettings) {
+        String dateField = DATE_FIELD_SETTING.get(indexSettings.getSettings());
+        if (dateField.isEmpty()) {
+            return null;
+        }
+        long interval = INTERVAL_SETTING.get(indexSettings.getSettings()).millis();
+        return new AggregateProjection(dateField, interval, METRICS_SETTING.get(indexSettings.getSettings()));
+    }
+
+    /**
+     * The date field whose values are bucketed.
+     */
+    public String dateField() {
+        return dateField;
+    }
+
+    /**
+     * The width of the buckets in milliseconds. Buckets start at multiples of the interval since the epoch.
+     */
+    public long interval() {
+        return interval;
+    }
+
+    /**
+     * The metric fields whose statistics are computed in each bucket.
+     */
+    public List<String> metrics() {
+        return metrics;
+    }
+
+    /**
+     * Builds the field type whose field data holds the projection of each segment, or returns <code>null</code> if the date field
+     * isn't a millisecond date field with doc values. Metric fields that aren't numeric fields with doc values are left out of the
+     * projection.
+     *
+     * @param fieldTypes resolves the field types of the index
+     * @param fieldData  builds the field data of a field type
+     */
+    @Nullable
+    public MappedFieldType fieldType(Function<String, MappedFieldType> fieldTypes, Function<MappedFieldType, IndexFieldData<?>> fieldData) {
+        MappedFieldType dateFieldType = fieldTypes.apply(dateField);
+        if (dateFieldType == null || dateFieldType.hasDocValues() == false) {
+            return null;
+        }
+        if (fieldData.apply(dateFieldType) instanceof IndexNumericFieldData dateFieldData
+            && dateFieldData.getNumericType() == IndexNumericFieldData.NumericType.DATE) {
+            Map<String, IndexNumericFieldData> metricFieldData = new HashMap<>();
+            for (String metric : metrics) {
+                MappedFieldType metricFieldType = fieldTypes.apply(metric);
+                if (metricFieldType != null
+                    && metricFieldType.hasDocValues()
+                    && fieldData.apply(metricFieldType) instanceof IndexNumericFieldData numericFieldData) {
+                    metricFieldData.put(metric, numericFieldData);
+                }
+            }
+            return new PrecomputedIndexFieldData.FieldType(
+                NAME,
+                NAME,
+                new ProjectionIndexFieldData.Builder(interval, dateFieldData, metricFieldData)
+            );
+        }
+        return null;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.projection;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.index.mapper.DocCountFieldMapper;
+import org.elasticsearch.script.field.DocValuesScriptFieldFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The aggregate projection of a segment: the doc count of each non-empty bucket of the date field, in ascending order of keys, and the
+ * statistics of the values of the metric fields in each bucket. The doc counts take the {@code _doc_count} field into account.
+ * <p>
+ * Documents whose date field has several values fall in several buckets of a {@code date_histogram}, which the projection cannot
+ * represent, so the projection of a segment that holds such documents is {@link #isUsable() unusable}.
+ */
+public final class LeafProjection implements LeafFieldData {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(LeafProjection.class);
+
+    private static final LeafProjection UNUSABLE = new LeafProjection(false, new long[0], new long[0], Map.of());
+
+    private final boolean usable;
+    private final long[] keys;
+    private final long[] docCounts;
+    private final Map<String, Metric> metrics;
+
+    private LeafProjection(boolean usable, long[] keys, long[] docCounts, Map<String, Metric> metrics) {
+        this.usable = usable;
+        this.keys = keys;
+        this.docCounts = docCounts;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Whether the projection can be used instead of the documents of the segment.
+     */
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /**
+     * The number of buckets.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * The start of the bucket, in milliseconds since the epoch.
+     */
+    public long key(int bucket) {
+        return keys[bucket];
+    }
+
+    public long docCount(int bucket) {
+        return docCounts[bucket];
+    }
+
+    /**
+     * Returns the statistics of the provided metric field, or <code>null</code> if the field isn't part of the projection.
+     */
+    @Nullable
+    public Metric metric(String field) {
+        return metrics.get(field);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long size = BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(keys) + RamUsageEstimator.sizeOf(docCounts);
+        for (Metric metric : metrics.values()) {
+            size += metric.ramBytesUsed();
+        }
+        return size;
+    }
+
+    @Override
+    public DocValuesScriptFieldFactory getScriptFieldFactory(String name) {
+        throw new UnsupportedOperationException("[" + AggregateProjection.NAME + "] can't be used in scripts");
+    }
+
+    @Override
+    public SortedBinaryDocValues getBytesValues() {
+        throw new UnsupportedOperationException("[" + AggregateProjection.NAME + "] doesn't have values");
+    }
+
+    /**
+     * The number, sum, minimum and maximum of the values of a metric field in each bucket of the projection.
+     */
+    public static final class Metric {
+        private final long[] counts;
+        private final double[] sums;
+        private final double[] mins;
+        private final double[] maxes;
+
+        private Metric(long[] counts, double[] sums, double[] mins, double[] maxes) {
+            this.counts = counts;
+            this.sums = sums;
+            this.mins = mins;
+            this.maxes = maxes;
+        }
+
+        public long count(int bucket) {
+            return counts[bucket];
+        }
+
+        public double sum(int bucket) {
+            return sums[bucket];
+        }
+
+        public double min(int bucket) {
+            return mins[bucket];
+        }
+
+        public double max(int bucket) {
+            return maxes[bucket];
+        }
+
+        private long ramBytesUsed() {
+            return RamUsageEstimator.sizeOf(counts) + RamUsageEstimator.sizeOf(sums) + RamUsageEstimator.sizeOf(mins)
+                + RamUsageEstimator.sizeOf(maxes);
+        }
+    }
+
+    /**
+     * Computes the projection of a segment by visiting all of its documents, including the deleted ones.
+     */
+    static LeafProjection build(
+        LeafReaderContext context,
+        long interval,
+        IndexNumericFieldData dateFieldData,
+        Map<String, IndexNumericFieldData> metricFieldData
+    ) throws IOException {
+        final SortedNumericDocValues dates = dateFieldData.load(context).getLongValues();
+        final PostingsEnum docCountPostings = DocCountFieldMapper.leafLookup(context.reader());
+        final Map<String, MetricBuilder> metricBuilders = new HashMap<>();
+        for (Map.Entry<String, IndexNumericFieldData> entry : metricFieldData.entrySet()) {
+            metricBuilders.put(entry.getKey(), new MetricBuilder(entry.getValue().load(context).getDoubleValues()));
+        }
+        try (LongHash bucketOrds = new LongHash(16, BigArrays.NON_RECYCLING_INSTANCE)) {
+            long[] docCounts = new long[0];
+            for (int doc = dates.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = dates.nextDoc()) {
+                if (dates.docValueCount() > 1) {
+                    return UNUSABLE;
+                }
+                long key = Math.floorDiv(dates.nextValue(), interval) * interval;
+                long bucketOrd = bucketOrds.add(key);
+                if (bucketOrd < 0) {
+                    bucketOrd = -1 - bucketOrd;
+                } else if (bucketOrd >= docCounts.length) {
+                    docCounts = ArrayUtil.grow(docCounts, (int) bucketOrd + 1);
+                    for (MetricBuilder metricBuilder : metricBuilders.values()) {
+                        metricBuilder.grow(docCounts.length);
+                    }
+                }
+                int docCount = DocCountFieldMapper.DocCountFieldType.DEFAULT_VALUE;
+                if (docCountPostings != null) {
+                    if (docCountPostings.docID() < doc) {
+                        docCountPostings.advance(doc);
+                    }
+                    if (docCountPostings.docID() == doc) {
+                        docCount = docCountPostings.freq();
+                    }
+                }
+                docCounts[(int) bucketOrd] += docCount;
+                for (MetricBuilder metricBuilder : metricBuilders.values()) {
+                    metricBuilder.collect(doc, (int) bucketOrd);
+                }
+            }
+
+            // sort the buckets by key so that consecutive buckets can be mapped to the same bucket of a coarser histogram
+            final int size = (int) bucketOrds.size();
+            final long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = bucketOrds.get(i);
+            }
+            Arrays.sort(keys);
+            final int[] positions = new int[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = Arrays.binarySearch(keys, bucketOrds.get(i));
+            }
+            final long[] sortedDocCounts = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedDocCounts[positions[i]] = docCounts[i];
+            }
+            final Map<String, Metric> metrics = new HashMap<>();
+            for (Map.Entry<String, MetricBuilder> entry : metricBuilders.entrySet()) {
+                metrics.put(entry.getKey(), entry.getValue().build(positions));
+            }
+            return new LeafProjection(true, keys, sortedDocCounts, metrics);
+        }
+    }
+
+    private static final class MetricBuilder {
+        private final SortedNumericDoubleValues values;
+        private long[] counts = new long[0];
+        private double[] sums = new double[0];
+        private double[] compensations = new double[0];
+        private double[] mins = new double[0];
+        private double[] maxes = new double[0];
+
+        MetricBuilder(SortedNumericDoubleValues values) {
+            this.values = values;
+        }
+
+        void grow(int size) {
+            int from = counts.length;
+            counts = Arrays.copyOf(counts, size);
+            sums = Arrays.copyOf(sums, size);
+            compensations = Arrays.copyOf(compensations, size);
+            mins = Arrays.copyOf(mins, size);
+            Arrays.fill(mins, from, size, Double.POSITIVE_INFINITY);
+            maxes = Arrays.copyOf(maxes, size);
+            Arrays.fill(maxes, from, size, Double.NEGATIVE_INFINITY);
+        }
+
+        void collect(int doc, int bucketOrd) throws IOException {
+            if (values.advanceExact(doc)) {
+                final int valueCount = values.docValueCount();
+                double sum = sums[bucketOrd];
+                double delta = compensations[bucketOrd];
+                double min = mins[bucketOrd];
+                double max = maxes[bucketOrd];
+                for (int i = 0; i < valueCount; i++) {
+                    double value = values.nextValue();
+                    // Kahan summation, like the sum aggregation
+                    if (Double.isFinite(value) == false) {
+                        sum += value;
+                    } else if (Double.isFinite(sum)) {
+                        double correctedSum = value + delta;
+                        double updatedSum = sum + correctedSum;
+                        delta = correctedSum - (updatedSum - sum);
+                        sum = updatedSum;
+                    }
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                counts[bucketOrd] += valueCount;
+                sums[bucketOrd] = sum;
+                compensations[bucketOrd] = delta;
+                mins[bucketOrd] = min;
+                maxes[bucketOrd] = max;
+            }
+        }
+
+        Metric build(int[] positions) {
+            final int size = positions.length;
+            final long[] sortedCounts = new long[size];
+            final double[] sortedSums = new double[size];
+            final double[] sortedMins = new double[size];
+            final double[] sortedMaxes = new double[size];
+            for (int i = 0; i < size; i++) {
+                sortedCounts[positions[i]] = counts[i];
+                sortedSums[positions[i]] = sums[i];
+                sortedMins[positions[i]] = mins[i];
+                sortedMaxes[positions[i]] = maxes[i];
+            }
+            return new Metric(sortedCounts, sortedSums, sortedMins, sortedMaxes);
+        }
+    }
+}
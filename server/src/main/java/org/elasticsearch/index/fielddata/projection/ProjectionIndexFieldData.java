@@ -0,0 +1,79 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.projection;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.PrecomputedIndexFieldData;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Field data that loads the {@link LeafProjection aggregate projection} of each segment, see {@link AggregateProjection}.
+ */
+public final class ProjectionIndexFieldData extends PrecomputedIndexFieldData<LeafProjection> {
+
+    public static class Builder implements IndexFieldData.Builder {
+        private final long interval;
+        private final IndexNumericFieldData dateFieldData;
+        private final Map<String, IndexNumericFieldData> metricFieldData;
+
+        Builder(long interval, IndexNumericFieldData dateFieldData, Map<String, IndexNumericFieldData> metricFieldData) {
+            this.interval = interval;
+            this.dateFieldData = dateFieldData;
+            this.metricFieldData = metricFieldData;
+        }
+
+        @Override
+        public ProjectionIndexFieldData build(IndexFieldDataCache cache, CircuitBreakerService breakerService) {
+            return new ProjectionIndexFieldData(interval, dateFieldData, metricFieldData, cache, breakerService);
+        }
+    }
+
+    private final long interval;
+    private final IndexNumericFieldData dateFieldData;
+    private final Map<String, IndexNumericFieldData> metricFieldData;
+
+    private ProjectionIndexFieldData(
+        long interval,
+        IndexNumericFieldData dateFieldData,
+        Map<String, IndexNumericFieldData> metricFieldData,
+        IndexFieldDataCache cache,
+        CircuitBreakerService breakerService
+    ) {
+        super(AggregateProjection.NAME, cache, breakerService);
+        this.interval = interval;
+        this.dateFieldData = dateFieldData;
+        this.metricFieldData = metricFieldData;
+    }
+
+    /**
+     * The width of the buckets of the projection in milliseconds.
+     */
+    public long interval() {
+        return interval;
+    }
+
+    /**
+     * The date field whose values are bucketed.
+     */
+    public String dateField() {
+        return dateFieldData.getFieldName();
+    }
+
+    @Override
+    protected LeafProjection build(LeafReaderContext context) throws IOException {
+        return LeafProjection.build(context, interval, dateFieldData, metricFieldData);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.sketch;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.PrecomputedIndexFieldData;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import java.io.IOException;
+
+/**
+ * Field data that loads the {@link LeafCardinalitySketch cardinality sketch} of a field in each segment, see
+ * {@link CardinalitySketches}.
+ */
+public final class CardinalitySketchIndexFieldData extends PrecomputedIndexFieldData<LeafCardinalitySketch> {
+
+    public static class Builder implements IndexFieldData.Builder {
+        private final int precision;
+        private final IndexFieldData<?> fieldData;
+
+        Builder(int precision, IndexFieldData<?> fieldData) {
+            this.precision = precision;
+            this.fieldData = fieldData;
+        }
+
+        @Override
+        public CardinalitySketchIndexFieldData build(IndexFieldDataCache cache, CircuitBreakerService breakerService) {
+            return new CardinalitySketchIndexFieldData(precision, fieldData, cache, breakerService);
+        }
+    }
+
+    private final int precision;
+    private final IndexFieldData<?> fieldData;
+
+    private CardinalitySketchIndexFieldData(
+        int precision,
+        IndexFieldData<?> fieldData,
+        IndexFieldDataCache cache,
+        CircuitBreakerService breakerService
+    ) {
+        super(CardinalitySketches.NAME + "." + fieldData.getFieldName(), cache, breakerService);
+        this.precision = precision;
+        this.fieldData = fieldData;
+    }
+
+    /**
+     * The precision of the sketches.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * The field data of the field whose distinct values are counted.
+     */
+    public IndexFieldData<?> sketchedFieldData() {
+        return fieldData;
+    }
+
+    @Override
+    protected LeafCardinalitySketch build(LeafReaderContext context) throws IOException {
+        return LeafCardinalitySketch.build(context, precision, fieldData);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.sketch;
+
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.PrecomputedIndexFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.search.aggregations.metrics.AbstractHyperLogLog;
+import org.elasticsearch.search.aggregations.metrics.HyperLogLogPlusPlus;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cardinality sketches hold the HyperLogLog++ sketch of the distinct values of some fields in each segment. A top level
+ * {@code cardinality} aggregation on one of these fields, whose precision is the precision of the sketches, merges the sketches of
+ * the segments that the query matches entirely rather than hashing the values of their documents. The sketches are
+ * {@link PrecomputedIndexFieldData precomputed field data}, one field per sketched field.
+ */
+public final class CardinalitySketches {
+
+    /**
+     * The prefix of the names of the fields whose field data holds the sketches of a field.
+     */
+    public static final String NAME = "_cardinality_sketch";
+
+    public static final Setting<List<String>> FIELDS_SETTING = Setting.stringListSetting(
+        "index.cardinality_sketch.fields",
+        Property.IndexScope,
+        Property.Final
+    );
+    public static final Setting<Integer> PRECISION_SETTING = Setting.intSetting(
+        "index.cardinality_sketch.precision",
+        HyperLogLogPlusPlus.DEFAULT_PRECISION,
+        AbstractHyperLogLog.MIN_PRECISION,
+        AbstractHyperLogLog.MAX_PRECISION,
+        Property.IndexScope,
+        Property.Final
+    );
+
+    private final List<String> fields;
+    private final int precision;
+
+    CardinalitySketches(List<String> fields, int precision) {
+        this.fields = fields;
+        this.precision = precision;
+    }
+
+    /**
+     * Returns the cardinality sketches of the index, or <code>null</code> if the index doesn't declare any.
+     */
+    @Nullable
+    public static CardinalitySketches fromSettings(IndexSettings indexSettings) {
+        List<String> fields = FIELDS_SETTING.get(indexSettings.getSettings());
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return new CardinalitySketches(fields, PRECISION_SETTING.get(indexSettings.getSettings()));
+    }
+
+    /**
+     * The fields that have a sketch.
+     */
+    public List<String> fields() {
+        return fields;
+    }
+
+    /**
+     * The precision of the sketches, which the {@code cardinality} aggregation must use for the sketches to be merged.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Builds the field type whose field data holds the sketch of the provided field in each segment, or returns <code>null</code> if
+     * the field doesn't have a sketch or doesn't have doc values.
+     *
+     * @param field      the field whose distinct values are counted
+     * @param fieldTypes resolves the field types of the index
+     * @param fieldData  builds the field data of a field type
+     */
+    @Nullable
+    public MappedFieldType fieldType(
+        String field,
+        Function<String, MappedFieldType> fieldTypes,
+        Function<MappedFieldType, IndexFieldData<?>> fieldData
+    ) {
+        if (fields.contains(field) == false) {
+            return null;
+        }
+        MappedFieldType fieldType = fieldTypes.apply(field);
+        if (fieldType == null || fieldType.hasDocValues() == false) {
+            return null;
+        }
+        return new PrecomputedIndexFieldData.FieldType(
+            NAME + "." + field,
+            NAME,
+            new CardinalitySketchIndexFieldData.Builder(precision, fieldData.apply(fieldType))
+        );
+    }
+}
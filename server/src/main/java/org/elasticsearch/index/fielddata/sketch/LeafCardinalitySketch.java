@@ -0,0 +1,125 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.sketch;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.LeafNumericFieldData;
+import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.script.field.DocValuesScriptFieldFactory;
+import org.elasticsearch.search.aggregations.metrics.AbstractHyperLogLogPlusPlus;
+import org.elasticsearch.search.aggregations.metrics.HyperLogLogPlusPlus;
+
+import java.io.IOException;
+
+/**
+ * The HyperLogLog++ sketch of the distinct values of a field in a segment. The values are hashed the same way as the
+ * {@code cardinality} aggregation hashes them, so that the sketch can be merged into the counts of the aggregation.
+ */
+public final class LeafCardinalitySketch implements LeafFieldData {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(LeafCardinalitySketch.class);
+
+    private final AbstractHyperLogLogPlusPlus sketch;
+    private final long ramBytesUsed;
+
+    private LeafCardinalitySketch(AbstractHyperLogLogPlusPlus sketch) {
+        this.sketch = sketch;
+        // linear counting keeps 4 bytes per distinct value until it switches to the dense HyperLogLog registers
+        this.ramBytesUsed = BASE_RAM_BYTES_USED + Math.min(
+            HyperLogLogPlusPlus.memoryUsage(sketch.precision()),
+            sketch.cardinality(0) * Integer.BYTES
+        );
+    }
+
+    /**
+     * The sketch, whose only bucket is <code>0</code>.
+     */
+    public AbstractHyperLogLogPlusPlus sketch() {
+        return sketch;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed;
+    }
+
+    @Override
+    public DocValuesScriptFieldFactory getScriptFieldFactory(String name) {
+        throw new UnsupportedOperationException("[" + CardinalitySketches.NAME + "] can't be used in scripts");
+    }
+
+    @Override
+    public SortedBinaryDocValues getBytesValues() {
+        throw new UnsupportedOperationException("[" + CardinalitySketches.NAME + "] doesn't have values");
+    }
+
+    /**
+     * Computes the sketch of a segment from the values of all of its documents, including the deleted ones.
+     */
+    static LeafCardinalitySketch build(LeafReaderContext context, int precision, IndexFieldData<?> fieldData) throws IOException {
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(precision, BigArrays.NON_RECYCLING_INSTANCE, 1)) {
+            final LeafFieldData leaf = fieldData.load(context);
+            if (fieldData instanceof IndexNumericFieldData numeric && numeric.getNumericType().isFloatingPoint()) {
+                final SortedNumericDoubleValues values = ((LeafNumericFieldData) leaf).getDoubleValues();
+                for (int doc = 0; doc < context.reader().maxDoc(); doc++) {
+                    if (values.advanceExact(doc)) {
+                        for (int i = 0; i < values.docValueCount(); i++) {
+                            counts.collect(0, BitMixer.mix64(Double.doubleToLongBits(values.nextValue())));
+                        }
+                    }
+                }
+            } else if (fieldData instanceof IndexNumericFieldData) {
+                final SortedNumericDocValues values = ((LeafNumericFieldData) leaf).getLongValues();
+                for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                    for (int i = 0; i < values.docValueCount(); i++) {
+                        counts.collect(0, BitMixer.mix64(values.nextValue()));
+                    }
+                }
+            } else if (leaf instanceof LeafOrdinalsFieldData ordinals) {
+                // every term of the segment is the value of at least one document, so there is no need to visit the documents
+                final SortedSetDocValues values = ordinals.getOrdinalsValues();
+                final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+                for (long ord = 0; ord < values.getValueCount(); ord++) {
+                    final BytesRef value = values.lookupOrd(ord);
+                    MurmurHash3.hash128(value.bytes, value.offset, value.length, 0, hash);
+                    counts.collect(0, hash.h1);
+                }
+            } else {
+                final SortedBinaryDocValues values = leaf.getBytesValues();
+                final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+                for (int doc = 0; doc < context.reader().maxDoc(); doc++) {
+                    if (values.advanceExact(doc)) {
+                        for (int i = 0; i < values.docValueCount(); i++) {
+                            final BytesRef value = values.nextValue();
+                            MurmurHash3.hash128(value.bytes, value.offset, value.length, 0, hash);
+                            counts.collect(0, hash.h1);
+                        }
+                    }
+                }
+            }
+            // the clone only keeps the hashes when the sketch still uses linear counting
+            return new LeafCardinalitySketch(counts.clone(0, BigArrays.NON_RECYCLING_INSTANCE));
+        }
+    }
+}
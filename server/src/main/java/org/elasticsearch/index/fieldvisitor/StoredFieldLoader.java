@@ -12,7 +12,6 @@ package org.elasticsearch.index.fieldvisitor;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.StoredFields;
-import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.search.fetch.StoredFieldsSpec;
@@ -29,6 +28,9 @@ import java.util.Set;
  */
 public abstract class StoredFieldLoader {
 
+    // blocks of the default stored fields format hold up to 128 documents, or fewer if they are large
+    private static final int MAX_AVERAGE_DOC_GAP_FOR_BLOCK_CACHING = 8;
+
     /**
      * Return a {@link LeafStoredFieldLoader} for the given segment and document set
      *
@@ -102,6 +104,55 @@ public abstract class StoredFieldLoader {
         };
     }
 
+    /**
+     * Creates a new StoredFieldLoader using a StoredFieldsSpec that is tuned for the fetch phase, which loads a sorted set of documents
+     * that is known up front. When the documents loaded from a segment are dense enough to share blocks, see {@link #cachesBlocks(int[])},
+     * documents are read through a reader that keeps the last decompressed block for the lifetime of the segment's loader, so that
+     * documents which share a block only decompress it once. The blocks of all these documents are prefetched when the loader is created,
+     * so that reading them from disk can happen in parallel rather than one block at a time. Sparse documents are read randomly.
+     */
+    public static StoredFieldLoader fromSpecForFetch(StoredFieldsSpec spec) {
+        if (spec.noRequirements()) {
+            return StoredFieldLoader.empty();
+        }
+        List<String> fieldsToLoad = fieldsToLoad(spec.requiresSource(), spec.requiredStoredFields());
+        return new StoredFieldLoader() {
+            @Override
+            public LeafStoredFieldLoader getLoader(LeafReaderContext ctx, int[] docs) throws IOException {
+                final StoredFields storedFields;
+                if (cachesBlocks(docs)) {
+                    storedFields = sequentialReader(ctx);
+                    for (int doc : docs) {
+                        storedFields.prefetch(doc);
+                    }
+                } else {
+                    storedFields = reader(ctx, docs);
+                }
+                return new ReaderStoredFieldLoader(storedFields, spec.requiresSource(), spec.requiredStoredFields());
+            }
+
+            @Override
+            public List<String> fieldsToLoad() {
+                return fieldsToLoad;
+            }
+        };
+    }
+
+    /**
+     * Whether a loader created by {@link #fromSpecForFetch} caches decompressed blocks and prefetches blocks when loading the given
+     * sorted documents of a segment. Stored fields formats that compress whole blocks, like the default zstd format, decompress the
+     * entire block for every document that is read randomly, so keeping the block pays off when several documents share a block. This
+     * is the case when enough documents are loaded and they are on average at most {@link #MAX_AVERAGE_DOC_GAP_FOR_BLOCK_CACHING} doc
+     * ids apart, which includes the sequential runs that {@link #create(boolean, Set)} reads through the same reader.
+     */
+    public static boolean cachesBlocks(int[] docs) {
+        if (docs == null || docs.length <= 10) {
+            return false;
+        }
+        final long span = docs[docs.length - 1] - docs[0];
+        return span <= (long) (docs.length - 1) * MAX_AVERAGE_DOC_GAP_FOR_BLOCK_CACHING;
+    }
+
     /**
      * Creates a StoredFieldLoader tuned for sequential reads of _source
      */
@@ -136,21 +187,20 @@ public abstract class StoredFieldLoader {
         };
     }
 
-    private static CheckedBiConsumer<Integer, FieldsVisitor, IOException> reader(LeafReaderContext ctx, int[] docs) throws IOException {
+    private static StoredFields reader(LeafReaderContext ctx, int[] docs) throws IOException {
         LeafReader leafReader = ctx.reader();
         if (docs != null && docs.length > 10 && hasSequentialDocs(docs)) {
             return sequentialReader(ctx);
         }
-        StoredFields storedFields = leafReader.storedFields();
-        return storedFields::document;
+        return leafReader.storedFields();
     }
 
-    private static CheckedBiConsumer<Integer, FieldsVisitor, IOException> sequentialReader(LeafReaderContext ctx) throws IOException {
+    private static StoredFields sequentialReader(LeafReaderContext ctx) throws IOException {
         LeafReader leafReader = ctx.reader();
         if (leafReader instanceof SequentialStoredFieldsLeafReader lf) {
-            return lf.getSequentialStoredFieldsReader()::document;
+            return lf.getSequentialStoredFieldsReader();
         }
-        return leafReader.storedFields()::document;
+        return leafReader.storedFields();
     }
 
     private static List<String> fieldsToLoad(boolean loadSource, Set<String> fields) {
@@ -196,11 +246,11 @@ public abstract class StoredFieldLoader {
 
     private static class ReaderStoredFieldLoader implements LeafStoredFieldLoader {
 
-        private final CheckedBiConsumer<Integer, FieldsVisitor, IOException> reader;
+        private final StoredFields reader;
         private final CustomFieldsVisitor visitor;
         private int doc = -1;
 
-        ReaderStoredFieldLoader(CheckedBiConsumer<Integer, FieldsVisitor, IOException> reader, boolean loadSource, Set<String> fields) {
+        ReaderStoredFieldLoader(StoredFields reader, boolean loadSource, Set<String> fields) {
             this.reader = reader;
             this.visitor = new CustomFieldsVisitor(fields, loadSource);
         }
@@ -209,7 +259,7 @@ public abstract class StoredFieldLoader {
         public void advanceTo(int doc) throws IOException {
             if (doc != this.doc) {
                 visitor.reset();
-                reader.accept(doc, visitor);
+                reader.document(doc, visitor);
                 this.doc = doc;
             }
         }
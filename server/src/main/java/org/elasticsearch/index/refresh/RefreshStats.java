@@ -9,6 +9,7 @@
 
 package org.elasticsearch.index.refresh;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -34,6 +35,13 @@ public class RefreshStats implements Writeable, ToXContentFragment {
      */
     private int listeners;
 
+    /**
+     * The shortest and longest interval picked by adaptive refresh across the shards, or {@code -1} if no shard uses adaptive refresh.
+     */
+    private long minAdaptiveIntervalInMillis = -1;
+
+    private long maxAdaptiveIntervalInMillis = -1;
+
     public RefreshStats() {}
 
     public RefreshStats(StreamInput in) throws IOException {
@@ -42,6 +50,10 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         externalTotal = in.readVLong();
         externalTotalTimeInMillis = in.readVLong();
         listeners = in.readVInt();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.REFRESH_STATS_ADAPTIVE_INTERVAL)) {
+            minAdaptiveIntervalInMillis = in.readZLong();
+            maxAdaptiveIntervalInMillis = in.readZLong();
+        }
     }
 
     @Override
@@ -51,14 +63,32 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         out.writeVLong(externalTotal);
         out.writeVLong(externalTotalTimeInMillis);
         out.writeVInt(listeners);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.REFRESH_STATS_ADAPTIVE_INTERVAL)) {
+            out.writeZLong(minAdaptiveIntervalInMillis);
+            out.writeZLong(maxAdaptiveIntervalInMillis);
+        }
     }
 
     public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners) {
+        this(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners, -1, -1);
+    }
+
+    public RefreshStats(
+        long total,
+        long totalTimeInMillis,
+        long externalTotal,
+        long externalTotalTimeInMillis,
+        int listeners,
+        long minAdaptiveIntervalInMillis,
+        long maxAdaptiveIntervalInMillis
+    ) {
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
         this.externalTotal = externalTotal;
         this.externalTotalTimeInMillis = externalTotalTimeInMillis;
         this.listeners = listeners;
+        this.minAdaptiveIntervalInMillis = minAdaptiveIntervalInMillis;
+        this.maxAdaptiveIntervalInMillis = maxAdaptiveIntervalInMillis;
     }
 
     public void add(RefreshStats refreshStats) {
@@ -74,6 +104,12 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         this.externalTotal += refreshStats.externalTotal;
         this.externalTotalTimeInMillis += refreshStats.externalTotalTimeInMillis;
         this.listeners += refreshStats.listeners;
+        if (refreshStats.minAdaptiveIntervalInMillis >= 0) {
+            this.minAdaptiveIntervalInMillis = this.minAdaptiveIntervalInMillis < 0
+                ? refreshStats.minAdaptiveIntervalInMillis
+                : Math.min(this.minAdaptiveIntervalInMillis, refreshStats.minAdaptiveIntervalInMillis);
+            this.maxAdaptiveIntervalInMillis = Math.max(this.maxAdaptiveIntervalInMillis, refreshStats.maxAdaptiveIntervalInMillis);
+        }
     }
 
     /**
@@ -125,6 +161,20 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         return listeners;
     }
 
+    /**
+     * The shortest interval between scheduled refreshes picked by adaptive refresh, or {@code -1} if adaptive refresh is not in use.
+     */
+    public long getMinAdaptiveIntervalInMillis() {
+        return minAdaptiveIntervalInMillis;
+    }
+
+    /**
+     * The longest interval between scheduled refreshes picked by adaptive refresh, or {@code -1} if adaptive refresh is not in use.
+     */
+    public long getMaxAdaptiveIntervalInMillis() {
+        return maxAdaptiveIntervalInMillis;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("refresh");
@@ -133,6 +183,12 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         builder.field("external_total", externalTotal);
         builder.humanReadableField("external_total_time_in_millis", "external_total_time", getExternalTotalTime());
         builder.field("listeners", listeners);
+        if (minAdaptiveIntervalInMillis >= 0) {
+            builder.startObject("adaptive_interval");
+            builder.humanReadableField("min_in_millis", "min", new TimeValue(minAdaptiveIntervalInMillis));
+            builder.humanReadableField("max_in_millis", "max", new TimeValue(maxAdaptiveIntervalInMillis));
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -147,11 +203,21 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             && totalTimeInMillis == rhs.totalTimeInMillis
             && externalTotal == rhs.externalTotal
             && externalTotalTimeInMillis == rhs.externalTotalTimeInMillis
-            && listeners == rhs.listeners;
+            && listeners == rhs.listeners
+            && minAdaptiveIntervalInMillis == rhs.minAdaptiveIntervalInMillis
+            && maxAdaptiveIntervalInMillis == rhs.maxAdaptiveIntervalInMillis;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners);
+        return Objects.hash(
+            total,
+            totalTimeInMillis,
+            externalTotal,
+            externalTotalTimeInMillis,
+            listeners,
+            minAdaptiveIntervalInMillis,
+            maxAdaptiveIntervalInMillis
+        );
     }
 }
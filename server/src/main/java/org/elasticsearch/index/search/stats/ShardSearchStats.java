@@ -55,6 +55,13 @@ public final class ShardSearchStats implements SearchOperationListener {
         return new SearchStats(total, openContexts.count(), groupsSt);
     }
 
+    /**
+     * Returns the number of query phases that completed successfully, without building the full stats.
+     */
+    public long totalQueryCount() {
+        return totalStats.queryMetric.count();
+    }
+
     @Override
     public void onPreQueryPhase(SearchContext searchContext) {
         computeStats(
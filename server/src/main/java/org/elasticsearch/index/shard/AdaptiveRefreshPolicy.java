@@ -0,0 +1,142 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the interval between the scheduled refreshes of a shard if {@link IndexSettings#INDEX_ADAPTIVE_REFRESH_ENABLED_SETTING} is set.
+ * The index level refresh task keeps running every {@link IndexSettings#getRefreshInterval()}, which is the shortest interval, and the
+ * shard skips the scheduled refreshes that come earlier than the interval picked here.
+ * <p>
+ * The interval is the shorter of
+ * <ul>
+ *     <li>the average time between searches, since refreshing more often than the shard is searched only creates segments that no
+ *     search reads, and</li>
+ *     <li>the time it takes to index {@link #TARGET_OPERATIONS_PER_REFRESH} operations at the current indexing rate, so that busy shards
+ *     still write a segment on every tick while shards that only see a trickle of writes create fewer, larger segments.</li>
+ * </ul>
+ * Once the shard has more than {@link #SEGMENT_COUNT_THRESHOLD} segments the interval is stretched proportionally, giving merges the
+ * chance to catch up. The result is bounded by the configured minimum and maximum, and shards with waiting refresh listeners always use
+ * the minimum.
+ */
+final class AdaptiveRefreshPolicy {
+
+    static final long TARGET_OPERATIONS_PER_REFRESH = 10_000;
+    static final int SEGMENT_COUNT_THRESHOLD = 50;
+
+    private static final double ALPHA = 0.3;
+
+    private ExponentiallyWeightedMovingAverage operationsPerSecond;
+    private ExponentiallyWeightedMovingAverage searchesPerSecond;
+    private long lastSampleNanos;
+    private long lastOperationCount;
+    private long lastQueryCount;
+    private long lastRefreshNanos;
+    private volatile long intervalMillis = -1;
+
+    AdaptiveRefreshPolicy() {
+        reset();
+    }
+
+    /**
+     * Samples the load of the shard and returns whether the scheduled refresh that is about to happen should go ahead, which is the case
+     * if the adapted interval has passed since the last scheduled refresh that went ahead.
+     *
+     * @param nowNanos         the current relative time
+     * @param operationCount   the total number of index and delete operations performed on the shard
+     * @param queryCount       the total number of queries executed on the shard
+     * @param segmentCount     the number of segments of the shard
+     * @param pendingListeners the number of refresh listeners waiting for a refresh
+     */
+    synchronized boolean shouldRefresh(
+        long nowNanos,
+        long operationCount,
+        long queryCount,
+        int segmentCount,
+        int pendingListeners,
+        TimeValue minInterval,
+        TimeValue maxInterval
+    ) {
+        final boolean firstSample = lastSampleNanos < 0;
+        if (firstSample == false && nowNanos > lastSampleNanos) {
+            final double elapsedSeconds = (nowNanos - lastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            operationsPerSecond.addValue(Math.max(0L, operationCount - lastOperationCount) / elapsedSeconds);
+            searchesPerSecond.addValue(Math.max(0L, queryCount - lastQueryCount) / elapsedSeconds);
+        }
+        lastSampleNanos = nowNanos;
+        lastOperationCount = operationCount;
+        lastQueryCount = queryCount;
+
+        final long minMillis = minInterval.millis();
+        final long interval = computeIntervalMillis(
+            operationsPerSecond.getAverage(),
+            searchesPerSecond.getAverage(),
+            segmentCount,
+            pendingListeners,
+            minMillis,
+            maxInterval.millis()
+        );
+        intervalMillis = interval;
+        // the refresh task ticks every min interval, allow for some scheduling delay so that an interval that is a multiple of the min
+        // interval is not rounded up to the next tick
+        if (firstSample || nowNanos - lastRefreshNanos >= TimeUnit.MILLISECONDS.toNanos(interval - minMillis / 2)) {
+            lastRefreshNanos = nowNanos;
+            return true;
+        }
+        return false;
+    }
+
+    static long computeIntervalMillis(
+        double operationsPerSecond,
+        double searchesPerSecond,
+        int segmentCount,
+        int pendingListeners,
+        long minMillis,
+        long maxMillis
+    ) {
+        if (pendingListeners > 0 || maxMillis <= minMillis) {
+            return minMillis;
+        }
+        final double searchIntervalMillis = searchesPerSecond > 0 ? 1000 / searchesPerSecond : maxMillis;
+        final double indexingIntervalMillis = operationsPerSecond > 0
+            ? 1000 * TARGET_OPERATIONS_PER_REFRESH / operationsPerSecond
+            : maxMillis;
+        double intervalMillis = Math.min(searchIntervalMillis, indexingIntervalMillis);
+        if (segmentCount > SEGMENT_COUNT_THRESHOLD) {
+            intervalMillis *= (double) segmentCount / SEGMENT_COUNT_THRESHOLD;
+        }
+        return Math.max(minMillis, Math.min(maxMillis, Math.round(intervalMillis)));
+    }
+
+    /**
+     * Forgets all samples, to be called when the adaptive refresh gets disabled so that it starts over once it is enabled again.
+     */
+    synchronized void reset() {
+        operationsPerSecond = new ExponentiallyWeightedMovingAverage(ALPHA, 0);
+        searchesPerSecond = new ExponentiallyWeightedMovingAverage(ALPHA, 0);
+        lastSampleNanos = -1;
+        lastOperationCount = 0;
+        lastQueryCount = 0;
+        lastRefreshNanos = 0;
+        intervalMillis = -1;
+    }
+
+    /**
+     * Returns the last interval that was picked in milliseconds or {@code -1} if the adaptive refresh is not in use.
+     */
+    long intervalMillis() {
+        return intervalMillis;
+    }
+}
@@ -134,6 +134,7 @@ import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.index.translog.TranslogGroupCommitService;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
@@ -199,6 +200,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ThreadPool threadPool;
     @Nullable
     private final ThreadPoolMergeExecutorService threadPoolMergeExecutorService;
+    @Nullable // if translog syncs are not grouped across shards
+    private final TranslogGroupCommitService.ShardSyncer translogGroupCommitSyncer;
     private final MapperService mapperService;
     private final IndexCache indexCache;
     private final Store store;
@@ -302,6 +305,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
+    private final AdaptiveRefreshPolicy adaptiveRefreshPolicy = new AdaptiveRefreshPolicy();
     private final RefreshPendingLocationListener refreshPendingLocationListener;
     private final RefreshFieldHasValueListener refreshFieldHasValueListener;
     private volatile boolean useRetentionLeasesInPeerRecovery;
@@ -330,6 +334,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final CheckedFunction<DirectoryReader, DirectoryReader, IOException> indexReaderWrapper,
         final ThreadPool threadPool,
         final ThreadPoolMergeExecutorService threadPoolMergeExecutorService,
+        @Nullable final TranslogGroupCommitService translogGroupCommitService,
         final BigArrays bigArrays,
         final Engine.Warmer warmer,
         final List<SearchOperationListener> searchOperationListener,
@@ -358,6 +363,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.indexEventListener = indexEventListener;
         this.threadPool = threadPool;
         this.threadPoolMergeExecutorService = threadPoolMergeExecutorService;
+        this.translogGroupCommitSyncer = translogGroupCommitService == null
+            ? null
+            : translogGroupCommitService.newShardSyncer(this::ensureTranslogSynced);
         this.mapperService = mapperService;
         this.indexCache = indexCache;
         this.internalIndexingStats = new InternalIndexingStats(relativeTimeInNanosSupplier, indexingStatsSettings);
@@ -435,6 +443,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return this.threadPool;
     }
 
+    /**
+     * Returns the node-wide service that runs the merges of this shard, or {@code null} if merges are not run on the merge thread pool.
+     */
+    @Nullable
+    public ThreadPoolMergeExecutorService getThreadPoolMergeExecutorService() {
+        return threadPoolMergeExecutorService;
+    }
+
     public Store store() {
         return this.store;
     }
@@ -944,6 +960,33 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long ifPrimaryTerm,
         long autoGeneratedTimestamp,
         boolean isRetry
+    ) throws IOException {
+        return applyIndexOperationOnPrimary(
+            version,
+            versionType,
+            sourceToParse,
+            null,
+            ifSeqNo,
+            ifPrimaryTerm,
+            autoGeneratedTimestamp,
+            isRetry
+        );
+    }
+
+    /**
+     * Same as {@link #applyIndexOperationOnPrimary(long, VersionType, SourceToParse, long, long, long, boolean)}, but indexes the given
+     * document rather than parsing the source if it is not {@code null}. The caller must have parsed the document from the given source
+     * with the current {@link MapperService#documentMapper()}.
+     */
+    public Engine.IndexResult applyIndexOperationOnPrimary(
+        long version,
+        VersionType versionType,
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDocument,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long autoGeneratedTimestamp,
+        boolean isRetry
     ) throws IOException {
         assert versionType.validateVersionForWrites(version);
         return applyIndexOperation(
@@ -957,7 +1000,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimestamp,
             isRetry,
             Engine.Operation.Origin.PRIMARY,
-            sourceToParse
+            sourceToParse,
+            parsedDocument
         );
     }
 
@@ -980,7 +1024,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimeStamp,
             isRetry,
             Engine.Operation.Origin.REPLICA,
-            sourceToParse
+            sourceToParse,
+            null
         );
     }
 
@@ -995,27 +1040,45 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long autoGeneratedTimeStamp,
         boolean isRetry,
         Engine.Operation.Origin origin,
-        SourceToParse sourceToParse
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDocument
     ) throws IOException {
         assert opPrimaryTerm <= getOperationPrimaryTerm()
             : "op term [ " + opPrimaryTerm + " ] > shard term [" + getOperationPrimaryTerm() + "]";
         ensureWriteAllowed(origin);
         Engine.Index operation;
         try {
-            operation = prepareIndex(
-                mapperService,
-                sourceToParse,
-                seqNo,
-                opPrimaryTerm,
-                version,
-                versionType,
-                origin,
-                autoGeneratedTimeStamp,
-                isRetry,
-                ifSeqNo,
-                ifPrimaryTerm,
-                getRelativeTimeInNanos()
-            );
+            if (parsedDocument == null) {
+                operation = prepareIndex(
+                    mapperService,
+                    sourceToParse,
+                    seqNo,
+                    opPrimaryTerm,
+                    version,
+                    versionType,
+                    origin,
+                    autoGeneratedTimeStamp,
+                    isRetry,
+                    ifSeqNo,
+                    ifPrimaryTerm,
+                    getRelativeTimeInNanos()
+                );
+            } else {
+                assert parsedDocument.id().equals(sourceToParse.id()) : parsedDocument.id() + " != " + sourceToParse.id();
+                operation = prepareIndex(
+                    parsedDocument,
+                    seqNo,
+                    opPrimaryTerm,
+                    version,
+                    versionType,
+                    origin,
+                    autoGeneratedTimeStamp,
+                    isRetry,
+                    ifSeqNo,
+                    ifPrimaryTerm,
+                    getRelativeTimeInNanos()
+                );
+            }
             Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
             if (update != null) {
                 return new Engine.IndexResult(update, operation.parsedDoc().id());
@@ -1083,6 +1146,34 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             // whether mappings were provided or not.
             doc.addDynamicMappingsUpdate(mapping);
         }
+        return prepareIndex(
+            doc,
+            seqNo,
+            primaryTerm,
+            version,
+            versionType,
+            origin,
+            autoGeneratedIdTimestamp,
+            isRetry,
+            ifSeqNo,
+            ifPrimaryTerm,
+            startTimeInNanos
+        );
+    }
+
+    private static Engine.Index prepareIndex(
+        ParsedDocument doc,
+        long seqNo,
+        long primaryTerm,
+        long version,
+        VersionType versionType,
+        Engine.Operation.Origin origin,
+        long autoGeneratedIdTimestamp,
+        boolean isRetry,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long startTimeInNanos
+    ) {
         return new Engine.Index(
             Uid.encodeId(doc.id()),
             doc,
@@ -1344,12 +1435,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     public RefreshStats refreshStats() {
         int listeners = refreshListeners.pendingCount();
+        long adaptiveIntervalInMillis = adaptiveRefreshPolicy.intervalMillis();
         return new RefreshStats(
             refreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(refreshMetric.sum()),
             externalRefreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(externalRefreshMetric.sum()),
-            listeners
+            listeners,
+            adaptiveIntervalInMillis,
+            adaptiveIntervalInMillis
         );
     }
 
@@ -2083,7 +2177,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                     index.getAutoGeneratedIdTimestamp(),
                     true,
                     origin,
-                    new SourceToParse(index.id(), index.source(), XContentHelper.xContentType(index.source()), index.routing())
+                    new SourceToParse(index.id(), index.source(), XContentHelper.xContentType(index.source()), index.routing()),
+                    null
                 );
             }
             case DELETE -> {
@@ -4067,13 +4162,32 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only one thread
      * blocking on the sync an all others can continue indexing.
      * <p>
+     * If translog syncs are grouped across the shards of the node, see {@link TranslogGroupCommitService}, the sync is instead deferred
+     * to the next group commit which syncs this and other shards in parallel.
+     * <p>
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
     public final void syncAfterWrite(Translog.Location location, Consumer<Exception> syncListener) {
         assert indexShardOperationPermits.getActiveOperationsCount() != 0;
         verifyNotClosed();
-        getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        if (translogGroupCommitSyncer != null) {
+            translogGroupCommitSyncer.syncAfterWrite(location, syncListener);
+        } else {
+            getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        }
+    }
+
+    private void ensureTranslogSynced(Translog.Location location, Consumer<Exception> syncListener) {
+        final Engine engine;
+        try {
+            verifyNotClosed();
+            engine = getEngine();
+        } catch (Exception e) {
+            syncListener.accept(e);
+            return;
+        }
+        engine.asyncEnsureTranslogSynced(location, syncListener);
     }
 
     /**
@@ -4197,7 +4311,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             boolean listenerNeedsRefresh = refreshListeners.refreshNeeded();
             final Engine engine = getEngine();
             if (isReadAllowed() && (listenerNeedsRefresh || engine.refreshNeeded())) {
-                if (listenerNeedsRefresh == false // if we have a listener that is waiting for a refresh we need to force it
+                if (listenerNeedsRefresh == false && isAdaptiveRefreshDue(engine) == false) {
+                    // the shard is refreshed less often than the index level refresh task runs, given its indexing and search load
+                    logger.trace("scheduledRefresh: adaptive refresh interval not elapsed, skipping refresh");
+                    engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
+                    l.onResponse(false);
+                } else if (listenerNeedsRefresh == false // if we have a listener that is waiting for a refresh we need to force it
                     && engine.allowSearchIdleOptimization()
                     && isSearchIdle()
                     && indexSettings.isExplicitRefresh() == false
@@ -4221,6 +4340,28 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         });
     }
 
+    private boolean isAdaptiveRefreshDue(Engine engine) {
+        if (indexSettings.isAdaptiveRefreshEnabled() == false) {
+            if (adaptiveRefreshPolicy.intervalMillis() >= 0) {
+                adaptiveRefreshPolicy.reset();
+            }
+            return true;
+        }
+        final int segmentCount;
+        try (Engine.Searcher searcher = engine.acquireSearcher("adaptive_refresh", Engine.SearcherScope.INTERNAL)) {
+            segmentCount = searcher.getIndexReader().leaves().size();
+        }
+        return adaptiveRefreshPolicy.shouldRefresh(
+            relativeTimeInNanosSupplier.getAsLong(),
+            internalIndexingStats.totalOperationCount(),
+            searchStats.totalQueryCount(),
+            segmentCount,
+            refreshListeners.pendingCount(),
+            indexSettings.getRefreshInterval(),
+            indexSettings.getAdaptiveRefreshMaxInterval()
+        );
+    }
+
     /**
      * Returns true if this shards is search idle
      */
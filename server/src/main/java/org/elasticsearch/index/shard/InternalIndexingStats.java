@@ -69,6 +69,13 @@ final class InternalIndexingStats implements IndexingOperationListener {
         return new IndexingStats(total);
     }
 
+    /**
+     * Returns the number of index and delete operations that completed successfully.
+     */
+    long totalOperationCount() {
+        return totalStats.indexMetric.count() + totalStats.deleteMetric.count();
+    }
+
     long totalIndexingTimeInNanos() {
         return totalStats.indexMetric.sum();
     }
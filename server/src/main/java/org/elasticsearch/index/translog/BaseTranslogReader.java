@@ -69,7 +69,11 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
         readBytes(reusableBuffer, position);
         reusableBuffer.flip();
         // Add an extra 4 to account for the operation size integer itself
-        final int size = reusableBuffer.getInt() + 4;
+        return validateSize(reusableBuffer.getInt() + 4, position);
+    }
+
+    /** checks that an op of the given size (including the op size) written at the given position fits into the translog */
+    protected final int validateSize(int size, long position) {
         final long maxSize = sizeInBytes() - position;
         if (size < 0 || size > maxSize) {
             throw new TranslogCorruptedException(
@@ -125,6 +125,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final LongConsumer persistedSequenceNumberConsumer;
     private final OperationListener operationListener;
     private final TranslogOperationAsserter operationAsserter;
+    private final boolean mappedReads;
 
     /**
      * Creates a new Translog instance. This method will create a new transaction log unless the given {@link TranslogGeneration} is
@@ -162,6 +163,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         this.persistedSequenceNumberConsumer = persistedSequenceNumberConsumer;
         this.operationListener = config.getOperationListener();
         this.operationAsserter = operationAsserter;
+        this.mappedReads = config.getIndexSettings().getValue(IndexSettings.INDEX_TRANSLOG_MAPPED_READS_SETTING);
         this.deletionPolicy = deletionPolicy;
         this.translogUUID = translogUUID;
         this.bigArrays = config.getBigArrays();
@@ -716,7 +718,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             ensureOpen();
             TranslogSnapshot[] snapshots = Stream.concat(readers.stream(), Stream.of(current))
                 .filter(reader -> reader.getCheckpoint().minSeqNo <= toSeqNo && fromSeqNo <= reader.getCheckpoint().maxEffectiveSeqNo())
-                .map(BaseTranslogReader::newSnapshot)
+                .map(this::newReaderSnapshot)
                 .toArray(TranslogSnapshot[]::new);
             final Snapshot snapshot = newMultiSnapshot(snapshots);
             return new SeqNoFilterSnapshot(snapshot, fromSeqNo, toSeqNo);
@@ -725,6 +727,14 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    private TranslogSnapshot newReaderSnapshot(BaseTranslogReader reader) {
+        // only the readers of earlier generations are immutable and can be mapped, the current generation is still written to
+        if (mappedReads && reader instanceof TranslogReader translogReader) {
+            return translogReader.newMappedSnapshot();
+        }
+        return reader.newSnapshot();
+    }
+
     /**
      * Reads and returns the operation from the given location if the generation it references is still available. Otherwise
      * this method will return <code>null</code>.
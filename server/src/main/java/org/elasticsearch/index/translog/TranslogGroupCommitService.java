@@ -0,0 +1,258 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.telemetry.metric.LongHistogram;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Node level service that groups the translog syncs that write operations wait for across all shards of the node. Instead of every
+ * shard fsyncing its translog as soon as a write asks for it, sync requests are collected for a short period and then all shards with
+ * pending requests are synced in parallel, completing all listeners of a shard with a single fsync.
+ * <p>
+ * The period adapts to the load: as long as batches contain a single shard, syncs are dispatched right away. Once requests of several
+ * shards end up in the same batch, the next batch waits for half the average sync time, bounded by
+ * {@link #GROUP_COMMIT_MAX_DELAY_SETTING}, since a request arriving within that period would otherwise have had to wait for a sync of
+ * its own.
+ */
+public final class TranslogGroupCommitService {
+
+    private static final Logger logger = LogManager.getLogger(TranslogGroupCommitService.class);
+
+    /**
+     * Whether translog syncs of all shards on the node are grouped. Only applies to syncs requested by write operations on indices with
+     * {@code index.translog.durability: request}.
+     */
+    public static final Setting<Boolean> GROUP_COMMIT_ENABLED_SETTING = Setting.boolSetting(
+        "indices.translog.group_commit.enabled",
+        false,
+        Property.NodeScope
+    );
+
+    /**
+     * The maximum time sync requests wait for other requests to be grouped with.
+     */
+    public static final Setting<TimeValue> GROUP_COMMIT_MAX_DELAY_SETTING = Setting.timeSetting(
+        "indices.translog.group_commit.max_delay",
+        TimeValue.timeValueMillis(2),
+        TimeValue.ZERO,
+        TimeValue.timeValueMillis(100),
+        Property.NodeScope
+    );
+
+    public static final String BATCH_SIZE_HISTOGRAM = "es.translog.group_commit.batch_size.histogram";
+    public static final String SYNC_TIME_HISTOGRAM = "es.translog.group_commit.sync_time.histogram";
+
+    private final ThreadPool threadPool;
+    private final Executor executor;
+    private final long maxDelayNanos;
+    private final LongHistogram batchSizeHistogram;
+    private final LongHistogram syncTimeHistogram;
+    private final ExponentiallyWeightedMovingAverage syncTimeNanos = new ExponentiallyWeightedMovingAverage(0.1, 0);
+    private final Queue<ShardSyncer> pendingSyncers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean batchScheduled = new AtomicBoolean();
+    private volatile int lastBatchSize;
+
+    TranslogGroupCommitService(Settings settings, ThreadPool threadPool, MeterRegistry meterRegistry) {
+        this.threadPool = threadPool;
+        this.executor = threadPool.generic();
+        this.maxDelayNanos = GROUP_COMMIT_MAX_DELAY_SETTING.get(settings).nanos();
+        this.batchSizeHistogram = meterRegistry.registerLongHistogram(
+            BATCH_SIZE_HISTOGRAM,
+            "The number of shards whose translog is synced together by a group commit, expressed as a histogram",
+            "count"
+        );
+        this.syncTimeHistogram = meterRegistry.registerLongHistogram(
+            SYNC_TIME_HISTOGRAM,
+            "The time to sync the translog of a shard as part of a group commit, expressed as a histogram",
+            "micros"
+        );
+    }
+
+    /**
+     * Creates the service if {@link #GROUP_COMMIT_ENABLED_SETTING} is set, returns {@code null} otherwise.
+     */
+    @Nullable
+    public static TranslogGroupCommitService maybeCreate(Settings settings, ThreadPool threadPool, MeterRegistry meterRegistry) {
+        if (GROUP_COMMIT_ENABLED_SETTING.get(settings)) {
+            return new TranslogGroupCommitService(settings, threadPool, meterRegistry);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the syncer for a single shard. The given function syncs the translog of the shard up to the given location and notifies
+     * the given listener once done.
+     */
+    public ShardSyncer newShardSyncer(BiConsumer<Translog.Location, Consumer<Exception>> syncFunction) {
+        return new ShardSyncer(syncFunction);
+    }
+
+    // visible for testing
+    long nextDelayNanos() {
+        if (lastBatchSize <= 1) {
+            return 0L;
+        }
+        return Math.min(maxDelayNanos, (long) (syncTimeNanos.getAverage() / 2));
+    }
+
+    private void enqueue(ShardSyncer syncer) {
+        pendingSyncers.add(syncer);
+        if (batchScheduled.compareAndSet(false, true)) {
+            // the batch serves many requests, the listeners of each request restore their own context
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                final long delayNanos = nextDelayNanos();
+                if (delayNanos == 0L) {
+                    executor.execute(this::runBatch);
+                } else {
+                    threadPool.schedule(this::runBatch, TimeValue.timeValueNanos(delayNanos), executor);
+                }
+            }
+        }
+    }
+
+    private void runBatch() {
+        final List<ShardSyncer> batch = new ArrayList<>();
+        // requests that arrive from now on go into the next batch
+        batchScheduled.set(false);
+        ShardSyncer syncer;
+        while ((syncer = pendingSyncers.poll()) != null) {
+            batch.add(syncer);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        lastBatchSize = batch.size();
+        batchSizeHistogram.record(batch.size());
+        // the last sync runs on this thread, all others are forked so that they proceed in parallel
+        for (int i = 0; i < batch.size() - 1; i++) {
+            executor.execute(batch.get(i));
+        }
+        batch.get(batch.size() - 1).run();
+    }
+
+    private void onSyncCompleted(long startNanos) {
+        final long tookNanos = System.nanoTime() - startNanos;
+        syncTimeNanos.addValue(tookNanos);
+        syncTimeHistogram.record(TimeUnit.NANOSECONDS.toMicros(tookNanos));
+    }
+
+    private static void notifyListeners(List<Consumer<Exception>> listeners, @Nullable Exception exception) {
+        for (Consumer<Exception> listener : listeners) {
+            try {
+                listener.accept(exception);
+            } catch (Exception ex) {
+                logger.warn("failed to notify translog sync listener", ex);
+            }
+        }
+    }
+
+    /**
+     * Collects the sync requests of a single shard until the next batch syncs the shard.
+     */
+    public final class ShardSyncer extends AbstractRunnable {
+
+        private final BiConsumer<Translog.Location, Consumer<Exception>> syncFunction;
+        private final Object mutex = new Object();
+        private List<Consumer<Exception>> listeners = new ArrayList<>();
+        private Translog.Location location = Translog.Location.EMPTY;
+        private boolean enqueued;
+
+        private ShardSyncer(BiConsumer<Translog.Location, Consumer<Exception>> syncFunction) {
+            this.syncFunction = syncFunction;
+        }
+
+        /**
+         * Requests the translog to be synced up to the given location. The listener is notified with {@code null} once the location
+         * is synced or with the exception that caused the sync to fail.
+         */
+        public void syncAfterWrite(Translog.Location location, Consumer<Exception> listener) {
+            final Consumer<Exception> contextPreservingListener = preserveContext(listener);
+            final boolean enqueue;
+            synchronized (mutex) {
+                listeners.add(contextPreservingListener);
+                if (location.compareTo(this.location) > 0) {
+                    this.location = location;
+                }
+                enqueue = enqueued == false;
+                enqueued = true;
+            }
+            if (enqueue) {
+                enqueue(this);
+            }
+        }
+
+        @Override
+        protected void doRun() {
+            final List<Consumer<Exception>> toNotify;
+            final Translog.Location toSync;
+            synchronized (mutex) {
+                toNotify = listeners;
+                toSync = location;
+                listeners = new ArrayList<>();
+                location = Translog.Location.EMPTY;
+                enqueued = false;
+            }
+            final long startNanos = System.nanoTime();
+            try {
+                syncFunction.accept(toSync, e -> {
+                    onSyncCompleted(startNanos);
+                    notifyListeners(toNotify, e);
+                });
+            } catch (Exception e) {
+                notifyListeners(toNotify, e);
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            // the sync could not be forked, fail everything that was waiting for it
+            final List<Consumer<Exception>> toNotify;
+            synchronized (mutex) {
+                toNotify = listeners;
+                listeners = new ArrayList<>();
+                location = Translog.Location.EMPTY;
+                enqueued = false;
+            }
+            notifyListeners(toNotify, e);
+        }
+
+        private Consumer<Exception> preserveContext(Consumer<Exception> listener) {
+            final Supplier<ThreadContext.StoredContext> restorableContext = threadPool.getThreadContext().newRestorableContext(false);
+            return e -> {
+                try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                    listener.accept(e);
+                }
+            };
+        }
+    }
+}
@@ -9,6 +9,8 @@
 
 package org.elasticsearch.index.translog;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.common.io.Channels;
 import org.elasticsearch.core.IOUtils;
@@ -29,6 +31,9 @@ import static org.elasticsearch.index.translog.Translog.getCommitCheckpointFileN
  * an immutable translog filereader
  */
 public class TranslogReader extends BaseTranslogReader implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(TranslogReader.class);
+
     protected final long length;
     private final int totalOperations;
     private final Checkpoint checkpoint;
@@ -104,6 +109,26 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
         }
     }
 
+    /**
+     * Creates a snapshot that deserializes the operations of this generation straight out of a read-only memory mapping of the file
+     * instead of copying them into heap buffers through the file channel. Falls back to a snapshot that reads through the file channel
+     * if the file cannot be mapped. The mapping is released once the snapshot is garbage collected.
+     */
+    TranslogSnapshot newMappedSnapshot() {
+        if (length <= Integer.MAX_VALUE) {
+            try {
+                // a file that is shorter than its checkpoint is truncated, let the channel reads report the corruption rather than
+                // accessing a mapping that extends past the end of the file
+                if (channel.size() >= length) {
+                    return new TranslogSnapshot(this, length, channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.debug(() -> "failed to map " + this + ", reading through the file channel instead", e);
+            }
+        }
+        return newSnapshot();
+    }
+
     public long sizeInBytes() {
         return length;
     }
@@ -9,6 +9,8 @@
 package org.elasticsearch.index.translog;
 
 import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 
 import java.io.EOFException;
@@ -22,6 +24,9 @@ final class TranslogSnapshot extends BaseTranslogReader {
     protected final long length;
 
     private final ByteBuffer reusableBuffer;
+    // a read-only mapping of the entire file if operations are read from memory rather than through the file channel
+    @Nullable
+    private final ByteBuffer mapped;
     private long position;
     private int skippedOperations;
     private int readOperations;
@@ -31,11 +36,20 @@ final class TranslogSnapshot extends BaseTranslogReader {
      * Create a snapshot of translog file channel.
      */
     TranslogSnapshot(final BaseTranslogReader reader, final long length) {
+        this(reader, length, null);
+    }
+
+    /**
+     * Create a snapshot of translog file channel that reads operations from the given mapping of the file if not {@code null}.
+     */
+    TranslogSnapshot(final BaseTranslogReader reader, final long length, @Nullable final ByteBuffer mapped) {
         super(reader.generation, reader.channel, reader.path, reader.header);
+        assert mapped == null || mapped.capacity() == length : "mapping of [" + mapped.capacity() + "] bytes for length [" + length + "]";
         this.length = length;
         this.totalOperations = reader.totalOperations();
         this.checkpoint = reader.getCheckpoint();
-        this.reusableBuffer = ByteBuffer.allocate(1024);
+        this.mapped = mapped;
+        this.reusableBuffer = mapped == null ? ByteBuffer.allocate(1024) : null;
         this.readOperations = 0;
         this.position = reader.getFirstOperationOffset();
         this.reuse = null;
@@ -68,14 +82,33 @@ final class TranslogSnapshot extends BaseTranslogReader {
     }
 
     private Translog.Operation readOperation() throws IOException {
-        final int opSize = readSize(reusableBuffer, position);
-        reuse = checksummedStream(reusableBuffer, position, opSize, reuse);
+        final int opSize;
+        if (mapped == null) {
+            opSize = readSize(reusableBuffer, position);
+            reuse = checksummedStream(reusableBuffer, position, opSize, reuse);
+        } else {
+            opSize = readMappedSize();
+            // the operation is deserialized from a view of the mapping, without copying it into a buffer first
+            final ByteBuffer slice = mapped.slice(Math.toIntExact(position), opSize);
+            reuse = new BufferedChecksumStreamInput(new ByteBufferStreamInput(slice), path.toString(), reuse);
+        }
         Translog.Operation op = read(reuse);
         position += opSize;
         readOperations++;
         return op;
     }
 
+    private int readMappedSize() {
+        if (position + Integer.BYTES > length) {
+            throw new TranslogCorruptedException(
+                path.toString(),
+                "translog truncated, operation size at [" + position + "] exceeds length [" + length + "]"
+            );
+        }
+        // Add an extra 4 to account for the operation size integer itself
+        return validateSize(mapped.getInt(Math.toIntExact(position)) + 4, position);
+    }
+
     public long sizeInBytes() {
         return length;
     }
@@ -132,6 +165,8 @@ final class TranslogSnapshot extends BaseTranslogReader {
             + generation
             + ", reusableBuffer="
             + reusableBuffer
+            + ", mapped="
+            + (mapped != null)
             + '}';
     }
 }
@@ -26,7 +26,7 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
 
     @Override
     public final void onCached(IndicesRequestCache.Key key, BytesReference value) {
-        stats().onCached(key, value);
+        stats().onCached(key, value, RequestCacheValueStore.offHeapBytes(value));
     }
 
     @Override
@@ -44,7 +44,8 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
         stats().onRemoval(
             notification.getKey(),
             notification.getValue(),
-            notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED
+            notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED,
+            RequestCacheValueStore.offHeapBytes(notification.getValue())
         );
     }
 }
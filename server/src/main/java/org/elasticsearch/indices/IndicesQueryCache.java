@@ -9,16 +9,28 @@
 
 package org.elasticsearch.indices;
 
+import com.carrotsearch.hppc.BitMixer;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Matches;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.RoaringDocIdSet;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.lucene.ShardCoreKeyMap;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -26,6 +38,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Predicates;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.shard.ShardId;
 
@@ -36,6 +49,8 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Predicate;
 
 public class IndicesQueryCache implements QueryCache, Closeable {
@@ -62,10 +77,28 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         Property.NodeScope
     );
 
+    // filters that took at least this long to compute a cache entry for are cached without waiting for the caching policy of each shard
+    // to see them often enough, a negative value disables this
+    public static final Setting<TimeValue> INDICES_QUERIES_CACHE_COST_ADMISSION_THRESHOLD_SETTING = Setting.timeSetting(
+        "indices.queries.cache.cost_admission_threshold",
+        TimeValue.timeValueMillis(5),
+        TimeValue.MINUS_ONE,
+        Property.NodeScope
+    );
+
+    // the number of filters whose cost is remembered, must be a power of two
+    private static final int COST_TABLE_SIZE = 1 << 12;
+
     private final LRUQueryCache cache;
     private final ShardCoreKeyMap shardKeyMap = new ShardCoreKeyMap();
     private final Map<ShardId, Stats> shardStats = new ConcurrentHashMap<>();
     private volatile long sharedRamBytesUsed;
+    private final CircuitBreaker breaker;
+    // the bytes that were added to the breaker, only modified by the callbacks of the cache, which hold its lock
+    private long breakerBytes;
+    private final long costAdmissionThresholdMicros;
+    // the cost of the filters that were cached recently, see QueryCost
+    private final AtomicLongArray queryCosts = new AtomicLongArray(COST_TABLE_SIZE);
 
     // This is a hack for the fact that the close listener for the
     // ShardCoreKeyMap will be called before onDocIdSetEviction
@@ -73,6 +106,13 @@ public class IndicesQueryCache implements QueryCache, Closeable {
     private final Map<Object, StatsAndCount> stats2 = Collections.synchronizedMap(new IdentityHashMap<>());
 
     public IndicesQueryCache(Settings settings) {
+        this(settings, new NoopCircuitBreaker(CircuitBreaker.QUERY_CACHE));
+    }
+
+    public IndicesQueryCache(Settings settings, CircuitBreaker breaker) {
+        this.breaker = breaker;
+        final TimeValue costAdmissionThreshold = INDICES_QUERIES_CACHE_COST_ADMISSION_THRESHOLD_SETTING.get(settings);
+        this.costAdmissionThresholdMicros = costAdmissionThreshold.nanos() < 0 ? -1 : costAdmissionThreshold.micros();
         final ByteSizeValue size = INDICES_CACHE_QUERY_SIZE_SETTING.get(settings);
         final int count = INDICES_CACHE_QUERY_COUNT_SETTING.get(settings);
         logger.debug("using [node] query cache with size [{}] max filter count [{}]", size, count);
@@ -144,12 +184,147 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         while (weight instanceof CachingWeightWrapper) {
             weight = ((CachingWeightWrapper) weight).in;
         }
-        final Weight in = cache.doCache(weight, policy);
+        final Weight in = costAdmissionThresholdMicros < 0
+            ? cache.doCache(weight, policy)
+            : cache.doCache(new CostTrackingWeight(weight), new CostAwareCachingPolicy(policy));
         // We wrap the weight to track the readers it sees and map them with
         // the shards they belong to
         return new CachingWeightWrapper(in);
     }
 
+    /**
+     * Records how long it took to compute the cache entry of a filter on a segment. Filters are tracked by hash code in a fixed-size table,
+     * like Lucene's {@link org.apache.lucene.search.UsageTrackingQueryCachingPolicy} tracks their usage, so that evicted filters don't
+     * stay referenced. A collision may only make a filter get cached earlier than its caching policy would.
+     */
+    private void onCacheEntryComputed(Query query, long tookNanos) {
+        final int hash = query.hashCode();
+        final long tookMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(tookNanos), 0xFFFFFFFFL);
+        queryCosts.set(costSlot(hash), ((long) hash << 32) | tookMicros);
+    }
+
+    /**
+     * Whether computing the cache entry of this filter recently took at least the cost admission threshold on some segment of any shard.
+     */
+    boolean isCostly(Query query) {
+        final int hash = query.hashCode();
+        final long cost = queryCosts.get(costSlot(hash));
+        return cost != 0L && (int) (cost >>> 32) == hash && (cost & 0xFFFFFFFFL) >= costAdmissionThresholdMicros;
+    }
+
+    private static int costSlot(int hash) {
+        return BitMixer.mix(hash) & (COST_TABLE_SIZE - 1);
+    }
+
+    /**
+     * Caches filters that were expensive to compute on any shard of the node, in addition to those that the caching policy of the shard
+     * wants to cache. Heavy filters that are shared across shards, e.g. the ones that restrict the documents a user has access to, then get
+     * cached on every shard as soon as they got cached on one, and get cached again right away after having been evicted.
+     */
+    private class CostAwareCachingPolicy implements QueryCachingPolicy {
+
+        private final QueryCachingPolicy in;
+
+        CostAwareCachingPolicy(QueryCachingPolicy in) {
+            this.in = in;
+        }
+
+        @Override
+        public void onUse(Query query) {
+            in.onUse(query);
+        }
+
+        @Override
+        public boolean shouldCache(Query query) throws IOException {
+            return in.shouldCache(query) || isCostly(query);
+        }
+    }
+
+    /**
+     * Tags the bulk scorers of a filter with the filter, so that {@link ElasticsearchLRUQueryCache#cacheImpl} knows the filter whose cache
+     * entry it computes.
+     */
+    private static class CostTrackingWeight extends Weight {
+
+        private final Weight in;
+
+        CostTrackingWeight(Weight in) {
+            super(in.getQuery());
+            this.in = in;
+        }
+
+        @Override
+        public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+            return in.explain(context, doc);
+        }
+
+        @Override
+        public Matches matches(LeafReaderContext context, int doc) throws IOException {
+            return in.matches(context, doc);
+        }
+
+        @Override
+        public int count(LeafReaderContext context) throws IOException {
+            return in.count(context);
+        }
+
+        @Override
+        public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+            final ScorerSupplier supplier = in.scorerSupplier(context);
+            if (supplier == null) {
+                return null;
+            }
+            return new ScorerSupplier() {
+                @Override
+                public Scorer get(long leadCost) throws IOException {
+                    return supplier.get(leadCost);
+                }
+
+                @Override
+                public BulkScorer bulkScorer() throws IOException {
+                    final BulkScorer bulkScorer = supplier.bulkScorer();
+                    return bulkScorer == null ? null : new CostTrackingBulkScorer(getQuery(), bulkScorer);
+                }
+
+                @Override
+                public long cost() {
+                    return supplier.cost();
+                }
+
+                @Override
+                public void setTopLevelScoringClause() throws IOException {
+                    supplier.setTopLevelScoringClause();
+                }
+            };
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            return in.isCacheable(ctx);
+        }
+    }
+
+    private static class CostTrackingBulkScorer extends BulkScorer {
+
+        private final Query query;
+        private final BulkScorer in;
+
+        CostTrackingBulkScorer(Query query, BulkScorer in) {
+            this.query = query;
+            this.in = in;
+        }
+
+        @Override
+        public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+            return in.score(collector, acceptDocs, min, max);
+        }
+
+        @Override
+        public long cost() {
+            return in.cost();
+        }
+    }
+
     private class CachingWeightWrapper extends Weight {
 
         private final Weight in;
@@ -273,6 +448,11 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         shardStats.remove(shardId);
     }
 
+    private void addToBreaker(long bytes) {
+        breakerBytes += bytes;
+        breaker.addWithoutBreaking(bytes);
+    }
+
     private class ElasticsearchLRUQueryCache extends LRUQueryCache {
 
         ElasticsearchLRUQueryCache(int maxSize, long maxRamBytesUsed, Predicate<LeafReaderContext> leavesToCache, float skipFactor) {
@@ -295,6 +475,32 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             return shardStats.computeIfAbsent(shardKeyMap.getShardId(coreKey), Stats::new);
         }
 
+        /**
+         * Caches all doc id sets as a {@link RoaringDocIdSet}, instead of only the sparse ones. Its blocks of 64k documents are stored as a
+         * bit set only when they are neither sparse nor dense, while dense blocks only store the documents that don't match. This makes
+         * the entries of filters that match most documents, which are common for security and tenant filters, a fraction of the size of
+         * a bit set, so that they are less likely to be evicted.
+         */
+        @Override
+        protected CacheAndCount cacheImpl(BulkScorer scorer, int maxDoc) throws IOException {
+            final long startTimeNanos = System.nanoTime();
+            final RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(maxDoc);
+            scorer.score(new LeafCollector() {
+                @Override
+                public void setScorer(Scorable scorer) {}
+
+                @Override
+                public void collect(int doc) {
+                    builder.add(doc);
+                }
+            }, null, 0, DocIdSetIterator.NO_MORE_DOCS);
+            final RoaringDocIdSet docIdSet = builder.build();
+            if (scorer instanceof CostTrackingBulkScorer costTrackingBulkScorer) {
+                onCacheEntryComputed(costTrackingBulkScorer.query, System.nanoTime() - startTimeNanos);
+            }
+            return new CacheAndCount(docIdSet, docIdSet.cardinality());
+        }
+
         // It's ok to not protect these callbacks by a lock since it is
         // done in LRUQueryCache
         @Override
@@ -307,23 +513,27 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             }
             stats2.clear();
             sharedRamBytesUsed = 0;
+            addToBreaker(-breakerBytes);
         }
 
         @Override
         protected void onQueryCache(Query filter, long ramBytesUsed) {
             super.onQueryCache(filter, ramBytesUsed);
             sharedRamBytesUsed += ramBytesUsed;
+            addToBreaker(ramBytesUsed);
         }
 
         @Override
         protected void onQueryEviction(Query filter, long ramBytesUsed) {
             super.onQueryEviction(filter, ramBytesUsed);
             sharedRamBytesUsed -= ramBytesUsed;
+            addToBreaker(-ramBytesUsed);
         }
 
         @Override
         protected void onDocIdSetCache(Object readerCoreKey, long ramBytesUsed) {
             super.onDocIdSetCache(readerCoreKey, ramBytesUsed);
+            addToBreaker(ramBytesUsed);
             final Stats shardStats = getOrCreateStats(readerCoreKey);
             shardStats.cacheSize += 1;
             shardStats.cacheCount += 1;
@@ -340,6 +550,7 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         @Override
         protected void onDocIdSetEviction(Object readerCoreKey, int numEntries, long sumRamBytesUsed) {
             super.onDocIdSetEviction(readerCoreKey, numEntries, sumRamBytesUsed);
+            addToBreaker(-sumRamBytesUsed);
             // onDocIdSetEviction might sometimes be called with a number
             // of entries equal to zero if the cache for the given segment
             // was already empty when the close listener was called
@@ -10,9 +10,13 @@
 package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
@@ -24,6 +28,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.mapper.MappingLookup;
 
@@ -42,8 +47,9 @@ import java.util.concurrent.ConcurrentMap;
  * eviction to evict old reader associated cache entries as well as scheduler reaper to clean readers that
  * are no longer used or closed shards.
  * <p>
- * Currently, the cache is only enabled for count requests, and can only be opted in on an index
- * level setting that can be dynamically changed and defaults to false.
+ * By default, the cache is only enabled for requests that do not return hits. Requests that return hits can be cached
+ * when they opt in with the {@code request_cache} parameter or when {@link #INDEX_CACHE_REQUEST_HITS_SETTING} is set on the
+ * index. The entries that hold hits are accounted in the {@link CircuitBreaker#REQUEST_CACHE_HITS} breaker.
  * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
@@ -60,6 +66,27 @@ public final class IndicesRequestCache implements Closeable {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * A setting to additionally cache the aggregation results of cacheable requests per segment, so that a request that misses the
+     * cache after a refresh only needs to collect the segments that were added or changed by the refresh.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_aggregations.enable",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    /**
+     * A setting to also cache the query phase results of requests that return hits, i.e. whose {@code size} is greater than 0, when
+     * the request does not set the {@code request_cache} parameter. The top docs of these results are only valid for the reader they
+     * were computed on, which the entries are already keyed on.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_HITS_SETTING = Setting.boolSetting(
+        "index.requests.cache.hits.enable",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -70,17 +97,49 @@ public final class IndicesRequestCache implements Closeable {
         new TimeValue(0),
         Property.NodeScope
     );
+    /**
+     * Whether cached values are LZ4 compressed. Compressed values are decompressed on every cache hit.
+     */
+    public static final Setting<Boolean> INDICES_CACHE_QUERY_COMPRESS = Setting.boolSetting(
+        "indices.requests.cache.compress",
+        false,
+        Property.NodeScope
+    );
+    /**
+     * Whether cached values are held in native memory outside of the java heap, which is freed when they are removed from the cache.
+     * Only the keys remain on heap, the values still count towards {@link #INDICES_CACHE_QUERY_SIZE}.
+     */
+    public static final Setting<Boolean> INDICES_CACHE_QUERY_OFF_HEAP = Setting.boolSetting(
+        "indices.requests.cache.off_heap",
+        false,
+        Property.NodeScope
+    );
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final Cache<Key, BytesReference> cache;
+    private final RequestCacheValueStore valueStore;
+    private final CircuitBreaker hitsBreaker;
 
     IndicesRequestCache(Settings settings) {
+        this(settings, new NoopCircuitBreaker(CircuitBreaker.REQUEST_CACHE_HITS));
+    }
+
+    IndicesRequestCache(Settings settings, CircuitBreaker hitsBreaker) {
+        this.hitsBreaker = hitsBreaker;
         TimeValue expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
+        valueStore = new RequestCacheValueStore(INDICES_CACHE_QUERY_COMPRESS.get(settings), INDICES_CACHE_QUERY_OFF_HEAP.get(settings));
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
             .setMaximumWeight(INDICES_CACHE_QUERY_SIZE.get(settings).getBytes())
-            .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
-            .removalListener(notification -> notification.getKey().entity.onRemoval(notification));
+            .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed() + RequestCacheValueStore.offHeapBytes(v))
+            .removalListener(notification -> {
+                final Key key = notification.getKey();
+                if (key.hitsBreakerBytes > 0) {
+                    hitsBreaker.addWithoutBreaking(-key.hitsBreakerBytes);
+                }
+                key.entity.onRemoval(notification);
+                RequestCacheValueStore.release(notification.getValue());
+            });
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
@@ -103,13 +162,35 @@ public final class IndicesRequestCache implements Closeable {
         MappingLookup.CacheKey mappingCacheKey,
         DirectoryReader reader,
         BytesReference cacheKey
+    ) throws Exception {
+        return getOrCompute(cacheEntity, loader, mappingCacheKey, reader, cacheKey, false);
+    }
+
+    /**
+     * Same as {@link #getOrCompute(CacheEntity, CheckedSupplier, MappingLookup.CacheKey, DirectoryReader, BytesReference)}, but if
+     * {@code withHits} is set the computed value is accounted in the {@link CircuitBreaker#REQUEST_CACHE_HITS} breaker, and it is
+     * returned without being kept in the cache if that would trip the breaker.
+     */
+    BytesReference getOrCompute(
+        CacheEntity cacheEntity,
+        CheckedSupplier<BytesReference, IOException> loader,
+        MappingLookup.CacheKey mappingCacheKey,
+        DirectoryReader reader,
+        BytesReference cacheKey,
+        boolean withHits
     ) throws Exception {
         final ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
         assert cacheHelper != null;
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
-        Loader cacheLoader = new Loader(cacheEntity, loader);
+        Loader cacheLoader = new Loader(cacheEntity, loader, valueStore, withHits ? hitsBreaker : null);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
+            if (cacheLoader.rejected) {
+                // the entry was already published by the cache, it is removed again rather than failing every request waiting for it
+                cache.invalidate(key);
+            }
+            // no need to decode the stored form of the value we just computed ourselves
+            value = cacheLoader.computedValue;
             key.entity.onMiss();
             // see if its the first time we see this reader, and make sure to register a cleanup key
             CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
@@ -129,11 +210,62 @@ public final class IndicesRequestCache implements Closeable {
              * and readers are never changed. Oh well.
              */
         } else {
+            final BytesReference loaded = valueStore.load(value);
+            if (loaded == null) {
+                // the entry was removed and its memory released while we were reading it, compute it again
+                return getOrCompute(cacheEntity, loader, mappingCacheKey, reader, cacheKey, withHits);
+            }
             key.entity.onHit();
+            value = loaded;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached result for the given segment, or {@code null} if there is none. Unlike
+     * {@link #getOrCompute(CacheEntity, CheckedSupplier, MappingLookup.CacheKey, DirectoryReader, BytesReference)} entries are keyed on
+     * the reader cache key of a single segment, which changes whenever the segment gets new deletes.
+     */
+    BytesReference getSegmentResult(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper segmentCacheHelper,
+        BytesReference cacheKey
+    ) {
+        final BytesReference stored = cache.get(new Key(cacheEntity, mappingCacheKey, segmentCacheHelper.getKey(), cacheKey));
+        // the value is null as well if the entry was removed and its memory released while we were reading it
+        final BytesReference value = stored == null ? null : valueStore.load(stored);
+        if (value == null) {
+            cacheEntity.onMiss();
+            return null;
         }
+        cacheEntity.onHit();
         return value;
     }
 
+    /**
+     * Caches the result for the given segment and makes sure the entry is cleaned up once the segment is closed.
+     */
+    void putSegmentResult(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper segmentCacheHelper,
+        BytesReference cacheKey,
+        BytesReference value
+    ) {
+        final Key key = new Key(cacheEntity, mappingCacheKey, segmentCacheHelper.getKey(), cacheKey);
+        final BytesReference stored = valueStore.store(value);
+        cacheEntity.onCached(key, stored);
+        cache.put(key, stored);
+        CleanupKey cleanupKey = new CleanupKey(cacheEntity, segmentCacheHelper.getKey());
+        if (registeredClosedListeners.containsKey(cleanupKey) == false) {
+            Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+            if (previous == null) {
+                segmentCacheHelper.addClosedListener(cleanupKey::onClose);
+            }
+        }
+    }
+
     /**
      * Invalidates the given the cache entry for the given key and it's context
      * @param cacheEntity the cache entity to invalidate for
@@ -149,11 +281,23 @@ public final class IndicesRequestCache implements Closeable {
 
         private final CacheEntity entity;
         private final CheckedSupplier<BytesReference, IOException> loader;
+        private final RequestCacheValueStore valueStore;
+        @Nullable
+        private final CircuitBreaker breaker;
         private boolean loaded;
-
-        Loader(CacheEntity entity, CheckedSupplier<BytesReference, IOException> loader) {
+        private boolean rejected;
+        private BytesReference computedValue;
+
+        Loader(
+            CacheEntity entity,
+            CheckedSupplier<BytesReference, IOException> loader,
+            RequestCacheValueStore valueStore,
+            @Nullable CircuitBreaker breaker
+        ) {
             this.entity = entity;
             this.loader = loader;
+            this.valueStore = valueStore;
+            this.breaker = breaker;
         }
 
         public boolean isLoaded() {
@@ -162,7 +306,18 @@ public final class IndicesRequestCache implements Closeable {
 
         @Override
         public BytesReference load(Key key) throws Exception {
-            BytesReference value = loader.get();
+            computedValue = loader.get();
+            BytesReference value = valueStore.store(computedValue);
+            if (breaker != null) {
+                // accounted before the entry is published so that its removal always finds the bytes to release
+                final long bytes = key.ramBytesUsed() + value.ramBytesUsed();
+                try {
+                    breaker.addEstimateBytesAndMaybeBreak(bytes, "<request_cache_hits>");
+                    key.hitsBreakerBytes = bytes;
+                } catch (CircuitBreakingException e) {
+                    rejected = true;
+                }
+            }
             entity.onCached(key, value);
             loaded = true;
             return value;
@@ -175,7 +330,7 @@ public final class IndicesRequestCache implements Closeable {
     interface CacheEntity extends Accountable {
 
         /**
-         * Called after the value was loaded.
+         * Called after the value was loaded. The value is in the form held by the cache, i.e. possibly compressed or off-heap.
          */
         void onCached(Key key, BytesReference value);
 
@@ -214,6 +369,8 @@ public final class IndicesRequestCache implements Closeable {
         public final MappingLookup.CacheKey mappingCacheKey;
         public final Object readerCacheKey;
         public final BytesReference value;
+        // the bytes accounted in the request cache hits breaker for the entry of this key, released when the entry is removed
+        volatile long hitsBreakerBytes;
 
         Key(CacheEntity entity, MappingLookup.CacheKey mappingCacheKey, Object readerCacheKey, BytesReference value) {
             this.entity = entity;
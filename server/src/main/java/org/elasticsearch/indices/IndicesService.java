@@ -13,6 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -130,6 +131,7 @@ import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.IndexingStatsSettings;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogGroupCommitService;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
@@ -144,6 +146,8 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.plugins.internal.rewriter.QueryRewriteInterceptor;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SegmentAggregationCache;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
@@ -236,6 +240,8 @@ public class IndicesService extends AbstractLifecycleComponent
     private final ThreadPool threadPool;
     @Nullable
     private final ThreadPoolMergeExecutorService threadPoolMergeExecutorService;
+    @Nullable
+    private final TranslogGroupCommitService translogGroupCommitService;
     private final CircuitBreakerService circuitBreakerService;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
@@ -297,6 +303,7 @@ public class IndicesService extends AbstractLifecycleComponent
             threadPool,
             settings
         );
+        this.translogGroupCommitService = TranslogGroupCommitService.maybeCreate(settings, threadPool, builder.meterRegistry);
         this.pluginsService = builder.pluginsService;
         this.nodeEnv = builder.nodeEnv;
         this.parserConfig = XContentParserConfiguration.EMPTY.withDeprecationHandler(LoggingDeprecationHandler.INSTANCE)
@@ -304,8 +311,11 @@ public class IndicesService extends AbstractLifecycleComponent
         this.valuesSourceRegistry = builder.valuesSourceRegistry;
         this.analysisRegistry = builder.analysisRegistry;
         this.indexNameExpressionResolver = builder.indexNameExpressionResolver;
-        this.indicesRequestCache = new IndicesRequestCache(settings);
-        this.indicesQueryCache = new IndicesQueryCache(settings);
+        this.indicesRequestCache = new IndicesRequestCache(
+            settings,
+            builder.circuitBreakerService.getBreaker(CircuitBreaker.REQUEST_CACHE_HITS)
+        );
+        this.indicesQueryCache = new IndicesQueryCache(settings, builder.circuitBreakerService.getBreaker(CircuitBreaker.QUERY_CACHE));
         this.mapperRegistry = builder.mapperRegistry;
         this.namedWriteableRegistry = builder.namedWriteableRegistry;
         indexingMemoryController = new IndexingMemoryController(
@@ -796,6 +806,7 @@ public class IndicesService extends AbstractLifecycleComponent
             bigArrays,
             threadPool,
             threadPoolMergeExecutorService,
+            translogGroupCommitService,
             scriptService,
             clusterService,
             client,
@@ -1598,9 +1609,10 @@ public class IndicesService extends AbstractLifecycleComponent
         if (request.requestCache() == null) {
             if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING) == false) {
                 return false;
-            } else if (context.size() != 0) {
+            } else if (context.size() != 0 && settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_HITS_SETTING) == false) {
                 // If no request cache query parameter and shard request cache
                 // is enabled in settings don't cache for requests with size > 0
+                // unless the index also opted in to cache hits
                 return false;
             }
         } else if (request.requestCache() == false) {
@@ -1625,16 +1637,30 @@ public class IndicesService extends AbstractLifecycleComponent
      * the same cache.
      */
     public void loadIntoContext(ShardSearchRequest request, SearchContext context) throws Exception {
+        loadIntoContext(request, context, false);
+    }
+
+    /**
+     * Same as {@link #loadIntoContext(ShardSearchRequest, SearchContext)}, but if {@code cacheSegmentAggregations} is set and the result
+     * needs to be computed then the aggregation results of every segment are cached and reused as well, see
+     * {@link IndicesRequestCache#INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING}.
+     */
+    public void loadIntoContext(ShardSearchRequest request, SearchContext context, boolean cacheSegmentAggregations) throws Exception {
         assert canCache(request, context);
         final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        if (cacheSegmentAggregations) {
+            assert context.aggregations() != null;
+            context.aggregations().setSegmentAggregationCache(newSegmentAggregationCache(context, cacheKey));
+        }
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
             directoryReader,
             cacheKey,
+            context.size() > 0,
             out -> {
                 QueryPhase.execute(context);
                 context.queryResult().writeToNoId(out);
@@ -1672,6 +1698,39 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    private SegmentAggregationCache newSegmentAggregationCache(SearchContext context, BytesReference cacheKey) {
+        final IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(context.indexShard());
+        final MappingLookup.CacheKey mappingCacheKey = context.getSearchExecutionContext().mappingCacheKey();
+        return new SegmentAggregationCache() {
+            @Override
+            public InternalAggregations get(LeafReaderContext leaf) throws IOException {
+                final CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+                if (cacheHelper == null) {
+                    return null;
+                }
+                final BytesReference bytes = indicesRequestCache.getSegmentResult(cacheEntity, mappingCacheKey, cacheHelper, cacheKey);
+                if (bytes == null) {
+                    return null;
+                }
+                try (StreamInput in = new NamedWriteableAwareStreamInput(bytes.streamInput(), namedWriteableRegistry)) {
+                    return InternalAggregations.readFrom(in);
+                }
+            }
+
+            @Override
+            public void put(LeafReaderContext leaf, InternalAggregations aggregations) throws IOException {
+                final CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+                if (cacheHelper == null) {
+                    return;
+                }
+                try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+                    aggregations.writeTo(out);
+                    indicesRequestCache.putSegmentResult(cacheEntity, mappingCacheKey, cacheHelper, cacheKey, out.bytes());
+                }
+            }
+        };
+    }
+
     public long getTotalIndexingBufferBytes() {
         return indexingMemoryController.indexingBufferSize();
     }
@@ -1681,6 +1740,7 @@ public class IndicesService extends AbstractLifecycleComponent
      * @param shard the shard this item is part of
      * @param reader a reader for this shard. Used to invalidate the cache when there are changes.
      * @param cacheKey key for the thing being cached within this shard
+     * @param withHits whether the result holds hits, in which case it is accounted in the request cache hits breaker
      * @param loader loads the data into the cache if needed
      * @return the contents of the cache or the result of calling the loader
      */
@@ -1689,6 +1749,7 @@ public class IndicesService extends AbstractLifecycleComponent
         MappingLookup.CacheKey mappingCacheKey,
         DirectoryReader reader,
         BytesReference cacheKey,
+        boolean withHits,
         CheckedConsumer<StreamOutput, IOException> loader
     ) throws Exception {
         IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(shard);
@@ -1708,7 +1769,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 return out.bytes();
             }
         };
-        return indicesRequestCache.getOrCompute(cacheEntity, supplier, mappingCacheKey, reader, cacheKey);
+        return indicesRequestCache.getOrCompute(cacheEntity, supplier, mappingCacheKey, reader, cacheKey, withHits);
     }
 
     static final class IndexShardCacheEntity extends AbstractIndexShardCacheEntity {
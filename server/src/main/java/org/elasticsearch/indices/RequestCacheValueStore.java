@@ -0,0 +1,238 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.ByteUtils;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.transport.Compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the values of the {@link IndicesRequestCache} between the form that is returned to callers and the form that is held by
+ * the cache. Depending on the node settings stored values are LZ4 compressed and/or copied into native memory outside of the java
+ * heap, in which case only the key and a small wrapper remain on heap.
+ * <p>
+ * Native memory is reference counted and freed as soon as the entry was removed from the cache, see {@link #release}, and the readers
+ * that were copying it onto the heap are done. It is not left to the garbage collector, which only notices the small wrappers.
+ * <p>
+ * Compressed values start with a four byte header holding the uncompressed length, or {@code -1} if compression did not make the value
+ * any smaller and the remaining bytes are stored as-is.
+ */
+final class RequestCacheValueStore {
+
+    private static final int HEADER_LENGTH = Integer.BYTES;
+    private static final int NOT_COMPRESSED = -1;
+
+    private final boolean compress;
+    private final boolean offHeap;
+    // cleared if native memory can't be allocated, in which case values are kept on heap
+    private volatile boolean offHeapAvailable = true;
+
+    RequestCacheValueStore(boolean compress, boolean offHeap) {
+        this.compress = compress;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Converts a freshly computed value into the form held by the cache. Values held off-heap must be {@link #release released} once
+     * they are removed from the cache.
+     */
+    BytesReference store(BytesReference value) {
+        if (compress == false && offHeap == false) {
+            return value;
+        }
+        final BytesRef stored = compress ? compress(value.toBytesRef()) : value.toBytesRef();
+        if (offHeap && offHeapAvailable && stored.length > 0) {
+            final CloseableByteBuffer memory = NativeAccess.instance().newSharedBuffer(stored.length);
+            if (memory != null) {
+                memory.buffer().put(0, stored.bytes, stored.offset, stored.length);
+                return new OffHeapBytesReference(memory);
+            }
+            offHeapAvailable = false;
+        }
+        return new BytesArray(stored);
+    }
+
+    /**
+     * Converts a value held by the cache back into the serialized value that was originally computed. Values that are compressed or
+     * held off-heap are copied onto the heap so that the returned reference does not depend on the lifecycle of the cache entry.
+     *
+     * @return the value, or {@code null} if it was held off-heap and its memory was released because the entry was removed from the
+     *         cache in the meantime
+     */
+    @Nullable
+    BytesReference load(BytesReference stored) {
+        final BytesRef bytes;
+        if (stored instanceof OffHeapBytesReference offHeapValue) {
+            if (offHeapValue.tryIncRef() == false) {
+                return null;
+            }
+            try {
+                bytes = offHeapValue.toBytesRef();
+            } finally {
+                offHeapValue.decRef();
+            }
+        } else if (compress == false) {
+            // not transformed or kept on heap as-is
+            return stored;
+        } else {
+            bytes = stored.toBytesRef();
+        }
+        if (compress == false) {
+            // off-heap only, toBytesRef already copied the content onto the heap
+            return new BytesArray(bytes);
+        }
+        final int uncompressedLength = ByteUtils.readIntBE(bytes.bytes, bytes.offset);
+        if (uncompressedLength == NOT_COMPRESSED) {
+            return new BytesArray(bytes.bytes, bytes.offset + HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        }
+        final byte[] uncompressed = new byte[uncompressedLength];
+        Compression.Scheme.lz4Decompressor().decompress(bytes.bytes, bytes.offset + HEADER_LENGTH, uncompressed, 0, uncompressedLength);
+        return new BytesArray(uncompressed);
+    }
+
+    /**
+     * The number of bytes a stored value holds outside of the java heap.
+     */
+    static long offHeapBytes(BytesReference stored) {
+        return stored instanceof OffHeapBytesReference ? stored.length() : 0L;
+    }
+
+    /**
+     * Called once a stored value was removed from the cache. Its native memory is freed as soon as no reader copies it anymore.
+     */
+    static void release(BytesReference stored) {
+        if (stored instanceof OffHeapBytesReference offHeapValue) {
+            offHeapValue.decRef();
+        }
+    }
+
+    private static BytesRef compress(BytesRef value) {
+        final int maxCompressedLength = Compression.Scheme.lz4Compressor().maxCompressedLength(value.length);
+        final byte[] compressed = new byte[HEADER_LENGTH + maxCompressedLength];
+        final int compressedLength = Compression.Scheme.lz4Compressor()
+            .compress(value.bytes, value.offset, value.length, compressed, HEADER_LENGTH, maxCompressedLength);
+        if (compressedLength >= value.length) {
+            final byte[] raw = new byte[HEADER_LENGTH + value.length];
+            ByteUtils.writeIntBE(NOT_COMPRESSED, raw, 0);
+            System.arraycopy(value.bytes, value.offset, raw, HEADER_LENGTH, value.length);
+            return new BytesRef(raw);
+        }
+        ByteUtils.writeIntBE(value.length, compressed, 0);
+        // trim so that the cache is not charged for the unused tail of the worst-case sized buffer
+        final byte[] trimmed = new byte[HEADER_LENGTH + compressedLength];
+        System.arraycopy(compressed, 0, trimmed, 0, trimmed.length);
+        return new BytesRef(trimmed);
+    }
+
+    /**
+     * A read-only {@link BytesReference} over native memory, which is freed once the last reference is released. Slices share the
+     * references of the value they were taken from. Only the wrapper counts towards {@link #ramBytesUsed()}, the content of the
+     * buffer is reported through {@link RequestCacheValueStore#offHeapBytes(BytesReference)}.
+     */
+    static final class OffHeapBytesReference extends AbstractBytesReference implements RefCounted {
+
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(OffHeapBytesReference.class);
+
+        private final ByteBuffer buffer;
+        private final RefCounted refCounted;
+
+        OffHeapBytesReference(CloseableByteBuffer memory) {
+            this(memory.buffer().asReadOnlyBuffer(), AbstractRefCounted.of(memory::close));
+        }
+
+        private OffHeapBytesReference(ByteBuffer buffer, RefCounted refCounted) {
+            super(buffer.remaining());
+            assert buffer.isDirect();
+            this.buffer = buffer;
+            this.refCounted = refCounted;
+        }
+
+        @Override
+        public void incRef() {
+            refCounted.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return refCounted.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return refCounted.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return refCounted.hasReferences();
+        }
+
+        @Override
+        public byte get(int index) {
+            return buffer.get(buffer.position() + index);
+        }
+
+        @Override
+        public BytesReference slice(int from, int length) {
+            if (from < 0 || (from + length) > this.length) {
+                throw new IndexOutOfBoundsException(
+                    "can't slice a buffer with length ["
+                        + this.length
+                        + "], with slice parameters from ["
+                        + from
+                        + "], length ["
+                        + length
+                        + "]"
+                );
+            }
+            return new OffHeapBytesReference(buffer.slice(buffer.position() + from, length), refCounted);
+        }
+
+        @Override
+        public BytesRef toBytesRef() {
+            final byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes, 0, length);
+            return new BytesRef(bytes);
+        }
+
+        @Override
+        public BytesRefIterator iterator() {
+            return new BytesRefIterator() {
+                boolean consumed;
+
+                @Override
+                public BytesRef next() {
+                    if (consumed || length == 0) {
+                        return null;
+                    }
+                    consumed = true;
+                    return toBytesRef();
+                }
+            };
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return SHALLOW_SIZE;
+        }
+    }
+}
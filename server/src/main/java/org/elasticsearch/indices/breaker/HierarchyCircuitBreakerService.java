@@ -27,6 +27,7 @@ import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.core.SuppressForbidden;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.monitor.jvm.GcNames;
 import org.elasticsearch.monitor.jvm.JvmInfo;
 import org.elasticsearch.telemetry.metric.LongCounter;
@@ -142,6 +143,13 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         Property.NodeScope
     );
 
+    public static final Setting<ByteSizeValue> REQUEST_CACHE_HITS_CIRCUIT_BREAKER_LIMIT_SETTING = Setting.memorySizeSetting(
+        "indices.breaker.request_cache_hits.limit",
+        "0.5%",
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     private volatile boolean trackRealMemoryUsage;
     private volatile BreakerSettings parentSettings;
 
@@ -211,6 +219,32 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
                 )
             )
         );
+        childCircuitBreakers.put(
+            CircuitBreaker.QUERY_CACHE,
+            validateAndCreateBreaker(
+                metrics.getTripCount(),
+                new BreakerSettings(
+                    CircuitBreaker.QUERY_CACHE,
+                    IndicesQueryCache.INDICES_CACHE_QUERY_SIZE_SETTING.get(settings).getBytes(),
+                    1.0,
+                    CircuitBreaker.Type.MEMORY,
+                    CircuitBreaker.Durability.PERMANENT
+                )
+            )
+        );
+        childCircuitBreakers.put(
+            CircuitBreaker.REQUEST_CACHE_HITS,
+            validateAndCreateBreaker(
+                metrics.getTripCount(),
+                new BreakerSettings(
+                    CircuitBreaker.REQUEST_CACHE_HITS,
+                    REQUEST_CACHE_HITS_CIRCUIT_BREAKER_LIMIT_SETTING.get(settings).getBytes(),
+                    1.0,
+                    CircuitBreaker.Type.MEMORY,
+                    CircuitBreaker.Durability.PERMANENT
+                )
+            )
+        );
         for (BreakerSettings breakerSettings : customBreakers) {
             if (childCircuitBreakers.containsKey(breakerSettings.getName())) {
                 throw new IllegalArgumentException(
@@ -253,6 +287,10 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
             REQUEST_CIRCUIT_BREAKER_OVERHEAD_SETTING,
             (limit, overhead) -> updateCircuitBreakerSettings(CircuitBreaker.REQUEST, limit, overhead)
         );
+        clusterSettings.addSettingsUpdateConsumer(
+            REQUEST_CACHE_HITS_CIRCUIT_BREAKER_LIMIT_SETTING,
+            limit -> updateCircuitBreakerSettings(CircuitBreaker.REQUEST_CACHE_HITS, limit, 1.0)
+        );
         clusterSettings.addAffixUpdateConsumer(
             CIRCUIT_BREAKER_LIMIT_SETTING,
             CIRCUIT_BREAKER_OVERHEAD_SETTING,
@@ -762,6 +762,7 @@ public class NodeMetrics extends AbstractLifecycleComponent {
             false,
             false,
             true,
+            false,
             false
         );
     }
@@ -820,6 +821,7 @@ public class NodeMetrics extends AbstractLifecycleComponent {
             null,
             null,
             null,
+            null,
             null
         );
         private boolean refresh;
@@ -72,6 +72,11 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                     builder.field("avg_response_time", new TimeValue((long) stats.responseTime, TimeUnit.NANOSECONDS).toString());
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
+                if (builder.humanReadable()) {
+                    builder.field("avg_fetch_time", new TimeValue((long) stats.fetchTime, TimeUnit.NANOSECONDS).toString());
+                }
+                builder.field("avg_fetch_time_ns", (long) stats.fetchTime);
+                builder.field("avg_pending_merges", String.format(Locale.ROOT, "%.1f", stats.pendingMerges));
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
             builder.endObject();
@@ -201,6 +201,7 @@ import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchUtils;
+import org.elasticsearch.search.aggregations.support.AggregationSpillService;
 import org.elasticsearch.search.aggregations.support.AggregationUsageService;
 import org.elasticsearch.shutdown.PluginShutdownService;
 import org.elasticsearch.snapshots.InternalSnapshotsInfoService;
@@ -887,6 +888,7 @@ class NodeConstruction {
             .valuesSourceRegistry(searchModule.getValuesSourceRegistry())
             .requestCacheKeyDifferentiator(searchModule.getRequestCacheKeyDifferentiator())
             .mapperMetrics(mapperMetrics)
+            .meterRegistry(telemetryProvider.getMeterRegistry())
             .searchOperationListeners(searchOperationListeners)
             .slowLogFieldProvider(slowLogFieldProvider)
             .build();
@@ -1144,6 +1146,26 @@ class NodeConstruction {
             compatibilityVersions,
             featureService
         );
+
+        OnlinePrewarmingService onlinePrewarmingService = pluginsService.loadSingletonServiceProvider(
+            OnlinePrewarmingServiceProvider.class,
+            () -> OnlinePrewarmingServiceProvider.DEFAULT
+        ).create(clusterService.getSettings(), threadPool, clusterService);
+        final SearchService searchService = serviceProvider.newSearchService(
+            pluginsService,
+            clusterService,
+            indicesService,
+            threadPool,
+            scriptService,
+            bigArrays,
+            searchModule.getFetchPhase(),
+            circuitBreakerService,
+            systemIndices.getExecutorSelector(),
+            telemetryProvider.getTracer(),
+            onlinePrewarmingService,
+            new AggregationSpillService(environment.tmpDir(), clusterService.getClusterSettings())
+        );
+
         nodeService = new NodeService(
             settings,
             threadPool,
@@ -1163,6 +1185,7 @@ class NodeConstruction {
             indexingLimits,
             searchModule.getValuesSourceRegistry().getUsageService(),
             repositoriesService,
+            searchService.getSearchTaskScheduler(),
             compatibilityVersions
         );
 
@@ -1170,24 +1193,6 @@ class NodeConstruction {
         final NodeMetrics nodeMetrics = new NodeMetrics(telemetryProvider.getMeterRegistry(), nodeService, metricsInterval);
         final IndicesMetrics indicesMetrics = new IndicesMetrics(telemetryProvider.getMeterRegistry(), indicesService, metricsInterval);
 
-        OnlinePrewarmingService onlinePrewarmingService = pluginsService.loadSingletonServiceProvider(
-            OnlinePrewarmingServiceProvider.class,
-            () -> OnlinePrewarmingServiceProvider.DEFAULT
-        ).create(clusterService.getSettings(), threadPool, clusterService);
-        final SearchService searchService = serviceProvider.newSearchService(
-            pluginsService,
-            clusterService,
-            indicesService,
-            threadPool,
-            scriptService,
-            bigArrays,
-            searchModule.getFetchPhase(),
-            circuitBreakerService,
-            systemIndices.getExecutorSelector(),
-            telemetryProvider.getTracer(),
-            onlinePrewarmingService
-        );
-
         final ShutdownPrepareService shutdownPrepareService = new ShutdownPrepareService(settings, httpServerTransport, terminationHandler);
 
         modules.add(loadPersistentTasksService(settingsModule, clusterService, threadPool, clusterModule.getIndexNameExpressionResolver()));
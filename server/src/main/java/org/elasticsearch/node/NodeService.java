@@ -36,6 +36,7 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.aggregations.support.AggregationUsageService;
+import org.elasticsearch.search.scheduler.SearchTaskScheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
@@ -64,6 +65,7 @@ public class NodeService implements Closeable {
     private final AggregationUsageService aggregationUsageService;
     private final Coordinator coordinator;
     private final RepositoriesService repositoriesService;
+    private final SearchTaskScheduler searchTaskScheduler;
     private final Map<String, Integer> componentVersions;
     private final CompatibilityVersions compatibilityVersions;
 
@@ -86,6 +88,7 @@ public class NodeService implements Closeable {
         IndexingPressure indexingPressure,
         AggregationUsageService aggregationUsageService,
         RepositoriesService repositoriesService,
+        SearchTaskScheduler searchTaskScheduler,
         CompatibilityVersions compatibilityVersions
     ) {
         this.settings = settings;
@@ -105,6 +108,7 @@ public class NodeService implements Closeable {
         this.indexingPressure = indexingPressure;
         this.aggregationUsageService = aggregationUsageService;
         this.repositoriesService = repositoriesService;
+        this.searchTaskScheduler = searchTaskScheduler;
         this.componentVersions = findComponentVersions(pluginService);
         this.compatibilityVersions = compatibilityVersions;
         clusterService.addStateApplier(ingestService);
@@ -178,7 +182,8 @@ public class NodeService implements Closeable {
         boolean adaptiveSelection,
         boolean scriptCache,
         boolean indexingPressure,
-        boolean repositoriesStats
+        boolean repositoriesStats,
+        boolean searchScheduler
     ) {
         // for indices stats we want to include previous allocated shards stats as well (it will
         // only be applied to the sensible ones to use, like refresh/merge/flush/indexing stats)
@@ -201,7 +206,8 @@ public class NodeService implements Closeable {
             scriptCache ? scriptService.cacheStats() : null,
             indexingPressure ? this.indexingPressure.stats() : null,
             repositoriesStats ? this.repositoriesService.getRepositoriesThrottlingStats() : null,
-            null
+            null,
+            searchScheduler ? searchTaskScheduler.stats() : null
         );
     }
 
@@ -9,6 +9,7 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -17,6 +18,7 @@ import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
@@ -27,9 +29,9 @@ import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
 
 /**
- * Collects statistics about queue size, response time, and service time of
- * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * Collects statistics about queue size, response time, service time, fetch
+ * response time and pending merges of tasks executed on each node, making the
+ * EWMA of the values available to the coordinating node.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -38,10 +40,24 @@ public final class ResponseCollectorService implements ClusterStateListener {
      */
     public static final double ALPHA = 0.3;
 
+    /**
+     * Whether the rank of a node also accounts for the response time of the fetch phase and the merges pending on the node. Both are
+     * always collected, but only reported and ranked on when enabled.
+     */
+    public static final Setting<Boolean> RANK_FETCH_AND_MERGES_SETTING = Setting.boolSetting(
+        "cluster.routing.adaptive_replica_selection.rank_fetch_and_merges",
+        false,
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
 
+    private volatile boolean rankFetchAndMerges;
+
     public ResponseCollectorService(ClusterService clusterService) {
         clusterService.addListener(this);
+        clusterService.getClusterSettings().initializeAndWatch(RANK_FETCH_AND_MERGES_SETTING, value -> this.rankFetchAndMerges = value);
     }
 
     @Override
@@ -58,17 +74,47 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
+        addNodeStatistics(nodeId, queueSize, responseTimeNanos, avgServiceTimeNanos, -1);
+    }
+
+    /**
+     * Same as {@link #addNodeStatistics(String, int, long, long)} but also records the number of merges that were pending on the node,
+     * which is ignored if negative because the node did not report it.
+     */
+    public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos, int pendingMerges) {
         nodeIdToStats.compute(nodeId, (id, ns) -> {
             if (ns == null) {
                 ExponentiallyWeightedMovingAverage queueEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
                 ExponentiallyWeightedMovingAverage responseEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
-                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
+                ns = new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
             } else {
                 ns.queueSize.addValue((double) queueSize);
                 ns.responseTime.addValue((double) responseTimeNanos);
                 ns.serviceTime = avgServiceTimeNanos;
-                return ns;
             }
+            if (pendingMerges >= 0) {
+                if (ns.pendingMerges == null) {
+                    ns.pendingMerges = new ExponentiallyWeightedMovingAverage(ALPHA, pendingMerges);
+                } else {
+                    ns.pendingMerges.addValue(pendingMerges);
+                }
+            }
+            return ns;
+        });
+    }
+
+    /**
+     * Records the response time of a fetch phase request to the given node. It is only recorded once the node's query phase statistics
+     * are known, since a fetch is always preceded by a query on the same node.
+     */
+    public void addFetchStatistics(String nodeId, long responseTimeNanos) {
+        nodeIdToStats.computeIfPresent(nodeId, (id, ns) -> {
+            if (ns.fetchTime == null) {
+                ns.fetchTime = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
+            } else {
+                ns.fetchTime.addValue((double) responseTimeNanos);
+            }
+            return ns;
         });
     }
 
@@ -76,7 +122,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
         final int clientNum = nodeIdToStats.size();
         // Transform the mutable object internally used for accounting into the computed version
         Map<String, ComputedNodeStats> nodeStats = Maps.newMapWithExpectedSize(nodeIdToStats.size());
-        nodeIdToStats.forEach((k, v) -> { nodeStats.put(k, new ComputedNodeStats(clientNum, v)); });
+        final boolean rankFetchAndMerges = this.rankFetchAndMerges;
+        nodeIdToStats.forEach((k, v) -> { nodeStats.put(k, new ComputedNodeStats(clientNum, v, rankFetchAndMerges)); });
         return nodeStats;
     }
 
@@ -91,13 +138,14 @@ public final class ResponseCollectorService implements ClusterStateListener {
      */
     public Optional<ComputedNodeStats> getNodeStatistics(final String nodeId) {
         final int clientNum = nodeIdToStats.size();
-        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns));
+        final boolean rankFetchAndMerges = this.rankFetchAndMerges;
+        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns, rankFetchAndMerges));
     }
 
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * service time, fetch response time and pending merges.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -112,22 +160,46 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        /**
+         * The EWMA of the response time of fetch phase requests, 0 if unknown
+         */
+        public final double fetchTime;
+        /**
+         * The EWMA of the number of merges that were queued or running on the node, 0 if unknown
+         */
+        public final double pendingMerges;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, 0, 0);
+        }
+
+        public ComputedNodeStats(
+            String nodeId,
+            int clientNum,
+            int queueSize,
+            double responseTime,
+            double serviceTime,
+            double fetchTime,
+            double pendingMerges
+        ) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.fetchTime = fetchTime;
+            this.pendingMerges = pendingMerges;
         }
 
-        ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
+        ComputedNodeStats(int clientNum, NodeStatistics nodeStats, boolean rankFetchAndMerges) {
             this(
                 nodeStats.nodeId,
                 clientNum,
                 (int) nodeStats.queueSize.getAverage(),
                 nodeStats.responseTime.getAverage(),
-                nodeStats.serviceTime
+                nodeStats.serviceTime,
+                rankFetchAndMerges && nodeStats.fetchTime != null ? nodeStats.fetchTime.getAverage() : 0,
+                rankFetchAndMerges && nodeStats.pendingMerges != null ? nodeStats.pendingMerges.getAverage() : 0
             );
         }
 
@@ -137,6 +209,13 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getTransportVersion().onOrAfter(TransportVersions.ADAPTIVE_SELECTION_FETCH_STATS)) {
+                this.fetchTime = in.readDouble();
+                this.pendingMerges = in.readDouble();
+            } else {
+                this.fetchTime = 0;
+                this.pendingMerges = 0;
+            }
         }
 
         @Override
@@ -146,11 +225,21 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getTransportVersion().onOrAfter(TransportVersions.ADAPTIVE_SELECTION_FETCH_STATS)) {
+                out.writeDouble(this.fetchTime);
+                out.writeDouble(this.pendingMerges);
+            }
         }
 
         /**
          * Rank this copy of the data, according to the adaptive replica selection formula from the C3 paper
          * https://www.usenix.org/system/files/conference/nsdi15/nsdi15-paper-suresh.pdf
+         * <p>
+         * When {@link #RANK_FETCH_AND_MERGES_SETTING} is enabled, the response time includes the response time of the fetch phase, so
+         * that nodes that are slow to load documents are avoided even if they execute queries quickly. Every merge pending on the node
+         * also adds one service time, since merges compete with searches for disk and cpu. Merges are node-wide rather than queued
+         * behind the searches of a shard, so they are not part of the cubic queue term. Without fetch time and pending merges the rank
+         * is the one of the paper.
          */
         private double innerRank(long outstandingRequests) {
             // the concurrency compensation is defined as the number of
@@ -166,14 +255,14 @@ public final class ResponseCollectorService implements ClusterStateListener {
             double qBar = queueSize;
             double qHatS = 1 + concurrencyCompensation + qBar;
 
-            // EWMA of response time
-            double rS = responseTime / FACTOR;
+            // EWMA of response time, of both the query and the fetch phases
+            double rS = (responseTime + fetchTime) / FACTOR;
             // EWMA of service time. We match the paper's notation, which
             // defines service time as the inverse of service rate (muBarS).
             double muBarSInverse = serviceTime / FACTOR;
 
-            // The final formula
-            return rS - muBarSInverse + Math.pow(qHatS, queueAdjustmentFactor) * muBarSInverse;
+            // The final formula, plus a service time for every pending merge
+            return rS - muBarSInverse + Math.pow(qHatS, queueAdjustmentFactor) * muBarSInverse + pendingMerges * muBarSInverse;
         }
 
         public double rank(long outstandingRequests) {
@@ -191,6 +280,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", fetch time: ").append(String.format(Locale.ROOT, "%.1f", fetchTime));
+            sb.append(", pending merges: ").append(String.format(Locale.ROOT, "%.1f", pendingMerges));
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -199,14 +290,18 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
-     * to be used for the internal accounting of {@code ResponseCollectorService}.
+     * time, service time, fetch response time and pending merges, however, this
+     * class is private and intended only to be used for the internal accounting
+     * of {@code ResponseCollectorService}.
      */
     private static class NodeStatistics {
         final String nodeId;
         final ExponentiallyWeightedMovingAverage queueSize;
         final ExponentiallyWeightedMovingAverage responseTime;
         double serviceTime;
+        // null until the node reported them
+        ExponentiallyWeightedMovingAverage fetchTime;
+        ExponentiallyWeightedMovingAverage pendingMerges;
 
         NodeStatistics(
             String nodeId,
@@ -135,7 +135,7 @@ public class RestBulkAction extends BaseRestHandler {
         }
     }
 
-    private static Exception parseFailureException(Exception e) {
+    static Exception parseFailureException(Exception e) {
         if (e instanceof IllegalArgumentException) {
             return e;
         } else {
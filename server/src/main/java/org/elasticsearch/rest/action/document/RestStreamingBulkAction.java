@@ -0,0 +1,338 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.rest.action.document;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.bulk.IncrementalBulkService;
+import org.elasticsearch.client.internal.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.ChunkedToXContentHelper;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestUtils;
+import org.elasticsearch.rest.Scope;
+import org.elasticsearch.rest.ServerlessScope;
+import org.elasticsearch.rest.StreamingXContentResponse;
+import org.elasticsearch.rest.action.RestToXContentListener;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.transport.Transports;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+
+/**
+ * Indexes a stream of bulk items of unbounded length, sent in the same format as the body of a {@link RestBulkAction bulk request},
+ * typically with chunked transfer encoding over a long-lived connection. The items are split into bulk requests of at most
+ * {@code batch_size} items, or fewer if indexing pressure asks for it, which are executed one after the other. The item responses of each
+ * bulk request are streamed back as soon as it completes, in the order of the items:
+ * <pre>
+ * { "items": [ { "index": { "_index": "test", "_id": "1", ... } }, ... ], "errors": false, "took": 42 }
+ * </pre>
+ * The request body is only read while there is capacity to process it: no more data is read while a bulk request is in flight or while
+ * the client has not yet received the responses of the last few bulk requests, which pauses reading from the connection and pushes back
+ * on the client.
+ */
+@ServerlessScope(Scope.PUBLIC)
+public class RestStreamingBulkAction extends BaseRestHandler {
+
+    static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * The maximum number of bulk requests whose item responses are not fully sent to the client yet, before reading from the request body
+     * is paused.
+     */
+    static final int MAX_UNSENT_BATCHES = 4;
+
+    private final boolean allowExplicitIndex;
+    private final IncrementalBulkService bulkHandler;
+
+    public RestStreamingBulkAction(Settings settings, IncrementalBulkService bulkHandler) {
+        this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.bulkHandler = bulkHandler;
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(POST, "/_bulk/stream"), new Route(POST, "/{index}/_bulk/stream"));
+    }
+
+    @Override
+    public String getName() {
+        return "streaming_bulk_action";
+    }
+
+    @Override
+    public RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        if (request.isStreamedContent() == false) {
+            throw new IllegalArgumentException("request [" + request.method() + " " + request.path() + "] requires a streamed body");
+        }
+        String waitForActiveShards = request.param("wait_for_active_shards");
+        TimeValue timeout = request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT);
+        String refresh = request.param("refresh");
+        int batchSize = request.paramAsInt("batch_size", DEFAULT_BATCH_SIZE);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("[batch_size] must be at least 1 but was [" + batchSize + "]");
+        }
+        return new StreamingChunkHandler(
+            allowExplicitIndex,
+            request,
+            batchSize,
+            responseConsumer -> bulkHandler.newStreamingBulkRequest(waitForActiveShards, timeout, refresh, responseConsumer)
+        );
+    }
+
+    static class StreamingChunkHandler implements BaseRestHandler.RequestBodyChunkConsumer {
+
+        private final RestRequest request;
+        private final int batchSize;
+        private final Function<Consumer<BulkResponse>, IncrementalBulkService.Handler> handlerFactory;
+        private final BulkRequestParser.IncrementalParser parser;
+        private IncrementalBulkService.Handler handler;
+
+        private volatile RestChannel restChannel;
+        private boolean shortCircuited;
+        private int itemsSinceFlush;
+        private final ArrayDeque<ReleasableBytesReference> unParsedChunks = new ArrayDeque<>(4);
+        private final ArrayList<DocWriteRequest<?>> items = new ArrayList<>(4);
+
+        // accessed by the threads completing the bulk requests as well as the threads sending the response
+        private volatile StreamingXContentResponse response;
+        private volatile boolean hasFailures;
+        private final AtomicLong tookInMillis = new AtomicLong();
+        private final AtomicInteger unsentBatches = new AtomicInteger();
+        private final AtomicBoolean readPending = new AtomicBoolean();
+
+        StreamingChunkHandler(
+            boolean allowExplicitIndex,
+            RestRequest request,
+            int batchSize,
+            Function<Consumer<BulkResponse>, IncrementalBulkService.Handler> handlerFactory
+        ) {
+            this.request = request;
+            this.batchSize = batchSize;
+            this.handlerFactory = handlerFactory;
+            this.parser = new BulkRequestParser(true, RestUtils.getIncludeSourceOnError(request), request.getRestApiVersion())
+                .incrementalParser(
+                    request.param("index"),
+                    request.param("routing"),
+                    FetchSourceContext.parseFromRestRequest(request),
+                    request.param("pipeline"),
+                    request.paramAsBoolean(DocWriteRequest.REQUIRE_ALIAS, false),
+                    request.paramAsBoolean(DocWriteRequest.REQUIRE_DATA_STREAM, false),
+                    request.paramAsBoolean("list_executed_pipelines", false),
+                    allowExplicitIndex,
+                    request.getXContentType(),
+                    (indexRequest, type) -> items.add(indexRequest),
+                    items::add,
+                    items::add
+                );
+        }
+
+        @Override
+        public void accept(RestChannel restChannel) {
+            this.restChannel = restChannel;
+            this.handler = handlerFactory.apply(this::onBulkResponse);
+            request.contentStream().next();
+        }
+
+        @Override
+        public void handleChunk(RestChannel channel, ReleasableBytesReference chunk, boolean isLast) {
+            assert handler != null;
+            assert channel == restChannel;
+            if (shortCircuited) {
+                chunk.close();
+                return;
+            }
+
+            final BytesReference data;
+            int bytesConsumed;
+            if (chunk.length() == 0) {
+                chunk.close();
+                bytesConsumed = 0;
+            } else {
+                try {
+                    handler.getIncrementalOperation().incrementUnparsedBytes(chunk.length());
+                    unParsedChunks.add(chunk);
+
+                    if (unParsedChunks.size() > 1) {
+                        data = CompositeBytesReference.of(unParsedChunks.toArray(new ReleasableBytesReference[0]));
+                    } else {
+                        data = chunk;
+                    }
+
+                    bytesConsumed = parser.parse(data, isLast);
+                    handler.getIncrementalOperation().transferUnparsedBytesToParsed(bytesConsumed);
+
+                } catch (Exception e) {
+                    shortCircuit();
+                    finishResponse(RestBulkAction.parseFailureException(e));
+                    return;
+                }
+            }
+
+            final ArrayList<Releasable> releasables = accountParsing(bytesConsumed);
+            if (isLast) {
+                assert unParsedChunks.isEmpty();
+                if (handler.getIncrementalOperation().totalParsedBytes() == 0) {
+                    shortCircuit();
+                    finishResponse(new ElasticsearchParseException("request body is required"));
+                } else {
+                    ArrayList<DocWriteRequest<?>> toPass = new ArrayList<>(items);
+                    items.clear();
+                    // the responses were streamed already, all that is left is to complete the response
+                    handler.lastItems(toPass, () -> Releasables.close(releasables), new ActionListener<>() {
+                        @Override
+                        public void onResponse(BulkResponse bulkResponse) {
+                            finishResponse(null);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            finishResponse(e);
+                        }
+                    });
+                }
+            } else if (items.isEmpty() == false) {
+                ArrayList<DocWriteRequest<?>> toPass = new ArrayList<>(items);
+                items.clear();
+                itemsSinceFlush += toPass.size();
+                final boolean flush = itemsSinceFlush >= batchSize;
+                if (flush) {
+                    itemsSinceFlush = 0;
+                }
+                handler.addItems(toPass, () -> Releasables.close(releasables), this::readNext, flush);
+            } else {
+                Releasables.close(releasables);
+                readNext();
+            }
+        }
+
+        @Override
+        public void streamClose() {
+            assert Transports.assertTransportThread();
+            if (shortCircuited == false) {
+                shortCircuit();
+            }
+        }
+
+        private void shortCircuit() {
+            shortCircuited = true;
+            Releasables.close(handler);
+            Releasables.close(unParsedChunks);
+            unParsedChunks.clear();
+        }
+
+        /**
+         * Reads the next chunk of the request body, unless the client is still receiving the responses of too many earlier bulk requests,
+         * in which case the read is deferred until enough of them are sent.
+         */
+        private void readNext() {
+            if (unsentBatches.get() >= MAX_UNSENT_BATCHES) {
+                readPending.set(true);
+                // a response may have been sent in the meantime, in which case nobody else picks up the pending read
+                if (unsentBatches.get() >= MAX_UNSENT_BATCHES || readPending.compareAndSet(true, false) == false) {
+                    return;
+                }
+            }
+            request.contentStream().next();
+        }
+
+        private void onBulkResponse(BulkResponse bulkResponse) {
+            if (bulkResponse.hasFailures()) {
+                hasFailures = true;
+            }
+            tookInMillis.addAndGet(bulkResponse.getTookInMillis());
+            unsentBatches.incrementAndGet();
+            startResponse().writeFragment(p0 -> Iterators.forArray(bulkResponse.getItems()), this::onBulkResponseSent);
+        }
+
+        private void onBulkResponseSent() {
+            if (unsentBatches.decrementAndGet() < MAX_UNSENT_BATCHES && readPending.compareAndSet(true, false)) {
+                request.contentStream().next();
+            }
+        }
+
+        private StreamingXContentResponse startResponse() {
+            // bulk requests complete one after the other, so there are no concurrent calls
+            if (response == null) {
+                try {
+                    response = new StreamingXContentResponse(restChannel, restChannel.request(), () -> {});
+                } catch (IOException e) {
+                    throw new ElasticsearchException("failed to start streaming bulk response", e);
+                }
+                response.writeFragment(p0 -> ChunkedToXContentHelper.chunk((b, p) -> b.startObject().startArray("items")), () -> {});
+            }
+            return response;
+        }
+
+        private void finishResponse(@Nullable Exception exception) {
+            if (response == null && exception != null) {
+                // nothing was sent yet, so the failure can be returned as a regular error response
+                new RestToXContentListener<>(restChannel).onFailure(exception);
+                return;
+            }
+            final StreamingXContentResponse streamingResponse = startResponse();
+            streamingResponse.writeFragment(p0 -> ChunkedToXContentHelper.chunk((b, p) -> {
+                b.endArray().field("errors", hasFailures || exception != null).field("took", tookInMillis.get());
+                if (exception != null) {
+                    ElasticsearchException.generateFailureXContent(b, p, exception, true);
+                    b.field("status", ExceptionsHelper.status(exception).getStatus());
+                }
+                return b.endObject();
+            }), () -> {});
+            streamingResponse.close();
+        }
+
+        private ArrayList<Releasable> accountParsing(int bytesConsumed) {
+            ArrayList<Releasable> releasables = new ArrayList<>(unParsedChunks.size());
+            while (bytesConsumed > 0) {
+                ReleasableBytesReference reference = unParsedChunks.removeFirst();
+                releasables.add(reference);
+                if (bytesConsumed >= reference.length()) {
+                    bytesConsumed -= reference.length();
+                } else {
+                    unParsedChunks.addFirst(reference.retainedSlice(bytesConsumed, reference.length() - bytesConsumed));
+                    bytesConsumed = 0;
+                }
+            }
+            return releasables;
+        }
+    }
+
+    @Override
+    public boolean supportsBulkContent() {
+        return true;
+    }
+}
@@ -62,7 +62,17 @@ public class RestSearchAction extends BaseRestHandler {
     public static final String TOTAL_HITS_AS_INT_PARAM = "rest_total_hits_as_int";
     public static final String TYPED_KEYS_PARAM = "typed_keys";
     public static final String INCLUDE_NAMED_QUERIES_SCORE_PARAM = "include_named_queries_score";
-    public static final Set<String> RESPONSE_PARAMS = Set.of(TYPED_KEYS_PARAM, TOTAL_HITS_AS_INT_PARAM, INCLUDE_NAMED_QUERIES_SCORE_PARAM);
+    /**
+     * Releases every hit of the response as soon as it has been written to the channel rather than once the whole response was sent,
+     * so that the coordinating node reclaims the memory of a very large page of hits while the response is still being streamed.
+     */
+    public static final String STREAM_HITS_PARAM = "stream_hits";
+    public static final Set<String> RESPONSE_PARAMS = Set.of(
+        TYPED_KEYS_PARAM,
+        TOTAL_HITS_AS_INT_PARAM,
+        INCLUDE_NAMED_QUERIES_SCORE_PARAM,
+        STREAM_HITS_PARAM
+    );
 
     private final SearchUsageHolder searchUsageHolder;
     private final Predicate<NodeFeature> clusterSupportsFeature;
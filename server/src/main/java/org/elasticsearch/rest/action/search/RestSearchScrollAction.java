@@ -19,7 +19,6 @@ import org.elasticsearch.rest.action.RestRefCountedChunkedToXContentListener;
 import org.elasticsearch.xcontent.XContentParseException;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -29,7 +28,7 @@ import static org.elasticsearch.rest.RestRequest.Method.POST;
 
 @ServerlessScope(Scope.PUBLIC)
 public class RestSearchScrollAction extends BaseRestHandler {
-    private static final Set<String> RESPONSE_PARAMS = Collections.singleton(RestSearchAction.TOTAL_HITS_AS_INT_PARAM);
+    private static final Set<String> RESPONSE_PARAMS = Set.of(RestSearchAction.TOTAL_HITS_AS_INT_PARAM, RestSearchAction.STREAM_HITS_PARAM);
 
     @Override
     public String getName() {
@@ -40,9 +40,13 @@ public class SearchResponseMetrics {
 
     public static final String TOOK_DURATION_TOTAL_HISTOGRAM_NAME = "es.search_response.took_durations.histogram";
     public static final String RESPONSE_COUNT_TOTAL_COUNTER_NAME = "es.search_response.response_count.total";
+    public static final String PARTIAL_REDUCE_DURATION_HISTOGRAM_NAME = "es.search_response.partial_reduce_durations.histogram";
+    public static final String FINAL_REDUCE_DURATION_HISTOGRAM_NAME = "es.search_response.final_reduce_durations.histogram";
 
     private final LongHistogram tookDurationTotalMillisHistogram;
     private final LongCounter responseCountTotalCounter;
+    private final LongHistogram partialReduceDurationMicrosHistogram;
+    private final LongHistogram finalReduceDurationMicrosHistogram;
 
     public SearchResponseMetrics(MeterRegistry meterRegistry) {
         this(
@@ -57,13 +61,32 @@ public class SearchResponseMetrics {
                     + "success, partial failure, or failure, expressed as a single total counter and individual "
                     + "attribute counters",
                 "count"
+            ),
+            meterRegistry.registerLongHistogram(
+                PARTIAL_REDUCE_DURATION_HISTOGRAM_NAME,
+                "The durations of the partial reduces of query phase results on the coordinating node in microseconds, "
+                    + "expressed as a histogram",
+                "micros"
+            ),
+            meterRegistry.registerLongHistogram(
+                FINAL_REDUCE_DURATION_HISTOGRAM_NAME,
+                "The durations of the final reduces of query phase results on the coordinating node in microseconds, "
+                    + "expressed as a histogram",
+                "micros"
             )
         );
     }
 
-    private SearchResponseMetrics(LongHistogram tookDurationTotalMillisHistogram, LongCounter responseCountTotalCounter) {
+    private SearchResponseMetrics(
+        LongHistogram tookDurationTotalMillisHistogram,
+        LongCounter responseCountTotalCounter,
+        LongHistogram partialReduceDurationMicrosHistogram,
+        LongHistogram finalReduceDurationMicrosHistogram
+    ) {
         this.tookDurationTotalMillisHistogram = tookDurationTotalMillisHistogram;
         this.responseCountTotalCounter = responseCountTotalCounter;
+        this.partialReduceDurationMicrosHistogram = partialReduceDurationMicrosHistogram;
+        this.finalReduceDurationMicrosHistogram = finalReduceDurationMicrosHistogram;
     }
 
     public long recordTookTime(long tookTime) {
@@ -71,6 +94,14 @@ public class SearchResponseMetrics {
         return tookTime;
     }
 
+    public void recordPartialReduceTime(long reduceTimeInMicros) {
+        partialReduceDurationMicrosHistogram.record(reduceTimeInMicros);
+    }
+
+    public void recordFinalReduceTime(long reduceTimeInMicros) {
+        finalReduceDurationMicrosHistogram.record(reduceTimeInMicros);
+    }
+
     public void incrementResponseCount(ResponseCountTotalStatus responseCountTotalStatus) {
         responseCountTotalCounter.incrementBy(
             1L,
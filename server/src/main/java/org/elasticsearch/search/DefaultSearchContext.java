@@ -173,6 +173,8 @@ final class DefaultSearchContext extends SearchContext {
         SearchService.ResultsType resultsType,
         boolean enableQueryPhaseParallelCollection,
         int minimumDocsPerSlice,
+        boolean enableIntraSegmentConcurrency,
+        int minimumDocsPerPartition,
         long memoryAccountingBufferSize
     ) throws IOException {
         this.readerContext = readerContext;
@@ -203,6 +205,13 @@ final class DefaultSearchContext extends SearchContext {
                     lowLevelCancellation
                 );
             } else {
+                int maximumPartitionsPerSegment = determineMaximumPartitionsPerSegment(
+                    executor,
+                    request,
+                    resultsType,
+                    enableIntraSegmentConcurrency,
+                    readerContext.indexService().mapperService().hasNested()
+                );
                 this.searcher = new ContextIndexSearcher(
                     engineSearcher.getIndexReader(),
                     engineSearcher.getSimilarity(),
@@ -211,7 +220,9 @@ final class DefaultSearchContext extends SearchContext {
                     lowLevelCancellation,
                     executor,
                     maximumNumberOfSlices,
-                    minimumDocsPerSlice
+                    minimumDocsPerSlice,
+                    maximumPartitionsPerSegment,
+                    minimumDocsPerPartition
                 );
             }
             closeFuture.addListener(ActionListener.releasing(Releasables.wrap(engineSearcher, searcher)));
@@ -304,6 +315,33 @@ final class DefaultSearchContext extends SearchContext {
                 : 1;
     }
 
+    /**
+     * Determines into how many doc id range partitions a single segment may be split for a request that supports parallel collection.
+     * Segments are only split while the search pool has no queued tasks, and into no more partitions than there are idle search
+     * threads, plus the calling thread. A shard made of a few large segments, e.g. a force-merged read-only index, then gets the
+     * whole pool when the node is idle, while a busy node keeps searching each segment with a single thread.
+     * Nested documents must stay in the same partition as their parent, which is why indices with nested fields are never split.
+     */
+    static int determineMaximumPartitionsPerSegment(
+        Executor executor,
+        ShardSearchRequest request,
+        SearchService.ResultsType resultsType,
+        boolean enableIntraSegmentConcurrency,
+        boolean hasNested
+    ) {
+        if (enableIntraSegmentConcurrency == false
+            || hasNested
+            || resultsType != SearchService.ResultsType.QUERY
+            || (request.source() != null && request.source().supportsIntraSegmentConcurrency() == false)) {
+            return 1;
+        }
+        if (executor instanceof ThreadPoolExecutor tpe && tpe.getQueue().isEmpty()) {
+            final int maxPoolSize = tpe.getMaximumPoolSize();
+            return Math.max(1, Math.min(maxPoolSize, maxPoolSize - tpe.getActiveCount() + 1));
+        }
+        return 1;
+    }
+
     static boolean isParallelCollectionSupportedForResults(
         SearchService.ResultsType resultsType,
         SearchSourceBuilder source,
@@ -887,25 +887,22 @@ public final class SearchHit implements Writeable, ToXContentObject, RefCounted
         if (source != null) {
             XContentHelper.writeRawField(SourceFieldMapper.NAME, source, builder, params);
         }
-        if (documentFields.isEmpty() == false &&
         // ignore fields all together if they are all empty
-            documentFields.values().stream().anyMatch(df -> df.getValues().size() > 0)) {
+        if (hasValues(documentFields, false)) {
             builder.startObject(Fields.FIELDS);
             for (DocumentField field : documentFields.values()) {
                 if (field.getValues().size() > 0) {
-                    field.getValidValuesWriter().toXContent(builder, params);
+                    field.validValuesToXContent(builder);
                 }
             }
             builder.endObject();
         }
-        // ignored field values
-        if (documentFields.isEmpty() == false &&
         // omit ignored_field_values all together if there are none
-            documentFields.values().stream().anyMatch(df -> df.getIgnoredValues().size() > 0)) {
+        if (hasValues(documentFields, true)) {
             builder.startObject(Fields.IGNORED_FIELD_VALUES);
             for (DocumentField field : documentFields.values()) {
                 if (field.getIgnoredValues().size() > 0) {
-                    field.getIgnoredValuesWriter().toXContent(builder, params);
+                    field.ignoredValuesToXContent(builder);
                 }
             }
             builder.endObject();
@@ -950,6 +947,16 @@ public final class SearchHit implements Writeable, ToXContentObject, RefCounted
         return builder;
     }
 
+    // a loop rather than a stream, this is called for every hit of every search response
+    private static boolean hasValues(Map<String, DocumentField> fields, boolean ignored) {
+        for (DocumentField field : fields.values()) {
+            if ((ignored ? field.getIgnoredValues() : field.getValues()).isEmpty() == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static void buildExplanation(XContentBuilder builder, Explanation explanation) throws IOException {
         builder.startObject();
         builder.field(Fields.VALUE, explanation.getValue());
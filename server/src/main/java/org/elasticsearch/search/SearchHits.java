@@ -254,9 +254,11 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
     private void deallocate() {
         var hits = this.hits;
         for (int i = 0; i < hits.length; i++) {
-            assert hits[i] != null;
-            hits[i].decRef();
-            hits[i] = null;
+            // hits that were released on write by toXContentChunkedReleasingHits are already gone
+            if (hits[i] != null) {
+                hits[i].decRef();
+                hits[i] = null;
+            }
         }
     }
 
@@ -286,7 +288,30 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
     @Override
     public Iterator<? extends ToXContent> toXContentChunked(ToXContent.Params params) {
         assert hasReferences();
-        return Iterators.concat(Iterators.single((b, p) -> {
+        return toXContentChunked(Iterators.forArray(hits));
+    }
+
+    /**
+     * Same as {@link #toXContentChunked} but releases every hit as soon as it has been serialized, so that the hits of a large page
+     * do not all have to stay on heap until the last of them has been written to the channel. The hits can not be accessed anymore
+     * once they have been serialized, so this must only be used by the final consumer of these hits.
+     */
+    public Iterator<? extends ToXContent> toXContentChunkedReleasingHits(ToXContent.Params params) {
+        assert hasReferences();
+        return toXContentChunked(Iterators.<ToXContent>forRange(0, hits.length, i -> (b, p) -> {
+            final SearchHit hit = hits[i];
+            assert hit != null : "hit [" + i + "] was already released";
+            hits[i] = null;
+            try {
+                return hit.toXContent(b, p);
+            } finally {
+                hit.decRef();
+            }
+        }));
+    }
+
+    private Iterator<? extends ToXContent> toXContentChunked(Iterator<? extends ToXContent> hitsIterator) {
+        return Iterators.concat(Iterators.single((b, params) -> {
             b.startObject(Fields.HITS);
             boolean totalHitAsInt = params.paramAsBoolean(RestSearchAction.TOTAL_HITS_AS_INT_PARAM, false);
             if (totalHitAsInt) {
@@ -304,7 +329,7 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
                 b.field(Fields.MAX_SCORE, maxScore);
             }
             return b;
-        }), ChunkedToXContentHelper.array(Fields.HITS, Iterators.forArray(hits)), ChunkedToXContentHelper.endObject());
+        }), ChunkedToXContentHelper.array(Fields.HITS, hitsIterator), ChunkedToXContentHelper.endObject());
     }
 
     @Override
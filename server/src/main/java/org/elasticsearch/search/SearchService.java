@@ -12,6 +12,7 @@ package org.elasticsearch.search;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -76,6 +77,7 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.ExecutorSelector;
+import org.elasticsearch.indices.IndicesRequestCache;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
@@ -88,6 +90,7 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.AggregationContext.ProductionAggregationContext;
+import org.elasticsearch.search.aggregations.support.AggregationSpillService;
 import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.builder.SubSearchSourceBuilder;
@@ -106,10 +109,12 @@ import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
 import org.elasticsearch.search.internal.LegacyReaderContext;
+import org.elasticsearch.search.internal.QueryPlanner;
 import org.elasticsearch.search.internal.ReaderContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.internal.StatisticsQueryPlanner;
 import org.elasticsearch.search.internal.SubSearchContext;
 import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.profile.Profilers;
@@ -122,6 +127,7 @@ import org.elasticsearch.search.rank.feature.RankFeatureResult;
 import org.elasticsearch.search.rank.feature.RankFeatureShardPhase;
 import org.elasticsearch.search.rank.feature.RankFeatureShardRequest;
 import org.elasticsearch.search.rescore.RescorerBuilder;
+import org.elasticsearch.search.scheduler.SearchTaskScheduler;
 import org.elasticsearch.search.searchafter.SearchAfterBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.MinAndMax;
@@ -250,6 +256,47 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         Property.Dynamic
     );
 
+    /**
+     * Whether large segments may be split into doc id range partitions that are searched concurrently. This is meant for shards made of
+     * a few large segments, e.g. force-merged read-only indices, and is disabled by default.
+     */
+    public static final Setting<Boolean> INTRA_SEGMENT_CONCURRENCY_ENABLED = Setting.boolSetting(
+        "search.intra_segment_concurrency.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    public static final Setting<Integer> MINIMUM_DOCS_PER_PARTITION = Setting.intSetting(
+        "search.intra_segment_concurrency.min_docs_per_partition",
+        250_000,
+        1,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    /**
+     * Whether rewritten queries are planned against the statistics of the shard's segments, see {@link StatisticsQueryPlanner}.
+     */
+    public static final Setting<Boolean> QUERY_PLANNER_ENABLED = Setting.boolSetting(
+        "search.query_planner.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    private static final QueryPlanner STATISTICS_QUERY_PLANNER = new StatisticsQueryPlanner();
+
+    /**
+     * Whether searches sorted by a numeric or date field skip the segments that cannot contain any of the top hits.
+     */
+    public static final Setting<Boolean> SKIP_NON_COMPETITIVE_SEGMENTS = Setting.boolSetting(
+        "search.skip_non_competitive_segments",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
     public static final Setting<Integer> MAX_OPEN_SCROLL_CONTEXT = Setting.intSetting(
         "search.max_open_scroll_context",
         500,
@@ -331,10 +378,18 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     private final FetchPhase fetchPhase;
     private final CircuitBreaker circuitBreaker;
     private final OnlinePrewarmingService onlinePrewarmingService;
+    private final AggregationSpillService aggregationSpillService;
     private final int prewarmingMaxPoolFactorThreshold;
     private volatile Executor searchExecutor;
     private volatile boolean enableQueryPhaseParallelCollection;
 
+    private volatile boolean enableIntraSegmentConcurrency;
+
+    private volatile boolean enableQueryPlanner;
+    private volatile boolean skipNonCompetitiveSegments;
+
+    private volatile int minimumDocsPerPartition;
+
     private volatile long defaultKeepAlive;
 
     private volatile long maxKeepAlive;
@@ -368,6 +423,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final Tracer tracer;
 
+    private final SearchTaskScheduler searchTaskScheduler;
+
     public SearchService(
         ClusterService clusterService,
         IndicesService indicesService,
@@ -378,7 +435,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         CircuitBreakerService circuitBreakerService,
         ExecutorSelector executorSelector,
         Tracer tracer,
-        OnlinePrewarmingService onlinePrewarmingService
+        OnlinePrewarmingService onlinePrewarmingService,
+        AggregationSpillService aggregationSpillService
     ) {
         Settings settings = clusterService.getSettings();
         this.threadPool = threadPool;
@@ -392,6 +450,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.executorSelector = executorSelector;
         this.tracer = tracer;
         this.onlinePrewarmingService = onlinePrewarmingService;
+        this.aggregationSpillService = aggregationSpillService;
+        this.searchTaskScheduler = new SearchTaskScheduler(settings, clusterService.getClusterSettings(), threadPool);
         TimeValue keepAliveInterval = KEEPALIVE_INTERVAL_SETTING.get(settings);
         setKeepAlives(DEFAULT_KEEPALIVE_SETTING.get(settings), MAX_KEEPALIVE_SETTING.get(settings));
 
@@ -438,6 +498,18 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         }
         clusterService.getClusterSettings()
             .addSettingsUpdateConsumer(QUERY_PHASE_PARALLEL_COLLECTION_ENABLED, this::setEnableQueryPhaseParallelCollection);
+        enableIntraSegmentConcurrency = INTRA_SEGMENT_CONCURRENCY_ENABLED.get(settings);
+        clusterService.getClusterSettings()
+            .addSettingsUpdateConsumer(INTRA_SEGMENT_CONCURRENCY_ENABLED, newValue -> this.enableIntraSegmentConcurrency = newValue);
+        minimumDocsPerPartition = MINIMUM_DOCS_PER_PARTITION.get(settings);
+        clusterService.getClusterSettings()
+            .addSettingsUpdateConsumer(MINIMUM_DOCS_PER_PARTITION, newValue -> this.minimumDocsPerPartition = newValue);
+        enableQueryPlanner = QUERY_PLANNER_ENABLED.get(settings);
+        clusterService.getClusterSettings()
+            .addSettingsUpdateConsumer(QUERY_PLANNER_ENABLED, newValue -> this.enableQueryPlanner = newValue);
+        skipNonCompetitiveSegments = SKIP_NON_COMPETITIVE_SEGMENTS.get(settings);
+        clusterService.getClusterSettings()
+            .addSettingsUpdateConsumer(SKIP_NON_COMPETITIVE_SEGMENTS, newValue -> this.skipNonCompetitiveSegments = newValue);
         clusterService.getClusterSettings()
             .addSettingsUpdateConsumer(BATCHED_QUERY_PHASE, bulkExecuteQueryPhase -> this.batchQueryPhase = bulkExecuteQueryPhase);
         memoryAccountingBufferSize = MEMORY_ACCOUNTING_BUFFER_SIZE.get(settings).getBytes();
@@ -450,6 +522,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return circuitBreaker;
     }
 
+    public SearchTaskScheduler getSearchTaskScheduler() {
+        return searchTaskScheduler;
+    }
+
     private void setEnableSearchWorkerThreads(boolean enableSearchWorkerThreads) {
         if (enableSearchWorkerThreads) {
             searchExecutor = threadPool.executor(Names.SEARCH);
@@ -667,12 +743,33 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final boolean canCache = IndicesService.canCache(request, context);
         context.getSearchExecutionContext().freezeContext();
         if (canCache) {
-            indicesService.loadIntoContext(request, context);
+            indicesService.loadIntoContext(request, context, canCacheSegmentAggregations(request, context));
         } else {
             QueryPhase.execute(context);
         }
     }
 
+    /**
+     * Whether the aggregations of a cacheable request can also be cached per segment. This requires the aggregations to be collectable
+     * in parallel, since the per segment results are reduced together the same way the results of concurrently collected slices are.
+     */
+    private boolean canCacheSegmentAggregations(ShardSearchRequest request, SearchContext context) {
+        final IndexSettings indexSettings = context.indexShard().indexSettings();
+        if (indexSettings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING) == false) {
+            return false;
+        }
+        if (context.aggregations() == null || context.aggregations().isInSortOrderExecutionRequired()) {
+            return false;
+        }
+        if (context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER || context.getProfilers() != null) {
+            return false;
+        }
+        final IndexService indexService = indicesService.indexServiceSafe(request.shardId().getIndex());
+        final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
+        return request.source()
+            .supportsParallelCollection(field -> DefaultSearchContext.getFieldCardinality(field, indexService, directoryReader));
+    }
+
     public void executeQueryPhase(ShardSearchRequest request, CancellableTask task, ActionListener<SearchPhaseResult> listener) {
         assert request.canReturnNullResponseIfMatchNoDocs() == false || request.numberOfShards() > 1
             : "empty responses require more than one shard";
@@ -722,7 +819,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final Executor executor = getExecutor(shard);
         try {
             if (waitForCheckpoint <= UNASSIGNED_SEQ_NO) {
-                runAsync(executor, executable, listener);
+                runAsync(executor, queryTaskKind(request), executable, listener);
                 // we successfully submitted the async task to the search pool so let's prewarm the shard
                 if (isExecutorQueuedBeyondPrewarmingFactor(executor, prewarmingMaxPoolFactorThreshold) == false) {
                     onlinePrewarmingService.prewarm(shard);
@@ -802,7 +899,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                         if (timeoutTask != null) {
                             timeoutTask.cancel();
                         }
-                        runAsync(executor, executable, listener);
+                        runAsync(executor, queryTaskKind(request), executable, listener);
                         // we successfully submitted the async task to the search pool so let's prewarm the shard
                         if (isExecutorQueuedBeyondPrewarmingFactor(executor, prewarmingMaxPoolFactorThreshold) == false) {
                             onlinePrewarmingService.prewarm(shard);
@@ -848,12 +945,25 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return indicesService.indexServiceSafe(request.shardId().getIndex()).getShard(request.shardId().id());
     }
 
-    private static <T extends RefCounted> void runAsync(
+    private <T extends RefCounted> void runAsync(
         Executor executor,
+        SearchTaskScheduler.Kind kind,
         CheckedSupplier<T, Exception> executable,
         ActionListener<T> listener
     ) {
-        executor.execute(ActionRunnable.supplyAndDecRef(listener, executable));
+        final ActionRunnable<T> task = ActionRunnable.supplyAndDecRef(listener, executable);
+        if (executor == threadPool.executor(Names.SEARCH)) {
+            searchTaskScheduler.execute(executor, kind, task);
+        } else {
+            // searches on system indices run on their own thread pools and are never held back by the scheduler
+            executor.execute(task);
+        }
+    }
+
+    private static SearchTaskScheduler.Kind queryTaskKind(ShardSearchRequest request) {
+        return request.source() != null && request.source().aggregations() != null
+            ? SearchTaskScheduler.Kind.AGGREGATION
+            : SearchTaskScheduler.Kind.QUERY;
     }
 
     /**
@@ -926,7 +1036,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             threadPool
         );
         final Releasable markAsUsed = readerContext.markAsUsed(getKeepAlive(shardSearchRequest));
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), SearchTaskScheduler.Kind.FETCH, () -> {
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, ResultsType.RANK_FEATURE, false)) {
                 int[] docIds = request.getDocIds();
                 if (docIds == null || docIds.length == 0) {
@@ -991,7 +1101,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             throw e;
         }
         Executor executor = getExecutor(readerContext.indexShard());
-        runAsync(executor, () -> {
+        runAsync(executor, queryTaskKind(readerContext.getShardSearchRequest(null)), () -> {
             final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(null);
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, ResultsType.QUERY, false);) {
                 var opsListener = searchContext.indexShard().getSearchOperationListener();
@@ -1048,7 +1158,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         rewriteAndFetchShardRequest(readerContext.indexShard(), shardSearchRequest, listener.delegateFailure((l, rewritten) -> {
             // fork the execution in the search thread pool
             Executor executor = getExecutor(readerContext.indexShard());
-            runAsync(executor, () -> {
+            runAsync(executor, queryTaskKind(shardSearchRequest), () -> {
                 readerContext.setAggregatedDfs(request.dfs());
                 try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, ResultsType.QUERY, true);) {
                     final QuerySearchResult queryResult;
@@ -1118,7 +1228,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             freeReaderContext(readerContext.id());
             throw e;
         }
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), queryTaskKind(readerContext.getShardSearchRequest(null)), () -> {
             final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(null);
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, ResultsType.FETCH, false);) {
                 var opsListener = readerContext.indexShard().getSearchOperationListener();
@@ -1155,7 +1265,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(request.getShardSearchRequest());
         final Releasable markAsUsed = readerContext.markAsUsed(getKeepAlive(shardSearchRequest));
         rewriteAndFetchShardRequest(readerContext.indexShard(), shardSearchRequest, listener.delegateFailure((l, rewritten) -> {
-            runAsync(getExecutor(readerContext.indexShard()), () -> {
+            runAsync(getExecutor(readerContext.indexShard()), SearchTaskScheduler.Kind.FETCH, () -> {
                 try (SearchContext searchContext = createContext(readerContext, rewritten, task, ResultsType.FETCH, false)) {
                     if (request.lastEmittedDoc() != null) {
                         searchContext.scrollContext().lastEmittedDoc = request.lastEmittedDoc();
@@ -1391,8 +1501,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 resultsType,
                 enableQueryPhaseParallelCollection,
                 minimumDocsPerSlice,
+                enableIntraSegmentConcurrency,
+                minimumDocsPerPartition,
                 memoryAccountingBufferSize
             );
+            if (enableQueryPlanner) {
+                searchContext.searcher().setQueryPlanner(STATISTICS_QUERY_PLANNER);
+            }
+            searchContext.searcher().setSkipNonCompetitiveSegments(skipNonCompetitiveSegments);
             // we clone the query shard context here just for rewriting otherwise we
             // might end up with incorrect state since we are using now() or script services
             // during rewrite and normalized / evaluate templates etc.
@@ -1599,6 +1715,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 context.getSearchExecutionContext(),
                 bigArrays,
                 clusterService.getClusterSettings(),
+                aggregationSpillService,
                 source.aggregations().bytesToPreallocate(),
                 /*
                  * The query on the search context right now doesn't include
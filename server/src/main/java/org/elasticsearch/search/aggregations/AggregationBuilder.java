@@ -260,6 +260,16 @@ public abstract class AggregationBuilder
         return true;
     }
 
+    /**
+     * Return true if this aggregation supports being collected over doc id range partitions of a segment, concurrently with other
+     * partitions of the same segment. Such an aggregation must not collect anything beyond the documents that it is called for, e.g.
+     * by counting the matches of a whole segment at once, and must get new doc values iterators for every partition. This is only
+     * checked for requests that already {@link #supportsParallelCollection support parallel collection}.
+     */
+    public boolean supportsIntraSegmentConcurrency() {
+        return false;
+    }
+
     /**
      * Called by aggregations whose parents must be sequentially ordered.
      * @param type the type of the aggregation being validated
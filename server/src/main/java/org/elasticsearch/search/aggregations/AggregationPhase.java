@@ -34,6 +34,20 @@ public class AggregationPhase {
         } else {
             collectorSupplier = () -> newAggregatorCollector(context);
         }
+        final SegmentAggregationCache segmentAggregationCache = context.aggregations().getSegmentAggregationCache();
+        if (segmentAggregationCache != null && context.aggregations().isInSortOrderExecutionRequired() == false) {
+            context.aggregations()
+                .registerAggsCollectorManager(
+                    new SegmentCachingAggregatorCollectorManager(
+                        collectorSupplier,
+                        segmentAggregationCache,
+                        context.searcher()::timeExceeded,
+                        internalAggregations -> context.queryResult().aggregations(internalAggregations),
+                        () -> context.aggregations().getAggregationReduceContextBuilder().forPartialReduction()
+                    )
+                );
+            return;
+        }
         context.aggregations()
             .registerAggsCollectorManager(
                 new AggregatorCollectorManager(
@@ -15,6 +15,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.xcontent.SuggestingErrorOnUnknown;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
@@ -253,6 +254,23 @@ public class AggregatorFactories {
         return factories.length;
     }
 
+    /**
+     * Returns the fields whose statistics the aggregators can take from the aggregate projection of the index, or {@code null} if
+     * any of them must collect the documents, see {@link AggregatorFactory#projectedField()}.
+     */
+    @Nullable
+    public List<String> projectedFields() {
+        List<String> projectedFields = new ArrayList<>(factories.length);
+        for (AggregatorFactory factory : factories) {
+            String projectedField = factory.projectedField();
+            if (projectedField == null) {
+                return null;
+            }
+            projectedFields.add(projectedField);
+        }
+        return projectedFields;
+    }
+
     /**
      * This returns a copy of {@link AggregatorFactories} modified so that
      * calls to {@link #createSubAggregators} will ignore the provided parent
@@ -390,6 +408,20 @@ public class AggregatorFactories {
             return true;
         }
 
+        /**
+         * Return false if this aggregation or any of the child aggregations does not support being collected over partitions of a
+         * segment. As a result, a request including such aggregation never splits segments into partitions that are searched
+         * concurrently.
+         */
+        public boolean supportsIntraSegmentConcurrency() {
+            for (AggregationBuilder builder : aggregationBuilders) {
+                if (builder.supportsIntraSegmentConcurrency() == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         public Builder addAggregator(AggregationBuilder factory) {
             if (names.add(factory.name) == false) {
                 throw new IllegalArgumentException("Two sibling aggregations cannot have the same name: [" + factory.name + "]");
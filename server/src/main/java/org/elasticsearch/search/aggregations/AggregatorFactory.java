@@ -9,6 +9,7 @@
 
 package org.elasticsearch.search.aggregations;
 
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.SamplingContext;
 
@@ -94,4 +95,14 @@ public abstract class AggregatorFactory {
     public String getStatsSubtype() {
         return OTHER_SUBTYPE;
     }
+
+    /**
+     * Returns the field whose statistics the aggregator can take from the
+     * {@link org.elasticsearch.index.fielddata.projection.AggregateProjection aggregate projection} of the index, or {@code null}
+     * if it must collect the documents.
+     */
+    @Nullable
+    public String projectedField() {
+        return null;
+    }
 }
@@ -18,7 +18,11 @@ import org.elasticsearch.search.internal.TwoPhaseCollector;
 import java.io.IOException;
 
 /**
- * A Collector that can collect data in separate buckets.
+ * A Collector that can collect data in separate buckets. The leaf collectors
+ * are provided the matching docs either one at a time with
+ * {@link LeafBucketCollector#collect(int, long)} or in blocks with
+ * {@link LeafBucketCollector#collect(int[], int, long)}, see
+ * {@link LeafBucketCollector#collect(org.apache.lucene.search.DocIdStream)}.
  */
 public abstract class BucketCollector {
 
@@ -9,6 +9,7 @@
 
 package org.elasticsearch.search.aggregations;
 
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.Scorable;
 import org.elasticsearch.search.aggregations.bucket.terms.LongKeyedBucketOrds;
@@ -18,9 +19,16 @@ import java.io.IOException;
 /**
  * Collects results for a particular segment. See the docs for
  * {@link LeafBucketCollector#collect(int, long)} for <strong>how</strong>
- * to do the collecting.
+ * to do the collecting, and {@link #collect(int[], int, long)} for how to
+ * collect a block of docs at once.
  */
 public abstract class LeafBucketCollector implements LeafCollector {
+    /**
+     * The maximum number of docs that are collected at once when Lucene
+     * provides the matching docs as a {@link DocIdStream}.
+     */
+    public static final int BATCH_SIZE = 512;
+
     /**
      * A {@linkplain LeafBucketCollector} that doesn't collect anything.
      * {@link Aggregator}s will return this if they've already collected
@@ -39,12 +47,26 @@ public abstract class LeafBucketCollector implements LeafCollector {
             // no-op
         }
 
+        @Override
+        public void collect(int[] docs, int count, long bucket) {
+            // no-op
+        }
+
+        @Override
+        public void collect(DocIdStream stream) {
+            // no-op, and this instance is shared so it must not buffer docs
+        }
+
         @Override
         public boolean isNoop() {
             return true;
         }
     };
 
+    // lazily allocated, most collectors are never provided a stream of docs
+    private int[] docBuffer;
+    private int bufferedDocs;
+
     /**
      * Collect the given {@code doc} in the bucket owned by
      * {@code owningBucketOrd}.
@@ -74,6 +96,34 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long owningBucketOrd) throws IOException;
 
+    /**
+     * Collect the first {@code count} docs of {@code docs} in the bucket
+     * owned by {@code owningBucketOrd}. The docs are in increasing order,
+     * just like the docs that are passed to {@link #collect(int, long)}
+     * one at a time, and the array must not be modified since it may be
+     * shared with other collectors.
+     * <p>
+     * The default implementation calls {@link #collect(int, long)} for
+     * each doc. Aggregations that read doc values should override it to
+     * load the values of the whole block first, see
+     * {@link org.elasticsearch.index.fielddata.NumericDoubleValues#doubleValues},
+     * and then accumulate them in a tight loop over a primitive array which
+     * the JIT is able to unroll and vectorize:
+     * <pre>{@code
+     * int numValues = values.doubleValues(docs, count, buffer);
+     * double sum = array[owningBucketOrd];
+     * for (int i = 0; i < numValues; i++) {
+     *     sum += buffer[i];
+     * }
+     * array[owningBucketOrd] = sum;
+     * }</pre>
+     */
+    public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], owningBucketOrd);
+        }
+    }
+
     /**
      * Does this collector collect anything? If this returns true we can safely
      * just never call {@link #collect}.
@@ -87,6 +137,38 @@ public abstract class LeafBucketCollector implements LeafCollector {
         collect(doc, 0);
     }
 
+    /**
+     * Lucene provides the matching docs as a stream when it doesn't need to
+     * score them, for instance when a dense conjunction matches all the docs
+     * of a window. The docs are buffered and collected in blocks of up to
+     * {@link #BATCH_SIZE} docs with {@link #collect(int[], int, long)}.
+     * Implementations should not need to override this method.
+     */
+    @Override
+    public void collect(DocIdStream stream) throws IOException {
+        if (docBuffer == null) {
+            docBuffer = new int[BATCH_SIZE];
+        }
+        bufferedDocs = 0;
+        stream.forEach(this::bufferDoc);
+        flushBufferedDocs();
+    }
+
+    private void bufferDoc(int doc) throws IOException {
+        if (bufferedDocs == docBuffer.length) {
+            flushBufferedDocs();
+        }
+        docBuffer[bufferedDocs++] = doc;
+    }
+
+    private void flushBufferedDocs() throws IOException {
+        final int count = bufferedDocs;
+        bufferedDocs = 0;
+        if (count > 0) {
+            collect(docBuffer, count, 0);
+        }
+    }
+
     @Override
     public void setScorer(Scorable scorer) throws IOException {
         // no-op by default
@@ -20,6 +20,7 @@ public class SearchContextAggregations {
     private final AggregatorFactories factories;
     private final Supplier<AggregationReduceContext.Builder> toAggregationReduceContextBuilder;
     private CollectorManager<AggregatorCollector, Void> aggCollectorManager;
+    private SegmentAggregationCache segmentAggregationCache;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -50,6 +51,20 @@ public class SearchContextAggregations {
         return aggCollectorManager;
     }
 
+    /**
+     * Sets the cache for per-segment aggregation results. Must be called before the aggregation phase is pre-processed.
+     */
+    public void setSegmentAggregationCache(SegmentAggregationCache segmentAggregationCache) {
+        this.segmentAggregationCache = segmentAggregationCache;
+    }
+
+    /**
+     * Returns the cache for per-segment aggregation results, or {@code null} if results should not be cached per segment.
+     */
+    public SegmentAggregationCache getSegmentAggregationCache() {
+        return segmentAggregationCache;
+    }
+
     /**
      * Returns if the aggregations needs to execute in sort order.
      */
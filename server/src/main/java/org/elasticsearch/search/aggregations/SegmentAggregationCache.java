@@ -0,0 +1,32 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import java.io.IOException;
+
+/**
+ * Cache for the unreduced aggregation results of a single segment for the aggregations of the current request. Implementations are
+ * expected to key entries on the reader cache key of the segment so that an entry is no longer used once the segment is merged away
+ * or gets new deletes.
+ */
+public interface SegmentAggregationCache {
+
+    /**
+     * Returns the cached aggregation results of the given segment, or {@code null} if there are none.
+     */
+    InternalAggregations get(LeafReaderContext context) throws IOException;
+
+    /**
+     * Caches the aggregation results of the given, fully collected, segment.
+     */
+    void put(LeafReaderContext context, InternalAggregations aggregations) throws IOException;
+}
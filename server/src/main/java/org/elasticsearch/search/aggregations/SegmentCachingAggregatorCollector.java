@@ -0,0 +1,117 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AggregatorCollector} that collects every segment with its own set of top level aggregators, so that the unreduced result
+ * of each segment can be stored in a {@link SegmentAggregationCache} and reused by later requests against a reader that still contains
+ * the segment. Segments that have a cached result are not collected at all. The results of all segments are reduced together by
+ * {@link SegmentCachingAggregatorCollectorManager}.
+ * <p>
+ * A segment is only known to be fully collected once the next segment is requested or post collection runs, which is why its result
+ * is built at that point rather than when its leaf collector finishes.
+ */
+final class SegmentCachingAggregatorCollector extends AggregatorCollector {
+
+    private final Supplier<AggregatorCollector> segmentCollectorSupplier;
+    private final SegmentAggregationCache cache;
+    private final BooleanSupplier timedOut;
+    private final ScoreMode scoreMode;
+    private final List<InternalAggregations> segmentResults = new ArrayList<>();
+
+    private AggregatorCollector unusedCollector;
+    private LeafReaderContext currentSegment;
+    private AggregatorCollector currentCollector;
+
+    SegmentCachingAggregatorCollector(
+        Supplier<AggregatorCollector> segmentCollectorSupplier,
+        SegmentAggregationCache cache,
+        BooleanSupplier timedOut
+    ) {
+        super(new Aggregator[0], BucketCollector.NO_OP_BUCKET_COLLECTOR);
+        this.segmentCollectorSupplier = segmentCollectorSupplier;
+        this.cache = cache;
+        this.timedOut = timedOut;
+        // the score mode needs to be known before the first segment is collected
+        this.unusedCollector = segmentCollectorSupplier.get();
+        this.scoreMode = unusedCollector.scoreMode();
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        finishCurrentSegment(true);
+        final InternalAggregations cached = cache.get(context);
+        if (cached != null) {
+            segmentResults.add(cached);
+            throw new CollectionTerminatedException();
+        }
+        currentSegment = context;
+        currentCollector = nextCollector();
+        // if the aggregators early terminate on this segment it is still finished and cached like any other segment
+        return currentCollector.getLeafCollector(context);
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    @Override
+    public void doPostCollection() throws IOException {
+        // if the search timed out the last segment may not have been fully collected, so its result is used but not cached
+        finishCurrentSegment(timedOut.getAsBoolean() == false);
+        if (segmentResults.isEmpty()) {
+            // no segment was visited, build empty results like a regular collector would
+            final AggregatorCollector collector = nextCollector();
+            collector.doPostCollection();
+            segmentResults.add(InternalAggregations.from(collector.internalAggregations));
+        }
+    }
+
+    /**
+     * The unreduced results of the segments visited by this collector, either cached or freshly collected.
+     */
+    List<InternalAggregations> segmentResults() {
+        return segmentResults;
+    }
+
+    private void finishCurrentSegment(boolean cacheResult) throws IOException {
+        if (currentCollector != null) {
+            currentCollector.doPostCollection();
+            final InternalAggregations result = InternalAggregations.from(currentCollector.internalAggregations);
+            segmentResults.add(result);
+            if (cacheResult) {
+                cache.put(currentSegment, result);
+            }
+            currentCollector = null;
+            currentSegment = null;
+        }
+    }
+
+    private AggregatorCollector nextCollector() {
+        if (unusedCollector != null) {
+            final AggregatorCollector collector = unusedCollector;
+            unusedCollector = null;
+            return collector;
+        }
+        return segmentCollectorSupplier.get();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.search.CollectorManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collector manager that produces {@link SegmentCachingAggregatorCollector}s and partially reduces the per-segment results of all of
+ * them, cached or not, into the shard level aggregations.
+ */
+class SegmentCachingAggregatorCollectorManager implements CollectorManager<AggregatorCollector, Void> {
+
+    private final Supplier<AggregatorCollector> segmentCollectorSupplier;
+    private final SegmentAggregationCache cache;
+    private final BooleanSupplier timedOut;
+    private final Consumer<InternalAggregations> internalAggregationsConsumer;
+    private final Supplier<AggregationReduceContext> reduceContextSupplier;
+
+    SegmentCachingAggregatorCollectorManager(
+        Supplier<AggregatorCollector> segmentCollectorSupplier,
+        SegmentAggregationCache cache,
+        BooleanSupplier timedOut,
+        Consumer<InternalAggregations> internalAggregationsConsumer,
+        Supplier<AggregationReduceContext> reduceContextSupplier
+    ) {
+        this.segmentCollectorSupplier = segmentCollectorSupplier;
+        this.cache = cache;
+        this.timedOut = timedOut;
+        this.internalAggregationsConsumer = internalAggregationsConsumer;
+        this.reduceContextSupplier = reduceContextSupplier;
+    }
+
+    @Override
+    public AggregatorCollector newCollector() throws IOException {
+        return new SegmentCachingAggregatorCollector(segmentCollectorSupplier, cache, timedOut);
+    }
+
+    @Override
+    public Void reduce(Collection<AggregatorCollector> collectors) throws IOException {
+        final List<InternalAggregations> segmentResults = new ArrayList<>();
+        for (AggregatorCollector collector : collectors) {
+            segmentResults.addAll(((SegmentCachingAggregatorCollector) collector).segmentResults());
+        }
+        if (segmentResults.size() > 1) {
+            internalAggregationsConsumer.accept(InternalAggregations.topLevelReduce(segmentResults, reduceContextSupplier.get()));
+        } else if (segmentResults.size() == 1) {
+            internalAggregationsConsumer.accept(segmentResults.get(0));
+        }
+        return null;
+    }
+}
@@ -11,9 +11,14 @@ package org.elasticsearch.search.aggregations.bucket.histogram;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.common.Rounding;
 import org.elasticsearch.common.Rounding.DateTimeUnit;
@@ -21,6 +26,10 @@ import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.core.CheckedFunction;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.fielddata.projection.AggregateProjection;
+import org.elasticsearch.index.fielddata.projection.LeafProjection;
+import org.elasticsearch.index.fielddata.projection.ProjectionIndexFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AdaptingAggregator;
 import org.elasticsearch.search.aggregations.AggregationExecutionContext;
@@ -39,6 +48,7 @@ import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilde
 import org.elasticsearch.search.aggregations.bucket.range.RangeAggregator;
 import org.elasticsearch.search.aggregations.bucket.range.RangeAggregatorSupplier;
 import org.elasticsearch.search.aggregations.bucket.terms.LongKeyedBucketOrds;
+import org.elasticsearch.search.aggregations.metrics.ProjectionMetricsAggregator;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
@@ -75,6 +85,12 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
      * than the {@linkplain DateHistogramAggregator} because it doesn't need
      * to the round points and because it can pass precise cardinality
      * estimates to its child aggregations.
+     * <p>
+     * The exception is a top level {@code date_histogram} on the date field
+     * of the {@link AggregateProjection aggregate projection} of the index
+     * whose sub-aggregations can all take their statistics from the
+     * projection, which uses the {@linkplain DateHistogramAggregator} so
+     * that it can collect whole segments from their projection.
      */
     public static Aggregator build(
         String name,
@@ -93,25 +109,28 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         Map<String, Object> metadata
     ) throws IOException {
         Rounding.Prepared preparedRounding = valuesSourceConfig.roundingPreparer(context).apply(rounding);
-        Aggregator asRange = adaptIntoRangeOrNull(
-            name,
-            factories,
-            rounding,
-            preparedRounding,
-            order,
-            keyed,
-            minDocCount,
-            downsampledResultsOffset,
-            extendedBounds,
-            hardBounds,
-            valuesSourceConfig,
-            context,
-            parent,
-            cardinality,
-            metadata
-        );
-        if (asRange != null) {
-            return asRange;
+        ProjectionIndexFieldData projection = projectionOrNull(valuesSourceConfig, factories, context, parent);
+        if (projection == null) {
+            Aggregator asRange = adaptIntoRangeOrNull(
+                name,
+                factories,
+                rounding,
+                preparedRounding,
+                order,
+                keyed,
+                minDocCount,
+                downsampledResultsOffset,
+                extendedBounds,
+                hardBounds,
+                valuesSourceConfig,
+                context,
+                parent,
+                cardinality,
+                metadata
+            );
+            if (asRange != null) {
+                return asRange;
+            }
         }
         return new DateHistogramAggregator(
             name,
@@ -128,10 +147,42 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
             context,
             parent,
             cardinality,
-            metadata
+            metadata,
+            projection
         );
     }
 
+    /**
+     * Returns the field data of the aggregate projection of the index if the aggregation is a top level aggregation on the date field
+     * of the projection whose sub-aggregations all take their statistics from the metric fields of the projection, or
+     * <code>null</code> otherwise.
+     */
+    @Nullable
+    private static ProjectionIndexFieldData projectionOrNull(
+        ValuesSourceConfig valuesSourceConfig,
+        AggregatorFactories factories,
+        AggregationContext context,
+        Aggregator parent
+    ) {
+        if (parent != null || context.isInSortOrderExecutionRequired() || valuesSourceConfig.hasValues() == false) {
+            return null;
+        }
+        AggregateProjection projection = AggregateProjection.fromSettings(context.getIndexSettings());
+        if (projection == null || projection.dateField().equals(ProjectionMetricsAggregator.projectedField(valuesSourceConfig)) == false) {
+            return null;
+        }
+        List<String> projectedFields = factories.projectedFields();
+        if (projectedFields == null || projection.metrics().containsAll(projectedFields) == false) {
+            return null;
+        }
+        MappedFieldType fieldType = projection.fieldType(context::getFieldType, ft -> context.buildFieldContext(ft).indexFieldData());
+        if (fieldType == null) {
+            logger.trace("couldn't use the aggregate projection of [{}], unsupported field type", projection.dateField());
+            return null;
+        }
+        return (ProjectionIndexFieldData) context.buildFieldContext(fieldType).indexFieldData();
+    }
+
     private static FromDateRange adaptIntoRangeOrNull(
         String name,
         AggregatorFactories factories,
@@ -242,6 +293,20 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
 
     private final LongKeyedBucketOrds bucketOrds;
 
+    @Nullable
+    private final ProjectionIndexFieldData projection;
+    /**
+     * The fields of the sub-aggregations, whose statistics are taken from the projection.
+     */
+    private final String[] projectedFields;
+    /**
+     * The rounding of the keys of the projection, which may fall out of the range of values the {@link #preparedRounding} was
+     * prepared for.
+     */
+    private final Rounding.Prepared projectionRounding;
+    private Weight projectionWeight;
+    private int projectedSegments;
+
     DateHistogramAggregator(
         String name,
         AggregatorFactories factories,
@@ -257,7 +322,8 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         AggregationContext context,
         Aggregator parent,
         CardinalityUpperBound cardinality,
-        Map<String, Object> metadata
+        Map<String, Object> metadata,
+        @Nullable ProjectionIndexFieldData projection
     ) throws IOException {
         super(name, factories, context, parent, CardinalityUpperBound.MANY, metadata);
         this.rounding = rounding;
@@ -274,6 +340,27 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         this.formatter = valuesSourceConfig.format();
 
         bucketOrds = LongKeyedBucketOrds.build(bigArrays(), cardinality);
+        String[] projectedFields = projection == null ? null : projectedFields(subAggregators);
+        this.projection = projectedFields == null ? null : projection;
+        this.projectedFields = projectedFields;
+        this.projectionRounding = this.projection == null ? null : rounding.prepareForUnknown();
+    }
+
+    /**
+     * Returns the fields of the provided sub-aggregators if all of them can collect their statistics from a projection, or
+     * <code>null</code> otherwise.
+     */
+    @Nullable
+    private static String[] projectedFields(Aggregator[] subAggregators) {
+        String[] projectedFields = new String[subAggregators.length];
+        for (int i = 0; i < subAggregators.length; i++) {
+            if (subAggregators[i] instanceof ProjectionMetricsAggregator metrics && metrics.projectedField() != null) {
+                projectedFields[i] = metrics.projectedField();
+            } else {
+                return null;
+            }
+        }
+        return projectedFields;
     }
 
     @Override
@@ -289,6 +376,10 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
+        if (projection != null && collectProjection(aggCtx.getLeafReaderContext())) {
+            projectedSegments++;
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
         final SortedNumericDocValues values = valuesSource.longValues(aggCtx.getLeafReaderContext());
         final NumericDocValues singleton = DocValues.unwrapSingleton(values);
         return singleton != null ? getLeafCollector(singleton, sub) : getLeafCollector(values, sub);
@@ -316,16 +407,127 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
 
     private LeafBucketCollector getLeafCollector(NumericDocValues values, LeafBucketCollector sub) {
         return new LeafBucketCollectorBase(sub, values) {
+            private int[] docsWithValue = new int[0];
+            private long[] roundedValues = new long[0];
+
             @Override
             public void collect(int doc, long owningBucketOrd) throws IOException {
                 if (values.advanceExact(doc)) {
                     addRoundedValue(preparedRounding.round(values.longValue()), doc, owningBucketOrd, sub);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+                docsWithValue = ArrayUtil.grow(docsWithValue, count);
+                roundedValues = ArrayUtil.grow(roundedValues, count);
+                int numValues = 0;
+                for (int i = 0; i < count; i++) {
+                    if (values.advanceExact(docs[i])) {
+                        docsWithValue[numValues] = docs[i];
+                        roundedValues[numValues++] = values.longValue();
+                    }
+                }
+                for (int i = 0; i < numValues; i++) {
+                    roundedValues[i] = preparedRounding.round(roundedValues[i]);
+                }
+                // neighbouring docs often fall into the same bucket, in which case the bucket ordinal doesn't need to be looked up
+                long previousBucketOrd = -1;
+                for (int i = 0; i < numValues; i++) {
+                    if (i > 0 && roundedValues[i] == roundedValues[i - 1]) {
+                        if (previousBucketOrd >= 0) {
+                            collectExistingBucket(sub, docsWithValue[i], previousBucketOrd);
+                        }
+                    } else {
+                        previousBucketOrd = addRoundedValue(roundedValues[i], docsWithValue[i], owningBucketOrd, sub);
+                    }
+                }
+            }
         };
     }
 
-    private void addRoundedValue(long rounded, int doc, long owningBucketOrd, LeafBucketCollector sub) throws IOException {
+    /**
+     * Collects the segment from its aggregate projection rather than from its documents. This requires the query to match all of the
+     * documents of the segment, every bucket of the projection to fall into a single bucket of the histogram, and the projection to
+     * hold the statistics of the fields of all sub-aggregations. Returns <code>false</code> if the documents must be collected.
+     */
+    private boolean collectProjection(LeafReaderContext ctx) throws IOException {
+        // the projection covers the deleted documents too
+        if (ctx.reader().getLiveDocs() != null) {
+            return false;
+        }
+        if (projectionWeight == null) {
+            IndexSearcher searcher = context.searcher();
+            projectionWeight = searcher.createWeight(
+                searcher.rewrite(new ConstantScoreQuery(context.query())),
+                ScoreMode.COMPLETE_NO_SCORES,
+                1f
+            );
+        }
+        if (projectionWeight.count(ctx) != ctx.reader().maxDoc()) {
+            return false;
+        }
+        final LeafProjection leafProjection = projection.load(ctx);
+        if (leafProjection.isUsable() == false) {
+            return false;
+        }
+        final LeafProjection.Metric[] metrics = new LeafProjection.Metric[projectedFields.length];
+        for (int i = 0; i < projectedFields.length; i++) {
+            metrics[i] = leafProjection.metric(projectedFields[i]);
+            if (metrics[i] == null) {
+                return false;
+            }
+        }
+        final long interval = projection.interval();
+        for (int b = 0; b < leafProjection.size(); b++) {
+            long key = leafProjection.key(b);
+            if (projectionRounding.round(key) != projectionRounding.round(key + interval - 1)) {
+                return false;
+            }
+        }
+
+        long previousRounded = Long.MIN_VALUE;
+        long bucketOrd = -1;
+        for (int b = 0; b < leafProjection.size(); b++) {
+            final long rounded = projectionRounding.round(leafProjection.key(b));
+            // the buckets of the projection are sorted, so consecutive buckets often fall into the same bucket of the histogram
+            if (b == 0 || rounded != previousRounded) {
+                previousRounded = rounded;
+                bucketOrd = -1;
+                if (hardBounds == null || hardBounds.contain(rounded)) {
+                    bucketOrd = bucketOrds.add(0, rounded);
+                    if (bucketOrd < 0) { // already seen
+                        bucketOrd = -1 - bucketOrd;
+                    } else {
+                        checkRealMemoryCB("allocated_buckets");
+                    }
+                }
+            }
+            if (bucketOrd < 0) {
+                continue;
+            }
+            incrementBucketDocCount(bucketOrd, leafProjection.docCount(b));
+            for (int i = 0; i < metrics.length; i++) {
+                long valueCount = metrics[i].count(b);
+                if (valueCount > 0) {
+                    ((ProjectionMetricsAggregator) subAggregators[i]).collectProjection(
+                        bucketOrd,
+                        valueCount,
+                        metrics[i].sum(b),
+                        metrics[i].min(b),
+                        metrics[i].max(b)
+                    );
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the doc in the bucket of the given rounded value and returns the ordinal of the bucket, or -1 if the rounded value is
+     * out of the hard bounds.
+     */
+    private long addRoundedValue(long rounded, int doc, long owningBucketOrd, LeafBucketCollector sub) throws IOException {
         if (hardBounds == null || hardBounds.contain(rounded)) {
             long bucketOrd = bucketOrds.add(owningBucketOrd, rounded);
             if (bucketOrd < 0) { // already seen
@@ -334,7 +536,9 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
             } else {
                 collectBucket(sub, doc, bucketOrd);
             }
+            return bucketOrd;
         }
+        return -1;
     }
 
     @Override
@@ -390,6 +594,9 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
     @Override
     public void collectDebugInfo(BiConsumer<String, Object> add) {
         add.accept("total_buckets", bucketOrds.size());
+        if (projection != null) {
+            add.accept("projected_segments", projectedSegments);
+        }
     }
 
     /**
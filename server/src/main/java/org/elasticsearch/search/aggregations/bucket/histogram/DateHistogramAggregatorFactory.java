@@ -127,7 +127,8 @@ public final class DateHistogramAggregatorFactory extends ValuesSourceAggregator
             context,
             parent,
             CardinalityUpperBound.NONE,
-            metadata
+            metadata,
+            null
         );
     }
 }
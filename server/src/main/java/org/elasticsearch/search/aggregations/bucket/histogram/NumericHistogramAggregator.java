@@ -10,6 +10,7 @@
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.index.fielddata.FieldData;
 import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
@@ -113,16 +114,54 @@ public class NumericHistogramAggregator extends AbstractHistogramAggregator {
 
     private LeafBucketCollector getLeafCollector(NumericDoubleValues values, LeafBucketCollector sub) {
         return new LeafBucketCollectorBase(sub, values) {
+            private int[] docsWithValue = new int[0];
+            private double[] keys = new double[0];
+
             @Override
             public void collect(int doc, long owningBucketOrd) throws IOException {
                 if (values.advanceExact(doc)) {
                     addKey(Math.floor((values.doubleValue() - offset) / interval), doc, owningBucketOrd, sub);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+                docsWithValue = ArrayUtil.grow(docsWithValue, count);
+                keys = ArrayUtil.grow(keys, count);
+                int numValues = 0;
+                for (int i = 0; i < count; i++) {
+                    if (values.advanceExact(docs[i])) {
+                        docsWithValue[numValues] = docs[i];
+                        keys[numValues++] = values.doubleValue();
+                    }
+                }
+                // computing the keys of the whole block in a tight loop lets the JIT vectorize it
+                for (int i = 0; i < numValues; i++) {
+                    keys[i] = Math.floor((keys[i] - offset) / interval);
+                }
+                // neighbouring docs often fall into the same bucket, in which case the bucket ordinal doesn't need to be looked up
+                long previousKeyBits = 0;
+                long previousBucketOrd = -1;
+                for (int i = 0; i < numValues; i++) {
+                    // compare the bits like the bucket ords do, so that 0.0 and -0.0 remain distinct keys
+                    final long keyBits = Double.doubleToLongBits(keys[i]);
+                    if (i > 0 && keyBits == previousKeyBits) {
+                        if (previousBucketOrd >= 0) {
+                            collectExistingBucket(sub, docsWithValue[i], previousBucketOrd);
+                        }
+                    } else {
+                        previousKeyBits = keyBits;
+                        previousBucketOrd = addKey(keys[i], docsWithValue[i], owningBucketOrd, sub);
+                    }
+                }
+            }
         };
     }
 
-    private void addKey(double key, int doc, long owningBucketOrd, LeafBucketCollector sub) throws IOException {
+    /**
+     * Collects the doc in the bucket of the given key and returns the ordinal of the bucket, or -1 if the key is out of the hard bounds.
+     */
+    private long addKey(double key, int doc, long owningBucketOrd, LeafBucketCollector sub) throws IOException {
         if (hardBounds == null || hardBounds.contain(key * interval)) {
             long bucketOrd = bucketOrds.add(owningBucketOrd, Double.doubleToLongBits(key));
             if (bucketOrd < 0) { // already seen
@@ -131,6 +170,8 @@ public class NumericHistogramAggregator extends AbstractHistogramAggregator {
             } else {
                 collectBucket(sub, doc, bucketOrd);
             }
+            return bucketOrd;
         }
+        return -1;
     }
 }
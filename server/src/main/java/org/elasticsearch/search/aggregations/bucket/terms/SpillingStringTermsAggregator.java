@@ -0,0 +1,498 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.IntroSorter;
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.ObjectArrayPriorityQueue;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.AggregationExecutionContext;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalOrder;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.AggregationSpillService;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
+import org.elasticsearch.tasks.TaskCancelledException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.elasticsearch.search.aggregations.InternalOrder.isKeyOrder;
+
+/**
+ * An aggregator of string values for the {@code terms} aggregation that keeps
+ * its buckets in memory until they use more than
+ * {@link #MEMORY_BUDGET_SETTING}, then spills them to a temporary file as a
+ * run of terms sorted by their bytes along with their doc counts. The runs
+ * are merged when building the results. This trades the circuit breaker
+ * failures that high cardinality {@code terms} aggregations may run into for
+ * a slowdown.
+ * <p>
+ * The runs are written to the tmp directory of the node and count against
+ * the disk budget of the {@link AggregationSpillService}, which fails the
+ * request rather than filling the disk. Writing and merging the runs happen
+ * on the search thread, so the request is checked for cancellation before
+ * each run and regularly while merging.
+ * <p>
+ * The doc count is the only state that is kept per bucket so this only
+ * supports aggregations without sub-aggregations that collect a single
+ * bucket, see {@link TermsAggregatorFactory.ExecutionMode#SPILL}.
+ */
+public final class SpillingStringTermsAggregator extends AbstractStringTermsAggregator {
+
+    /**
+     * The memory that the buckets of a {@code terms} aggregation that uses
+     * the {@code spill} execution hint may use before they are spilled to disk.
+     */
+    public static final Setting<ByteSizeValue> MEMORY_BUDGET_SETTING = Setting.byteSizeSetting(
+        "search.aggs.terms.spill.memory_budget",
+        ByteSizeValue.ofMb(64),
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
+
+    // the largest encodings of the length and the doc count of a term
+    private static final int MAX_VINT_BYTES = 5;
+    private static final int MAX_VLONG_BYTES = 9;
+
+    // the number of merged terms between checks for cancellation
+    private static final int CANCELLATION_CHECK_INTERVAL = 1 << 14;
+
+    private final ValuesSourceConfig valuesSourceConfig;
+    private final IncludeExclude.StringFilter includeExclude;
+    private final long memoryBudget;
+    private final List<String> runs = new ArrayList<>();
+    private final AggregationSpillService spillService;
+
+    private BytesRefHash terms;
+    private LongArray docCounts;
+    private Directory spillDirectory;
+    private long spilledTerms;
+    private long spilledBytes;
+    private long reservedBytes;
+
+    SpillingStringTermsAggregator(
+        String name,
+        ValuesSourceConfig valuesSourceConfig,
+        BucketOrder order,
+        DocValueFormat format,
+        BucketCountThresholds bucketCountThresholds,
+        IncludeExclude.StringFilter includeExclude,
+        AggregationContext context,
+        Aggregator parent,
+        boolean showTermDocCountError,
+        Map<String, Object> metadata,
+        long memoryBudget
+    ) throws IOException {
+        super(
+            name,
+            AggregatorFactories.EMPTY,
+            context,
+            parent,
+            order,
+            format,
+            bucketCountThresholds,
+            SubAggCollectionMode.BREADTH_FIRST,
+            showTermDocCountError,
+            metadata
+        );
+        this.valuesSourceConfig = valuesSourceConfig;
+        this.includeExclude = includeExclude;
+        this.memoryBudget = memoryBudget;
+        this.spillService = context.spillService();
+        this.terms = new BytesRefHash(1, context.bigArrays());
+        this.docCounts = context.bigArrays().newLongArray(1, true);
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        if (valuesSourceConfig.getValuesSource().needsScores()) {
+            return ScoreMode.COMPLETE;
+        }
+        return super.scoreMode();
+    }
+
+    @Override
+    public LeafBucketCollector getLeafCollector(AggregationExecutionContext aggCtx, LeafBucketCollector sub) throws IOException {
+        final SortedBinaryDocValues values = valuesSourceConfig.getValuesSource().bytesValues(aggCtx.getLeafReaderContext());
+        final BinaryDocValues singleton = FieldData.unwrapSingleton(values);
+        if (singleton != null) {
+            return new LeafBucketCollectorBase(sub, singleton) {
+                @Override
+                public void collect(int doc, long owningBucketOrd) throws IOException {
+                    assert owningBucketOrd == 0;
+                    if (singleton.advanceExact(doc)) {
+                        BytesRef bytes = singleton.binaryValue();
+                        if (includeExclude == null || includeExclude.accept(bytes)) {
+                            add(bytes, docCountProvider.getDocCount(doc));
+                        }
+                    }
+                }
+            };
+        }
+        return new LeafBucketCollectorBase(sub, values) {
+            final BytesRefBuilder previous = new BytesRefBuilder();
+
+            @Override
+            public void collect(int doc, long owningBucketOrd) throws IOException {
+                assert owningBucketOrd == 0;
+                if (false == values.advanceExact(doc)) {
+                    return;
+                }
+                int valuesCount = values.docValueCount();
+                // SortedBinaryDocValues don't guarantee uniqueness so we need to take care of dups
+                previous.clear();
+                for (int i = 0; i < valuesCount; ++i) {
+                    BytesRef bytes = values.nextValue();
+                    if (includeExclude != null && false == includeExclude.accept(bytes)) {
+                        continue;
+                    }
+                    if (i > 0 && previous.get().equals(bytes)) {
+                        continue;
+                    }
+                    previous.copyBytes(bytes);
+                    add(bytes, docCountProvider.getDocCount(doc));
+                }
+            }
+        };
+    }
+
+    private void add(BytesRef bytes, long docCount) throws IOException {
+        long ord = terms.add(bytes);
+        if (ord < 0) {
+            docCounts.increment(-1 - ord, docCount);
+            return;
+        }
+        docCounts = bigArrays().grow(docCounts, ord + 1);
+        docCounts.increment(ord, docCount);
+        if (terms.ramBytesUsed() + docCounts.ramBytesUsed() > memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * Writes the buckets that are in memory to a new run and starts over with
+     * empty buckets.
+     */
+    private void spill() throws IOException {
+        checkCancelled();
+        final int[] ords = sortedOrds();
+        final long maxRunBytes = maxRunBytes(ords);
+        spillService.reserve(name, maxRunBytes);
+        reservedBytes += maxRunBytes;
+        if (spillDirectory == null) {
+            spillDirectory = spillService.newDirectory();
+        }
+        try (IndexOutput out = spillDirectory.createTempOutput("terms", "spill", IOContext.DEFAULT)) {
+            // track the run before writing it so that it is removed on close if writing fails
+            runs.add(out.getName());
+            out.writeVLong(ords.length);
+            BytesRef spare = new BytesRef();
+            for (int ord : ords) {
+                terms.get(ord, spare);
+                out.writeVInt(spare.length);
+                out.writeBytes(spare.bytes, spare.offset, spare.length);
+                out.writeVLong(docCounts.get(ord));
+            }
+            spilledBytes += out.getFilePointer();
+            // only keep the space that the run actually uses
+            spillService.release(maxRunBytes - out.getFilePointer());
+            reservedBytes -= maxRunBytes - out.getFilePointer();
+        }
+        spilledTerms += ords.length;
+        Releasables.close(terms, docCounts);
+        terms = null;
+        docCounts = null;
+        terms = new BytesRefHash(1, bigArrays());
+        docCounts = bigArrays().newLongArray(1, true);
+    }
+
+    /**
+     * The largest number of bytes that a run of the given buckets may take.
+     */
+    private long maxRunBytes(int[] ords) {
+        long bytes = MAX_VLONG_BYTES;
+        BytesRef spare = new BytesRef();
+        for (int ord : ords) {
+            bytes += MAX_VINT_BYTES + terms.get(ord, spare).length + MAX_VLONG_BYTES;
+        }
+        return bytes;
+    }
+
+    private void checkCancelled() {
+        if (context.isCancelled()) {
+            throw new TaskCancelledException("cancelled while spilling terms to disk");
+        }
+    }
+
+    /**
+     * The ordinals of the buckets in memory sorted by the bytes of their term.
+     */
+    private int[] sortedOrds() {
+        final int[] ords = new int[Math.toIntExact(terms.size())];
+        for (int i = 0; i < ords.length; i++) {
+            ords[i] = i;
+        }
+        new IntroSorter() {
+            final BytesRef pivot = new BytesRef();
+            final BytesRef left = new BytesRef();
+            final BytesRef right = new BytesRef();
+
+            @Override
+            protected void swap(int i, int j) {
+                int tmp = ords[i];
+                ords[i] = ords[j];
+                ords[j] = tmp;
+            }
+
+            @Override
+            protected int compare(int i, int j) {
+                return terms.get(ords[i], left).compareTo(terms.get(ords[j], right));
+            }
+
+            @Override
+            protected void setPivot(int i) {
+                terms.get(ords[i], pivot);
+            }
+
+            @Override
+            protected int comparePivot(int j) {
+                return pivot.compareTo(terms.get(ords[j], right));
+            }
+        }.sort(0, ords.length);
+        return ords;
+    }
+
+    @Override
+    public InternalAggregation[] buildAggregations(LongArray owningBucketOrds) throws IOException {
+        assert owningBucketOrds.size() == 1 && owningBucketOrds.get(0) == 0 : "spilling terms only support top level aggregations";
+        final Comparator<BucketAndOrd<StringTerms.Bucket>> comparator = order.partiallyBuiltBucketComparator(this);
+        final int size = Math.toIntExact(Math.min(bucketCountThresholds.getShardSize(), terms.size() + spilledTerms));
+        try (
+            ObjectArrayPriorityQueue<BucketAndOrd<StringTerms.Bucket>> ordered = new BucketPriorityQueue<>(size, bigArrays(), comparator)
+        ) {
+            final TopBucketsCollector collector = new TopBucketsCollector(ordered);
+            if (runs.isEmpty()) {
+                BytesRef spare = new BytesRef();
+                for (long ord = 0; ord < terms.size(); ord++) {
+                    collector.accept(terms.get(ord, spare), docCounts.get(ord));
+                }
+            } else {
+                if (terms.size() > 0) {
+                    spill();
+                }
+                mergeRuns(collector);
+            }
+
+            long otherDocCount = collector.otherDocCount;
+            final StringTerms.Bucket[] buckets = new StringTerms.Bucket[(int) ordered.size()];
+            for (int i = buckets.length - 1; i >= 0; --i) {
+                StringTerms.Bucket bucket = ordered.pop().bucket;
+                // the bytes of the bucket may point to the hash or the buffer of a run
+                bucket.termBytes = BytesRef.deepCopyOf(bucket.termBytes);
+                buckets[i] = bucket;
+                otherDocCount -= bucket.getDocCount();
+            }
+            final BucketOrder reduceOrder;
+            if (isKeyOrder(order) == false) {
+                reduceOrder = InternalOrder.key(true);
+                Arrays.sort(buckets, reduceOrder.comparator());
+            } else {
+                reduceOrder = order;
+            }
+            return new InternalAggregation[] {
+                new StringTerms(
+                    name,
+                    reduceOrder,
+                    order,
+                    bucketCountThresholds.getRequiredSize(),
+                    bucketCountThresholds.getMinDocCount(),
+                    metadata(),
+                    format,
+                    bucketCountThresholds.getShardSize(),
+                    showTermDocCountError,
+                    otherDocCount,
+                    Arrays.asList(buckets),
+                    null
+                ) };
+        }
+    }
+
+    /**
+     * Merges the runs and feeds the total doc count of each term to the
+     * {@code collector}.
+     */
+    private void mergeRuns(TopBucketsCollector collector) throws IOException {
+        final List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            final PriorityQueue<RunReader> queue = new PriorityQueue<>(runs.size()) {
+                @Override
+                protected boolean lessThan(RunReader a, RunReader b) {
+                    return a.term.get().compareTo(b.term.get()) < 0;
+                }
+            };
+            for (String run : runs) {
+                RunReader reader = new RunReader(spillDirectory.openInput(run, IOContext.READONCE));
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            final BytesRefBuilder current = new BytesRefBuilder();
+            long currentDocCount = 0;
+            boolean hasCurrent = false;
+            long merged = 0;
+            while (queue.size() > 0) {
+                if (++merged % CANCELLATION_CHECK_INTERVAL == 0) {
+                    checkCancelled();
+                }
+                RunReader top = queue.top();
+                if (hasCurrent && current.get().equals(top.term.get()) == false) {
+                    collector.accept(current.get(), currentDocCount);
+                    hasCurrent = false;
+                }
+                if (hasCurrent == false) {
+                    current.copyBytes(top.term.get());
+                    currentDocCount = 0;
+                    hasCurrent = true;
+                }
+                currentDocCount += top.docCount;
+                if (top.next()) {
+                    queue.updateTop();
+                } else {
+                    queue.pop();
+                }
+            }
+            if (hasCurrent) {
+                collector.accept(current.get(), currentDocCount);
+            }
+        } finally {
+            IOUtils.close(readers);
+        }
+    }
+
+    @Override
+    public InternalAggregation buildEmptyAggregation() {
+        return buildEmptyTermsAggregation();
+    }
+
+    @Override
+    public void collectDebugInfo(BiConsumer<String, Object> add) {
+        super.collectDebugInfo(add);
+        add.accept("total_buckets", terms.size() + spilledTerms);
+        add.accept("collection_strategy", "spill from " + valuesSourceConfig.getDescription());
+        add.accept("spilled_runs", runs.size());
+        add.accept("spilled_terms", spilledTerms);
+        add.accept("spilled_bytes", spilledBytes);
+    }
+
+    @Override
+    public void doClose() {
+        Releasables.close(terms, docCounts);
+        if (spillDirectory != null) {
+            IOUtils.deleteFilesIgnoringExceptions(spillDirectory, runs);
+            IOUtils.closeWhileHandlingException(spillDirectory);
+        }
+        spillService.release(reservedBytes);
+        reservedBytes = 0;
+    }
+
+    /**
+     * Keeps the top {@code shard_size} buckets in a priority queue, only
+     * copying the bytes of the terms that make it into the queue.
+     */
+    private class TopBucketsCollector {
+        private final ObjectArrayPriorityQueue<BucketAndOrd<StringTerms.Bucket>> ordered;
+        private BucketAndOrd<StringTerms.Bucket> spare;
+        private long otherDocCount;
+
+        TopBucketsCollector(ObjectArrayPriorityQueue<BucketAndOrd<StringTerms.Bucket>> ordered) {
+            this.ordered = ordered;
+        }
+
+        void accept(BytesRef term, long docCount) {
+            otherDocCount += docCount;
+            if (docCount < bucketCountThresholds.getShardMinDocCount()) {
+                return;
+            }
+            if (spare == null) {
+                checkRealMemoryCBForInternalBucket();
+                spare = new BucketAndOrd<>(new StringTerms.Bucket(new BytesRef(), 0, null, showTermDocCountError, 0, format));
+            }
+            spare.bucket.termBytes = term;
+            spare.bucket.docCount = docCount;
+            BucketAndOrd<StringTerms.Bucket> inserted = spare;
+            spare = ordered.insertWithOverflow(spare);
+            if (spare != inserted) {
+                // the term bytes are reused by the caller
+                inserted.bucket.termBytes = BytesRef.deepCopyOf(term);
+            }
+        }
+    }
+
+    /**
+     * Reads the terms of a run in order.
+     */
+    private static class RunReader implements Closeable {
+        private final IndexInput in;
+        private final BytesRefBuilder term = new BytesRefBuilder();
+        private long remaining;
+        private long docCount;
+
+        RunReader(IndexInput in) throws IOException {
+            this.in = in;
+            this.remaining = in.readVLong();
+        }
+
+        boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            int length = in.readVInt();
+            term.grow(length);
+            term.setLength(length);
+            in.readBytes(term.bytes(), 0, length);
+            docCount = in.readVLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
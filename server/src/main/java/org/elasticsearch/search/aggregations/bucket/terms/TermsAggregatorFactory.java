@@ -50,6 +50,7 @@ import static org.elasticsearch.search.aggregations.bucket.terms.SignificantTerm
 
 public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
     static Boolean REMAP_GLOBAL_ORDS, COLLECT_SEGMENT_ORDS;
+    static Long SPILL_MEMORY_BUDGET;
 
     private static final Logger logger = LogManager.getLogger(TermsAggregatorFactory.class);
 
@@ -115,7 +116,7 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                 }
             }
             // In some cases, using ordinals is just not supported: override it
-            if (valuesSource.hasOrdinals() == false) {
+            if (valuesSource.hasOrdinals() == false && execution != ExecutionMode.SPILL) {
                 execution = ExecutionMode.MAP;
             }
             if (execution == null) {
@@ -568,14 +569,79 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                     excludeDeletedDocs
                 );
             }
+        },
+        SPILL(new ParseField("spill")) {
+
+            @Override
+            Aggregator create(
+                String name,
+                AggregatorFactories factories,
+                ValuesSourceConfig valuesSourceConfig,
+                BucketOrder order,
+                TermsAggregator.BucketCountThresholds bucketCountThresholds,
+                IncludeExclude includeExclude,
+                AggregationContext context,
+                Aggregator parent,
+                SubAggCollectionMode subAggCollectMode,
+                boolean showTermDocCountError,
+                CardinalityUpperBound cardinality,
+                Map<String, Object> metadata,
+                boolean excludeDeletedDocs
+            ) throws IOException {
+                /*
+                 * The spilled runs only hold the doc count of each term so we can
+                 * only spill if this aggregator:
+                 *  - has no sub-aggregator AND
+                 *  - collects from a single bucket AND
+                 *  - doesn't need to return the terms that no document matched
+                 */
+                if (factories != AggregatorFactories.EMPTY
+                    || cardinality != CardinalityUpperBound.ONE
+                    || bucketCountThresholds.getMinDocCount() == 0) {
+                    logger.debug("Spilling is not supported, falling back to the map implementation");
+                    return MAP.create(
+                        name,
+                        factories,
+                        valuesSourceConfig,
+                        order,
+                        bucketCountThresholds,
+                        includeExclude,
+                        context,
+                        parent,
+                        subAggCollectMode,
+                        showTermDocCountError,
+                        cardinality,
+                        metadata,
+                        excludeDeletedDocs
+                    );
+                }
+                // we use the static SPILL_MEMORY_BUDGET to allow tests to force spilling
+                long memoryBudget = SPILL_MEMORY_BUDGET != null
+                    ? SPILL_MEMORY_BUDGET
+                    : context.getClusterSettings().get(SpillingStringTermsAggregator.MEMORY_BUDGET_SETTING).getBytes();
+                return new SpillingStringTermsAggregator(
+                    name,
+                    valuesSourceConfig,
+                    order,
+                    valuesSourceConfig.format(),
+                    bucketCountThresholds,
+                    includeExclude == null ? null : includeExclude.convertToStringFilter(valuesSourceConfig.format()),
+                    context,
+                    parent,
+                    showTermDocCountError,
+                    metadata,
+                    memoryBudget
+                );
+            }
         };
 
         public static ExecutionMode fromString(String value) {
             return switch (value) {
                 case "global_ordinals" -> GLOBAL_ORDINALS;
                 case "map" -> MAP;
+                case "spill" -> SPILL;
                 default -> throw new IllegalArgumentException(
-                    "Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals]"
+                    "Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals, spill]"
                 );
             };
         }
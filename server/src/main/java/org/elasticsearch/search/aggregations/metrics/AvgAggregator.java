@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.core.Releasables;
@@ -54,6 +55,8 @@ class AvgAggregator extends SumAggregator {
     @Override
     protected LeafBucketCollector getLeafCollector(NumericDoubleValues values, final LeafBucketCollector sub) {
         return new LeafBucketCollectorBase(sub, values) {
+            private double[] buffer = new double[0];
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
@@ -62,9 +65,26 @@ class AvgAggregator extends SumAggregator {
                     counts.increment(bucket, 1L);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                buffer = ArrayUtil.grow(buffer, count);
+                final int numValues = values.doubleValues(docs, count, buffer);
+                if (numValues > 0) {
+                    maybeGrow(bucket);
+                    sumDoubles(bucket, buffer, numValues, sums, compensations);
+                    counts.increment(bucket, numValues);
+                }
+            }
         };
     }
 
+    @Override
+    public void collectProjection(long bucket, long valueCount, double sum, double min, double max) {
+        super.collectProjection(bucket, valueCount, sum, min, max);
+        counts.increment(bucket, valueCount);
+    }
+
     @Override
     protected void doGrow(long bucket, BigArrays bigArrays) {
         super.doGrow(bucket, bigArrays);
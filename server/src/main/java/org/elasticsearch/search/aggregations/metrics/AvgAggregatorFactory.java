@@ -54,6 +54,11 @@ class AvgAggregatorFactory extends ValuesSourceAggregatorFactory {
         );
     }
 
+    @Override
+    public String projectedField() {
+        return config.hasValues() ? ProjectionMetricsAggregator.projectedField(config) : null;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, Map<String, Object> metadata) throws IOException {
         final InternalAvg empty = InternalAvg.empty(name, config.format(), metadata);
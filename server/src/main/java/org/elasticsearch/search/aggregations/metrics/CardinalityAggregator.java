@@ -17,7 +17,10 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -26,12 +29,18 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.common.util.ObjectArray;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
 import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.index.fielddata.sketch.CardinalitySketchIndexFieldData;
+import org.elasticsearch.index.fielddata.sketch.CardinalitySketches;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.search.aggregations.AggregationExecutionContext;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.InternalAggregation;
@@ -45,7 +54,9 @@ import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
- * An aggregator that computes approximate counts of unique values.
+ * An aggregator that computes approximate counts of unique values. When it is a top level aggregation on a field that has
+ * {@link CardinalitySketches cardinality sketches}, it merges the sketch of the segments that the query matches entirely rather than
+ * hashing the values of their documents.
  */
 public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue {
 
@@ -53,6 +64,9 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
     private final CardinalityAggregatorFactory.ExecutionMode executionMode;
     private final ValuesSource valuesSource;
     private final HyperLogLogPlusPlus counts;
+    @Nullable
+    private final CardinalitySketchIndexFieldData sketch;
+    private Weight sketchWeight;
 
     private Collector collector;
 
@@ -61,6 +75,7 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
     private int ordinalsCollectorsUsed;
     private int ordinalsCollectorsOverheadTooHigh;
     private int stringHashingCollectorsUsed;
+    private int sketchedSegments;
 
     public CardinalityAggregator(
         String name,
@@ -70,13 +85,71 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
         AggregationContext context,
         Aggregator parent,
         Map<String, Object> metadata
+    ) throws IOException {
+        this(name, valuesSourceConfig, precision, executionMode, context, parent, metadata, null);
+    }
+
+    CardinalityAggregator(
+        String name,
+        ValuesSourceConfig valuesSourceConfig,
+        int precision,
+        CardinalityAggregatorFactory.ExecutionMode executionMode,
+        AggregationContext context,
+        Aggregator parent,
+        Map<String, Object> metadata,
+        @Nullable CardinalitySketchIndexFieldData sketch
     ) throws IOException {
         super(name, context, parent, metadata);
         assert valuesSourceConfig.hasValues();
+        assert sketch == null || (parent == null && sketch.precision() == precision);
         this.valuesSource = valuesSourceConfig.getValuesSource();
         this.precision = precision;
         this.counts = new HyperLogLogPlusPlus(precision, context.bigArrays(), 1);
         this.executionMode = executionMode;
+        this.sketch = sketch;
+    }
+
+    /**
+     * Returns the field data of the cardinality sketches of the field if the aggregation is a top level aggregation on a field that
+     * has sketches of the same precision, or <code>null</code> otherwise.
+     */
+    @Nullable
+    static CardinalitySketchIndexFieldData sketchOrNull(
+        ValuesSourceConfig valuesSourceConfig,
+        int precision,
+        AggregationContext context,
+        Aggregator parent
+    ) {
+        if (parent != null || context.isInSortOrderExecutionRequired() || valuesSourceConfig.hasValues() == false) {
+            return null;
+        }
+        if (valuesSourceConfig.fieldContext() == null || valuesSourceConfig.script() != null || valuesSourceConfig.missing() != null) {
+            return null;
+        }
+        CardinalitySketches sketches = CardinalitySketches.fromSettings(context.getIndexSettings());
+        if (sketches == null || sketches.precision() != precision) {
+            return null;
+        }
+        MappedFieldType fieldType = sketches.fieldType(
+            valuesSourceConfig.fieldContext().field(),
+            context::getFieldType,
+            ft -> context.buildFieldContext(ft).indexFieldData()
+        );
+        if (fieldType == null) {
+            return null;
+        }
+        CardinalitySketchIndexFieldData sketch = (CardinalitySketchIndexFieldData) context.buildFieldContext(fieldType).indexFieldData();
+        // the sketches must hash the same values as the collectors
+        IndexFieldData<?> sketchedFieldData = sketch.sketchedFieldData();
+        final boolean sameHashes;
+        if (valuesSourceConfig.getValuesSource() instanceof ValuesSource.Numeric numeric) {
+            sameHashes = sketchedFieldData instanceof IndexNumericFieldData numericFieldData
+                && numericFieldData.getNumericType().isFloatingPoint() == numeric.isFloatingPoint();
+        } else {
+            sameHashes = valuesSourceConfig.getValuesSource() instanceof ValuesSource.Bytes
+                && sketchedFieldData instanceof IndexNumericFieldData == false;
+        }
+        return sameHashes ? sketch : null;
     }
 
     @Override
@@ -138,10 +211,38 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
     public LeafBucketCollector getLeafCollector(AggregationExecutionContext aggCtx, final LeafBucketCollector sub) throws IOException {
         postCollectLastCollector();
 
+        if (sketch != null && mergeSketch(aggCtx.getLeafReaderContext())) {
+            sketchedSegments++;
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
         collector = pickCollector(aggCtx.getLeafReaderContext());
         return collector;
     }
 
+    /**
+     * Merges the cardinality sketch of the segment, which requires the query to match all of the documents of the segment. Returns
+     * <code>false</code> if the documents must be collected.
+     */
+    private boolean mergeSketch(LeafReaderContext ctx) throws IOException {
+        // the sketch covers the deleted documents too
+        if (ctx.reader().getLiveDocs() != null) {
+            return false;
+        }
+        if (sketchWeight == null) {
+            IndexSearcher searcher = searcher();
+            sketchWeight = searcher.createWeight(
+                searcher.rewrite(new ConstantScoreQuery(context.query())),
+                ScoreMode.COMPLETE_NO_SCORES,
+                1f
+            );
+        }
+        if (sketchWeight.count(ctx) != ctx.reader().maxDoc()) {
+            return false;
+        }
+        counts.merge(0, sketch.load(ctx).sketch(), 0);
+        return true;
+    }
+
     private void postCollectLastCollector() throws IOException {
         if (collector != null) {
             try {
@@ -192,6 +293,9 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
         add.accept("ordinals_collectors_used", ordinalsCollectorsUsed);
         add.accept("ordinals_collectors_overhead_too_high", ordinalsCollectorsOverheadTooHigh);
         add.accept("string_hashing_collectors_used", stringHashingCollectorsUsed);
+        if (sketch != null) {
+            add.accept("sketched_segments", sketchedSegments);
+        }
     }
 
     private abstract static class Collector extends LeafBucketCollector implements Releasable {
@@ -10,6 +10,7 @@
 package org.elasticsearch.search.aggregations.metrics;
 
 import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.index.fielddata.sketch.CardinalitySketchIndexFieldData;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.AggregatorFactory;
@@ -156,6 +157,11 @@ public class CardinalityAggregatorFactory extends ValuesSourceAggregatorFactory
             CardinalityAggregationBuilder.REGISTRY_KEY,
             Stream.concat(CoreValuesSourceType.ALL_CORE.stream(), Stream.of(TimeSeriesValuesSourceType.COUNTER)).toList(),
             (name, valuesSourceConfig, precision, executionMode, context, parent, metadata) -> {
+                // merging the cardinality sketches of whole segments beats collecting them, whatever the execution mode
+                CardinalitySketchIndexFieldData sketch = CardinalityAggregator.sketchOrNull(valuesSourceConfig, precision, context, parent);
+                if (sketch != null) {
+                    return new CardinalityAggregator(name, valuesSourceConfig, precision, executionMode, context, parent, metadata, sketch);
+                }
                 // check global ords
                 if (valuesSourceConfig.hasValues()) {
                     if (valuesSourceConfig.getValuesSource() instanceof final ValuesSource.Bytes.WithOrdinals source) {
@@ -11,6 +11,7 @@ package org.elasticsearch.search.aggregations.metrics;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.PointValues;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.core.Releasables;
@@ -32,13 +33,14 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.function.Function;
 
-class MaxAggregator extends NumericMetricsAggregator.SingleValue {
+class MaxAggregator extends NumericMetricsAggregator.SingleValue implements ProjectionMetricsAggregator {
 
     final ValuesSource.Numeric valuesSource;
     final DocValueFormat formatter;
 
     final String pointField;
     final Function<byte[], Number> pointConverter;
+    private final String projectedField;
 
     DoubleArray maxes;
 
@@ -56,6 +58,7 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         } else {
             pointField = null;
         }
+        this.projectedField = ProjectionMetricsAggregator.projectedField(config);
     }
 
     @Override
@@ -83,22 +86,52 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MAX.select(allValues);
         return new LeafBucketCollectorBase(sub, allValues) {
+            private double[] buffer = new double[0];
 
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
-                    if (bucket >= maxes.size()) {
-                        long from = maxes.size();
-                        maxes = bigArrays().grow(maxes, bucket + 1);
-                        maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
-                    }
+                    maybeGrow(bucket);
                     maxes.set(bucket, Math.max(maxes.get(bucket), values.doubleValue()));
                 }
             }
 
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                buffer = ArrayUtil.grow(buffer, count);
+                final int numValues = values.doubleValues(docs, count, buffer);
+                if (numValues > 0) {
+                    maybeGrow(bucket);
+                    double max = maxes.get(bucket);
+                    for (int i = 0; i < numValues; i++) {
+                        max = Math.max(max, buffer[i]);
+                    }
+                    maxes.set(bucket, max);
+                }
+            }
+
         };
     }
 
+    @Override
+    public String projectedField() {
+        return projectedField;
+    }
+
+    @Override
+    public void collectProjection(long bucket, long valueCount, double sum, double min, double max) {
+        maybeGrow(bucket);
+        maxes.set(bucket, Math.max(maxes.get(bucket), max));
+    }
+
+    private void maybeGrow(long bucket) {
+        if (bucket >= maxes.size()) {
+            long from = maxes.size();
+            maxes = bigArrays().grow(maxes, bucket + 1);
+            maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
+        }
+    }
+
     @Override
     public double metric(long owningBucketOrd) {
         if (owningBucketOrd >= maxes.size()) {
@@ -55,6 +55,11 @@ class MaxAggregatorFactory extends ValuesSourceAggregatorFactory {
         this.aggregatorSupplier = aggregatorSupplier;
     }
 
+    @Override
+    public String projectedField() {
+        return config.hasValues() ? ProjectionMetricsAggregator.projectedField(config) : null;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, Map<String, Object> metadata) throws IOException {
         final Max empty = Max.createEmptyMax(name, config.format(), metadata);
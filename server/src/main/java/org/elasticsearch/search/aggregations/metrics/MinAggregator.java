@@ -12,6 +12,7 @@ import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.PointValues;
 import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.core.Releasables;
@@ -32,7 +33,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.function.Function;
 
-public class MinAggregator extends NumericMetricsAggregator.SingleValue {
+public class MinAggregator extends NumericMetricsAggregator.SingleValue implements ProjectionMetricsAggregator {
     private static final int MAX_BKD_LOOKUPS = 1024;
 
     final ValuesSource.Numeric valuesSource;
@@ -40,6 +41,7 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
 
     final String pointField;
     final Function<byte[], Number> pointConverter;
+    private final String projectedField;
 
     DoubleArray mins;
 
@@ -57,6 +59,7 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
         } else {
             pointField = null;
         }
+        this.projectedField = ProjectionMetricsAggregator.projectedField(config);
     }
 
     @Override
@@ -83,21 +86,52 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
         return new LeafBucketCollectorBase(sub, allValues) {
+            private double[] buffer = new double[0];
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
-                    if (bucket >= mins.size()) {
-                        long from = mins.size();
-                        mins = bigArrays().grow(mins, bucket + 1);
-                        mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
-                    }
+                    maybeGrow(bucket);
                     mins.set(bucket, Math.min(mins.get(bucket), values.doubleValue()));
                 }
             }
 
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                buffer = ArrayUtil.grow(buffer, count);
+                final int numValues = values.doubleValues(docs, count, buffer);
+                if (numValues > 0) {
+                    maybeGrow(bucket);
+                    double min = mins.get(bucket);
+                    for (int i = 0; i < numValues; i++) {
+                        min = Math.min(min, buffer[i]);
+                    }
+                    mins.set(bucket, min);
+                }
+            }
+
         };
     }
 
+    @Override
+    public String projectedField() {
+        return projectedField;
+    }
+
+    @Override
+    public void collectProjection(long bucket, long valueCount, double sum, double min, double max) {
+        maybeGrow(bucket);
+        mins.set(bucket, Math.min(mins.get(bucket), min));
+    }
+
+    private void maybeGrow(long bucket) {
+        if (bucket >= mins.size()) {
+            long from = mins.size();
+            mins = bigArrays().grow(mins, bucket + 1);
+            mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
+        }
+    }
+
     @Override
     public double metric(long owningBucketOrd) {
         if (owningBucketOrd >= mins.size()) {
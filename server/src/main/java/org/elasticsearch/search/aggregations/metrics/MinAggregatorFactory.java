@@ -55,6 +55,11 @@ class MinAggregatorFactory extends ValuesSourceAggregatorFactory {
         this.aggregatorSupplier = aggregatorSupplier;
     }
 
+    @Override
+    public String projectedField() {
+        return config.hasValues() ? ProjectionMetricsAggregator.projectedField(config) : null;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, Map<String, Object> metadata) throws IOException {
         final Min empty = Min.createEmptyMin(name, config.format(), metadata);
@@ -0,0 +1,51 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.fielddata.projection.AggregateProjection;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
+
+/**
+ * A metrics aggregator that can collect the statistics that an {@link AggregateProjection} pre-computed for a bucket of documents
+ * rather than the documents themselves.
+ */
+public interface ProjectionMetricsAggregator {
+
+    /**
+     * The field whose statistics the aggregator needs, or <code>null</code> if the aggregator must collect the documents, for
+     * instance because it runs a script.
+     */
+    @Nullable
+    String projectedField();
+
+    /**
+     * Collects the statistics of the values of the {@link #projectedField() projected field} of some documents in a bucket.
+     *
+     * @param bucket     the ordinal of the bucket
+     * @param valueCount the number of values, greater than 0
+     * @param sum        the sum of the values
+     * @param min        the minimum value
+     * @param max        the maximum value
+     */
+    void collectProjection(long bucket, long valueCount, double sum, double min, double max);
+
+    /**
+     * Returns the field of the provided configuration if its statistics can be taken from a projection, or <code>null</code> if the
+     * values are computed by a script or if missing values are replaced.
+     */
+    @Nullable
+    static String projectedField(ValuesSourceConfig config) {
+        if (config.fieldContext() == null || config.script() != null || config.missing() != null) {
+            return null;
+        }
+        return config.fieldContext().field();
+    }
+}
@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
@@ -82,6 +83,8 @@ class StatsAggregator extends NumericMetricsAggregator.MultiDoubleValue {
     @Override
     public LeafBucketCollector getLeafCollector(NumericDoubleValues values, LeafBucketCollector sub) {
         return new LeafBucketCollectorBase(sub, values) {
+            private double[] buffer = new double[0];
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
@@ -92,6 +95,25 @@ class StatsAggregator extends NumericMetricsAggregator.MultiDoubleValue {
                     updateMinsAndMaxes(bucket, value, mins, maxes);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                buffer = ArrayUtil.grow(buffer, count);
+                final int numValues = values.doubleValues(docs, count, buffer);
+                if (numValues > 0) {
+                    maybeGrow(bucket);
+                    counts.increment(bucket, numValues);
+                    SumAggregator.sumDoubles(bucket, buffer, numValues, sums, compensations);
+                    double min = mins.get(bucket);
+                    double max = maxes.get(bucket);
+                    for (int i = 0; i < numValues; i++) {
+                        min = Math.min(min, buffer[i]);
+                        max = Math.max(max, buffer[i]);
+                    }
+                    mins.set(bucket, min);
+                    maxes.set(bucket, max);
+                }
+            }
         };
     }
 
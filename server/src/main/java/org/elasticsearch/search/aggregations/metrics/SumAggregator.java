@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.core.Releasables;
@@ -24,9 +25,10 @@ import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
 import java.io.IOException;
 import java.util.Map;
 
-public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
+public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue implements ProjectionMetricsAggregator {
 
     protected final DocValueFormat format;
+    private final String projectedField;
     protected DoubleArray sums;
     protected DoubleArray compensations;
 
@@ -40,6 +42,7 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
         super(name, valuesSourceConfig, context, parent, metadata);
         assert valuesSourceConfig.hasValues();
         this.format = valuesSourceConfig.format();
+        this.projectedField = ProjectionMetricsAggregator.projectedField(valuesSourceConfig);
         var bigArrays = context.bigArrays();
         sums = bigArrays.newDoubleArray(1, true);
         compensations = bigArrays.newDoubleArray(1, true);
@@ -81,6 +84,24 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
         return valueCount;
     }
 
+    // same as sumSortedDoubles, but for a block of values that were loaded at once
+    static void sumDoubles(long bucket, double[] values, int count, DoubleArray sums, DoubleArray compensations) {
+        double value = sums.get(bucket);
+        double delta = compensations.get(bucket);
+        for (int i = 0; i < count; i++) {
+            double added = values[i];
+            value = addIfNonOrInf(added, value);
+            if (Double.isFinite(value)) {
+                double correctedSum = added + delta;
+                double updatedValue = value + correctedSum;
+                delta = correctedSum - (updatedValue - value);
+                value = updatedValue;
+            }
+        }
+        compensations.set(bucket, delta);
+        sums.set(bucket, value);
+    }
+
     private static double addIfNonOrInf(double added, double value) {
         // If the value is Inf or NaN, just add it to the running tally to "convert" to
         // Inf/NaN. This keeps the behavior bwc from before kahan summing
@@ -93,6 +114,8 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
     @Override
     protected LeafBucketCollector getLeafCollector(NumericDoubleValues values, final LeafBucketCollector sub) {
         return new LeafBucketCollectorBase(sub, values) {
+            private double[] buffer = new double[0];
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
@@ -100,6 +123,16 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
                     computeSum(bucket, values.doubleValue(), sums, compensations);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                buffer = ArrayUtil.grow(buffer, count);
+                final int numValues = values.doubleValues(docs, count, buffer);
+                if (numValues > 0) {
+                    maybeGrow(bucket);
+                    sumDoubles(bucket, buffer, numValues, sums, compensations);
+                }
+            }
         };
     }
 
@@ -119,6 +152,17 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
         sums.set(bucket, value);
     }
 
+    @Override
+    public String projectedField() {
+        return projectedField;
+    }
+
+    @Override
+    public void collectProjection(long bucket, long valueCount, double sum, double min, double max) {
+        maybeGrow(bucket);
+        computeSum(bucket, sum, sums, compensations);
+    }
+
     protected final void maybeGrow(long bucket) {
         if (bucket >= sums.size()) {
             doGrow(bucket, bigArrays());
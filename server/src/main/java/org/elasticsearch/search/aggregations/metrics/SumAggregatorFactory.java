@@ -56,6 +56,11 @@ class SumAggregatorFactory extends ValuesSourceAggregatorFactory {
         );
     }
 
+    @Override
+    public String projectedField() {
+        return config.hasValues() ? ProjectionMetricsAggregator.projectedField(config) : null;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, Map<String, Object> metadata) throws IOException {
         final Sum empty = Sum.empty(name, config.format(), metadata);
@@ -32,9 +32,10 @@ import java.util.Map;
  * This aggregator works in a multi-bucket mode, that is, when serves as a sub-aggregator, a single aggregator instance aggregates the
  * counts for all buckets owned by the parent aggregator)
  */
-public final class ValueCountAggregator extends NumericMetricsAggregator.SingleValue {
+public final class ValueCountAggregator extends NumericMetricsAggregator.SingleValue implements ProjectionMetricsAggregator {
 
     final ValuesSource valuesSource;
+    private final String projectedField;
 
     // a count per bucket
     LongArray counts;
@@ -49,6 +50,9 @@ public final class ValueCountAggregator extends NumericMetricsAggregator.SingleV
         super(name, aggregationContext, parent, metadata);
         assert valuesSourceConfig.hasValues();
         this.valuesSource = valuesSourceConfig.getValuesSource();
+        this.projectedField = valuesSource instanceof ValuesSource.Numeric
+            ? ProjectionMetricsAggregator.projectedField(valuesSourceConfig)
+            : null;
         counts = bigArrays().newLongArray(1, true);
     }
 
@@ -95,6 +99,17 @@ public final class ValueCountAggregator extends NumericMetricsAggregator.SingleV
         };
     }
 
+    @Override
+    public String projectedField() {
+        return projectedField;
+    }
+
+    @Override
+    public void collectProjection(long bucket, long valueCount, double sum, double min, double max) {
+        counts = bigArrays().grow(counts, bucket + 1);
+        counts.increment(bucket, valueCount);
+    }
+
     @Override
     public double metric(long owningBucketOrd) {
         return owningBucketOrd >= counts.size() ? 0 : counts.get(owningBucketOrd);
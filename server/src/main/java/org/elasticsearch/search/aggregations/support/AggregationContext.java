@@ -206,6 +206,11 @@ public abstract class AggregationContext implements Releasable {
      */
     public abstract ClusterSettings getClusterSettings();
 
+    /**
+     * Where aggregations spill the state that doesn't fit in memory.
+     */
+    public abstract AggregationSpillService spillService();
+
     /**
      * Compile a sort.
      */
@@ -340,6 +345,7 @@ public abstract class AggregationContext implements Releasable {
         private final BigArrays bigArrays;
 
         private final ClusterSettings clusterSettings;
+        private final AggregationSpillService spillService;
 
         private final Supplier<Query> topLevelQuery;
         private final AggregationProfiler profiler;
@@ -361,6 +367,7 @@ public abstract class AggregationContext implements Releasable {
             SearchExecutionContext context,
             BigArrays bigArrays,
             ClusterSettings clusterSettings,
+            AggregationSpillService spillService,
             long bytesToPreallocate,
             Supplier<Query> topLevelQuery,
             @Nullable AggregationProfiler profiler,
@@ -377,6 +384,7 @@ public abstract class AggregationContext implements Releasable {
             this.analysisRegistry = analysisRegistry;
             this.context = context;
             this.clusterSettings = clusterSettings;
+            this.spillService = spillService;
             if (bytesToPreallocate == 0) {
                 /*
                  * Its possible if a bit strange for the aggregations to ask
@@ -515,6 +523,11 @@ public abstract class AggregationContext implements Releasable {
             return clusterSettings;
         }
 
+        @Override
+        public AggregationSpillService spillService() {
+            return spillService;
+        }
+
         @Override
         public Optional<SortAndFormats> buildSort(List<SortBuilder<?>> sortBuilders) throws IOException {
             return SortBuilder.buildSort(sortBuilders, context);
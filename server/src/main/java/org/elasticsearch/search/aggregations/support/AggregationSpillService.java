@@ -0,0 +1,92 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.rest.RestStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The temporary files that aggregations spill their state to when it doesn't fit in memory. The files are written to the tmp
+ * directory of the node, see {@link org.elasticsearch.env.Environment#tmpDir()}. Before writing a file, an aggregation reserves
+ * its size. The request fails once the files of all the aggregations of the node would use more than {@link #DISK_BUDGET_SETTING}.
+ */
+public final class AggregationSpillService {
+
+    /**
+     * The disk space that the files spilled by all the aggregations of a node may use.
+     */
+    public static final Setting<ByteSizeValue> DISK_BUDGET_SETTING = Setting.byteSizeSetting(
+        "search.aggs.spill.disk_budget",
+        ByteSizeValue.ofGb(1),
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
+
+    private final Path directory;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private volatile long diskBudget;
+
+    public AggregationSpillService(Path directory, ClusterSettings clusterSettings) {
+        this.directory = directory;
+        this.diskBudget = clusterSettings.get(DISK_BUDGET_SETTING).getBytes();
+        clusterSettings.addSettingsUpdateConsumer(DISK_BUDGET_SETTING, value -> this.diskBudget = value.getBytes());
+    }
+
+    /**
+     * Opens the directory that the spilled files are written to. The caller is responsible for deleting its files and closing it.
+     */
+    public Directory newDirectory() throws IOException {
+        return new NIOFSDirectory(directory);
+    }
+
+    /**
+     * Reserves disk space for a file that the aggregation {@code name} is about to spill, or throws if the spilled files of the node
+     * would then use more than the budget. The space must be {@link #release released} once the file is deleted.
+     */
+    public void reserve(String name, long bytes) {
+        final long budget = diskBudget;
+        final long reserved = reservedBytes.addAndGet(bytes);
+        if (reserved > budget) {
+            reservedBytes.addAndGet(-bytes);
+            throw new ElasticsearchStatusException(
+                "[{}] would spill [{}] to disk, which would bring the spilled aggregations of the node to [{}], larger than the limit [{}]",
+                RestStatus.TOO_MANY_REQUESTS,
+                name,
+                ByteSizeValue.ofBytes(bytes),
+                ByteSizeValue.ofBytes(reserved),
+                ByteSizeValue.ofBytes(budget)
+            );
+        }
+    }
+
+    /**
+     * Releases disk space that was {@link #reserve reserved} before.
+     */
+    public void release(long bytes) {
+        final long reserved = reservedBytes.addAndGet(-bytes);
+        assert reserved >= 0 : "released more than was reserved: " + reserved;
+    }
+
+    /**
+     * The disk space that is currently reserved by the spilled files of the node.
+     */
+    public long reservedBytes() {
+        return reservedBytes.get();
+    }
+}
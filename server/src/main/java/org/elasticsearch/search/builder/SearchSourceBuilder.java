@@ -2193,6 +2193,14 @@ public final class SearchSourceBuilder implements Writeable, ToXContentObject, R
         return collapse == null && (aggregations == null || aggregations.supportsParallelCollection(fieldCardinality));
     }
 
+    /**
+     * Whether the segments of the shard may be split into doc id range partitions that are searched concurrently. This only applies to
+     * requests that {@link #supportsParallelCollection support parallel collection} in the first place.
+     */
+    public boolean supportsIntraSegmentConcurrency() {
+        return aggregations == null || aggregations.supportsIntraSegmentConcurrency();
+    }
+
     private void validate() throws ValidationException {
         var exceptions = validate(null, false, false);
         if (exceptions != null) {
@@ -67,6 +67,10 @@ public class FetchProfiler implements FetchPhase.Profiler {
             @Override
             public LeafStoredFieldLoader getLoader(LeafReaderContext ctx, int[] docs) throws IOException {
                 LeafStoredFieldLoader in = storedFieldLoader.getLoader(ctx, docs);
+                if (storedFieldLoader.fieldsToLoad().isEmpty() == false && StoredFieldLoader.cachesBlocks(docs)) {
+                    current.blockCachedSegments++;
+                    current.prefetchedDocs += docs.length;
+                }
                 return new LeafStoredFieldLoader() {
                     @Override
                     public void advanceTo(int doc) throws IOException {
@@ -160,6 +164,12 @@ public class FetchProfiler implements FetchPhase.Profiler {
         private final long start;
         private final Map<String, Object> debug = new HashMap<>();
         private final List<FetchSubPhaseProfileBreakdown> subPhases = new ArrayList<>();
+        /**
+         * Segments whose stored fields were read through a reader that keeps decompressed blocks, see
+         * {@link StoredFieldLoader#cachesBlocks(int[])}. Each of them decompresses every block it touches only once.
+         */
+        private int blockCachedSegments;
+        private int prefetchedDocs;
 
         FetchProfileBreakdown(long start) {
             super(FetchPhaseTiming.class);
@@ -168,6 +178,12 @@ public class FetchProfiler implements FetchPhase.Profiler {
 
         @Override
         protected Map<String, Object> toDebugMap() {
+            if (blockCachedSegments == 0) {
+                return Map.copyOf(debug);
+            }
+            Map<String, Object> debug = new HashMap<>(this.debug);
+            debug.put("stored_fields_block_cached_segments", blockCachedSegments);
+            debug.put("stored_fields_prefetched_docs", prefetchedDocs);
             return Map.copyOf(debug);
         }
 
@@ -21,6 +21,7 @@ import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConjunctionUtils;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilterWeight;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchNoDocsQuery;
@@ -36,6 +37,7 @@ import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -49,6 +51,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.PriorityQueue;
@@ -73,12 +76,19 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     private AggregatedDfs aggregatedDfs;
     private QueryProfiler profiler;
+    private QueryPlanner queryPlanner = QueryPlanner.NOOP;
+    private boolean skipNonCompetitiveSegments;
+    private Comparator<LeafReaderContext> leafOrder;
     private final MutableQueryTimeout cancellable;
 
     private final boolean hasExecutor;
     private final int maximumNumberOfSlices;
     // don't create slices with less than this number of docs
     private final int minimumDocsPerSlice;
+    // the maximum number of doc id range partitions a single segment may be split into, 1 to never split segments
+    private final int maximumPartitionsPerSegment;
+    // don't split segments into partitions with less than this number of docs
+    private final int minimumDocsPerPartition;
 
     private volatile boolean timeExceeded = false;
 
@@ -91,7 +101,19 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCachingPolicy queryCachingPolicy,
         boolean wrapWithExitableDirectoryReader
     ) throws IOException {
-        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader, null, -1, -1);
+        this(
+            reader,
+            similarity,
+            queryCache,
+            queryCachingPolicy,
+            new MutableQueryTimeout(),
+            wrapWithExitableDirectoryReader,
+            null,
+            -1,
+            -1,
+            1,
+            Integer.MAX_VALUE
+        );
     }
 
     /** constructor for concurrent search */
@@ -105,6 +127,38 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         Executor executor,
         int maximumNumberOfSlices,
         int minimumDocsPerSlice
+    ) throws IOException {
+        this(
+            reader,
+            similarity,
+            queryCache,
+            queryCachingPolicy,
+            wrapWithExitableDirectoryReader,
+            executor,
+            maximumNumberOfSlices,
+            minimumDocsPerSlice,
+            1,
+            Integer.MAX_VALUE
+        );
+    }
+
+    /**
+     * Constructor for concurrent search that may also split large segments into doc id range partitions that are searched concurrently.
+     * This is only safe for requests where every collector supports being called once per partition of a segment, see
+     * {@link org.elasticsearch.search.builder.SearchSourceBuilder#supportsIntraSegmentConcurrency}.
+     */
+    @SuppressWarnings("this-escape")
+    public ContextIndexSearcher(
+        IndexReader reader,
+        Similarity similarity,
+        QueryCache queryCache,
+        QueryCachingPolicy queryCachingPolicy,
+        boolean wrapWithExitableDirectoryReader,
+        Executor executor,
+        int maximumNumberOfSlices,
+        int minimumDocsPerSlice,
+        int maximumPartitionsPerSegment,
+        int minimumDocsPerPartition
     ) throws IOException {
         this(
             reader,
@@ -115,7 +169,9 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
             wrapWithExitableDirectoryReader,
             executor,
             maximumNumberOfSlices,
-            minimumDocsPerSlice
+            minimumDocsPerSlice,
+            maximumPartitionsPerSegment,
+            minimumDocsPerPartition
         );
     }
 
@@ -129,7 +185,9 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         boolean wrapWithExitableDirectoryReader,
         Executor executor,
         int maximumNumberOfSlices,
-        int minimumDocsPerSlice
+        int minimumDocsPerSlice,
+        int maximumPartitionsPerSegment,
+        int minimumDocsPerPartition
     ) throws IOException {
         super(wrapWithExitableDirectoryReader ? new ExitableDirectoryReader((DirectoryReader) reader, cancellable) : reader, executor);
         this.hasExecutor = executor != null;
@@ -139,6 +197,8 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.cancellable = cancellable;
         this.minimumDocsPerSlice = minimumDocsPerSlice;
         this.maximumNumberOfSlices = maximumNumberOfSlices;
+        this.maximumPartitionsPerSegment = maximumPartitionsPerSegment;
+        this.minimumDocsPerPartition = minimumDocsPerPartition;
     }
 
     /**
@@ -153,7 +213,13 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     @Override
     protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
         // we offload to the executor unconditionally, including requests that don't support concurrency
-        LeafSlice[] leafSlices = computeSlices(getLeafContexts(), maximumNumberOfSlices, minimumDocsPerSlice);
+        LeafSlice[] leafSlices = computeSlices(
+            getLeafContexts(),
+            maximumNumberOfSlices,
+            minimumDocsPerSlice,
+            maximumPartitionsPerSegment,
+            minimumDocsPerPartition
+        );
         assert leafSlices.length <= maximumNumberOfSlices : "more slices created than the maximum allowed";
         return leafSlices;
     }
@@ -162,6 +228,33 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.profiler = profiler;
     }
 
+    /**
+     * Set the {@link QueryPlanner} that plans every query after it has been rewritten.
+     */
+    public void setQueryPlanner(QueryPlanner queryPlanner) {
+        this.queryPlanner = Objects.requireNonNull(queryPlanner);
+    }
+
+    /**
+     * Set whether searches sorted by a numeric or date field skip the segments that cannot contain any of the top hits, based on the
+     * range of values of the sort field in each segment.
+     */
+    public void setSkipNonCompetitiveSegments(boolean skipNonCompetitiveSegments) {
+        this.skipNonCompetitiveSegments = skipNonCompetitiveSegments;
+    }
+
+    public boolean skipNonCompetitiveSegments() {
+        return skipNonCompetitiveSegments;
+    }
+
+    /**
+     * Set the order in which each slice visits its segments, or <code>null</code> to visit them in the order of the reader. Top docs
+     * collectors break ties on the order in which they visit segments, so segments whose hits may tie must keep the order of the reader.
+     */
+    public void setLeafOrder(@Nullable Comparator<LeafReaderContext> leafOrder) {
+        this.leafOrder = leafOrder;
+    }
+
     /**
      * Add a {@link Runnable} that will be run on a regular basis while accessing documents in the
      * DirectoryReader but also while collecting them and check for query cancellation or timeout.
@@ -202,7 +295,11 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
             rewriteTimer = profiler.startRewriteTime();
         }
         try {
-            return super.rewrite(original);
+            Query rewritten = super.rewrite(original);
+            // the decisions are only described for the search profile
+            Query planned = queryPlanner.plan(rewritten, getIndexReader(), profiler == null ? null : profiler::addPlannerDecision);
+            // the planner may have replaced clauses with queries that match all or no documents, which rewriting simplifies further
+            return planned == rewritten ? rewritten : super.rewrite(planned);
         } catch (TimeExceededException e) {
             timeExceeded = true;
             return new MatchNoDocsQuery("rewrite timed out");
@@ -264,6 +361,50 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         return computeSlices(leaves, Math.max(minDocsPerSlice, (int) (percentageDocsPerThread * numDocs)));
     }
 
+    /**
+     * Same as {@link #computeSlices(List, int, int)}, but also splits segments that are large compared to the total number of documents
+     * into up to <code>maxPartitionsPerSegment</code> doc id range partitions of at least <code>minDocsPerPartition</code> documents,
+     * so that a shard made of a single large segment, typically after a force-merge, can still be searched by several threads. Each
+     * partition gets its own slice, as partitions of the same segment must not be searched by the same slice. The remaining segments
+     * are grouped as usual, and the final number of {@link LeafSlice} will still be equal or lower than the max number of slices.
+     */
+    public static LeafSlice[] computeSlices(
+        List<LeafReaderContext> leaves,
+        int maxSliceNum,
+        int minDocsPerSlice,
+        int maxPartitionsPerSegment,
+        int minDocsPerPartition
+    ) {
+        if (maxSliceNum <= 1 || maxPartitionsPerSegment <= 1) {
+            return computeSlices(leaves, maxSliceNum, minDocsPerSlice);
+        }
+        final int numDocs = leaves.stream().mapToInt(l -> l.reader().maxDoc()).sum();
+        // partitions are sized so that all of them together don't exceed the max number of slices
+        final int docsPerPartition = Math.max(minDocsPerPartition, Math.ceilDiv(numDocs, maxSliceNum));
+        final List<LeafSlice> slices = new ArrayList<>();
+        final List<LeafReaderContext> wholeLeaves = new ArrayList<>();
+        for (LeafReaderContext ctx : leaves) {
+            final int maxDoc = ctx.reader().maxDoc();
+            final int numPartitions = Math.min(maxPartitionsPerSegment, maxDoc / docsPerPartition);
+            if (numPartitions <= 1) {
+                wholeLeaves.add(ctx);
+                continue;
+            }
+            final int partitionSize = Math.ceilDiv(maxDoc, numPartitions);
+            for (int minDocId = 0; minDocId < maxDoc; minDocId += partitionSize) {
+                final int maxDocId = Math.min(maxDoc, minDocId + partitionSize);
+                final List<LeafReaderContextPartition> partition = new ArrayList<>(1);
+                partition.add(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId));
+                slices.add(new LeafSlice(partition));
+            }
+        }
+        if (wholeLeaves.isEmpty() == false) {
+            final double percentageDocsPerThread = Math.max(MINIMUM_DOCS_PERCENT_PER_SLICE, 1.0 / maxSliceNum);
+            slices.addAll(Arrays.asList(computeSlices(wholeLeaves, Math.max(minDocsPerSlice, (int) (percentageDocsPerThread * numDocs)))));
+        }
+        return slices.toArray(new LeafSlice[0]);
+    }
+
     private static LeafSlice[] computeSlices(List<LeafReaderContext> leaves, int minDocsPerSlice) {
         // Make a copy so we can sort:
         List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
@@ -379,12 +520,19 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      * so it can be parallelized. Also, it needs to happen in the same thread where doc_values are read, as it consumes them and Lucene
      * does not allow consuming them from a different thread.
      * 2) handles the ES TimeExceededException
+     * 3) visits the segments in the order set with {@link #setLeafOrder}
      */
     @Override
     public void search(LeafReaderContextPartition[] leaves, Weight weight, Collector collector) throws IOException {
+        final Comparator<LeafReaderContext> order = leafOrder;
+        if (order != null && leaves.length > 1) {
+            leaves = leaves.clone();
+            // the sort is stable, so that the partitions of a segment keep their order
+            Arrays.sort(leaves, (p1, p2) -> order.compare(p1.ctx, p2.ctx));
+        }
         boolean success = false;
         try {
-            super.search(leaves, weight, collector);
+            super.search(leaves, hasPartialSegments(leaves) ? withoutCountShortcut(weight) : weight, collector);
             success = true;
         } catch (@SuppressWarnings("unused") TimeExceededException e) {
             timeExceeded = true;
@@ -407,6 +555,28 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    private static boolean hasPartialSegments(LeafReaderContextPartition[] leaves) {
+        for (LeafReaderContextPartition partition : leaves) {
+            if (partition.minDocId > 0 || partition.maxDocId < partition.ctx.reader().maxDoc()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collectors like {@link org.apache.lucene.search.TotalHitCountCollector} use {@link Weight#count} to count the hits of a whole
+     * segment at once, which would count the same hits once per partition when a segment is split into several partitions.
+     */
+    private static Weight withoutCountShortcut(Weight weight) {
+        return new FilterWeight(weight) {
+            @Override
+            public int count(LeafReaderContext context) {
+                return -1;
+            }
+        };
+    }
+
     private void doAggregationPostCollection(Collector collector) throws IOException {
         if (collector instanceof TwoPhaseCollector twoPhaseCollector) {
             twoPhaseCollector.doPostCollection();
@@ -472,6 +642,8 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
                         scorer,
                         liveDocsBitSet,
                         leafCollector,
+                        minDocId,
+                        maxDocId,
                         this.cancellable.isEnabled() ? cancellable::checkCancelled : () -> {}
                     );
                 } catch (CollectionTerminatedException e) {
@@ -500,6 +672,20 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     static void intersectScorerAndBitSet(Scorer scorer, BitSet acceptDocs, LeafCollector collector, Runnable checkCancelled)
         throws IOException {
+        intersectScorerAndBitSet(scorer, acceptDocs, collector, 0, DocIdSetIterator.NO_MORE_DOCS, checkCancelled);
+    }
+
+    /**
+     * Collects the docs matching both the scorer and the accepted docs within the <code>[minDocId, maxDocId)</code> range.
+     */
+    static void intersectScorerAndBitSet(
+        Scorer scorer,
+        BitSet acceptDocs,
+        LeafCollector collector,
+        int minDocId,
+        int maxDocId,
+        Runnable checkCancelled
+    ) throws IOException {
         collector.setScorer(scorer);
         // ConjunctionDISI uses the DocIdSetIterator#cost() to order the iterators, so if roleBits has the lowest cardinality it should
         // be used first:
@@ -508,7 +694,7 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         );
         int seen = 0;
         checkCancelled.run();
-        for (int docId = iterator.nextDoc(); docId < DocIdSetIterator.NO_MORE_DOCS; docId = iterator.nextDoc()) {
+        for (int docId = iterator.advance(minDocId); docId < maxDocId; docId = iterator.nextDoc()) {
             if (++seen % CHECK_CANCELLED_SCORER_INTERVAL == 0) {
                 checkCancelled.run();
             }
@@ -0,0 +1,45 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Plans the execution of a rewritten Lucene query against the index reader of a shard, between the rewrite of the query and the
+ * creation of its {@link org.apache.lucene.search.Weight}. Unlike {@link org.elasticsearch.index.query.QueryBuilder#rewrite}, which
+ * only has access to the mappings, a planner can look at the statistics of the segments that the query is about to be executed on.
+ * A planner must never change which documents match nor how they are scored.
+ *
+ * @see ContextIndexSearcher#setQueryPlanner(QueryPlanner)
+ */
+@FunctionalInterface
+public interface QueryPlanner {
+
+    /**
+     * A planner that leaves all queries as they are.
+     */
+    QueryPlanner NOOP = (query, reader, decisions) -> query;
+
+    /**
+     * Plan the given rewritten query.
+     *
+     * @param query     the rewritten query
+     * @param reader    the reader the query is about to be executed on
+     * @param decisions receives a human-readable description of every change made to the query, reported by the search profile, or
+     *                  {@code null} if the search isn't profiled, in which case no description should be built
+     * @return the planned query, or {@code query} itself if nothing was changed
+     */
+    Query plan(Query query, IndexReader reader, @Nullable Consumer<String> decisions) throws IOException;
+}
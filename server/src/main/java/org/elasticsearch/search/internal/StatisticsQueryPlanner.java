@@ -0,0 +1,170 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A {@link QueryPlanner} that uses the statistics of the segments of a shard to find the leaf queries of a boolean query tree that match
+ * either all or none of the documents of the shard:
+ * <ul>
+ *     <li>a {@link TermQuery} whose term is in every document of every segment, or in none of them</li>
+ *     <li>a {@link PointRangeQuery}, possibly wrapped in an {@link IndexOrDocValuesQuery}, whose range contains the values of every
+ *     segment that has a value for every document, or is disjoint from all of them</li>
+ * </ul>
+ * Queries that match nothing are replaced with a {@link MatchNoDocsQuery}. Queries that match everything are replaced with a
+ * {@link MatchAllDocsQuery}, but only where they do not contribute to the score, i.e. in {@code filter} and {@code must_not} clauses or
+ * under a {@link ConstantScoreQuery}. Rewriting the planned query then lets {@link BooleanQuery#rewrite} drop the redundant clauses or
+ * short-circuit the whole query.
+ * <p>
+ * Lucene already orders the clauses of a conjunction by cost and leads with the most selective one, so the planner does not reorder
+ * clauses.
+ */
+public final class StatisticsQueryPlanner implements QueryPlanner {
+
+    @Override
+    public Query plan(Query query, IndexReader reader, @Nullable Consumer<String> decisions) throws IOException {
+        if (reader.leaves().isEmpty()) {
+            return query;
+        }
+        return plan(query, reader, decisions, true);
+    }
+
+    private static Query plan(Query query, IndexReader reader, @Nullable Consumer<String> decisions, boolean scoring) throws IOException {
+        if (query instanceof BooleanQuery bq) {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.setMinimumNumberShouldMatch(bq.getMinimumNumberShouldMatch());
+            boolean changed = false;
+            for (BooleanClause clause : bq.clauses()) {
+                boolean clauseScoring = scoring && clause.isScoring();
+                Query planned = plan(clause.query(), reader, decisions, clauseScoring);
+                changed |= planned != clause.query();
+                builder.add(planned, clause.occur());
+            }
+            return changed ? builder.build() : query;
+        } else if (query instanceof ConstantScoreQuery csq) {
+            Query planned = plan(csq.getQuery(), reader, decisions, false);
+            return planned == csq.getQuery() ? query : new ConstantScoreQuery(planned);
+        } else if (query instanceof BoostQuery boostQuery) {
+            Query planned = plan(boostQuery.getQuery(), reader, decisions, scoring);
+            return planned == boostQuery.getQuery() ? query : new BoostQuery(planned, boostQuery.getBoost());
+        }
+        Match match = match(query, reader);
+        if (match == Match.NONE) {
+            if (decisions != null) {
+                decisions.accept("[" + query + "] matches no documents");
+            }
+            return new MatchNoDocsQuery("planner: no document of the shard matches");
+        } else if (match == Match.ALL && scoring == false) {
+            if (decisions != null) {
+                decisions.accept("[" + query + "] matches all documents");
+            }
+            return new MatchAllDocsQuery();
+        }
+        return query;
+    }
+
+    private enum Match {
+        ALL,
+        NONE,
+        SOME
+    }
+
+    private static Match match(Query query, IndexReader reader) throws IOException {
+        if (query instanceof IndexOrDocValuesQuery indexOrDocValuesQuery) {
+            return match(indexOrDocValuesQuery.getIndexQuery(), reader);
+        } else if (query instanceof TermQuery termQuery) {
+            return matchTerm(termQuery.getTerm(), reader);
+        } else if (query instanceof PointRangeQuery pointRangeQuery) {
+            return matchPointRange(pointRangeQuery, reader);
+        }
+        return Match.SOME;
+    }
+
+    private static Match matchTerm(Term term, IndexReader reader) throws IOException {
+        boolean all = true;
+        boolean none = true;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            Terms terms = ctx.reader().terms(term.field());
+            int docFreq = 0;
+            if (terms != null) {
+                TermsEnum termsEnum = terms.iterator();
+                if (termsEnum.seekExact(term.bytes())) {
+                    docFreq = termsEnum.docFreq();
+                }
+            }
+            // the doc freq includes deleted documents, so a term that is in maxDoc documents is in all live documents
+            all &= docFreq == ctx.reader().maxDoc();
+            none &= docFreq == 0;
+            if (all == false && none == false) {
+                return Match.SOME;
+            }
+        }
+        return all ? Match.ALL : Match.NONE;
+    }
+
+    private static Match matchPointRange(PointRangeQuery query, IndexReader reader) throws IOException {
+        final int numDims = query.getNumDims();
+        final int bytesPerDim = query.getBytesPerDim();
+        final byte[] lower = query.getLowerPoint();
+        final byte[] upper = query.getUpperPoint();
+        boolean all = true;
+        boolean none = true;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            PointValues values = ctx.reader().getPointValues(query.getField());
+            if (values == null) {
+                all = false;
+            } else {
+                byte[] min = values.getMinPackedValue();
+                byte[] max = values.getMaxPackedValue();
+                boolean within = values.getDocCount() == ctx.reader().maxDoc();
+                boolean disjoint = false;
+                for (int dim = 0; dim < numDims; dim++) {
+                    int from = dim * bytesPerDim;
+                    int to = from + bytesPerDim;
+                    if (Arrays.compareUnsigned(max, from, to, lower, from, to) < 0
+                        || Arrays.compareUnsigned(min, from, to, upper, from, to) > 0) {
+                        disjoint = true;
+                    }
+                    if (Arrays.compareUnsigned(min, from, to, lower, from, to) < 0
+                        || Arrays.compareUnsigned(max, from, to, upper, from, to) > 0) {
+                        within = false;
+                    }
+                }
+                all &= within;
+                none &= disjoint;
+            }
+            if (all == false && none == false) {
+                return Match.SOME;
+            }
+        }
+        return all ? Match.ALL : Match.NONE;
+    }
+}
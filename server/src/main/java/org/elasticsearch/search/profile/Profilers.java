@@ -67,7 +67,9 @@ public final class Profilers {
             queryProfiler.getTree(),
             queryProfiler.getRewriteTime(),
             queryProfiler.getCollectorResult(),
-            null
+            null,
+            queryProfiler.getPlannerDecisions(),
+            queryProfiler.getSkippedSegments()
         );
         AggregationProfileShardResult aggResults = new AggregationProfileShardResult(aggProfiler.getTree());
         return new SearchProfileQueryPhaseResult(Collections.singletonList(result), aggResults);
@@ -36,6 +36,8 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
     public static final String QUERY_ARRAY = "query";
 
     public static final String VECTOR_OPERATIONS_COUNT = "vector_operations_count";
+    public static final String PLANNER = "planner";
+    public static final String SKIPPED_SEGMENTS = "skipped_segments";
 
     private final List<ProfileResult> queryProfileResults;
 
@@ -45,17 +47,34 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
 
     private final Long vectorOperationsCount;
 
+    private final List<String> plannerDecisions;
+
+    private final int skippedSegments;
+
     public QueryProfileShardResult(
         List<ProfileResult> queryProfileResults,
         long rewriteTime,
         CollectorResult profileCollector,
         @Nullable Long vectorOperationsCount
+    ) {
+        this(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount, List.of(), 0);
+    }
+
+    public QueryProfileShardResult(
+        List<ProfileResult> queryProfileResults,
+        long rewriteTime,
+        CollectorResult profileCollector,
+        @Nullable Long vectorOperationsCount,
+        List<String> plannerDecisions,
+        int skippedSegments
     ) {
         assert (profileCollector != null);
         this.queryProfileResults = queryProfileResults;
         this.profileCollector = profileCollector;
         this.rewriteTime = rewriteTime;
         this.vectorOperationsCount = vectorOperationsCount;
+        this.plannerDecisions = List.copyOf(plannerDecisions);
+        this.skippedSegments = skippedSegments;
     }
 
     /**
@@ -71,6 +90,10 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         profileCollector = new CollectorResult(in);
         rewriteTime = in.readLong();
         vectorOperationsCount = (in.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) ? in.readOptionalLong() : null;
+        plannerDecisions = in.getTransportVersion().onOrAfter(TransportVersions.QUERY_PLANNER_PROFILE)
+            ? in.readStringCollectionAsImmutableList()
+            : List.of();
+        skippedSegments = in.getTransportVersion().onOrAfter(TransportVersions.SKIPPED_SEGMENTS_PROFILE) ? in.readVInt() : 0;
     }
 
     @Override
@@ -84,6 +107,12 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) {
             out.writeOptionalLong(vectorOperationsCount);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.QUERY_PLANNER_PROFILE)) {
+            out.writeStringCollection(plannerDecisions);
+        }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.SKIPPED_SEGMENTS_PROFILE)) {
+            out.writeVInt(skippedSegments);
+        }
     }
 
     public List<ProfileResult> getQueryResults() {
@@ -98,6 +127,20 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         return profileCollector;
     }
 
+    /**
+     * The changes that the query planner made to the query, see {@link org.elasticsearch.search.internal.QueryPlanner}.
+     */
+    public List<String> getPlannerDecisions() {
+        return plannerDecisions;
+    }
+
+    /**
+     * The number of segments that were skipped because they could not contain any of the top hits.
+     */
+    public int getSkippedSegments() {
+        return skippedSegments;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
@@ -110,6 +153,12 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         }
         builder.endArray();
         builder.field(REWRITE_TIME, rewriteTime);
+        if (plannerDecisions.isEmpty() == false) {
+            builder.stringListField(PLANNER, plannerDecisions);
+        }
+        if (skippedSegments > 0) {
+            builder.field(SKIPPED_SEGMENTS, skippedSegments);
+        }
         builder.startArray(COLLECTOR);
         profileCollector.toXContent(builder, params);
         builder.endArray();
@@ -125,12 +174,14 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         QueryProfileShardResult other = (QueryProfileShardResult) obj;
         return queryProfileResults.equals(other.queryProfileResults)
             && profileCollector.equals(other.profileCollector)
-            && rewriteTime == other.rewriteTime;
+            && rewriteTime == other.rewriteTime
+            && plannerDecisions.equals(other.plannerDecisions)
+            && skippedSegments == other.skippedSegments;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(queryProfileResults, profileCollector, rewriteTime);
+        return Objects.hash(queryProfileResults, profileCollector, rewriteTime, plannerDecisions, skippedSegments);
     }
 
     @Override
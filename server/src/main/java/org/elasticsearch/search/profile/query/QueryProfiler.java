@@ -13,6 +13,9 @@ import org.apache.lucene.search.Query;
 import org.elasticsearch.search.profile.AbstractProfiler;
 import org.elasticsearch.search.profile.Timer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -35,6 +38,10 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
 
     private long vectorOpsCount;
 
+    private final List<String> plannerDecisions = new ArrayList<>();
+
+    private int skippedSegments;
+
     public QueryProfiler() {
         super(new InternalQueryProfileTree());
     }
@@ -55,6 +62,36 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
         return this.vectorOpsCount;
     }
 
+    /**
+     * Records a change that the {@link org.elasticsearch.search.internal.QueryPlanner} made to the query
+     */
+    public void addPlannerDecision(String decision) {
+        if (plannerDecisions.contains(decision) == false) {
+            plannerDecisions.add(decision);
+        }
+    }
+
+    /**
+     * @return the changes that the {@link org.elasticsearch.search.internal.QueryPlanner} made to the query
+     */
+    public List<String> getPlannerDecisions() {
+        return plannerDecisions;
+    }
+
+    /**
+     * Adds a number of segments that the query phase skipped because they could not contain any of the top hits
+     */
+    public void addSkippedSegments(int skippedSegments) {
+        this.skippedSegments += skippedSegments;
+    }
+
+    /**
+     * @return the number of segments that the query phase skipped because they could not contain any of the top hits
+     */
+    public int getSkippedSegments() {
+        return skippedSegments;
+    }
+
     /** Set the collector result that is associated with this profiler. */
     public void setCollectorResult(CollectorResult collectorResult) {
         if (this.collectorResult != null) {
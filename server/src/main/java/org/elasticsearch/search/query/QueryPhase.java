@@ -15,8 +15,6 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.Collector;
-import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -28,6 +26,7 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.TaskExecutionTimeTrackingEsThreadPoolExecutor;
+import org.elasticsearch.index.engine.ThreadPoolMergeExecutorService;
 import org.elasticsearch.lucene.queries.SearchAfterSortedDocQuery;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchContextSourcePrinter;
@@ -36,6 +35,7 @@ import org.elasticsearch.search.aggregations.AggregationPhase;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.rank.RankSearchContext;
 import org.elasticsearch.search.rank.context.QueryPhaseRankShardContext;
 import org.elasticsearch.search.rescore.RescorePhase;
@@ -90,6 +90,7 @@ public class QueryPhase {
         boolean searchTimedOut = querySearchResult.searchTimedOut();
         long serviceTimeEWMA = querySearchResult.serviceTimeEWMA();
         int nodeQueueSize = querySearchResult.nodeQueueSize();
+        int nodePendingMerges = querySearchResult.nodePendingMerges();
         try {
             // run each of the rank queries
             for (Query rankQuery : queryPhaseRankShardContext.queries()) {
@@ -109,6 +110,7 @@ public class QueryPhase {
                     rrfRankResults.add(rrfQuerySearchResult.topDocs().topDocs);
                     serviceTimeEWMA += rrfQuerySearchResult.serviceTimeEWMA();
                     nodeQueueSize = Math.max(nodeQueueSize, rrfQuerySearchResult.nodeQueueSize());
+                    nodePendingMerges = Math.max(nodePendingMerges, rrfQuerySearchResult.nodePendingMerges());
                     searchTimedOut = rrfQuerySearchResult.searchTimedOut();
                 }
             }
@@ -119,6 +121,7 @@ public class QueryPhase {
             querySearchResult.searchTimedOut(searchTimedOut);
             querySearchResult.serviceTimeEWMA(serviceTimeEWMA);
             querySearchResult.nodeQueueSize(nodeQueueSize);
+            querySearchResult.nodePendingMerges(nodePendingMerges);
         } catch (Exception e) {
             throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Failed to execute rank query", e);
         }
@@ -197,7 +200,7 @@ public class QueryPhase {
                 );
             }
 
-            CollectorManager<Collector, QueryPhaseResult> collectorManager = QueryPhaseCollectorManager.createQueryPhaseCollectorManager(
+            QueryPhaseCollectorManager collectorManager = QueryPhaseCollectorManager.createQueryPhaseCollectorManager(
                 postFilterWeight,
                 searchContext.aggregations() == null ? null : searchContext.aggregations().getAggsCollectorManager(),
                 searchContext,
@@ -209,9 +212,17 @@ public class QueryPhase {
                 searcher.addQueryCancellation(timeoutRunnable);
             }
 
-            QueryPhaseResult queryPhaseResult = searcher.search(query, collectorManager);
+            final QueryPhaseResult queryPhaseResult;
+            searcher.setLeafOrder(collectorManager.getLeafOrder());
+            try {
+                queryPhaseResult = searcher.search(query, collectorManager);
+            } finally {
+                searcher.setLeafOrder(null);
+            }
             if (searchContext.getProfilers() != null) {
-                searchContext.getProfilers().getCurrentQueryProfiler().setCollectorResult(queryPhaseResult.collectorResult());
+                QueryProfiler queryProfiler = searchContext.getProfilers().getCurrentQueryProfiler();
+                queryProfiler.setCollectorResult(queryPhaseResult.collectorResult());
+                queryProfiler.addSkippedSegments(queryPhaseResult.skippedSegments());
             }
             queryResult.topDocs(queryPhaseResult.topDocsAndMaxScore(), queryPhaseResult.sortValueFormats());
             if (searcher.timeExceeded()) {
@@ -233,6 +244,11 @@ public class QueryPhase {
                 queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                 queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
             }
+            // merges compete with searches for disk and cpu, adaptive replica selection prefers copies on nodes that merge less
+            ThreadPoolMergeExecutorService mergeExecutorService = searchContext.indexShard().getThreadPoolMergeExecutorService();
+            if (mergeExecutorService != null) {
+                queryResult.nodePendingMerges(mergeExecutorService.getPendingMergeCount());
+            }
         } catch (Exception e) {
             throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Failed to execute main query", e);
         }
@@ -65,6 +65,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.elasticsearch.search.profile.query.CollectorResult.REASON_AGGREGATION;
@@ -109,6 +110,20 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
      */
     abstract DocValueFormat[] getSortValueFormats();
 
+    /**
+     * Returns the order in which each slice should visit its segments, or <code>null</code> to visit them in the order of the reader
+     */
+    Comparator<LeafReaderContext> getLeafOrder() {
+        return null;
+    }
+
+    /**
+     * Wraps the top docs collector of a slice, after it has been wrapped for profiling if needed
+     */
+    Collector wrapTopDocsCollector(Collector topDocsCollector) {
+        return topDocsCollector;
+    }
+
     @Override
     public final Collector newCollector() throws IOException {
         if (profile) {
@@ -116,9 +131,10 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
                 newTopDocsCollector(),
                 getTopDocsProfilerReason()
             );
+            Collector topDocsCollector = wrapTopDocsCollector(topDocsProfileCollector);
             if (aggsCollectorManager == null) {
                 return new InternalProfileCollector(
-                    new QueryPhaseCollector(topDocsProfileCollector, postFilterWeight, terminateAfterChecker, null, minScore),
+                    new QueryPhaseCollector(topDocsCollector, postFilterWeight, terminateAfterChecker, null, minScore),
                     REASON_SEARCH_QUERY_PHASE,
                     topDocsProfileCollector
                 );
@@ -128,14 +144,14 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
                 REASON_AGGREGATION
             );
             return new InternalProfileCollector(
-                new QueryPhaseCollector(topDocsProfileCollector, postFilterWeight, terminateAfterChecker, aggsProfileCollector, minScore),
+                new QueryPhaseCollector(topDocsCollector, postFilterWeight, terminateAfterChecker, aggsProfileCollector, minScore),
                 REASON_SEARCH_QUERY_PHASE,
                 topDocsProfileCollector,
                 aggsProfileCollector
             );
         }
         return new QueryPhaseCollector(
-            newTopDocsCollector(),
+            wrapTopDocsCollector(newTopDocsCollector()),
             postFilterWeight,
             terminateAfterChecker,
             aggsCollectorManager == null ? null : aggsCollectorManager.newCollector(),
@@ -151,6 +167,17 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
         CollectorResult collectorResult = null;
         List<Collector> topDocsCollectors = new ArrayList<>();
         List<AggregatorCollector> aggsCollectors = new ArrayList<>();
+        int skippedSegments = 0;
+        boolean skippedCountedHits = false;
+        for (Collector collector : collectors) {
+            QueryPhaseCollector queryPhaseCollector = (QueryPhaseCollector) (profile
+                ? ((InternalProfileCollector) collector).getWrappedCollector()
+                : collector);
+            if (queryPhaseCollector.getTopDocsCollector() instanceof SegmentSkippingCollector segmentSkippingCollector) {
+                skippedSegments += segmentSkippingCollector.getSkippedSegments();
+                skippedCountedHits |= segmentSkippingCollector.hasSkippedCountedHits();
+            }
+        }
         if (profile) {
             List<CollectorResult> resultsPerProfiler = new ArrayList<>();
             List<CollectorResult> topDocsCollectorResults = new ArrayList<>();
@@ -162,7 +189,9 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
                 if (queryPhaseCollector.isTerminatedAfter()) {
                     terminatedAfter = true;
                 }
-                InternalProfileCollector profileTopDocsCollector = (InternalProfileCollector) queryPhaseCollector.getTopDocsCollector();
+                InternalProfileCollector profileTopDocsCollector = (InternalProfileCollector) unwrapTopDocsCollector(
+                    queryPhaseCollector.getTopDocsCollector()
+                );
                 topDocsCollectorResults.add(profileTopDocsCollector.getCollectorTree());
                 topDocsCollectors.add(profileTopDocsCollector.getWrappedCollector());
                 if (aggsCollectorManager != null) {
@@ -180,7 +209,7 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
         } else {
             for (Collector collector : collectors) {
                 QueryPhaseCollector queryPhaseCollector = (QueryPhaseCollector) collector;
-                topDocsCollectors.add(queryPhaseCollector.getTopDocsCollector());
+                topDocsCollectors.add(unwrapTopDocsCollector(queryPhaseCollector.getTopDocsCollector()));
                 aggsCollectors.add((AggregatorCollector) queryPhaseCollector.getAggsCollector());
                 if (queryPhaseCollector.isTerminatedAfter()) {
                     terminatedAfter = true;
@@ -191,7 +220,18 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
             aggsCollectorManager.reduce(aggsCollectors);
         }
         TopDocsAndMaxScore topDocsAndMaxScore = reduceTopDocsCollectors(topDocsCollectors);
-        return new QueryPhaseResult(topDocsAndMaxScore, getSortValueFormats(), terminatedAfter, collectorResult);
+        if (skippedCountedHits) {
+            // the hits of the skipped segments were not counted
+            TotalHits totalHits = topDocsAndMaxScore.topDocs.totalHits;
+            topDocsAndMaxScore.topDocs.totalHits = new TotalHits(totalHits.value(), TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+        }
+        return new QueryPhaseResult(topDocsAndMaxScore, getSortValueFormats(), terminatedAfter, collectorResult, skippedSegments);
+    }
+
+    private static Collector unwrapTopDocsCollector(Collector topDocsCollector) {
+        return topDocsCollector instanceof SegmentSkippingCollector segmentSkippingCollector
+            ? segmentSkippingCollector.getCollector()
+            : topDocsCollector;
     }
 
     abstract TopDocsAndMaxScore reduceTopDocsCollectors(Collection<Collector> collectors) throws IOException;
@@ -211,7 +251,7 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
      * @param searchContext the search context
      * @param hasFilterCollector True if the collector chain contains at least one collector that can filter documents.
      */
-    static CollectorManager<Collector, QueryPhaseResult> createQueryPhaseCollectorManager(
+    static QueryPhaseCollectorManager createQueryPhaseCollectorManager(
         Weight postFilterWeight,
         CollectorManager<AggregatorCollector, Void> aggsCollectorManager,
         SearchContext searchContext,
@@ -258,7 +298,8 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
                     numDocs,
                     searchContext.trackScores(),
                     searchContext.trackTotalHitsUpTo(),
-                    hasFilterCollector
+                    hasFilterCollector,
+                    SegmentSkippingCollector.Segments.create(searchContext)
                 );
             } else {
                 boolean trackScores = searchContext.sort() == null || searchContext.trackScores();
@@ -373,6 +414,10 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
         private final boolean trackMaxScore;
         private final TotalHits shortcutTotalHits;
         private final CollectorManager<? extends TopDocsCollector<?>, ? extends TopDocs> topDocsManager;
+        private final SegmentSkippingCollector.Segments segments;
+        private final int numHits;
+        private final boolean hasSearchAfter;
+        private final long minHitsBeforeSkipping;
 
         WithHits(
             Weight postFilterWeight,
@@ -387,11 +432,14 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
             int numHits,
             boolean trackMaxScore,
             int trackTotalHitsUpTo,
-            boolean hasFilterCollector
+            boolean hasFilterCollector,
+            @Nullable SegmentSkippingCollector.Segments segments
         ) throws IOException {
             super(postFilterWeight, terminateAfterChecker, aggsCollectorManager, minScore, profile);
             this.sortAndFormats = sortAndFormats;
             this.trackMaxScore = trackMaxScore;
+            this.numHits = numHits;
+            this.hasSearchAfter = searchAfter != null;
 
             final int hitCountThreshold;
             if ((sortAndFormats == null || SortField.FIELD_SCORE.equals(sortAndFormats.sort.getSort()[0])) && hasInfMaxScore(query)) {
@@ -420,6 +468,22 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
             } else {
                 this.topDocsManager = new TopFieldCollectorManager(sortAndFormats.sort, numHits, (FieldDoc) searchAfter, hitCountThreshold);
             }
+            // skipping segments would lose hits that need to be counted accurately
+            this.segments = shortcutTotalHits == null && hitCountThreshold == Integer.MAX_VALUE ? null : segments;
+            this.minHitsBeforeSkipping = shortcutTotalHits == null ? hitCountThreshold + 1L : 0;
+        }
+
+        @Override
+        Comparator<LeafReaderContext> getLeafOrder() {
+            return segments == null ? null : segments.leafOrder();
+        }
+
+        @Override
+        Collector wrapTopDocsCollector(Collector topDocsCollector) {
+            if (segments == null) {
+                return topDocsCollector;
+            }
+            return new SegmentSkippingCollector(topDocsCollector, segments, numHits, hasSearchAfter == false, minHitsBeforeSkipping);
         }
 
         @Override
@@ -503,7 +567,8 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
             numHits,
             trackMaxScore,
             trackTotalHitsUpTo,
-            hasFilterCollector
+            hasFilterCollector,
+            null
         ) {
             @Override
             public TopDocsAndMaxScore reduceTopDocsCollectors(Collection<Collector> collectors) throws IOException {
@@ -19,10 +19,12 @@ import org.elasticsearch.search.profile.query.CollectorResult;
  * @param sortValueFormats the fields that the request was sorted on
  * @param terminatedAfter whether the request was early terminated, based on the <code>terminate_after</code> functionality
  * @param collectorResult the profile result (when profiling was enabled)
+ * @param skippedSegments the number of segments that were skipped because they could not contain any of the top hits
  */
 public record QueryPhaseResult(
     TopDocsAndMaxScore topDocsAndMaxScore,
     DocValueFormat[] sortValueFormats,
     boolean terminatedAfter,
-    CollectorResult collectorResult
+    CollectorResult collectorResult,
+    int skippedSegments
 ) {}
@@ -68,6 +68,7 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private int nodePendingMerges = -1;
 
     private boolean reduced;
 
@@ -391,6 +392,18 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * Returns the number of merges that were queued or running on the node that executed the query, or {@code -1} if unknown.
+     */
+    public int nodePendingMerges() {
+        return this.nodePendingMerges;
+    }
+
+    public QuerySearchResult nodePendingMerges(int nodePendingMerges) {
+        this.nodePendingMerges = nodePendingMerges;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -445,6 +458,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
             hasProfileResults = profileShardResults != null;
             serviceTimeEWMA = in.readZLong();
             nodeQueueSize = in.readInt();
+            if (in.getTransportVersion().onOrAfter(TransportVersions.ADAPTIVE_SELECTION_FETCH_STATS)) {
+                nodePendingMerges = in.readInt();
+            }
             setShardSearchRequest(in.readOptionalWriteable(ShardSearchRequest::new));
             setRescoreDocIds(new RescoreDocIds(in));
             if (in.getTransportVersion().onOrAfter(TransportVersions.V_8_8_0)) {
@@ -513,6 +529,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
         out.writeOptionalWriteable(profileShardResults);
         out.writeZLong(serviceTimeEWMA);
         out.writeInt(nodeQueueSize);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.ADAPTIVE_SELECTION_FETCH_STATS)) {
+            out.writeInt(nodePendingMerges);
+        }
         out.writeOptionalWriteable(getShardSearchRequest());
         getRescoreDocIds().writeTo(out);
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_8_0)) {
@@ -0,0 +1,275 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.MinAndMax;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Wraps the top docs collector of a search that is sorted by a numeric or date field, and skips the segments that cannot contain any
+ * of the top hits based on the range of values of the sort field in each segment, see {@link FieldSortBuilder#getSegmentMinMaxOrNull}.
+ * A segment is skipped when its best value is strictly worse than a bound on the value of the last top hit, which is the better of:
+ * <ul>
+ *     <li>the bottom sort value of the shards that already returned their top hits to the coordinating node, see
+ *     {@link ShardSearchRequest#getBottomSortValues()}</li>
+ *     <li>the worst value of the segments that were collected so far, once they provided enough hits to fill the top hits</li>
+ * </ul>
+ * Lucene's comparators already skip the non-competitive documents within a segment, but they still need to visit every segment. When
+ * the ranges of the segments don't overlap, as is common with time-series data, the segments with the best values are visited first,
+ * see {@link Segments#leafOrder()}, so that a search for the latest hits only needs to visit the most recent segments. Otherwise the
+ * segments are visited in the order of the reader: the top docs collector breaks ties on the doc id by assuming that segments are
+ * visited in increasing order of doc base, which <code>search_after</code> relies on to page through hits with the same sort values.
+ * <p>
+ * Skipping a segment also skips counting its hits, so segments are only skipped once the collected hits exceed the threshold up to
+ * which the total hits are tracked.
+ */
+final class SegmentSkippingCollector implements Collector {
+
+    private final Collector in;
+    private final Segments segments;
+    private final int numHits;
+    private final boolean boundByCollectedHits;
+    private final long minHitsBeforeSkipping;
+    private final List<SegmentHits> collectedSegments = new ArrayList<>();
+
+    private Comparable<?> bound;
+    private long collectedHits;
+    private MinAndMax<?> currentSegment;
+    private long currentSegmentHits;
+    private int skippedSegments;
+
+    /**
+     * @param in                    the top docs collector
+     * @param segments              the range of values of the sort field in each segment
+     * @param numHits               the number of top hits to collect
+     * @param boundByCollectedHits  whether every collected hit competes for the top hits, which is not the case with
+     *                              <code>search_after</code>
+     * @param minHitsBeforeSkipping the number of hits to collect before segments can be skipped, 0 if the total hits are not counted
+     *                              by the top docs collector
+     */
+    SegmentSkippingCollector(Collector in, Segments segments, int numHits, boolean boundByCollectedHits, long minHitsBeforeSkipping) {
+        this.in = in;
+        this.segments = segments;
+        this.numHits = numHits;
+        this.boundByCollectedHits = boundByCollectedHits;
+        this.minHitsBeforeSkipping = minHitsBeforeSkipping;
+        this.bound = segments.bottom;
+    }
+
+    Collector getCollector() {
+        return in;
+    }
+
+    /**
+     * @return the number of segments that were skipped
+     */
+    int getSkippedSegments() {
+        return skippedSegments;
+    }
+
+    /**
+     * @return whether skipped segments may hold hits that the top docs collector would have counted, in which case the total hits
+     * are a lower bound
+     */
+    boolean hasSkippedCountedHits() {
+        return skippedSegments > 0 && minHitsBeforeSkipping > 0;
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return in.scoreMode();
+    }
+
+    @Override
+    public void setWeight(Weight weight) {
+        in.setWeight(weight);
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        // the previous segment is done, leaf collectors are not always finished when they are wrapped by the query phase collector
+        onSegmentCollected();
+        final MinAndMax<?> minAndMax = segments.minAndMaxes[context.ord];
+        if (minAndMax != null && bound != null && collectedHits >= minHitsBeforeSkipping) {
+            // ties may still be competitive depending on the secondary sort or the doc id
+            if (segments.compare(segments.best(minAndMax), bound) > 0) {
+                skippedSegments++;
+                throw new CollectionTerminatedException();
+            }
+        }
+        final LeafCollector leafCollector = in.getLeafCollector(context);
+        currentSegment = minAndMax;
+        return new LeafCollector() {
+            @Override
+            public void setScorer(Scorable scorer) throws IOException {
+                leafCollector.setScorer(scorer);
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                leafCollector.collect(doc);
+                collectedHits++;
+                currentSegmentHits++;
+            }
+
+            @Override
+            public DocIdSetIterator competitiveIterator() throws IOException {
+                return leafCollector.competitiveIterator();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                leafCollector.finish();
+            }
+        };
+    }
+
+    private void onSegmentCollected() {
+        if (boundByCollectedHits && currentSegment != null && currentSegmentHits > 0) {
+            collectedSegments.add(new SegmentHits(segments.worst(currentSegment), currentSegmentHits));
+            // the hits of each segment are at least as good as the worst value of the segment, so the last top hit is at least as good
+            // as the worst value of the best segments that hold enough hits
+            collectedSegments.sort((s1, s2) -> segments.compare(s1.worst, s2.worst));
+            long hits = 0;
+            for (SegmentHits segment : collectedSegments) {
+                hits += segment.hits;
+                if (hits >= numHits) {
+                    if (bound == null || segments.compare(segment.worst, bound) < 0) {
+                        bound = segment.worst;
+                    }
+                    break;
+                }
+            }
+        }
+        currentSegment = null;
+        currentSegmentHits = 0;
+    }
+
+    private record SegmentHits(Comparable<?> worst, long hits) {}
+
+    /**
+     * The range of values of the primary sort field in each segment of a shard, shared by the collectors of all slices.
+     */
+    static final class Segments {
+        private final MinAndMax<?>[] minAndMaxes;
+        private final int reverseMul;
+        private final Comparable<?> bottom;
+
+        Segments(MinAndMax<?>[] minAndMaxes, boolean reverse, @Nullable Object bottomSortValue) {
+            this.minAndMaxes = minAndMaxes;
+            this.reverseMul = reverse ? -1 : 1;
+            Comparable<?> sameTypeBottom = null;
+            for (MinAndMax<?> minAndMax : minAndMaxes) {
+                if (minAndMax != null) {
+                    // ignore the bottom sort value if it was produced by a sort field of another type
+                    if (bottomSortValue != null && bottomSortValue.getClass() == minAndMax.getMin().getClass()) {
+                        sameTypeBottom = (Comparable<?>) bottomSortValue;
+                    }
+                    break;
+                }
+            }
+            this.bottom = sameTypeBottom;
+        }
+
+        /**
+         * Returns the order in which the segments should be visited, starting with the segment that has the best value, or
+         * <code>null</code> if they must be visited in the order of the reader. Visiting the segments in another order is only
+         * allowed when no two segments can hold hits with the same primary sort value, which is when the ranges of all segments are
+         * known and don't overlap, since the top docs collector would otherwise break ties on the order in which segments are visited
+         * rather than on the doc id.
+         */
+        @Nullable
+        Comparator<LeafReaderContext> leafOrder() {
+            final Comparator<MinAndMax<?>> order = (minAndMax1, minAndMax2) -> compare(best(minAndMax1), best(minAndMax2));
+            final MinAndMax<?>[] sorted = minAndMaxes.clone();
+            for (MinAndMax<?> minAndMax : sorted) {
+                if (minAndMax == null) {
+                    return null;
+                }
+            }
+            Arrays.sort(sorted, order);
+            for (int i = 1; i < sorted.length; i++) {
+                if (compare(worst(sorted[i - 1]), best(sorted[i])) >= 0) {
+                    return null;
+                }
+            }
+            return (ctx1, ctx2) -> order.compare(minAndMaxes[ctx1.ord], minAndMaxes[ctx2.ord]);
+        }
+
+        private Comparable<?> best(MinAndMax<?> minAndMax) {
+            return reverseMul == 1 ? minAndMax.getMin() : minAndMax.getMax();
+        }
+
+        private Comparable<?> worst(MinAndMax<?> minAndMax) {
+            return reverseMul == 1 ? minAndMax.getMax() : minAndMax.getMin();
+        }
+
+        /**
+         * Compares two values of the sort field, a negative result means that the first value sorts first.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private int compare(Comparable v1, Comparable v2) {
+            return reverseMul * v1.compareTo(v2);
+        }
+
+        /**
+         * Returns the range of values of the primary sort field in each segment if the provided search can skip segments, or
+         * <code>null</code> otherwise.
+         */
+        @Nullable
+        static Segments create(SearchContext searchContext) throws IOException {
+            if (searchContext.searcher().skipNonCompetitiveSegments() == false
+                || searchContext.sort() == null
+                || searchContext.scrollContext() != null
+                || searchContext.collapse() != null
+                || searchContext.request() == null
+                || searchContext.searcher().getIndexReader().leaves().size() < 2) {
+                return null;
+            }
+            FieldSortBuilder primarySort = FieldSortBuilder.getPrimaryFieldSortOrNull(searchContext.request().source());
+            if (primarySort == null) {
+                return null;
+            }
+            SortField sortField = searchContext.sort().sort.getSort()[0];
+            if (primarySort.getFieldName().equals(sortField.getField()) == false) {
+                return null;
+            }
+            MinAndMax<?>[] minAndMaxes = FieldSortBuilder.getSegmentMinMaxOrNull(searchContext.getSearchExecutionContext(), primarySort);
+            if (minAndMaxes == null || Arrays.stream(minAndMaxes).allMatch(Objects::isNull)) {
+                return null;
+            }
+            SearchSortValuesAndFormats bottomSortValues = searchContext.request().getBottomSortValues();
+            Object bottomSortValue = bottomSortValues == null || bottomSortValues.getRawSortValues().length == 0
+                ? null
+                : bottomSortValues.getRawSortValues()[0];
+            return new Segments(minAndMaxes, sortField.getReverse(), bottomSortValue);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.scheduler;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of the {@link SearchTaskScheduler} of a node: the number of tasks that are running and queued, and for every class of
+ * tasks how many were dispatched, rejected because the queue was full or shed because the class held more than its fair share of the
+ * queue, and how long they waited in the queue.
+ */
+public record SearchSchedulerStats(boolean enabled, int running, int queue, Map<String, ClassStats> classes)
+    implements
+        Writeable,
+        ToXContentFragment {
+
+    public SearchSchedulerStats(StreamInput in) throws IOException {
+        this(in.readBoolean(), in.readVInt(), in.readVInt(), in.readImmutableMap(ClassStats::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(enabled);
+        out.writeVInt(running);
+        out.writeVInt(queue);
+        out.writeMap(classes, StreamOutput::writeWriteable);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("search_scheduler");
+        builder.field("enabled", enabled);
+        builder.field("running", running);
+        builder.field("queue", queue);
+        builder.startObject("classes");
+        for (Map.Entry<String, ClassStats> entry : new TreeMap<>(classes).entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * The statistics of a single class of tasks.
+     */
+    public record ClassStats(double weight, int queue, long dispatched, long rejected, long shed, long queueTimeNanos)
+        implements
+            Writeable,
+            ToXContentFragment {
+
+        public ClassStats(StreamInput in) throws IOException {
+            this(in.readDouble(), in.readVInt(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeDouble(weight);
+            out.writeVInt(queue);
+            out.writeVLong(dispatched);
+            out.writeVLong(rejected);
+            out.writeVLong(shed);
+            out.writeVLong(queueTimeNanos);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("weight", weight);
+            builder.field("queue", queue);
+            builder.field("dispatched", dispatched);
+            builder.field("rejected", rejected);
+            builder.field("shed", shed);
+            builder.humanReadableField("queue_time_in_millis", "queue_time", TimeValue.timeValueNanos(queueTimeNanos));
+            builder.humanReadableField(
+                "avg_queue_time_in_millis",
+                "avg_queue_time",
+                TimeValue.timeValueNanos(dispatched == 0 ? 0 : queueTimeNanos / dispatched)
+            );
+            return builder;
+        }
+    }
+}
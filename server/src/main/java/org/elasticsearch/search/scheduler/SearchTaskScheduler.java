@@ -0,0 +1,427 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.scheduler;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Schedules the shard-level query and fetch tasks of the search thread pool with weighted fair queuing, so that a few expensive
+ * searches cannot starve cheap ones that share the pool.
+ * <p>
+ * Every task belongs to a class, which is the value of the request header configured with {@link #CLASS_HEADER_SETTING}, e.g. a header
+ * that identifies the tenant or user that sent the search. The {@link org.elasticsearch.action.ActionModule} copies this header from
+ * the REST request into the thread context, which carries it to the data nodes.
+ * <p>
+ * Tasks are held in the scheduler until the search thread pool has a free thread, and are then dispatched in the order of their virtual
+ * start time (start-time fair queuing): each task advances the virtual time of its class by its estimated cost divided by the weight
+ * of the class, so classes that send expensive tasks fall behind classes that send cheap ones. The cost of a task is estimated from the execution time of the previous tasks of the same class and kind.
+ * <p>
+ * Once the number of queued tasks reaches {@link #SHEDDING_THRESHOLD_SETTING} of {@link #MAX_QUEUE_SIZE_SETTING}, the tasks of classes
+ * that hold more than their fair share of the queue are rejected, so that the queue never fills up with the tasks of a single class.
+ */
+public final class SearchTaskScheduler {
+
+    public static final Setting<Boolean> SEARCH_SCHEDULER_ENABLED_SETTING = Setting.boolSetting(
+        "search.scheduler.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    /**
+     * The request header whose value is the class of a task. It is static because the header is registered with the headers that are
+     * copied from REST requests when the node starts.
+     */
+    public static final Setting<String> CLASS_HEADER_SETTING = Setting.simpleString("search.scheduler.class_header", value -> {
+        if (value.equalsIgnoreCase("Authorization") || value.equalsIgnoreCase("es-secondary-authorization")) {
+            // the class names are reported in the node stats
+            throw new IllegalArgumentException("[search.scheduler.class_header] must not be a credentials header, got [" + value + "]");
+        }
+    }, Property.NodeScope);
+
+    public static final Setting.AffixSetting<Double> CLASS_WEIGHT_SETTING = Setting.affixKeySetting(
+        "search.scheduler.class.",
+        "weight",
+        key -> Setting.doubleSetting(key, 1.0, 0.01, Property.NodeScope, Property.Dynamic)
+    );
+
+    public static final Setting<Integer> MAX_QUEUE_SIZE_SETTING = Setting.intSetting(
+        "search.scheduler.max_queue_size",
+        1000,
+        1,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    public static final Setting<Double> SHEDDING_THRESHOLD_SETTING = Setting.doubleSetting(
+        "search.scheduler.shedding_threshold",
+        0.5,
+        0.0,
+        1.0,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    /**
+     * The class of the tasks that do not carry the class header.
+     */
+    public static final String DEFAULT_CLASS = "_default";
+
+    /**
+     * The class of the tasks whose class header has a value that is not tracked because there are already {@link #MAX_CLASSES} classes.
+     */
+    public static final String OTHER_CLASS = "_other";
+
+    static final int MAX_CLASSES = 64;
+
+    // the weight of the latest execution time in the cost estimate of a class
+    private static final double EWMA_ALPHA = 0.3;
+
+    // the cost of a task of a kind that has never been executed
+    private static final double DEFAULT_COST_NANOS = 1_000_000;
+
+    /**
+     * The kind of a task, which is part of the shape of the request that determines its cost.
+     */
+    public enum Kind {
+        QUERY,
+        AGGREGATION,
+        FETCH;
+
+        public String displayName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ThreadContext threadContext;
+    private final int maxConcurrency;
+    private final LongSupplier nanoTimeSupplier;
+
+    private volatile boolean enabled;
+    private final String classHeader;
+    private volatile Map<String, Double> classWeights;
+    private volatile int maxQueueSize;
+    private volatile double sheddingThreshold;
+
+    private final Map<String, TaskClass> classes = new HashMap<>();
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>(
+        Comparator.<ScheduledTask>comparingDouble(task -> task.startTag).thenComparingLong(task -> task.seqNo)
+    );
+    private final double[] kindCosts = new double[Kind.values().length];
+    private double virtualTime;
+    private long seqNo;
+    private int running;
+
+    public SearchTaskScheduler(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
+        this(settings, clusterSettings, threadPool.getThreadContext(), threadPool.info(ThreadPool.Names.SEARCH).getMax(), System::nanoTime);
+    }
+
+    SearchTaskScheduler(
+        Settings settings,
+        ClusterSettings clusterSettings,
+        ThreadContext threadContext,
+        int maxConcurrency,
+        LongSupplier nanoTimeSupplier
+    ) {
+        this.threadContext = threadContext;
+        this.maxConcurrency = maxConcurrency;
+        this.nanoTimeSupplier = nanoTimeSupplier;
+        this.enabled = SEARCH_SCHEDULER_ENABLED_SETTING.get(settings);
+        this.classHeader = CLASS_HEADER_SETTING.get(settings);
+        this.classWeights = CLASS_WEIGHT_SETTING.getAsMap(settings);
+        this.maxQueueSize = MAX_QUEUE_SIZE_SETTING.get(settings);
+        this.sheddingThreshold = SHEDDING_THRESHOLD_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(SEARCH_SCHEDULER_ENABLED_SETTING, this::setEnabled);
+        clusterSettings.addAffixMapUpdateConsumer(CLASS_WEIGHT_SETTING, value -> this.classWeights = value, (key, value) -> {});
+        clusterSettings.addSettingsUpdateConsumer(MAX_QUEUE_SIZE_SETTING, value -> this.maxQueueSize = value);
+        clusterSettings.addSettingsUpdateConsumer(SHEDDING_THRESHOLD_SETTING, value -> this.sheddingThreshold = value);
+    }
+
+    private void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled == false) {
+            // hand the tasks that are still queued over to the thread pool
+            dispatch(true);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Execute the given task on the given executor once it is its turn, or reject it if the class of the current thread context has
+     * already queued more than its share of tasks. The thread context of the caller is restored when the task runs.
+     */
+    public void execute(Executor executor, Kind kind, AbstractRunnable task) {
+        if (enabled == false) {
+            executor.execute(task);
+            return;
+        }
+        final String className = classOf();
+        final EsRejectedExecutionException rejection;
+        synchronized (this) {
+            final TaskClass taskClass = getOrCreateClass(className);
+            final double weight = weightOf(taskClass.name);
+            rejection = admit(taskClass, weight);
+            if (rejection == null) {
+                final double startTag = Math.max(virtualTime, taskClass.finishTag);
+                taskClass.finishTag = startTag + taskClass.estimateCost(kind) / weight;
+                taskClass.queued++;
+                queue.add(
+                    new ScheduledTask(
+                        taskClass,
+                        kind,
+                        executor,
+                        (AbstractRunnable) threadContext.preserveContext(task),
+                        startTag,
+                        seqNo++,
+                        nanoTimeSupplier.getAsLong()
+                    )
+                );
+            }
+        }
+        if (rejection != null) {
+            try {
+                task.onRejection(rejection);
+            } finally {
+                task.onAfter();
+            }
+        } else {
+            // the scheduler may have been disabled concurrently, in which case nothing else drains the queue
+            dispatch(enabled == false);
+        }
+    }
+
+    private String classOf() {
+        final String header = classHeader;
+        final String value = header.isEmpty() ? null : threadContext.getHeader(header);
+        return value == null || value.isEmpty() ? DEFAULT_CLASS : value;
+    }
+
+    private TaskClass getOrCreateClass(String className) {
+        TaskClass taskClass = classes.get(className);
+        if (taskClass == null) {
+            // bound the number of classes, and so the size of the stats, when the header has many distinct values
+            taskClass = classes.computeIfAbsent(classes.size() < MAX_CLASSES - 1 ? className : OTHER_CLASS, TaskClass::new);
+        }
+        return taskClass;
+    }
+
+    private double weightOf(String className) {
+        return classWeights.getOrDefault(className, 1.0);
+    }
+
+    private EsRejectedExecutionException admit(TaskClass taskClass, double weight) {
+        final int queueSize = queue.size();
+        if (queueSize >= maxQueueSize) {
+            taskClass.rejected++;
+            return new EsRejectedExecutionException(
+                "rejected search task of class [" + taskClass.name + "], the search scheduler queue is full [" + queueSize + "]",
+                false
+            );
+        }
+        if (queueSize >= sheddingThreshold * maxQueueSize) {
+            double activeWeights = weight;
+            for (TaskClass other : classes.values()) {
+                if (other != taskClass && other.queued > 0) {
+                    activeWeights += weightOf(other.name);
+                }
+            }
+            final double fairShare = maxQueueSize * weight / activeWeights;
+            if (taskClass.queued >= fairShare) {
+                taskClass.shed++;
+                return new EsRejectedExecutionException(
+                    "rejected search task of class ["
+                        + taskClass.name
+                        + "], the class holds ["
+                        + taskClass.queued
+                        + "] of the ["
+                        + queueSize
+                        + "] queued search tasks, more than its fair share ["
+                        + (int) fairShare
+                        + "]",
+                    false
+                );
+            }
+        }
+        return null;
+    }
+
+    private void dispatch(boolean all) {
+        while (true) {
+            final ScheduledTask next;
+            synchronized (this) {
+                if (queue.isEmpty() || (all == false && running >= maxConcurrency)) {
+                    return;
+                }
+                next = queue.poll();
+                running++;
+                virtualTime = Math.max(virtualTime, next.startTag);
+                next.taskClass.queued--;
+                next.taskClass.dispatched++;
+                next.taskClass.queueTimeNanos += nanoTimeSupplier.getAsLong() - next.enqueuedNanos;
+            }
+            // the task restores the context of the thread that submitted it
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                next.executor.execute(next);
+            }
+        }
+    }
+
+    private void onDone(ScheduledTask task, long executionNanos) {
+        synchronized (this) {
+            running--;
+            if (executionNanos >= 0) {
+                task.taskClass.costs[task.kind.ordinal()] = ewma(task.taskClass.costs[task.kind.ordinal()], executionNanos);
+                kindCosts[task.kind.ordinal()] = ewma(kindCosts[task.kind.ordinal()], executionNanos);
+            }
+        }
+        dispatch(false);
+    }
+
+    private static double ewma(double average, long sample) {
+        return average == 0 ? sample : EWMA_ALPHA * sample + (1 - EWMA_ALPHA) * average;
+    }
+
+    public synchronized SearchSchedulerStats stats() {
+        final Map<String, SearchSchedulerStats.ClassStats> classStats = new HashMap<>(classes.size());
+        for (TaskClass taskClass : classes.values()) {
+            classStats.put(
+                taskClass.name,
+                new SearchSchedulerStats.ClassStats(
+                    weightOf(taskClass.name),
+                    taskClass.queued,
+                    taskClass.dispatched,
+                    taskClass.rejected,
+                    taskClass.shed,
+                    taskClass.queueTimeNanos
+                )
+            );
+        }
+        return new SearchSchedulerStats(enabled, running, queue.size(), classStats);
+    }
+
+    private final class TaskClass {
+        private final String name;
+        private final double[] costs = new double[Kind.values().length];
+        private double finishTag;
+        private int queued;
+        private long dispatched;
+        private long rejected;
+        private long shed;
+        private long queueTimeNanos;
+
+        private TaskClass(String name) {
+            this.name = name;
+        }
+
+        private double estimateCost(Kind kind) {
+            final double cost = costs[kind.ordinal()];
+            if (cost > 0) {
+                return cost;
+            }
+            // fall back to the tasks of the same kind in all classes
+            final double kindCost = kindCosts[kind.ordinal()];
+            return kindCost > 0 ? kindCost : DEFAULT_COST_NANOS;
+        }
+    }
+
+    private final class ScheduledTask extends AbstractRunnable {
+        private final TaskClass taskClass;
+        private final Kind kind;
+        private final Executor executor;
+        private final AbstractRunnable task;
+        private final double startTag;
+        private final long seqNo;
+        private final long enqueuedNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long executionNanos = -1;
+
+        private ScheduledTask(
+            TaskClass taskClass,
+            Kind kind,
+            Executor executor,
+            AbstractRunnable task,
+            double startTag,
+            long seqNo,
+            long enqueuedNanos
+        ) {
+            this.taskClass = taskClass;
+            this.kind = kind;
+            this.executor = executor;
+            this.task = task;
+            this.startTag = startTag;
+            this.seqNo = seqNo;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        protected void doRun() {
+            final long startNanos = nanoTimeSupplier.getAsLong();
+            try {
+                task.run();
+            } finally {
+                executionNanos = nanoTimeSupplier.getAsLong() - startNanos;
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            task.onFailure(e);
+        }
+
+        @Override
+        public void onRejection(Exception e) {
+            try {
+                task.onRejection(e);
+            } finally {
+                try {
+                    task.onAfter();
+                } finally {
+                    onAfter();
+                }
+            }
+        }
+
+        @Override
+        public void onAfter() {
+            if (done.compareAndSet(false, true)) {
+                onDone(this, executionNanos);
+            }
+        }
+
+        @Override
+        public boolean isForceExecution() {
+            return task.isForceExecution();
+        }
+
+        @Override
+        public String toString() {
+            return "scheduled[" + taskClass.name + "][" + kind.displayName() + "][" + task + "]";
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.elasticsearch.search.sort;
 
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiTerms;
 import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.Terms;
@@ -587,6 +588,50 @@ public final class FieldSortBuilder extends SortBuilder<FieldSortBuilder> {
         return null;
     }
 
+    /**
+     * Return the {@link MinAndMax} indexed value of each segment of the reader from the provided {@link FieldSortBuilder}, indexed by
+     * the ordinal of the segment, or <code>null</code> if unknown. The value can be extracted on non-nested indexed mapped fields of type
+     * numeric or date that are sorted on their minimum or maximum value. The entry of a segment is <code>null</code> unless all of its
+     * documents have an indexed value, so that the sort value of every document of the segment is within the returned range.
+     */
+    public static MinAndMax<?>[] getSegmentMinMaxOrNull(SearchExecutionContext context, FieldSortBuilder sortBuilder) throws IOException {
+        SortAndFormats sort = SortBuilder.buildSort(Collections.singletonList(sortBuilder), context).get();
+        SortField sortField = sort.sort.getSort()[0];
+        if (sortField.getField() == null) {
+            return null;
+        }
+        IndexReader reader = context.getIndexReader();
+        MappedFieldType fieldType = context.getFieldType(sortField.getField());
+        if (reader == null || (fieldType == null || fieldType.isIndexed() == false)) {
+            return null;
+        }
+        // nested sorts and sort modes other than min and max rely on a custom comparator
+        switch (IndexSortConfig.getSortFieldType(sortField)) {
+            case LONG:
+            case INT:
+            case DOUBLE:
+            case FLOAT:
+                break;
+            default:
+                return null;
+        }
+        List<LeafReaderContext> leaves = reader.leaves();
+        MinAndMax<?>[] minAndMaxes = new MinAndMax<?>[leaves.size()];
+        for (LeafReaderContext leaf : leaves) {
+            PointValues pointValues = leaf.reader().getPointValues(fieldType.name());
+            if (pointValues != null && pointValues.getDocCount() == leaf.reader().maxDoc()) {
+                minAndMaxes[leaf.ord] = extractNumericMinAndMax(
+                    pointValues.getMinPackedValue(),
+                    pointValues.getMaxPackedValue(),
+                    sortField,
+                    fieldType,
+                    sortBuilder
+                );
+            }
+        }
+        return minAndMaxes;
+    }
+
     private static MinAndMax<?> extractNumericMinAndMax(
         IndexReader reader,
         SortField sortField,
@@ -598,9 +643,19 @@ public final class FieldSortBuilder extends SortBuilder<FieldSortBuilder> {
         if (minPackedValue == null) {
             return null;
         }
+        return extractNumericMinAndMax(minPackedValue, PointValues.getMaxPackedValue(reader, fieldName), sortField, fieldType, sortBuilder);
+    }
+
+    private static MinAndMax<?> extractNumericMinAndMax(
+        byte[] minPackedValue,
+        byte[] maxPackedValue,
+        SortField sortField,
+        MappedFieldType fieldType,
+        FieldSortBuilder sortBuilder
+    ) {
         if (fieldType instanceof NumberFieldType numberFieldType) {
             Number minPoint = numberFieldType.parsePoint(minPackedValue);
-            Number maxPoint = numberFieldType.parsePoint(PointValues.getMaxPackedValue(reader, fieldName));
+            Number maxPoint = numberFieldType.parsePoint(maxPackedValue);
             return switch (IndexSortConfig.getSortFieldType(sortField)) {
                 case LONG -> new MinAndMax<>(minPoint.longValue(), maxPoint.longValue());
                 case INT -> new MinAndMax<>(minPoint.intValue(), maxPoint.intValue());
@@ -611,7 +666,7 @@ public final class FieldSortBuilder extends SortBuilder<FieldSortBuilder> {
         } else if (fieldType instanceof DateFieldType dateFieldType) {
             Function<byte[], Long> dateConverter = createDateConverter(sortBuilder, dateFieldType);
             Long min = dateConverter.apply(minPackedValue);
-            Long max = dateConverter.apply(PointValues.getMaxPackedValue(reader, fieldName));
+            Long max = dateConverter.apply(maxPackedValue);
             return new MinAndMax<>(min, max);
         }
         return null;
@@ -83,6 +83,11 @@ public class DefaultBuiltInExecutorBuilders implements BuiltInExecutorBuilders {
                 new EsExecutors.TaskTrackingConfig(true, searchAutoscalingEWMA)
             )
         );
+        result.put(
+            ThreadPool.Names.SEARCH_REDUCE,
+            // unbounded queue: the concurrency of each search is bounded, and a rejected reduce would fail the whole search
+            new FixedExecutorBuilder(settings, ThreadPool.Names.SEARCH_REDUCE, halfProc, -1, EsExecutors.TaskTrackingConfig.DEFAULT)
+        );
         result.put(
             ThreadPool.Names.AUTO_COMPLETE,
             new FixedExecutorBuilder(
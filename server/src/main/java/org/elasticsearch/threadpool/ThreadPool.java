@@ -115,6 +115,11 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler,
         public static final String WRITE = "write";
         public static final String SEARCH = "search";
         public static final String SEARCH_COORDINATION = "search_coordination";
+        /**
+         * A thread pool for the partial reduces of search results on the coordinating node when they run concurrently, see
+         * {@code action.search.partial_reduce.max_concurrency}.
+         */
+        public static final String SEARCH_REDUCE = "search_reduce";
         public static final String AUTO_COMPLETE = "auto_complete";
         /**
          * A thread pool for running tasks related to cluster management, including collecting and exposing stats in APIs and certain other
@@ -189,6 +194,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler,
         entry(Names.WRITE, ThreadPoolType.FIXED),
         entry(Names.SEARCH, ThreadPoolType.FIXED),
         entry(Names.SEARCH_COORDINATION, ThreadPoolType.FIXED),
+        entry(Names.SEARCH_REDUCE, ThreadPoolType.FIXED),
         entry(Names.AUTO_COMPLETE, ThreadPoolType.FIXED),
         entry(Names.MANAGEMENT, ThreadPoolType.SCALING),
         entry(Names.FLUSH, ThreadPoolType.SCALING),
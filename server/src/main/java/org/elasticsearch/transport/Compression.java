@@ -83,15 +83,17 @@ public class Compression {
             }
         }
 
-        public static OutputStream lz4OutputStream(OutputStream outputStream) throws IOException {
-            outputStream.write(LZ4_HEADER);
-            LZ4Compressor lz4Compressor;
+        public static LZ4Compressor lz4Compressor() {
             if (USE_FORKED_LZ4) {
-                lz4Compressor = ESLZ4Compressor.INSTANCE;
+                return ESLZ4Compressor.INSTANCE;
             } else {
-                lz4Compressor = LZ4Factory.safeInstance().fastCompressor();
+                return LZ4Factory.safeInstance().fastCompressor();
             }
-            return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor);
+        }
+
+        public static OutputStream lz4OutputStream(OutputStream outputStream) throws IOException {
+            outputStream.write(LZ4_HEADER);
+            return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor());
         }
     }
 
@@ -24,6 +24,7 @@ import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsFilter;
 import org.elasticsearch.common.settings.SettingsModule;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.features.NodeFeature;
@@ -39,10 +40,13 @@ import org.elasticsearch.rest.RestHandler;
 import org.elasticsearch.rest.RestInterceptor;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.action.admin.cluster.RestNodesInfoAction;
+import org.elasticsearch.search.scheduler.SearchSchedulerStats;
+import org.elasticsearch.search.scheduler.SearchTaskScheduler;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskManager;
 import org.elasticsearch.telemetry.TelemetryProvider;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestRequest;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.usage.UsageService;
@@ -51,12 +55,14 @@ import org.hamcrest.Matchers;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.elasticsearch.rest.RestRequest.Method.GET;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
@@ -370,6 +376,60 @@ public class ActionModuleTests extends ESTestCase {
         }
     }
 
+    public void testCopiesSearchSchedulerClassHeader() {
+        Settings nodeSettings = Settings.builder()
+            .put(SearchTaskScheduler.SEARCH_SCHEDULER_ENABLED_SETTING.getKey(), true)
+            .put(SearchTaskScheduler.CLASS_HEADER_SETTING.getKey(), "X-Tenant")
+            .build();
+        SettingsModule settings = new SettingsModule(nodeSettings);
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            ActionModule actionModule = new ActionModule(
+                settings.getSettings(),
+                TestIndexNameExpressionResolver.newInstance(threadPool.getThreadContext()),
+                null,
+                settings.getIndexScopedSettings(),
+                settings.getClusterSettings(),
+                settings.getSettingsFilter(),
+                threadPool,
+                emptyList(),
+                null,
+                null,
+                new UsageService(),
+                null,
+                TelemetryProvider.NOOP,
+                mock(ClusterService.class),
+                null,
+                List.of(),
+                List.of(),
+                RestExtension.allowAll(),
+                new IncrementalBulkService(null, null),
+                TestProjectResolvers.alwaysThrow()
+            );
+            SearchTaskScheduler scheduler = new SearchTaskScheduler(settings.getSettings(), settings.getClusterSettings(), threadPool);
+            ThreadContext threadContext = threadPool.getThreadContext();
+            FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withHeaders(Map.of("X-Tenant", List.of("acme")))
+                .build();
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                actionModule.copyRequestHeadersToThreadContext(request.getHttpRequest(), threadContext);
+                scheduler.execute(EsExecutors.DIRECT_EXECUTOR_SERVICE, SearchTaskScheduler.Kind.QUERY, new AbstractRunnable() {
+                    @Override
+                    protected void doRun() {}
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            }
+            SearchSchedulerStats stats = scheduler.stats();
+            assertThat(stats.classes().keySet(), contains("acme"));
+            assertThat(stats.classes().get("acme").dispatched(), Matchers.equalTo(1L));
+        } finally {
+            threadPool.shutdown();
+        }
+    }
+
     class FakeHandler implements RestHandler {
         @Override
         public List<Route> routes() {
@@ -12,6 +12,7 @@ package org.elasticsearch.action.admin.cluster.node.stats;
 import org.elasticsearch.node.ResponseCollectorService.ComputedNodeStats;
 import org.elasticsearch.test.ESTestCase;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 
 /**
@@ -58,6 +59,24 @@ public class ComputedNodeStatsTests extends ESTestCase {
         assertTrue(first.rank(0) < second.rank(1));
     }
 
+    public void testFetchTimeAndPendingMerges() {
+        // Without fetch time nor pending merges, the rank is the same as before they were tracked.
+        ComputedNodeStats stats = new ComputedNodeStats("node0", 5, 2, 150_000_000, 100_000_000, 0, 0);
+        assertThat(stats.rank(1), equalTo(createStats(2, 150, 100).rank(1)));
+
+        // A slower fetch phase should result in a larger rank.
+        ComputedNodeStats first = new ComputedNodeStats("node0", 5, 2, 150_000_000, 100_000_000, 10_000_000, 0);
+        ComputedNodeStats second = new ComputedNodeStats("node0", 5, 2, 150_000_000, 100_000_000, 50_000_000, 0);
+        assertTrue(first.rank(1) < second.rank(1));
+
+        // More pending merges should result in a larger rank, growing linearly rather than with the cube of the queue.
+        first = new ComputedNodeStats("node0", 5, 2, 150_000_000, 100_000_000, 0, 1);
+        second = new ComputedNodeStats("node0", 5, 2, 150_000_000, 100_000_000, 0, 4);
+        assertTrue(first.rank(1) < second.rank(1));
+        double perMerge = first.rank(1) - stats.rank(1);
+        assertThat(second.rank(1) - stats.rank(1), closeTo(4 * perMerge, 1e-6 * perMerge));
+    }
+
     private ComputedNodeStats createStats(int queueSize, int responseTimeMillis, int serviceTimeMillis) {
         return new ComputedNodeStats("node0", 5, queueSize, 1_000_000 * responseTimeMillis, 1_000_000 * serviceTimeMillis);
     }
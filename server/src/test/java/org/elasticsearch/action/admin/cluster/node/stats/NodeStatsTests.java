@@ -75,6 +75,7 @@ import org.elasticsearch.script.ScriptCacheStats;
 import org.elasticsearch.script.ScriptContextStats;
 import org.elasticsearch.script.ScriptStats;
 import org.elasticsearch.script.TimeSeries;
+import org.elasticsearch.search.scheduler.SearchSchedulerStats;
 import org.elasticsearch.search.suggest.completion.CompletionStats;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.VersionUtils;
@@ -457,6 +458,8 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.fetchTime, bStats.fetchTime, 0.01);
+                        assertEquals(aStats.pendingMerges, bStats.pendingMerges, 0.01);
                     });
                 }
                 var scriptCacheStats = nodeStats.getScriptCacheStats();
@@ -473,6 +476,8 @@ public class NodeStatsTests extends ESTestCase {
                 assertEquals(100, repoThrottlingStats.getRepositoryThrottlingStats().get("test-repository").totalReadThrottledNanos());
                 assertEquals(200, repoThrottlingStats.getRepositoryThrottlingStats().get("test-repository").totalWriteThrottledNanos());
 
+                assertEquals(nodeStats.getSearchSchedulerStats(), deserializedNodeStats.getSearchSchedulerStats());
+
             }
         }
     }
@@ -1021,7 +1026,9 @@ public class NodeStatsTests extends ESTestCase {
                         randomIntBetween(1, 10),
                         randomIntBetween(0, 2000),
                         randomDoubleBetween(1.0, 10000000.0, true),
-                        randomDoubleBetween(1.0, 10000000.0, true)
+                        randomDoubleBetween(1.0, 10000000.0, true),
+                        randomDoubleBetween(0.0, 10000000.0, true),
+                        randomDoubleBetween(0.0, 100.0, true)
                     );
                     nodeStats.put(nodeId, stats);
                 }
@@ -1069,6 +1076,30 @@ public class NodeStatsTests extends ESTestCase {
             randomNonNegativeLong(),
             randomNonNegativeLong()
         );
+        SearchSchedulerStats searchSchedulerStats = null;
+        if (frequently()) {
+            Map<String, SearchSchedulerStats.ClassStats> classStats = new HashMap<>();
+            int numClasses = randomIntBetween(0, 5);
+            for (int i = 0; i < numClasses; i++) {
+                classStats.put(
+                    randomAlphaOfLength(5),
+                    new SearchSchedulerStats.ClassStats(
+                        randomDoubleBetween(0.01, 10, true),
+                        randomIntBetween(0, 1000),
+                        randomNonNegativeLong(),
+                        randomNonNegativeLong(),
+                        randomNonNegativeLong(),
+                        randomNonNegativeLong()
+                    )
+                );
+            }
+            searchSchedulerStats = new SearchSchedulerStats(
+                randomBoolean(),
+                randomIntBetween(0, 64),
+                randomIntBetween(0, 1000),
+                classStats
+            );
+        }
 
         return new NodeStats(
             node,
@@ -1089,7 +1120,8 @@ public class NodeStatsTests extends ESTestCase {
             scriptCacheStats,
             indexingPressureStats,
             repositoriesStats,
-            nodeAllocationStats
+            nodeAllocationStats,
+            searchSchedulerStats
         );
     }
 
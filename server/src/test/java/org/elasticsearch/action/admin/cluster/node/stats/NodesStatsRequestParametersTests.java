@@ -23,7 +23,7 @@ import java.util.List;
 public class NodesStatsRequestParametersTests extends ESTestCase {
 
     public void testReadWriteMetricSet() {
-        for (var version : List.of(TransportVersions.V_8_15_0, TransportVersions.V_8_16_0)) {
+        for (var version : List.of(TransportVersions.V_8_15_0, TransportVersions.V_8_16_0, TransportVersions.SEARCH_SCHEDULER_STATS)) {
             var randSet = randomSubsetOf(Metric.ALL);
             var metricsOut = randSet.isEmpty() ? EnumSet.noneOf(Metric.class) : EnumSet.copyOf(randSet);
             try {
@@ -33,7 +33,11 @@ public class NodesStatsRequestParametersTests extends ESTestCase {
                 var in = new ByteArrayStreamInput(out.get().bytes);
                 in.setTransportVersion(version);
                 var metricsIn = Metric.readSetFrom(in);
-                assertEquals(metricsOut, metricsIn);
+                var expected = EnumSet.copyOf(metricsOut);
+                if (version.before(TransportVersions.SEARCH_SCHEDULER_STATS)) {
+                    expected.remove(Metric.SEARCH_SCHEDULER);
+                }
+                assertEquals(expected, metricsIn);
             } catch (IOException e) {
                 var errMsg = "metrics=" + metricsOut.toString();
                 throw new AssertionError(errMsg, e);
@@ -60,7 +64,8 @@ public class NodesStatsRequestParametersTests extends ESTestCase {
             Metric.SCRIPT_CACHE,
             Metric.INDEXING_PRESSURE,
             Metric.REPOSITORIES,
-            Metric.ALLOCATIONS
+            Metric.ALLOCATIONS,
+            Metric.SEARCH_SCHEDULER
         );
     }
 
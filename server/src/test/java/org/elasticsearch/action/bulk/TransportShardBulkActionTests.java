@@ -20,6 +20,7 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.ActionTestUtils;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
 import org.elasticsearch.action.support.replication.TransportWriteAction.WritePrimaryResult;
 import org.elasticsearch.action.update.UpdateHelper;
@@ -43,6 +44,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MappingLookup;
 import org.elasticsearch.index.mapper.MetadataFieldMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.RootObjectMapper;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
@@ -1235,6 +1237,108 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         verify(mapperService, times(2)).merge(any(), any(CompressedXContent.class), any());
     }
 
+    public void testParallelDocumentParserTake() throws Exception {
+        IndexShard shard = newStartedShard(
+            true,
+            Settings.builder().put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_SETTING.getKey(), true).build()
+        );
+        BulkItemRequest[] items = new BulkItemRequest[2 * ParallelDocumentParser.MIN_DOCUMENTS_PER_TASK + between(0, 20)];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest<?> writeRequest = i % 5 == 0
+                ? new DeleteRequest("index").id("id_" + i)
+                : new IndexRequest("index").id("id_" + i).source(Requests.INDEX_CONTENT_TYPE);
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+        assertTrue(ParallelDocumentParser.isEnabled(bulkShardRequest, shard));
+
+        final DocumentMapper documentMapper = shard.mapperService().documentMapper();
+        final PlainActionFuture<ParallelDocumentParser> future = new PlainActionFuture<>();
+        ParallelDocumentParser.parse(
+            bulkShardRequest,
+            shard,
+            DocumentParsingProvider.EMPTY_INSTANCE,
+            threadPool.executor(Names.WRITE),
+            between(1, 4),
+            future
+        );
+        final ParallelDocumentParser parser = future.get();
+        assertNotNull(parser);
+        for (int i = 0; i < items.length; i++) {
+            // documents parsed with another mapping are never handed out
+            assertNull(parser.take(i, mock(DocumentMapper.class)));
+            ParsedDocument parsedDocument = parser.take(i, documentMapper);
+            if (i % 5 == 0) {
+                assertNull(parsedDocument);
+            } else {
+                assertNotNull(parsedDocument);
+                assertThat(parsedDocument.id(), equalTo("id_" + i));
+                // each document is handed out once
+                assertNull(parser.take(i, documentMapper));
+            }
+        }
+        closeShards(shard);
+    }
+
+    public void testPerformOnPrimaryWithParallelParsingAndMappingUpdates() throws Exception {
+        IndexShard shard = newStartedShard(
+            true,
+            Settings.builder().put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_SETTING.getKey(), true).build()
+        );
+        BulkItemRequest[] items = new BulkItemRequest[2 * ParallelDocumentParser.MIN_DOCUMENTS_PER_TASK + between(0, 20)];
+        for (int i = 0; i < items.length; i++) {
+            // every tenth document introduces a new field, the documents after it were parsed ahead with an outdated mapping
+            DocWriteRequest<IndexRequest> writeRequest = new IndexRequest("index").id("id_" + i)
+                .source(Requests.INDEX_CONTENT_TYPE, "field_" + (i / 10), "value");
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final PlainActionFuture<ParallelDocumentParser> parsed = new PlainActionFuture<>();
+        ParallelDocumentParser.parse(
+            bulkShardRequest,
+            shard,
+            DocumentParsingProvider.EMPTY_INSTANCE,
+            threadPool.executor(Names.WRITE),
+            between(1, 4),
+            parsed
+        );
+
+        final AtomicInteger mappingUpdates = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> ActionListener.run(listener, l -> {
+                mappingUpdates.incrementAndGet();
+                shard.mapperService()
+                    .merge(MapperService.SINGLE_MAPPING_NAME, new CompressedXContent(update), MapperService.MergeReason.MAPPING_UPDATE);
+                l.onResponse(null);
+            }),
+            (listener, mappingVersion) -> listener.onResponse(null),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                for (BulkItemResponse response : result.replicationResponse.getResponses()) {
+                    assertFalse(response.isFailed());
+                }
+            }), latch),
+            threadPool.executor(Names.WRITE),
+            null,
+            null,
+            DocumentParsingProvider.EMPTY_INSTANCE,
+            parsed.get()
+        );
+        latch.await();
+
+        assertThat(mappingUpdates.get(), equalTo((items.length + 9) / 10));
+        for (int i = 0; i <= (items.length - 1) / 10; i++) {
+            assertNotNull(shard.mapperService().fieldType("field_" + i));
+        }
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
     private IndexShard mockShard(IndexSettings indexSettings, MapperService mapperService) {
         IndexShard shard = mock(IndexShard.class);
         when(shard.shardId()).thenReturn(shardId);
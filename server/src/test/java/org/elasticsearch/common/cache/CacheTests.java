@@ -377,6 +377,78 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // same as testPromotion but with promotions recorded in the read buffers and applied when the buffers are drained
+    public void testBufferedPromotion() {
+        AtomicLong now = new AtomicLong();
+        Cache<Integer, String> cache = new Cache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        cache.setExpireAfterAccessNanos(1);
+        cache.setBufferedPromotions(true);
+        assertTrue(cache.hasBufferedPromotions());
+        now.set(0);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(1);
+        Set<Integer> promotedKeys = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                cache.get(i);
+                promotedKeys.add(i);
+            }
+        }
+        now.set(2);
+        cache.refresh();
+        // a single thread always wins the LRU lock when draining, so no promotion can have been dropped
+        assertEquals(0, cache.stats().getDroppedPromotions());
+        assertEquals(promotedKeys.size(), cache.count());
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (promotedKeys.contains(i)) {
+                assertNotNull(cache.get(i));
+            } else {
+                assertNull(cache.get(i));
+            }
+        }
+    }
+
+    public void testReadBufferIsBoundedAndLossy() {
+        Cache.ReadBuffer<Integer> buffer = new Cache.ReadBuffer<>();
+        for (int i = 0; i < Cache.ReadBuffer.SIZE; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(Cache.ReadBuffer.SIZE));
+        assertEquals(Cache.ReadBuffer.SIZE, buffer.size());
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        assertEquals(0, buffer.size());
+        assertEquals(Cache.ReadBuffer.SIZE, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i).intValue());
+        }
+        assertTrue(buffer.offer(-1));
+        drained.clear();
+        buffer.drain(drained::add);
+        assertEquals(List.of(-1), drained);
+    }
+
+    public void testHitRatio() {
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setBufferedPromotions(randomBoolean()).build();
+        assertEquals(0.0, cache.stats().getHitRatio(), 0.0);
+        cache.put(1, "1");
+        cache.get(1);
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        Cache.CacheStats stats = cache.stats();
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRatio(), 0.0);
+    }
+
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
@@ -792,6 +864,36 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // concurrent gets and puts on a weight-bounded cache with buffered promotions must leave the LRU list consistent with the count
+    public void testBufferedPromotionsTorture() throws InterruptedException {
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(1000)
+            .weigher((k, v) -> 2)
+            .setBufferedPromotions(true)
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        startInParallel(randomIntBetween(2, 32), i -> {
+            Random random = new Random(random().nextLong());
+            for (int j = 0; j < numberOfEntries; j++) {
+                Integer key = random.nextInt(numberOfEntries);
+                if (random.nextBoolean()) {
+                    cache.put(key, Integer.toString(j));
+                } else {
+                    cache.get(key);
+                }
+            }
+        });
+        cache.refresh();
+        assertEquals(500, cache.count());
+        int keys = 0;
+        for (Integer ignored : cache.keys()) {
+            keys++;
+        }
+        assertEquals(500, keys);
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
@@ -144,6 +144,36 @@ public class XContentBuilderTests extends ESTestCase {
         }
     }
 
+    public void testRawFieldIfDirect() throws IOException {
+        BytesReference source = new BytesArray("{\"test\":\"value\",\"other\":1}");
+        {
+            XContentBuilder xContentBuilder = XContentFactory.contentBuilder(XContentType.JSON);
+            xContentBuilder.startObject();
+            assertTrue(xContentBuilder.rawFieldIfDirect("foo", XContentType.JSON, source::writeTo));
+            xContentBuilder.field("test1", "value1");
+            xContentBuilder.endObject();
+            assertThat(Strings.toString(xContentBuilder), equalTo("""
+                {"foo":{"test":"value","other":1},"test1":"value1"}"""));
+        }
+        {
+            // the bytes must be converted to another content type
+            XContentBuilder xContentBuilder = XContentFactory.contentBuilder(XContentType.SMILE);
+            xContentBuilder.startObject();
+            assertFalse(xContentBuilder.rawFieldIfDirect("foo", XContentType.JSON, source::writeTo));
+            xContentBuilder.endObject();
+        }
+        {
+            // the bytes must be filtered, the field falls back to a parsed copy
+            XContentBuilder xContentBuilder = new XContentBuilder(XContentType.JSON, new BytesStreamOutput(), Set.of("foo.test"));
+            xContentBuilder.startObject();
+            assertFalse(xContentBuilder.rawFieldIfDirect("foo", XContentType.JSON, source::writeTo));
+            XContentHelper.writeRawField("foo", source, xContentBuilder, ToXContent.EMPTY_PARAMS);
+            xContentBuilder.endObject();
+            assertThat(Strings.toString(xContentBuilder), equalTo("""
+                {"foo":{"test":"value"}}"""));
+        }
+    }
+
     public void testSimpleGenerator() throws Exception {
         XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
         builder.startObject().field("test", "value").endObject();
@@ -114,6 +114,7 @@ public class DiskHealthTrackerTests extends ESTestCase {
                 eq(false),
                 eq(false),
                 eq(false),
+                eq(false),
                 eq(false)
             )
         ).thenReturn(nodeStats());
@@ -245,6 +246,7 @@ public class DiskHealthTrackerTests extends ESTestCase {
                 eq(false),
                 eq(false),
                 eq(false),
+                eq(false),
                 eq(false)
             )
         ).thenReturn(nodeStats(1000, 10));
@@ -269,6 +271,7 @@ public class DiskHealthTrackerTests extends ESTestCase {
                 eq(false),
                 eq(false),
                 eq(false),
+                eq(false),
                 eq(false)
             )
         ).thenReturn(nodeStats(1000, 80));
@@ -293,6 +296,7 @@ public class DiskHealthTrackerTests extends ESTestCase {
                 eq(false),
                 eq(false),
                 eq(false),
+                eq(false),
                 eq(false)
             )
         ).thenReturn(nodeStats(1000, 110));
@@ -327,6 +331,7 @@ public class DiskHealthTrackerTests extends ESTestCase {
             null,
             null,
             null,
+            null,
             null
         );
     }
@@ -222,6 +222,7 @@ public class IndexModuleTests extends ESTestCase {
             bigArrays,
             threadPool,
             threadPoolMergeExecutorService,
+            null,
             scriptService,
             clusterService,
             null,
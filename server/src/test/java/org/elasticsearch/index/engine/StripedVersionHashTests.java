@@ -0,0 +1,96 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.randomIndexVersionValue;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class StripedVersionHashTests extends ESTestCase {
+
+    public void testPutGetRemove() {
+        final StripedVersionHash hash = new StripedVersionHash(new StripedVersionHash.Locks(1 << between(0, 6)));
+        final Map<BytesRef, VersionValue> expected = new HashMap<>();
+        final int iterations = between(1, 5000);
+        for (int i = 0; i < iterations; i++) {
+            final BytesRef uid = new BytesRef(TestUtil.randomSimpleString(random(), 1, 4));
+            if (randomBoolean()) {
+                final VersionValue value = randomIndexVersionValue();
+                assertEquals(expected.put(uid, value), hash.put(uid, value));
+            } else {
+                assertEquals(expected.remove(uid), hash.remove(uid));
+            }
+            assertEquals(expected.get(uid), hash.get(uid));
+            assertEquals(expected.size(), hash.size());
+            assertEquals(expected.isEmpty(), hash.isEmpty());
+        }
+        assertEquals(expected, hash);
+        assertEquals(expected, new HashMap<>(hash));
+    }
+
+    public void testRamBytesUsed() {
+        // few stripes so that the fixed overhead of every stripe does not dominate
+        final StripedVersionHash hash = new StripedVersionHash(new StripedVersionHash.Locks(1 << between(0, 2)));
+        final long emptyRamBytesUsed = hash.ramBytesUsed();
+        final int numEntries = between(5000, 20000);
+        long estimatedRamBytesUsed = 0;
+        for (int i = 0; i < numEntries; i++) {
+            final BytesRef uid = new BytesRef("id-" + i);
+            final VersionValue value = randomIndexVersionValue();
+            hash.put(uid, value);
+            estimatedRamBytesUsed += StripedVersionHash.entryBytesUsed(uid, value) - value.ramBytesUsed();
+        }
+        final long ramBytesUsed = hash.ramBytesUsed() - emptyRamBytesUsed;
+        assertThat(ramBytesUsed, greaterThan(0L));
+        // the accounting per entry is within 50% of the memory that the hash tables and keys actually use
+        assertEquals(ramBytesUsed, estimatedRamBytesUsed, ramBytesUsed / 2);
+
+        // removing entries keeps the keys until the hash is dropped
+        for (int i = 0; i < numEntries; i++) {
+            hash.remove(new BytesRef("id-" + i));
+        }
+        assertTrue(hash.isEmpty());
+        assertThat(hash.ramBytesUsed() - emptyRamBytesUsed, equalTo(ramBytesUsed));
+    }
+
+    public void testLocks() throws InterruptedException {
+        final StripedVersionHash.Locks locks = new StripedVersionHash.Locks(1 << between(0, 4));
+        final BytesRef uid = new BytesRef(randomAlphaOfLength(10));
+        try (Releasable ignored = locks.acquire(uid)) {
+            assertTrue(locks.isHeldByCurrentThread(uid));
+            // locks are reentrant
+            try (Releasable reentered = locks.tryAcquire(uid)) {
+                assertNotNull(reentered);
+            }
+            assertTrue(locks.isHeldByCurrentThread(uid));
+
+            final AtomicBoolean acquired = new AtomicBoolean(true);
+            final Thread thread = new Thread(() -> {
+                try (Releasable other = locks.tryAcquire(uid)) {
+                    acquired.set(other != null);
+                }
+            });
+            thread.start();
+            thread.join();
+            assertFalse(acquired.get());
+        }
+        assertFalse(locks.isHeldByCurrentThread(uid));
+        expectThrows(IllegalArgumentException.class, () -> new StripedVersionHash.Locks(randomFrom(3, 5, 6, 7, 100)));
+    }
+}
@@ -23,7 +23,9 @@ public class RefreshStatsTests extends ESTestCase {
             randomNonNegativeLong(),
             randomNonNegativeLong(),
             randomNonNegativeLong(),
-            between(0, Integer.MAX_VALUE)
+            between(0, Integer.MAX_VALUE),
+            randomLongBetween(-1, Long.MAX_VALUE),
+            randomLongBetween(-1, Long.MAX_VALUE)
         );
         BytesStreamOutput out = new BytesStreamOutput();
         stats.writeTo(out);
@@ -35,5 +37,22 @@ public class RefreshStatsTests extends ESTestCase {
         assertEquals(stats.getListeners(), read.getListeners());
         assertEquals(stats.getTotalTimeInMillis(), read.getTotalTimeInMillis());
         assertEquals(stats.getExternalTotalTimeInMillis(), read.getExternalTotalTimeInMillis());
+        assertEquals(stats.getMinAdaptiveIntervalInMillis(), read.getMinAdaptiveIntervalInMillis());
+        assertEquals(stats.getMaxAdaptiveIntervalInMillis(), read.getMaxAdaptiveIntervalInMillis());
+    }
+
+    public void testAddAdaptiveIntervals() {
+        RefreshStats stats = new RefreshStats();
+        stats.add(new RefreshStats(1, 1, 1, 1, 0));
+        assertEquals(-1, stats.getMinAdaptiveIntervalInMillis());
+        assertEquals(-1, stats.getMaxAdaptiveIntervalInMillis());
+
+        stats.add(new RefreshStats(1, 1, 1, 1, 0, 5000, 5000));
+        stats.add(new RefreshStats(1, 1, 1, 1, 0, 1000, 1000));
+        stats.add(new RefreshStats(1, 1, 1, 1, 0, 30000, 30000));
+        stats.add(new RefreshStats(1, 1, 1, 1, 0));
+        assertEquals(1000, stats.getMinAdaptiveIntervalInMillis());
+        assertEquals(30000, stats.getMaxAdaptiveIntervalInMillis());
+        assertEquals(5, stats.getTotal());
     }
 }
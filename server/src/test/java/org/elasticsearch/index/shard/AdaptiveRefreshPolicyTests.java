@@ -0,0 +1,91 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.index.shard.AdaptiveRefreshPolicy.SEGMENT_COUNT_THRESHOLD;
+import static org.elasticsearch.index.shard.AdaptiveRefreshPolicy.TARGET_OPERATIONS_PER_REFRESH;
+import static org.elasticsearch.index.shard.AdaptiveRefreshPolicy.computeIntervalMillis;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdaptiveRefreshPolicyTests extends ESTestCase {
+
+    private static final long MIN = 1_000;
+    private static final long MAX = 30_000;
+
+    public void testComputeInterval() {
+        // neither indexed nor searched
+        assertEquals(MAX, computeIntervalMillis(0, 0, 1, 0, MIN, MAX));
+        // waiting listeners always get the shortest interval
+        assertEquals(MIN, computeIntervalMillis(0, 0, 1, between(1, 10), MIN, MAX));
+        // frequent searches keep the interval at the minimum
+        assertEquals(MIN, computeIntervalMillis(1, 50, 1, 0, MIN, MAX));
+        // one search every 5 seconds
+        assertEquals(5_000, computeIntervalMillis(1, 0.2, 1, 0, MIN, MAX));
+        // no searches, but enough writes to fill a decent segment every 4 seconds
+        assertEquals(4_000, computeIntervalMillis(TARGET_OPERATIONS_PER_REFRESH / 4.0, 0, 1, 0, MIN, MAX));
+        // the shorter of both intervals wins
+        assertEquals(4_000, computeIntervalMillis(TARGET_OPERATIONS_PER_REFRESH / 4.0, 0.1, 1, 0, MIN, MAX));
+        // many segments stretch the interval
+        assertEquals(10_000, computeIntervalMillis(1, 0.2, SEGMENT_COUNT_THRESHOLD * 2, 0, MIN, MAX));
+        assertEquals(MAX, computeIntervalMillis(1, 0.2, SEGMENT_COUNT_THRESHOLD * 100, 0, MIN, MAX));
+        // a max interval below the min interval falls back to the min interval
+        assertEquals(MIN, computeIntervalMillis(0, 0, 1, 0, MIN, between(1, 1000)));
+    }
+
+    public void testShouldRefresh() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy();
+        assertEquals(-1, policy.intervalMillis());
+        final TimeValue min = TimeValue.timeValueMillis(MIN);
+        final TimeValue max = TimeValue.timeValueMillis(MAX);
+        long now = randomNonNegativeLong() / 2;
+        long operations = 0;
+
+        // the first sample always refreshes
+        assertTrue(policy.shouldRefresh(now, operations, 0, 1, 0, min, max));
+        // a trickle of writes and no searches moves the interval towards the maximum
+        int refreshes = 0;
+        for (int tick = 0; tick < 120; tick++) {
+            now += TimeUnit.MILLISECONDS.toNanos(MIN);
+            operations += 10;
+            if (policy.shouldRefresh(now, operations, 0, 1, 0, min, max)) {
+                refreshes++;
+            }
+        }
+        assertEquals(MAX, policy.intervalMillis());
+        assertThat(refreshes, lessThan(120 / 10));
+
+        // waiting refresh listeners bring it back to the minimum right away
+        now += TimeUnit.MILLISECONDS.toNanos(MIN);
+        assertTrue(policy.shouldRefresh(now, operations, 0, 1, 1, min, max));
+        assertEquals(MIN, policy.intervalMillis());
+
+        // searches on every tick keep refreshing on every tick
+        long queries = 0;
+        for (int tick = 0; tick < 20; tick++) {
+            now += TimeUnit.MILLISECONDS.toNanos(MIN);
+            queries += 100;
+            policy.shouldRefresh(now, operations, queries, 1, 0, min, max);
+        }
+        for (int tick = 0; tick < 5; tick++) {
+            now += TimeUnit.MILLISECONDS.toNanos(MIN);
+            queries += 100;
+            assertTrue(policy.shouldRefresh(now, operations, queries, 1, 0, min, max));
+            assertEquals(MIN, policy.intervalMillis());
+        }
+
+        policy.reset();
+        assertEquals(-1, policy.intervalMillis());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogGroupCommitServiceTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        terminate(threadPool);
+        super.tearDown();
+    }
+
+    public void testMaybeCreate() {
+        assertNull(TranslogGroupCommitService.maybeCreate(Settings.EMPTY, threadPool, MeterRegistry.NOOP));
+        assertNotNull(
+            TranslogGroupCommitService.maybeCreate(
+                Settings.builder().put(TranslogGroupCommitService.GROUP_COMMIT_ENABLED_SETTING.getKey(), true).build(),
+                threadPool,
+                MeterRegistry.NOOP
+            )
+        );
+    }
+
+    public void testListenersOfAllShardsAreNotified() throws InterruptedException {
+        final TranslogGroupCommitService service = new TranslogGroupCommitService(Settings.EMPTY, threadPool, MeterRegistry.NOOP);
+        assertThat(service.nextDelayNanos(), equalTo(0L));
+
+        final int numShards = between(1, 5);
+        final int requestsPerShard = between(1, 20);
+        final List<List<Translog.Location>> synced = new ArrayList<>();
+        final List<TranslogGroupCommitService.ShardSyncer> syncers = new ArrayList<>();
+        for (int shard = 0; shard < numShards; shard++) {
+            final List<Translog.Location> shardSynced = new CopyOnWriteArrayList<>();
+            synced.add(shardSynced);
+            syncers.add(service.newShardSyncer((location, listener) -> {
+                shardSynced.add(location);
+                listener.accept(null);
+            }));
+        }
+
+        final CountDownLatch latch = new CountDownLatch(numShards * requestsPerShard);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        for (int request = 0; request < requestsPerShard; request++) {
+            for (TranslogGroupCommitService.ShardSyncer syncer : syncers) {
+                syncer.syncAfterWrite(new Translog.Location(0, request, 1), e -> {
+                    if (e != null) {
+                        failure.set(e);
+                    }
+                    latch.countDown();
+                });
+            }
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        for (List<Translog.Location> shardSynced : synced) {
+            // requests that were pending together are served by a single sync of the highest location
+            assertThat(shardSynced.size(), lessThanOrEqualTo(requestsPerShard));
+            assertThat(shardSynced.get(shardSynced.size() - 1), equalTo(new Translog.Location(0, requestsPerShard - 1, 1)));
+        }
+        assertThat(
+            service.nextDelayNanos(),
+            lessThanOrEqualTo(TranslogGroupCommitService.GROUP_COMMIT_MAX_DELAY_SETTING.get(Settings.EMPTY).nanos())
+        );
+    }
+
+    public void testSyncFailureIsPropagated() throws InterruptedException {
+        final TranslogGroupCommitService service = new TranslogGroupCommitService(Settings.EMPTY, threadPool, MeterRegistry.NOOP);
+        final RuntimeException exception = new RuntimeException("simulated");
+        final TranslogGroupCommitService.ShardSyncer syncer = service.newShardSyncer((location, listener) -> {
+            if (randomBoolean()) {
+                throw exception;
+            }
+            listener.accept(exception);
+        });
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        syncer.syncAfterWrite(new Translog.Location(0, 0, 1), e -> {
+            failure.set(e);
+            latch.countDown();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(failure.get(), sameInstance(exception));
+    }
+
+    public void testListenersRestoreTheirThreadContext() throws InterruptedException {
+        final TranslogGroupCommitService service = new TranslogGroupCommitService(Settings.EMPTY, threadPool, MeterRegistry.NOOP);
+        final TranslogGroupCommitService.ShardSyncer syncer = service.newShardSyncer((location, listener) -> listener.accept(null));
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> header = new AtomicReference<>();
+        threadPool.getThreadContext().putHeader("test", "value");
+        syncer.syncAfterWrite(new Translog.Location(0, 0, 1), e -> {
+            header.set(threadPool.getThreadContext().getHeader("test"));
+            latch.countDown();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(header.get(), equalTo("value"));
+    }
+}
@@ -718,6 +718,48 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testMappedSnapshot() throws IOException {
+        final Path path = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current())
+            .put(IndexSettings.INDEX_TRANSLOG_MAPPED_READS_SETTING.getKey(), true)
+            .build();
+        final String translogUUID = Translog.createEmptyTranslog(path, SequenceNumbers.NO_OPS_PERFORMED, shardId, primaryTerm.get());
+        try (
+            Translog mappedTranslog = new Translog(
+                getTranslogConfig(path, settings),
+                translogUUID,
+                new TranslogDeletionPolicy(),
+                () -> SequenceNumbers.NO_OPS_PERFORMED,
+                primaryTerm::get,
+                seqNo -> {},
+                TranslogOperationAsserter.DEFAULT
+            )
+        ) {
+            final List<Translog.Operation> ops = new ArrayList<>();
+            final int numOps = randomIntBetween(1, 200);
+            for (int i = 0; i < numOps; i++) {
+                addToTranslogAndList(mappedTranslog, ops, TranslogOperationsUtils.indexOp(Integer.toString(i), i, primaryTerm.get()));
+                if (rarely()) {
+                    mappedTranslog.rollGeneration();
+                }
+            }
+            // earlier generations are read from a mapping, the current one through its channel
+            mappedTranslog.rollGeneration();
+            if (randomBoolean()) {
+                addToTranslogAndList(mappedTranslog, ops, TranslogOperationsUtils.indexOp("last", numOps, primaryTerm.get()));
+            }
+            try (Translog.Snapshot snapshot = mappedTranslog.newSnapshot()) {
+                assertThat(snapshot, containsOperationsInAnyOrder(ops));
+                assertThat(snapshot.totalOperations(), equalTo(ops.size()));
+            }
+            final long fromSeqNo = randomLongBetween(0, ops.size() - 1);
+            try (Translog.Snapshot snapshot = mappedTranslog.newSnapshot(fromSeqNo, Long.MAX_VALUE)) {
+                assertThat(snapshot, containsOperationsInAnyOrder(ops.subList(Math.toIntExact(fromSeqNo), ops.size())));
+            }
+        }
+    }
+
     public void testSnapshotOnClosedTranslog() throws IOException {
         assertTrue(Files.exists(translogDir.resolve(Translog.getFilename(1))));
         translog.add(TranslogOperationsUtils.indexOp("1", 0, primaryTerm.get()));
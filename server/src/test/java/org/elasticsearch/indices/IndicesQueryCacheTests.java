@@ -26,6 +26,8 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.IOUtils;
@@ -35,6 +37,11 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
 
 public class IndicesQueryCacheTests extends ESTestCase {
 
@@ -404,4 +411,126 @@ public class IndicesQueryCacheTests extends ESTestCase {
         cache.onClose(shard);
         cache.close();
     }
+
+    public void testDenseEntriesAreCompressed() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+        final int numDocs = (1 << 17) + randomIntBetween(0, 1000);
+        for (int i = 0; i < numDocs; i++) {
+            w.addDocument(new Document());
+        }
+        w.forceMerge(1);
+        DirectoryReader r = DirectoryReader.open(w);
+        w.close();
+        ShardId shard = new ShardId("index", "_na_", 0);
+        r = ElasticsearchDirectoryReader.wrap(r, shard);
+        IndexSearcher s = new IndexSearcher(r);
+        s.setQueryCachingPolicy(TrivialQueryCachingPolicy.ALWAYS);
+
+        Settings settings = Settings.builder()
+            .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+            .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+            .build();
+        IndicesQueryCache cache = new IndicesQueryCache(settings);
+        s.setQueryCache(cache);
+
+        assertEquals(numDocs, s.count(new DummyQuery(0)));
+        QueryCacheStats stats = cache.getStats(shard);
+        assertEquals(1L, stats.getCacheSize());
+        // a filter that matches all documents doesn't need a bit set
+        assertThat(stats.getMemorySizeInBytes(), lessThan((long) numDocs / Byte.SIZE));
+        assertEquals(numDocs, s.count(new DummyQuery(0)));
+        assertEquals(1L, cache.getStats(shard).getHitCount());
+
+        IOUtils.close(r, dir);
+        cache.onClose(shard);
+        cache.close();
+    }
+
+    public void testBreakerAccounting() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+        w.addDocument(new Document());
+        DirectoryReader r = DirectoryReader.open(w);
+        w.close();
+        ShardId shard = new ShardId("index", "_na_", 0);
+        r = ElasticsearchDirectoryReader.wrap(r, shard);
+        IndexSearcher s = new IndexSearcher(r);
+        s.setQueryCachingPolicy(TrivialQueryCachingPolicy.ALWAYS);
+
+        Settings settings = Settings.builder()
+            .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+            .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+            .build();
+        AtomicLong used = new AtomicLong();
+        IndicesQueryCache cache = new IndicesQueryCache(settings, new NoopCircuitBreaker(CircuitBreaker.QUERY_CACHE) {
+            @Override
+            public void addWithoutBreaking(long bytes) {
+                used.addAndGet(bytes);
+            }
+        });
+        s.setQueryCache(cache);
+
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(1, s.count(new DummyQuery(i)));
+        }
+        assertThat(used.get(), greaterThan(0L));
+        assertThat(used.get(), greaterThanOrEqualTo(cache.getStats(shard).getMemorySizeInBytes()));
+
+        IOUtils.close(r, dir);
+        cache.onClose(shard);
+        cache.close();
+        assertEquals(0L, used.get());
+    }
+
+    public void testCostAwareAdmission() throws IOException {
+        Directory dir1 = newDirectory();
+        IndexWriter w1 = new IndexWriter(dir1, newIndexWriterConfig());
+        w1.addDocument(new Document());
+        DirectoryReader r1 = DirectoryReader.open(w1);
+        w1.close();
+        ShardId shard1 = new ShardId("index", "_na_", 0);
+        r1 = ElasticsearchDirectoryReader.wrap(r1, shard1);
+        IndexSearcher s1 = new IndexSearcher(r1);
+        s1.setQueryCachingPolicy(TrivialQueryCachingPolicy.ALWAYS);
+
+        Directory dir2 = newDirectory();
+        IndexWriter w2 = new IndexWriter(dir2, newIndexWriterConfig());
+        w2.addDocument(new Document());
+        DirectoryReader r2 = DirectoryReader.open(w2);
+        w2.close();
+        ShardId shard2 = new ShardId("index", "_na_", 1);
+        r2 = ElasticsearchDirectoryReader.wrap(r2, shard2);
+        IndexSearcher s2 = new IndexSearcher(r2);
+        s2.setQueryCachingPolicy(TrivialQueryCachingPolicy.NEVER);
+
+        final boolean costAware = randomBoolean();
+        Settings settings = Settings.builder()
+            .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+            .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+            // any filter is costly with a threshold of zero
+            .put(IndicesQueryCache.INDICES_QUERIES_CACHE_COST_ADMISSION_THRESHOLD_SETTING.getKey(), costAware ? "0ms" : "-1")
+            .build();
+        IndicesQueryCache cache = new IndicesQueryCache(settings);
+        s1.setQueryCache(cache);
+        s2.setQueryCache(cache);
+
+        // the second shard never caches filters on its own
+        assertEquals(1, s2.count(new DummyQuery(0)));
+        assertEquals(0L, cache.getStats(shard2).getCacheSize());
+        assertFalse(cache.isCostly(new DummyQuery(0)));
+
+        // until they were costly to compute on another shard
+        assertEquals(1, s1.count(new DummyQuery(0)));
+        assertEquals(1L, cache.getStats(shard1).getCacheSize());
+        assertEquals(costAware, cache.isCostly(new DummyQuery(0)));
+        assertFalse(cache.isCostly(new DummyQuery(1)));
+        assertEquals(1, s2.count(new DummyQuery(0)));
+        assertEquals(costAware ? 1L : 0L, cache.getStats(shard2).getCacheSize());
+
+        IOUtils.close(r1, dir1, r2, dir2);
+        cache.onClose(shard1);
+        cache.onClose(shard2);
+        cache.close();
+    }
 }
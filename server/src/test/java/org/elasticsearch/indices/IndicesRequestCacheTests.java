@@ -24,7 +24,11 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -45,8 +49,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class IndicesRequestCacheTests extends ESTestCase {
 
@@ -106,6 +112,193 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testCompressedAndOffHeapValues() throws Exception {
+        final boolean compress = randomBoolean();
+        final boolean offHeap = compress == false || randomBoolean();
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder()
+                .put(IndicesRequestCache.INDICES_CACHE_QUERY_COMPRESS.getKey(), compress)
+                .put(IndicesRequestCache.INDICES_CACHE_QUERY_OFF_HEAP.getKey(), offHeap)
+                .build()
+        );
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        final String fieldValue = "foo".repeat(between(1, 1000));
+        writer.addDocument(newDoc(0, fieldValue));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+
+        // initial cache
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        Loader loader = new Loader(reader, 0);
+        BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertEquals(fieldValue, value.streamInput().readString());
+        assertFalse(loader.loadedFromCache);
+        if (offHeap) {
+            assertTrue(requestCacheStats.stats().getOffHeapMemorySizeInBytes() > 0);
+        } else {
+            assertEquals(0, requestCacheStats.stats().getOffHeapMemorySizeInBytes());
+        }
+
+        // cache hit is decoded back into the original bytes
+        entity = new TestEntity(requestCacheStats, indexShard);
+        loader = new Loader(reader, 0);
+        BytesReference cached = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertTrue(loader.loadedFromCache);
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(value, cached);
+        assertEquals(fieldValue, cached.streamInput().readString());
+
+        cache.clear(entity);
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+        assertEquals(0L, requestCacheStats.stats().getOffHeapMemorySizeInBytes());
+
+        IOUtils.close(reader, writer, dir, cache);
+    }
+
+    public void testHitsBreaker() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        AtomicLong used = new AtomicLong();
+        AtomicLong limit = new AtomicLong(Long.MAX_VALUE);
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY, new NoopCircuitBreaker(CircuitBreaker.REQUEST_CACHE_HITS) {
+            @Override
+            public void addEstimateBytesAndMaybeBreak(long bytes, String label) {
+                if (used.get() + bytes > limit.get()) {
+                    throw new CircuitBreakingException("tripped", bytes, limit.get(), CircuitBreaker.Durability.PERMANENT);
+                }
+                used.addAndGet(bytes);
+            }
+
+            @Override
+            public void addWithoutBreaking(long bytes) {
+                used.addAndGet(bytes);
+            }
+        });
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        BytesReference termBytes = XContentHelper.toXContent(new TermQueryBuilder("id", "0"), XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+
+        // entries without hits are not accounted
+        cache.getOrCompute(entity, new Loader(reader, 0), mappingKey, reader, termBytes, false);
+        assertEquals(1, cache.count());
+        assertEquals(0L, used.get());
+        cache.clear(entity);
+
+        // entries with hits are
+        cache.getOrCompute(entity, new Loader(reader, 0), mappingKey, reader, termBytes, true);
+        assertEquals(1, cache.count());
+        assertTrue(used.get() > 0);
+        cache.clear(entity);
+        assertEquals(0, cache.count());
+        assertEquals(0L, used.get());
+
+        // entries that would trip the breaker are returned but not cached
+        limit.set(0);
+        Loader loader = new Loader(reader, 0);
+        BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes, true);
+        assertEquals("foo", value.streamInput().readString());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(0, cache.count());
+        assertEquals(0L, used.get());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+
+        IOUtils.close(reader, writer, dir, cache);
+    }
+
+    public void testValueStoreRoundTrip() {
+        final RequestCacheValueStore store = new RequestCacheValueStore(randomBoolean(), randomBoolean());
+        final BytesReference value = randomBoolean()
+            ? new BytesArray(randomByteArrayOfLength(between(0, 1024)))
+            : new BytesArray("foo".repeat(between(1, 1024)));
+        final BytesReference stored = store.store(value);
+        assertEquals(value, store.load(stored));
+        if (stored instanceof RequestCacheValueStore.OffHeapBytesReference) {
+            assertEquals(stored.length(), RequestCacheValueStore.offHeapBytes(stored));
+            if (stored.length() > 1) {
+                assertEquals(stored.slice(1, stored.length() - 1), new BytesArray(stored.toBytesRef()).slice(1, stored.length() - 1));
+            }
+        } else {
+            assertEquals(0L, RequestCacheValueStore.offHeapBytes(stored));
+        }
+        RequestCacheValueStore.release(stored);
+        if (stored instanceof RequestCacheValueStore.OffHeapBytesReference offHeapValue) {
+            // the memory is freed once the value is released, later reads see it as a miss
+            assertFalse(offHeapValue.hasReferences());
+            assertNull(store.load(stored));
+        } else {
+            assertEquals(value, store.load(stored));
+        }
+    }
+
+    public void testOffHeapValueIsFreedOnceReadersAreDone() {
+        final RequestCacheValueStore store = new RequestCacheValueStore(randomBoolean(), true);
+        final BytesReference value = new BytesArray("foo".repeat(between(1, 1024)));
+        final BytesReference stored = store.store(value);
+        assertThat(stored, instanceOf(RequestCacheValueStore.OffHeapBytesReference.class));
+        final RequestCacheValueStore.OffHeapBytesReference offHeapValue = (RequestCacheValueStore.OffHeapBytesReference) stored;
+
+        // a reader still holds the value while the entry is removed from the cache
+        assertTrue(offHeapValue.tryIncRef());
+        RequestCacheValueStore.release(stored);
+        assertTrue(offHeapValue.hasReferences());
+        assertEquals(value, new BytesArray(stored.toBytesRef()));
+        offHeapValue.decRef();
+        assertFalse(offHeapValue.hasReferences());
+        assertNull(store.load(stored));
+    }
+
+    public void testSegmentResults() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        IndexReader.CacheHelper segmentCacheHelper = reader.leaves().get(0).reader().getReaderCacheHelper();
+
+        assertNull(cache.getSegmentResult(entity, mappingKey, segmentCacheHelper, termBytes));
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+
+        BytesReference value = new BytesArray(randomByteArrayOfLength(between(1, 64)));
+        cache.putSegmentResult(entity, mappingKey, segmentCacheHelper, termBytes, value);
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+        assertEquals(value, cache.getSegmentResult(entity, mappingKey, segmentCacheHelper, termBytes));
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+
+        // the segment entry is not visible through the top level reader
+        Loader loader = new Loader(reader, 0);
+        assertEquals("foo", cache.getOrCompute(entity, loader, mappingKey, reader, termBytes).streamInput().readString());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(2, cache.count());
+
+        // closing the reader closes the segment and cleans up both entries
+        reader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+
+        IOUtils.close(writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
     public void testCacheDifferentReaders() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
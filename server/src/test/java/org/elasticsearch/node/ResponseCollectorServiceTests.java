@@ -64,6 +64,54 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertThat(nodeStats.get("node1").serviceTime, equalTo(10.0));
     }
 
+    public void testFetchStatsAndPendingMerges() throws Exception {
+        enableRankFetchAndMerges();
+        // fetch statistics are ignored until the node reported query statistics
+        collector.addFetchStatistics("node1", 50);
+        assertFalse(collector.getAllNodeStatistics().containsKey("node1"));
+
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.fetchTime, equalTo(0.0));
+        assertThat(stats.pendingMerges, equalTo(0.0));
+
+        collector.addFetchStatistics("node1", 50);
+        collector.addNodeStatistics("node1", 1, 100, 10, 3);
+        stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.fetchTime, equalTo(50.0));
+        assertThat(stats.pendingMerges, equalTo(3.0));
+
+        // a node that does not report its pending merges keeps the last known average
+        collector.addNodeStatistics("node1", 1, 100, 10, -1);
+        assertThat(collector.getAllNodeStatistics().get("node1").pendingMerges, equalTo(3.0));
+    }
+
+    public void testFetchStatsAndPendingMergesAreNotRankedByDefault() throws Exception {
+        collector.addFetchStatistics("node1", 50);
+        collector.addNodeStatistics("node1", 1, 100, 10, 3);
+        collector.addFetchStatistics("node1", 50);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.fetchTime, equalTo(0.0));
+        assertThat(stats.pendingMerges, equalTo(0.0));
+        assertThat(stats.rank(1), equalTo(new ResponseCollectorService.ComputedNodeStats("node1", 1, 1, 100, 10).rank(1)));
+
+        enableRankFetchAndMerges();
+        assertThat(collector.getAllNodeStatistics().get("node1").rank(1), greaterThan(stats.rank(1)));
+    }
+
+    public void testRankWithoutFetchStatsNorPendingMerges() throws Exception {
+        enableRankFetchAndMerges();
+        // no fetch samples and no pending merges rank the node as before they were collected
+        collector.addNodeStatistics("node1", 1, 100, 10, 0);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.rank(1), equalTo(new ResponseCollectorService.ComputedNodeStats("node1", 1, 1, 100, 10).rank(1)));
+    }
+
+    private void enableRankFetchAndMerges() {
+        clusterService.getClusterSettings()
+            .applySettings(Settings.builder().put(ResponseCollectorService.RANK_FETCH_AND_MERGES_SETTING.getKey(), true).build());
+    }
+
     /*
      * Test that concurrently adding values and removing nodes does not cause exceptions
      */
@@ -0,0 +1,246 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.rest.action.document;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.bulk.IncrementalBulkService;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.http.HttpBody;
+import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.rest.ChunkedRestResponseBodyPart;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
+import org.elasticsearch.test.rest.FakeRestRequest;
+import org.elasticsearch.test.rest.ObjectPath;
+import org.elasticsearch.transport.BytesRefRecycler;
+import org.elasticsearch.transport.Transports;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Tests for {@link RestStreamingBulkAction}.
+ */
+public class RestStreamingBulkActionTests extends ESTestCase {
+
+    private static final String INDEX_ITEM = """
+        {"index":{"_index":"my_index"}}
+        {"field":1}
+        """;
+
+    public void testBatchingAndBackpressure() {
+        final int batchSize = 2;
+        final AtomicInteger nextCalls = new AtomicInteger();
+        final List<DocWriteRequest<?>> docs = new ArrayList<>();
+        final List<Boolean> flushes = new ArrayList<>();
+        final AtomicBoolean isLast = new AtomicBoolean();
+
+        FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk/stream")
+            .withMethod(RestRequest.Method.POST)
+            .withBody(new HttpBody.Stream() {
+                @Override
+                public void close() {}
+
+                @Override
+                public ChunkHandler handler() {
+                    return null;
+                }
+
+                @Override
+                public void addTracingHandler(ChunkHandler chunkHandler) {}
+
+                @Override
+                public void setHandler(ChunkHandler chunkHandler) {}
+
+                @Override
+                public void next() {
+                    nextCalls.incrementAndGet();
+                }
+            })
+            .withHeaders(Map.of("Content-Type", Collections.singletonList("application/json")))
+            .build();
+        FakeRestChannel channel = new FakeRestChannel(request, randomBoolean(), 1);
+
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+        RestStreamingBulkAction.StreamingChunkHandler chunkHandler = new RestStreamingBulkAction.StreamingChunkHandler(
+            true,
+            request,
+            batchSize,
+            responseConsumer -> new IncrementalBulkService.Handler(null, indexingPressure, null, null, null, responseConsumer) {
+
+                @Override
+                public void addItems(List<DocWriteRequest<?>> items, Releasable releasable, Runnable nextItems, boolean flush) {
+                    releasable.close();
+                    docs.addAll(items);
+                    flushes.add(flush);
+                    if (flush) {
+                        // the response to the flushed items is never sent since the fake channel does not consume the response body
+                        responseConsumer.accept(newBulkResponse());
+                    }
+                    nextItems.run();
+                }
+
+                @Override
+                public void lastItems(List<DocWriteRequest<?>> items, Releasable releasable, ActionListener<BulkResponse> listener) {
+                    releasable.close();
+                    docs.addAll(items);
+                    isLast.set(true);
+                }
+            }
+        );
+
+        chunkHandler.accept(channel);
+        assertThat(nextCalls.get(), equalTo(1));
+
+        chunkHandler.handleChunk(channel, chunk(INDEX_ITEM), false);
+        assertThat(docs, hasSize(1));
+        assertThat(flushes, contains(false));
+        assertThat(nextCalls.get(), equalTo(2));
+
+        int expectedDocs = 1;
+        for (int batch = 1; batch <= RestStreamingBulkAction.MAX_UNSENT_BATCHES; batch++) {
+            chunkHandler.handleChunk(channel, chunk(INDEX_ITEM + INDEX_ITEM), false);
+            expectedDocs += batchSize;
+            assertThat(docs, hasSize(expectedDocs));
+            assertTrue(flushes.get(flushes.size() - 1));
+            if (batch < RestStreamingBulkAction.MAX_UNSENT_BATCHES) {
+                assertThat(nextCalls.get(), equalTo(2 + batch));
+            } else {
+                // too many responses are waiting to be sent, so no more data is read
+                assertThat(nextCalls.get(), equalTo(1 + batch));
+            }
+        }
+        assertFalse(isLast.get());
+        // the response was started with the first bulk response
+        assertThat(channel.responses().get(), equalTo(1));
+    }
+
+    public void testFailureAfterResponseStarted() throws Exception {
+        FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk/stream")
+            .withMethod(RestRequest.Method.POST)
+            .withBody(new HttpBody.Stream() {
+                @Override
+                public void close() {}
+
+                @Override
+                public ChunkHandler handler() {
+                    return null;
+                }
+
+                @Override
+                public void addTracingHandler(ChunkHandler chunkHandler) {}
+
+                @Override
+                public void setHandler(ChunkHandler chunkHandler) {}
+
+                @Override
+                public void next() {}
+            })
+            .withHeaders(Map.of("Content-Type", Collections.singletonList("application/json")))
+            .build();
+        FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+        RestStreamingBulkAction.StreamingChunkHandler chunkHandler = new RestStreamingBulkAction.StreamingChunkHandler(
+            true,
+            request,
+            1,
+            responseConsumer -> new IncrementalBulkService.Handler(null, indexingPressure, null, null, null, responseConsumer) {
+
+                @Override
+                public void addItems(List<DocWriteRequest<?>> items, Releasable releasable, Runnable nextItems, boolean flush) {
+                    releasable.close();
+                    responseConsumer.accept(newBulkResponse());
+                    nextItems.run();
+                }
+
+                @Override
+                public void lastItems(List<DocWriteRequest<?>> items, Releasable releasable, ActionListener<BulkResponse> listener) {
+                    releasable.close();
+                    listener.onFailure(new ElasticsearchStatusException("simulated", RestStatus.TOO_MANY_REQUESTS));
+                }
+            }
+        );
+
+        chunkHandler.accept(channel);
+        chunkHandler.handleChunk(channel, chunk(INDEX_ITEM), false);
+        chunkHandler.handleChunk(channel, chunk(INDEX_ITEM), true);
+        assertThat(channel.responses().get(), equalTo(1));
+
+        // the chunks of a streamed response are encoded on transport threads
+        final int sizeHint = randomIntBetween(1, 1024);
+        final PlainActionFuture<BytesReference> future = new PlainActionFuture<>();
+        final Thread thread = new Thread(
+            () -> ActionListener.completeWith(future, () -> readBody(channel.capturedResponse().chunkedContent(), sizeHint)),
+            Transports.TEST_MOCK_TRANSPORT_THREAD_PREFIX + "_" + getTestName()
+        );
+        thread.start();
+        final Map<String, Object> body = XContentHelper.convertToMap(safeGet(future), false, XContentType.JSON).v2();
+        thread.join();
+
+        assertThat(body.get("errors"), equalTo(true));
+        assertThat(body.get("status"), equalTo(RestStatus.TOO_MANY_REQUESTS.getStatus()));
+        assertThat(ObjectPath.evaluate(body, "error.type"), equalTo("status_exception"));
+        assertThat(ObjectPath.evaluate(body, "error.reason"), equalTo("simulated"));
+        assertNull(ObjectPath.evaluate(body, "error.error"));
+        assertThat((List<?>) body.get("items"), hasSize(1));
+    }
+
+    private static BytesReference readBody(ChunkedRestResponseBodyPart bodyPart, int sizeHint) throws IOException {
+        final List<BytesReference> chunks = new ArrayList<>();
+        while (bodyPart.isPartComplete() == false) {
+            try (ReleasableBytesReference chunk = bodyPart.encodeChunk(sizeHint, BytesRefRecycler.NON_RECYCLING_INSTANCE)) {
+                chunks.add(new BytesArray(BytesReference.toBytes(chunk)));
+            }
+        }
+        // every fragment, including the closing one, was written before reading, so the body has a single part
+        assertTrue(bodyPart.isLastPart());
+        return CompositeBytesReference.of(chunks.toArray(new BytesReference[0]));
+    }
+
+    private static ReleasableBytesReference chunk(String data) {
+        return new ReleasableBytesReference(new BytesArray(data), () -> {});
+    }
+
+    private static BulkResponse newBulkResponse() {
+        return new BulkResponse(
+            new BulkItemResponse[] {
+                BulkItemResponse.failure(
+                    0,
+                    DocWriteRequest.OpType.INDEX,
+                    new BulkItemResponse.Failure("my_index", "id", new IllegalStateException("simulated"))
+                ) },
+            1
+        );
+    }
+}
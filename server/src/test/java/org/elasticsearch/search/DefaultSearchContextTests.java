@@ -83,6 +83,7 @@ import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -190,6 +191,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                 randomFrom(SearchService.ResultsType.values()),
                 randomBoolean(),
                 randomInt(),
+                randomBoolean(),
+                randomIntBetween(1, Integer.MAX_VALUE),
                 MEMORY_ACCOUNTING_BUFFER_SIZE
             );
             contextWithoutScroll.from(300);
@@ -233,6 +236,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                     randomFrom(SearchService.ResultsType.values()),
                     randomBoolean(),
                     randomInt(),
+                    randomBoolean(),
+                    randomIntBetween(1, Integer.MAX_VALUE),
                     MEMORY_ACCOUNTING_BUFFER_SIZE
 
                 )
@@ -317,6 +322,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                     randomFrom(SearchService.ResultsType.values()),
                     randomBoolean(),
                     randomInt(),
+                    randomBoolean(),
+                    randomIntBetween(1, Integer.MAX_VALUE),
                     MEMORY_ACCOUNTING_BUFFER_SIZE
                 )
             ) {
@@ -360,6 +367,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                     randomFrom(SearchService.ResultsType.values()),
                     randomBoolean(),
                     randomInt(),
+                    randomBoolean(),
+                    randomIntBetween(1, Integer.MAX_VALUE),
                     MEMORY_ACCOUNTING_BUFFER_SIZE
                 )
             ) {
@@ -392,6 +401,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                     randomFrom(SearchService.ResultsType.values()),
                     randomBoolean(),
                     randomInt(),
+                    randomBoolean(),
+                    randomIntBetween(1, Integer.MAX_VALUE),
                     MEMORY_ACCOUNTING_BUFFER_SIZE
                 )
             ) {
@@ -464,6 +475,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                 randomFrom(SearchService.ResultsType.values()),
                 randomBoolean(),
                 randomInt(),
+                randomBoolean(),
+                randomIntBetween(1, Integer.MAX_VALUE),
                 MEMORY_ACCOUNTING_BUFFER_SIZE
             );
 
@@ -741,6 +754,105 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
         }
     }
 
+    public void testDetermineMaximumPartitionsPerSegment() throws Exception {
+        int executorPoolSize = randomIntBetween(1, 100);
+        ThreadPoolExecutor threadPoolExecutor = EsExecutors.newFixed(
+            "test",
+            executorPoolSize,
+            1000,
+            Thread::new,
+            new ThreadContext(Settings.EMPTY),
+            EsExecutors.TaskTrackingConfig.DO_NOT_TRACK
+        );
+        try {
+            assertEquals(
+                executorPoolSize,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    createParallelRequest(),
+                    SearchService.ResultsType.QUERY,
+                    true,
+                    false
+                )
+            );
+            // disabled, nested documents, other phases and aggregations that can't be collected per partition
+            assertEquals(
+                1,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    createParallelRequest(),
+                    SearchService.ResultsType.QUERY,
+                    false,
+                    false
+                )
+            );
+            assertEquals(
+                1,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    createParallelRequest(),
+                    SearchService.ResultsType.QUERY,
+                    true,
+                    true
+                )
+            );
+            assertEquals(
+                1,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    createParallelRequest(),
+                    randomFrom(SearchService.ResultsType.DFS, SearchService.ResultsType.FETCH, SearchService.ResultsType.NONE),
+                    true,
+                    false
+                )
+            );
+            IndexShard indexShard = mock(IndexShard.class);
+            when(indexShard.shardId()).thenReturn(new ShardId("index", "uuid", 0));
+            ShardSearchRequest termsRequest = new ShardSearchRequest(
+                OriginalIndices.NONE,
+                new SearchRequest().allowPartialSearchResults(randomBoolean())
+                    .source(new SearchSourceBuilder().aggregation(new TermsAggregationBuilder("terms").field("field"))),
+                indexShard.shardId(),
+                0,
+                1,
+                AliasFilter.EMPTY,
+                1f,
+                System.currentTimeMillis(),
+                null
+            );
+            assertEquals(
+                1,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    termsRequest,
+                    SearchService.ResultsType.QUERY,
+                    true,
+                    false
+                )
+            );
+
+            // segments are not split once tasks start to queue up
+            CountDownLatch latch = new CountDownLatch(1);
+            for (int i = 0; i <= executorPoolSize; i++) {
+                threadPoolExecutor.execute(() -> safeAwait(latch));
+            }
+            assertBusy(() -> assertEquals(executorPoolSize, threadPoolExecutor.getActiveCount()));
+            assertEquals(
+                1,
+                DefaultSearchContext.determineMaximumPartitionsPerSegment(
+                    threadPoolExecutor,
+                    createParallelRequest(),
+                    SearchService.ResultsType.QUERY,
+                    true,
+                    false
+                )
+            );
+            latch.countDown();
+        } finally {
+            terminate(threadPoolExecutor);
+        }
+    }
+
     public void testIsParallelCollectionSupportedForResults() {
         SearchSourceBuilder searchSourceBuilderOrNull = randomBoolean() ? null : new SearchSourceBuilder();
         ToLongFunction<String> fieldCardinality = name -> -1;
@@ -1084,6 +1196,8 @@ public class DefaultSearchContextTests extends MapperServiceTestCase {
                 randomFrom(SearchService.ResultsType.values()),
                 randomBoolean(),
                 randomInt(),
+                randomBoolean(),
+                randomIntBetween(1, Integer.MAX_VALUE),
                 MEMORY_ACCOUNTING_BUFFER_SIZE
             );
         }
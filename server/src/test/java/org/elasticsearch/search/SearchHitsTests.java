@@ -29,6 +29,7 @@ import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.json.JsonXContent;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.function.Predicate;
 
 public class SearchHitsTests extends AbstractChunkedSerializingTestCase<SearchHits> {
@@ -259,6 +260,40 @@ public class SearchHitsTests extends AbstractChunkedSerializingTestCase<SearchHi
             }"""), Strings.toString(builder));
     }
 
+    public void testToXContentChunkedReleasingHits() throws IOException {
+        SearchHit first = new SearchHit(1, "id1");
+        SearchHit second = new SearchHit(2, "id2");
+        SearchHits searchHits = new SearchHits(new SearchHit[] { first, second }, new TotalHits(2, TotalHits.Relation.EQUAL_TO), 1.5f);
+        try {
+            XContentBuilder builder = JsonXContent.contentBuilder();
+            builder.startObject();
+            Iterator<? extends ToXContent> chunks = searchHits.toXContentChunkedReleasingHits(ToXContent.EMPTY_PARAMS);
+            while (first.hasReferences()) {
+                assertTrue(second.hasReferences());
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+            while (chunks.hasNext()) {
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+            builder.endObject();
+            assertFalse(second.hasReferences());
+            assertEquals(XContentHelper.stripWhitespace("""
+                {
+                  "hits": {
+                    "total": {
+                      "value": 2,
+                      "relation": "eq"
+                    },
+                    "max_score": 1.5,
+                    "hits": [ { "_id": "id1", "_score": null }, { "_id": "id2", "_score": null } ]
+                  }
+                }"""), Strings.toString(builder));
+        } finally {
+            // releasing the hits container must not release the already written hits a second time
+            assertTrue(searchHits.decRef());
+        }
+    }
+
     public void testFromXContentWithShards() throws IOException {
         for (boolean withExplanation : new boolean[] { true, false }) {
             final SearchHit[] hits = new SearchHit[] {
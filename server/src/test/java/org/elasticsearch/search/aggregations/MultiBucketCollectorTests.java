@@ -12,7 +12,9 @@ package org.elasticsearch.search.aggregations;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CheckedIntConsumer;
 import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Scorable;
@@ -343,4 +345,47 @@ public class MultiBucketCollectorTests extends ESTestCase {
             return 42f;
         }
     }
+
+    public void testCollectInBlocks() throws IOException {
+        try (Directory dir = newDirectory()) {
+            RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+            final int numDocs = randomIntBetween(100, 3000);
+            final Document doc = new Document();
+            for (int i = 0; i < numDocs; ++i) {
+                w.addDocument(doc);
+            }
+            w.forceMerge(1);
+            try (IndexReader reader = w.getReader()) {
+                w.close();
+                Map<TotalHitCountBucketCollector, Integer> expectedCounts = new HashMap<>();
+                List<BucketCollector> collectors = new ArrayList<>();
+                final int numCollectors = randomIntBetween(1, 5);
+                for (int i = 0; i < numCollectors; ++i) {
+                    final int terminateAfter = random().nextInt(numDocs + 10);
+                    TotalHitCountBucketCollector collector = new TotalHitCountBucketCollector();
+                    expectedCounts.put(collector, Math.min(terminateAfter, numDocs));
+                    collectors.add(new TerminateAfterBucketCollector(collector, terminateAfter));
+                }
+                BucketCollector wrapped = MultiBucketCollector.wrap(true, collectors);
+                LeafReaderContext ctx = reader.leaves().get(0);
+                try {
+                    LeafBucketCollector leafCollector = wrapped.getLeafCollector(new AggregationExecutionContext(ctx, null, null, null));
+                    // the docs are provided as a stream, like Lucene does when it doesn't need scores, and collected in blocks
+                    leafCollector.collect(new DocIdStream() {
+                        @Override
+                        public void forEach(CheckedIntConsumer<IOException> consumer) throws IOException {
+                            for (int docId = 0; docId < numDocs; docId++) {
+                                consumer.accept(docId);
+                            }
+                        }
+                    });
+                } catch (@SuppressWarnings("unused") CollectionTerminatedException e) {
+                    // all collectors terminated
+                }
+                for (Map.Entry<TotalHitCountBucketCollector, Integer> expectedCount : expectedCounts.entrySet()) {
+                    assertEquals(expectedCount.getValue().intValue(), expectedCount.getKey().getTotalHits());
+                }
+            }
+        }
+    }
 }
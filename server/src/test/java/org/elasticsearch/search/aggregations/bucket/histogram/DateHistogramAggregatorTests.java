@@ -13,6 +13,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.BooleanClause;
@@ -22,14 +23,23 @@ import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateFormatters;
 import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.fielddata.projection.AggregateProjection;
 import org.elasticsearch.index.mapper.BooleanFieldMapper;
 import org.elasticsearch.index.mapper.CustomTermFreqField;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.DocCountFieldMapper;
 import org.elasticsearch.index.mapper.FieldNamesFieldMapper;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationReduceContext;
 import org.elasticsearch.search.aggregations.Aggregator;
@@ -39,6 +49,16 @@ import org.elasticsearch.search.aggregations.bucket.DateHistogramAggregatorTestC
 import org.elasticsearch.search.aggregations.bucket.range.RangeAggregator;
 import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Avg;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Max;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Min;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Sum;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCount;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.test.InternalAggregationTestCase;
@@ -50,6 +70,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -57,6 +78,7 @@ import static java.util.stream.Collectors.toList;
 import static org.elasticsearch.test.ListMatcher.matchesList;
 import static org.elasticsearch.test.MapMatcher.assertMap;
 import static org.elasticsearch.test.MapMatcher.matchesMap;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -65,6 +87,8 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 
 public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCase {
+    private Settings projectionSettings = Settings.EMPTY;
+
     /**
      * A date that is always "searchable" because it is indexed.
      */
@@ -1193,4 +1217,171 @@ public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCas
     private static long asLong(String dateTime, DateFieldMapper.DateFieldType fieldType) {
         return fieldType.parse(dateTime);
     }
+
+    public void testCollectInBlocks() throws IOException {
+        MappedFieldType fieldType = new DateFieldMapper.DateFieldType("date");
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                int numDocs = randomIntBetween(1, 2000);
+                long timestamp = 1577836800000L; // 2020-01-01T00:00:00Z
+                for (int i = 0; i < numDocs; i++) {
+                    // some docs don't have a value, and neighbouring docs often fall into the same bucket
+                    if (randomBoolean()) {
+                        indexWriter.addDocument(List.of());
+                    } else {
+                        timestamp += randomLongBetween(0, 60_000);
+                        indexWriter.addDocument(List.of(new NumericDocValuesField("date", timestamp)));
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                DateHistogramAggregationBuilder builder = new DateHistogramAggregationBuilder("histo").field("date")
+                    .fixedInterval(new DateHistogramInterval(randomFrom("1m", "5m", "1h")));
+                if (randomBoolean()) {
+                    builder.hardBounds(new LongBounds("2020-01-01T00:10:00", "2020-01-01T10:00:00"));
+                }
+                assertSameResultWhenCollectingInBlocks(builder, reader, fieldType);
+            }
+        }
+    }
+
+    public void testAggregateProjection() throws IOException {
+        projectionSettings = Settings.builder()
+            .put(AggregateProjection.DATE_FIELD_SETTING.getKey(), "date")
+            .put(AggregateProjection.INTERVAL_SETTING.getKey(), "1m")
+            .putList(AggregateProjection.METRICS_SETTING.getKey(), "value")
+            .build();
+        // key of the hourly bucket -> doc count, sum, min, max
+        Map<Long, long[]> expected = new TreeMap<>();
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            long timestamp = 1577836800000L; // 2020-01-01T00:00:00Z
+            int numDocs = randomIntBetween(1, 2000);
+            for (int i = 0; i < numDocs; i++) {
+                timestamp += randomLongBetween(0, 60_000);
+                long value = randomLongBetween(-1000, 1000);
+                iw.addDocument(
+                    List.of(
+                        new SortedNumericDocValuesField("date", timestamp),
+                        new LongPoint("date", timestamp),
+                        new SortedNumericDocValuesField("value", value)
+                    )
+                );
+                long[] stats = expected.computeIfAbsent(
+                    timestamp - Math.floorMod(timestamp, 3_600_000L),
+                    k -> new long[] { 0, 0, Long.MAX_VALUE, Long.MIN_VALUE }
+                );
+                stats[0]++;
+                stats[1] += value;
+                stats[2] = Math.min(stats[2], value);
+                stats[3] = Math.max(stats[3], value);
+            }
+        };
+        DateHistogramAggregationBuilder builder = new DateHistogramAggregationBuilder("histo").field("date")
+            .fixedInterval(new DateHistogramInterval("1h"))
+            .minDocCount(1)
+            .subAggregation(new SumAggregationBuilder("sum").field("value"))
+            .subAggregation(new MinAggregationBuilder("min").field("value"))
+            .subAggregation(new MaxAggregationBuilder("max").field("value"))
+            .subAggregation(new AvgAggregationBuilder("avg").field("value"))
+            .subAggregation(new ValueCountAggregationBuilder("count").field("value"));
+        debugTestCase(
+            builder,
+            new MatchAllDocsQuery(),
+            buildIndex,
+            (InternalDateHistogram result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertThat(impl, equalTo(DateHistogramAggregator.class));
+                // all segments match the query and the hourly buckets are made of whole projection buckets
+                assertThat((Integer) debug.get("histo").get("projected_segments"), greaterThan(0));
+                assertThat(result.getBuckets(), hasSize(expected.size()));
+                int i = 0;
+                for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+                    InternalDateHistogram.Bucket bucket = result.getBuckets().get(i++);
+                    long[] stats = entry.getValue();
+                    assertThat(bucket.key, equalTo(entry.getKey()));
+                    assertThat(bucket.getDocCount(), equalTo(stats[0]));
+                    assertThat(((Sum) bucket.getAggregations().get("sum")).value(), equalTo((double) stats[1]));
+                    assertThat(((Min) bucket.getAggregations().get("min")).value(), equalTo((double) stats[2]));
+                    assertThat(((Max) bucket.getAggregations().get("max")).value(), equalTo((double) stats[3]));
+                    assertThat(((Avg) bucket.getAggregations().get("avg")).getValue(), closeTo((double) stats[1] / stats[0], 1e-9));
+                    assertThat(((ValueCount) bucket.getAggregations().get("count")).getValue(), equalTo(stats[0]));
+                }
+            },
+            new DateFieldMapper.DateFieldType("date"),
+            new NumberFieldMapper.NumberFieldType("value", NumberFieldMapper.NumberType.LONG)
+        );
+    }
+
+    public void testAggregateProjectionNotUsedForFinerInterval() throws IOException {
+        projectionSettings = Settings.builder()
+            .put(AggregateProjection.DATE_FIELD_SETTING.getKey(), "date")
+            .put(AggregateProjection.INTERVAL_SETTING.getKey(), "1h")
+            .build();
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            for (long timestamp : new long[] { 1577836800000L, 1577836860000L, 1577840400000L }) {
+                iw.addDocument(List.of(new SortedNumericDocValuesField("date", timestamp), new LongPoint("date", timestamp)));
+            }
+        };
+        debugTestCase(
+            new DateHistogramAggregationBuilder("histo").field("date").fixedInterval(new DateHistogramInterval("1m")).minDocCount(1),
+            new MatchAllDocsQuery(),
+            buildIndex,
+            (InternalDateHistogram result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                // a projection bucket spans several buckets of the histogram so the documents are collected
+                assertThat(debug.get("histo").get("projected_segments"), equalTo(0));
+                assertThat(result.getBuckets(), hasSize(3));
+            },
+            new DateFieldMapper.DateFieldType("date")
+        );
+    }
+
+    public void testAggregateProjectionNotUsedForUnprojectedSubAggregation() throws IOException {
+        projectionSettings = Settings.builder()
+            .put(AggregateProjection.DATE_FIELD_SETTING.getKey(), "date")
+            .put(AggregateProjection.INTERVAL_SETTING.getKey(), "1m")
+            .putList(AggregateProjection.METRICS_SETTING.getKey(), "value")
+            .build();
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            for (long timestamp : new long[] { 1577836800000L, 1577836860000L, 1577840400000L }) {
+                iw.addDocument(
+                    List.of(
+                        new SortedNumericDocValuesField("date", timestamp),
+                        new LongPoint("date", timestamp),
+                        new SortedSetDocValuesField("k", new BytesRef("a")),
+                        new SortedNumericDocValuesField("value", 1)
+                    )
+                );
+            }
+        };
+        debugTestCase(
+            new DateHistogramAggregationBuilder("histo").field("date")
+                .fixedInterval(new DateHistogramInterval("1h"))
+                .subAggregation(new MaxAggregationBuilder("max").field("value"))
+                .subAggregation(new TermsAggregationBuilder("k").field("k")),
+            new MatchAllDocsQuery(),
+            buildIndex,
+            (InternalDateHistogram result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                // the terms sub-aggregation must collect the documents, so the histogram is still adapted into a range aggregation
+                assertThat(impl, equalTo(DateHistogramAggregator.FromDateRange.class));
+                assertThat(result.getBuckets(), hasSize(2));
+                assertThat(result.getBuckets().get(0).getDocCount(), equalTo(2L));
+                assertThat(result.getBuckets().get(1).getDocCount(), equalTo(1L));
+            },
+            new DateFieldMapper.DateFieldType("date"),
+            new KeywordFieldMapper.KeywordFieldType("k"),
+            new NumberFieldMapper.NumberFieldType("value", NumberFieldMapper.NumberType.LONG)
+        );
+    }
+
+    @Override
+    protected IndexSettings createIndexSettings() {
+        return new IndexSettings(
+            IndexMetadata.builder("_index")
+                .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current()).put(projectionSettings))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .creationDate(System.currentTimeMillis())
+                .build(),
+            Settings.EMPTY
+        );
+    }
 }
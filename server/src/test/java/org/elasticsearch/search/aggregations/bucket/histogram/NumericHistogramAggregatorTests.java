@@ -10,8 +10,10 @@
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.store.Directory;
@@ -429,4 +431,33 @@ public class NumericHistogramAggregatorTests extends AggregatorTestCase {
         };
         testCase(buildIndex, verify, new AggTestConfig(request, longField("outer"), longField("inner"), longField("n")));
     }
+
+    public void testCollectInBlocks() throws IOException {
+        MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.DOUBLE);
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                int numDocs = randomIntBetween(1, 2000);
+                double value = randomDoubleBetween(-100, 100, true);
+                for (int i = 0; i < numDocs; i++) {
+                    // some docs don't have a value, and neighbouring docs often fall into the same bucket
+                    if (randomBoolean()) {
+                        indexWriter.addDocument(List.of());
+                    } else {
+                        value += randomDoubleBetween(0, 1, true);
+                        long sortableValue = NumericUtils.doubleToSortableLong(randomBoolean() ? value : -value);
+                        indexWriter.addDocument(List.of(new NumericDocValuesField("number", sortableValue)));
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                HistogramAggregationBuilder builder = new HistogramAggregationBuilder("histo").field("number")
+                    .interval(randomFrom(1, 5, 10.5))
+                    .offset(randomDoubleBetween(0, 1, true));
+                if (randomBoolean()) {
+                    builder.hardBounds(new DoubleBounds(-50.0, 50.0));
+                }
+                assertSameResultWhenCollectingInBlocks(builder, reader, fieldType);
+            }
+        }
+    }
 }
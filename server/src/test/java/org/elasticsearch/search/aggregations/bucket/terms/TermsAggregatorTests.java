@@ -128,6 +128,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -150,6 +151,7 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TermsAggregatorTests extends AggregatorTestCase {
 
@@ -505,6 +507,72 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         }, new AggTestConfig(aggregationBuilder, fieldType));
     }
 
+    public void testSpill() throws Exception {
+        MappedFieldType fieldType = new KeywordFieldMapper.KeywordFieldType("string", randomBoolean(), true, Collections.emptyMap());
+        int cardinality = randomIntBetween(1, 200);
+        int numDocs = randomIntBetween(1, 500);
+        List<List<IndexableField>> docs = new ArrayList<>();
+        Map<String, Long> expectedCounts = new TreeMap<>();
+        for (int i = 0; i < numDocs; i++) {
+            Set<String> values = new TreeSet<>();
+            for (int v = randomIntBetween(1, 3); v > 0; v--) {
+                values.add(Strings.format("t%03d", randomInt(cardinality - 1)));
+            }
+            for (String value : values) {
+                expectedCounts.merge(value, 1L, Long::sum);
+            }
+            docs.add(doc(fieldType, values.toArray(String[]::new)));
+        }
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            for (List<IndexableField> doc : docs) {
+                iw.addDocument(doc);
+            }
+        };
+        Consumer<Aggregator> checkAggregator = a -> assertThat(a, instanceOf(SpillingStringTermsAggregator.class));
+
+        TermsAggregatorFactory.SPILL_MEMORY_BUDGET = randomLongBetween(0, 1 << 16);
+        try {
+            // the top terms by key are exact
+            boolean asc = randomBoolean();
+            int size = randomIntBetween(1, cardinality + 10);
+            List<String> expectedKeys = new ArrayList<>(expectedCounts.keySet());
+            if (asc == false) {
+                Collections.reverse(expectedKeys);
+            }
+            List<String> expectedTopKeys = expectedKeys.subList(0, Math.min(size, expectedKeys.size()));
+            testCase(buildIndex, (StringTerms result) -> {
+                assertThat(result.getBuckets().stream().map(StringTerms.Bucket::getKeyAsString).toList(), equalTo(expectedTopKeys));
+                for (StringTerms.Bucket bucket : result.getBuckets()) {
+                    assertThat(bucket.getDocCount(), equalTo(expectedCounts.get(bucket.getKeyAsString())));
+                }
+            },
+                new AggTestConfig(
+                    new TermsAggregationBuilder("_name").executionHint("spill").field("string").size(size).order(BucketOrder.key(asc)),
+                    fieldType
+                ).withCheckAggregator(checkAggregator)
+            );
+
+            // and so are the counts when every term is returned
+            testCase(buildIndex, (StringTerms result) -> {
+                assertThat(result.getBuckets(), hasSize(expectedCounts.size()));
+                assertThat(result.getSumOfOtherDocCounts(), equalTo(0L));
+                long previousDocCount = Long.MAX_VALUE;
+                for (StringTerms.Bucket bucket : result.getBuckets()) {
+                    assertThat(bucket.getDocCount(), equalTo(expectedCounts.get(bucket.getKeyAsString())));
+                    assertThat(bucket.getDocCount(), lessThanOrEqualTo(previousDocCount));
+                    previousDocCount = bucket.getDocCount();
+                }
+            },
+                new AggTestConfig(
+                    new TermsAggregationBuilder("_name").executionHint("spill").field("string").size(cardinality),
+                    fieldType
+                ).withCheckAggregator(checkAggregator)
+            );
+        } finally {
+            TermsAggregatorFactory.SPILL_MEMORY_BUDGET = null;
+        }
+    }
+
     public void testManyTermsOrderBySubAgg() throws Exception {
         MappedFieldType kft = new KeywordFieldMapper.KeywordFieldType("string", randomBoolean(), true, Collections.emptyMap());
         MappedFieldType lft = new NumberFieldType("long", NumberType.LONG);
@@ -2371,6 +2439,11 @@ public class TermsAggregatorTests extends AggregatorTestCase {
                 a,
                 anyOf(instanceOf(GlobalOrdinalsStringTermsAggregator.class), instanceOf(StringTermsAggregatorFromFilters.class))
             );
+            // spilling falls back to the map implementation for min_doc_count: 0
+            case SPILL -> a -> assertThat(
+                a,
+                anyOf(instanceOf(SpillingStringTermsAggregator.class), instanceOf(MapStringTermsAggregator.class))
+            );
         };
     }
 }
@@ -619,4 +619,25 @@ public class AvgAggregatorTests extends AggregatorTestCase {
     protected AggregationBuilder createAggBuilderForTypeTest(MappedFieldType fieldType, String fieldName) {
         return new AvgAggregationBuilder("foo").field(fieldName);
     }
+
+    public void testCollectInBlocks() throws IOException {
+        MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.DOUBLE);
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                int numDocs = randomIntBetween(1, 2000);
+                for (int i = 0; i < numDocs; i++) {
+                    // some docs don't have a value
+                    if (randomBoolean()) {
+                        indexWriter.addDocument(List.of());
+                    } else {
+                        long value = NumericUtils.doubleToSortableLong(randomDoubleBetween(-1000, 1000, true));
+                        indexWriter.addDocument(List.of(new NumericDocValuesField("number", value)));
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertSameResultWhenCollectingInBlocks(new AvgAggregationBuilder("avg").field("number"), reader, fieldType);
+            }
+        }
+    }
 }
@@ -25,13 +25,17 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.common.hash.MurmurHash3;
 import org.elasticsearch.common.network.InetAddresses;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.sketch.CardinalitySketches;
 import org.elasticsearch.index.mapper.IpFieldMapper;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -74,9 +78,13 @@ import static java.util.Collections.singleton;
 import static org.elasticsearch.test.MapMatcher.assertMap;
 import static org.elasticsearch.test.MapMatcher.matchesMap;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 
 public class CardinalityAggregatorTests extends AggregatorTestCase {
 
+    private Settings sketchSettings = Settings.EMPTY;
+
     /** Script to extract the value from any field **/
     public static final String VALUE_SCRIPT = "_value";
 
@@ -944,6 +952,71 @@ public class CardinalityAggregatorTests extends AggregatorTestCase {
         );
     }
 
+    public void testCardinalitySketches() throws IOException {
+        sketchSettings = Settings.builder().putList(CardinalitySketches.FIELDS_SETTING.getKey(), "str_value", "number").build();
+        final MappedFieldType keywordFieldType = new KeywordFieldMapper.KeywordFieldType("str_value");
+        final MappedFieldType numberFieldType = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.LONG);
+        final int numValues = randomIntBetween(1, 100);
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            int numDocs = randomIntBetween(numValues, 1000);
+            for (int i = 0; i < numDocs; i++) {
+                final int value = i < numValues ? i : randomIntBetween(0, numValues - 1);
+                iw.addDocument(
+                    Arrays.asList(
+                        new SortedDocValuesField("str_value", new BytesRef(Integer.toString(value))),
+                        new SortedNumericDocValuesField("number", value)
+                    )
+                );
+            }
+        };
+        for (String field : new String[] { "str_value", "number" }) {
+            debugTestCase(
+                new CardinalityAggregationBuilder("name").field(field),
+                new MatchAllDocsQuery(),
+                buildIndex,
+                (InternalCardinality card, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                    assertEquals(numValues, card.getValue(), 0);
+                    assertEquals(CardinalityAggregator.class, impl);
+                    // all segments match the query so their sketches are merged
+                    assertThat((Integer) debug.get("name").get("sketched_segments"), greaterThanOrEqualTo(1));
+                },
+                keywordFieldType,
+                numberFieldType
+            );
+        }
+    }
+
+    public void testCardinalitySketchesNotUsedWithDifferentPrecision() throws IOException {
+        sketchSettings = Settings.builder().putList(CardinalitySketches.FIELDS_SETTING.getKey(), "number").build();
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = iw -> {
+            iw.addDocument(singleton(new SortedNumericDocValuesField("number", 7)));
+            iw.addDocument(singleton(new SortedNumericDocValuesField("number", 1)));
+        };
+        debugTestCase(
+            new CardinalityAggregationBuilder("name").field("number").precisionThreshold(1),
+            new MatchAllDocsQuery(),
+            buildIndex,
+            (InternalCardinality card, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertEquals(2, card.getValue(), 0);
+                assertThat(debug.get("name"), not(hasKey("sketched_segments")));
+            },
+            new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.LONG)
+        );
+    }
+
+    @Override
+    protected IndexSettings createIndexSettings() {
+        return new IndexSettings(
+            IndexMetadata.builder("_index")
+                .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current()).put(sketchSettings))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .creationDate(System.currentTimeMillis())
+                .build(),
+            Settings.EMPTY
+        );
+    }
+
     private void testAggregation(
         Query query,
         CheckedConsumer<RandomIndexWriter, IOException> buildIndex,
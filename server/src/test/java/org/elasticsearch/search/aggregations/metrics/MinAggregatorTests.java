@@ -33,6 +33,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.Tuple;
@@ -672,4 +673,25 @@ public class MinAggregatorTests extends AggregatorTestCase {
         MinAggregationBuilder aggregationBuilder = new MinAggregationBuilder("min").field("number");
         testCase(buildIndex, verify, new AggTestConfig(aggregationBuilder, fieldType).withQuery(query));
     }
+
+    public void testCollectInBlocks() throws IOException {
+        MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.DOUBLE);
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                int numDocs = randomIntBetween(1, 2000);
+                for (int i = 0; i < numDocs; i++) {
+                    // some docs don't have a value
+                    if (randomBoolean()) {
+                        indexWriter.addDocument(List.of());
+                    } else {
+                        long value = NumericUtils.doubleToSortableLong(randomDoubleBetween(-1000, 1000, true));
+                        indexWriter.addDocument(List.of(new NumericDocValuesField("number", value)));
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertSameResultWhenCollectingInBlocks(new MinAggregationBuilder("min").field("number"), reader, fieldType);
+            }
+        }
+    }
 }
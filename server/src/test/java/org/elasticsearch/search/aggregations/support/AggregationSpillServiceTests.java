@@ -0,0 +1,52 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class AggregationSpillServiceTests extends ESTestCase {
+
+    public void testDiskBudget() {
+        Settings settings = Settings.builder().put(AggregationSpillService.DISK_BUDGET_SETTING.getKey(), "100b").build();
+        ClusterSettings clusterSettings = ClusterSettings.createBuiltInClusterSettings(settings);
+        AggregationSpillService spillService = new AggregationSpillService(createTempDir(), clusterSettings);
+
+        spillService.reserve("first", 60);
+        spillService.reserve("second", 40);
+        assertThat(spillService.reservedBytes(), equalTo(100L));
+
+        ElasticsearchStatusException e = expectThrows(ElasticsearchStatusException.class, () -> spillService.reserve("third", 1));
+        assertThat(e.status(), equalTo(RestStatus.TOO_MANY_REQUESTS));
+        assertThat(
+            e.getMessage(),
+            equalTo(
+                "[third] would spill [1b] to disk, which would bring the spilled aggregations of the node to [101b], "
+                    + "larger than the limit [100b]"
+            )
+        );
+        // a failed reservation doesn't hold any space
+        assertThat(spillService.reservedBytes(), equalTo(100L));
+
+        spillService.release(60);
+        spillService.reserve("third", 1);
+        assertThat(spillService.reservedBytes(), equalTo(41L));
+
+        clusterSettings.applySettings(Settings.builder().put(AggregationSpillService.DISK_BUDGET_SETTING.getKey(), "40b").build());
+        expectThrows(ElasticsearchStatusException.class, () -> spillService.reserve("fourth", 1));
+        spillService.release(41);
+        assertThat(spillService.reservedBytes(), equalTo(0L));
+    }
+}
@@ -9,14 +9,25 @@
 
 package org.elasticsearch.search.fetch;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.index.fieldvisitor.LeafStoredFieldLoader;
 import org.elasticsearch.index.fieldvisitor.StoredFieldLoader;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.search.profile.ProfileResult;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.elasticsearch.test.MapMatcher.assertMap;
 import static org.elasticsearch.test.MapMatcher.matchesMap;
@@ -40,4 +51,47 @@ public class FetchProfilerTests extends ESTestCase {
         ProfileResult copy = copyWriteable(result, new NamedWriteableRegistry(List.of()), ProfileResult::new);
         assertMap(copy.getDebugInfo(), matchesMap().entry("stored_fields", List.of("_id", "_routing", "_source")));
     }
+
+    public void testBlockCachedStoredFields() throws IOException {
+        // a log merge policy keeps the documents in the order they were added
+        IndexWriterConfig config = newIndexWriterConfig().setMergePolicy(newLogMergePolicy());
+        try (Directory dir = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), dir, config)) {
+            for (int i = 0; i < 200; i++) {
+                Document doc = new Document();
+                doc.add(new StoredField(SourceFieldMapper.NAME, new BytesRef("{\"field\":" + i + "}")));
+                iw.addDocument(doc);
+            }
+            iw.forceMerge(1);
+            try (IndexReader reader = iw.getReader()) {
+                FetchProfiler profiler = new FetchProfiler();
+                StoredFieldLoader loader = profiler.storedFields(StoredFieldLoader.fromSpecForFetch(StoredFieldsSpec.NEEDS_SOURCE));
+                LeafReaderContext ctx = reader.leaves().get(0);
+                // dense documents share blocks and are read with block caching
+                int[] denseDocs = IntStream.range(0, 12).map(i -> 2 * i).toArray();
+                assertTrue(StoredFieldLoader.cachesBlocks(denseDocs));
+                assertSources(loader.getLoader(ctx, denseDocs), denseDocs);
+                // sparse documents, and few documents, are read randomly
+                int[] sparseDocs = IntStream.range(0, 12).map(i -> 16 * i).toArray();
+                assertFalse(StoredFieldLoader.cachesBlocks(sparseDocs));
+                assertSources(loader.getLoader(ctx, sparseDocs), sparseDocs);
+                int[] fewDocs = new int[] { 0, 1, 2 };
+                assertFalse(StoredFieldLoader.cachesBlocks(fewDocs));
+                assertSources(loader.getLoader(ctx, fewDocs), fewDocs);
+                ProfileResult result = profiler.finish();
+                assertMap(
+                    result.getDebugInfo(),
+                    matchesMap().entry("stored_fields", List.of("_id", "_routing", "_source"))
+                        .entry("stored_fields_block_cached_segments", 1)
+                        .entry("stored_fields_prefetched_docs", 12)
+                );
+            }
+        }
+    }
+
+    private static void assertSources(LeafStoredFieldLoader leafLoader, int[] docs) throws IOException {
+        for (int doc : docs) {
+            leafLoader.advanceTo(doc);
+            assertThat(leafLoader.source().utf8ToString(), equalTo("{\"field\":" + doc + "}"));
+        }
+    }
 }
@@ -261,6 +261,50 @@ public class ContextIndexSearcherTests extends ESTestCase {
         }
     }
 
+    /**
+     * Test that a shard made of a single segment is split into partitions that are searched concurrently, and that hits are counted once
+     */
+    public void testConcurrentCollectionWithPartitions() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(randomIntBetween(2, 5));
+        try (Directory directory = newDirectory()) {
+            final int numDocs = randomIntBetween(500, 1000);
+            try (IndexWriter iw = new IndexWriter(directory, new IndexWriterConfig())) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document document = new Document();
+                    document.add(new StringField("field", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                    iw.addDocument(document);
+                }
+                iw.forceMerge(1);
+            }
+            try (DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                assertEquals(1, directoryReader.leaves().size());
+                final int maxPartitions = randomIntBetween(2, 5);
+                ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    directoryReader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    randomBoolean(),
+                    executor,
+                    Integer.MAX_VALUE,
+                    1,
+                    maxPartitions,
+                    1
+                );
+                assertEquals(maxPartitions, searcher.getSlices().length);
+                // match all queries count the hits of a whole segment at once, which must not happen once per partition
+                Integer totalHits = searcher.search(new MatchAllDocsQuery(), new TotalHitCountCollectorManager(searcher.getSlices()));
+                assertEquals(numDocs, totalHits.intValue());
+                TopDocs topDocs = searcher.search(new TermQuery(new Term("field", "even")), numDocs);
+                assertEquals((numDocs + 1) / 2, topDocs.totalHits.value());
+                assertEquals((numDocs + 1) / 2, topDocs.scoreDocs.length);
+                assertBusy(() -> assertEquals(2 * (maxPartitions - 1), executor.getCompletedTaskCount()));
+            }
+        } finally {
+            terminate(executor);
+        }
+    }
+
     public void testContextIndexSearcherSparseNoDeletions() throws IOException {
         doTestContextIndexSearcher(true, false);
     }
@@ -387,6 +431,50 @@ public class ContextIndexSearcherTests extends ESTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testComputeSlicesWithPartitions() throws IOException {
+        Directory dir = newDirectory();
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+        int numDocs = randomIntBetween(1000, 25000);
+        Document doc = new Document();
+        for (int i = 0; i < numDocs; i++) {
+            w.addDocument(doc);
+        }
+        if (randomBoolean()) {
+            w.forceMerge(1);
+        }
+        DirectoryReader reader = w.getReader();
+        List<LeafReaderContext> contexts = reader.leaves();
+        int iter = randomIntBetween(16, 64);
+        for (int i = 0; i < iter; i++) {
+            int numThreads = randomIntBetween(1, 16);
+            int maxPartitions = randomIntBetween(1, 16);
+            LeafSlice[] slices = ContextIndexSearcher.computeSlices(contexts, numThreads, 1, maxPartitions, 1);
+            assertThat(slices.length, lessThanOrEqualTo(numThreads));
+            int sumDocs = 0;
+            for (LeafSlice slice : slices) {
+                Set<LeafReaderContext> sliceLeaves = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+                    // partitions of the same segment must be searched by different slices
+                    assertTrue(sliceLeaves.add(partition.ctx));
+                    sumDocs += Math.min(partition.maxDocId, partition.ctx.reader().maxDoc()) - partition.minDocId;
+                }
+            }
+            assertThat(sumDocs, equalTo(numDocs));
+            if (contexts.size() == 1 && numThreads > 1 && maxPartitions > 1) {
+                assertThat(slices.length, greaterThanOrEqualTo(2));
+            }
+        }
+        // segments are not split into partitions smaller than the minimum number of documents per partition
+        LeafSlice[] slices = ContextIndexSearcher.computeSlices(contexts, randomIntBetween(1, 16), 1, randomIntBetween(1, 16), numDocs + 1);
+        for (LeafSlice slice : slices) {
+            for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+                assertEquals(0, partition.minDocId);
+                assertThat(partition.maxDocId, greaterThanOrEqualTo(partition.ctx.reader().maxDoc()));
+            }
+        }
+        IOUtils.close(reader, w, dir);
+    }
+
     private static void assertSlices(LeafSlice[] slices, int numDocs, int numThreads) {
         // checks that the number of slices is not bigger than the number of available threads
         // and each slice contains at least 10% of the data (which means the max number of slices is 10)
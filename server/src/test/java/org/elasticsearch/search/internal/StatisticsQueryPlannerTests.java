@@ -0,0 +1,165 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.search.profile.query.QueryProfiler;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StatisticsQueryPlannerTests extends ESTestCase {
+
+    private static final int NUM_DOCS = 30;
+
+    private static Directory indexDocs() throws IOException {
+        Directory directory = newDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig())) {
+            for (int i = 0; i < NUM_DOCS; i++) {
+                Document doc = new Document();
+                doc.add(new StringField("status", "active", Field.Store.NO));
+                doc.add(new StringField("tag", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                doc.add(new IntPoint("number", i));
+                writer.addDocument(doc);
+                if (i % 10 == 9) {
+                    // create several segments
+                    writer.commit();
+                }
+            }
+        }
+        return directory;
+    }
+
+    public void testPlan() throws IOException {
+        try (Directory directory = indexDocs(); DirectoryReader reader = DirectoryReader.open(directory)) {
+            StatisticsQueryPlanner planner = new StatisticsQueryPlanner();
+            List<String> decisions = new ArrayList<>();
+
+            Query matchAllFilter = new TermQuery(new Term("status", "active"));
+            Query noMatchFilter = IntPoint.newRangeQuery("number", 100, 200);
+            Query someMatch = new TermQuery(new Term("tag", "even"));
+
+            Query query = new BooleanQuery.Builder().add(someMatch, Occur.MUST)
+                .add(matchAllFilter, Occur.FILTER)
+                .add(IntPoint.newRangeQuery("number", -10, 100), Occur.FILTER)
+                .add(noMatchFilter, Occur.MUST_NOT)
+                .build();
+            Query planned = planner.plan(query, reader, decisions::add);
+            assertThat(
+                planned,
+                equalTo(
+                    new BooleanQuery.Builder().add(someMatch, Occur.MUST)
+                        .add(new MatchAllDocsQuery(), Occur.FILTER)
+                        .add(new MatchAllDocsQuery(), Occur.FILTER)
+                        .add(new MatchNoDocsQuery(), Occur.MUST_NOT)
+                        .build()
+                )
+            );
+            assertThat(decisions.size(), equalTo(3));
+            // without a profiler the decisions aren't described, but the query is planned the same way
+            assertThat(planner.plan(query, reader, null), equalTo(planned));
+
+            // a query that matches all documents still contributes to the score
+            decisions.clear();
+            Query scoring = new BooleanQuery.Builder().add(matchAllFilter, Occur.MUST).add(someMatch, Occur.MUST).build();
+            assertThat(planner.plan(scoring, reader, decisions::add), sameInstance(scoring));
+            assertThat(decisions, empty());
+
+            // unless it is wrapped in a constant score query
+            Query constantScore = new ConstantScoreQuery(matchAllFilter);
+            assertThat(planner.plan(constantScore, reader, decisions::add), equalTo(new ConstantScoreQuery(new MatchAllDocsQuery())));
+            assertThat(decisions, contains("[status:active] matches all documents"));
+
+            decisions.clear();
+            Query missingTerm = new TermQuery(new Term("status", "deleted"));
+            assertThat(planner.plan(missingTerm, reader, decisions::add), instanceOf(MatchNoDocsQuery.class));
+            assertThat(decisions, contains("[status:deleted] matches no documents"));
+
+            decisions.clear();
+            Query partialRange = IntPoint.newRangeQuery("number", 5, 15);
+            assertThat(planner.plan(partialRange, reader, decisions::add), sameInstance(partialRange));
+            assertThat(decisions, empty());
+        }
+    }
+
+    public void testPlannedQueriesMatchTheSameDocuments() throws IOException {
+        try (Directory directory = indexDocs(); DirectoryReader reader = DirectoryReader.open(directory)) {
+            ContextIndexSearcher searcher = new ContextIndexSearcher(
+                reader,
+                IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(),
+                IndexSearcher.getDefaultQueryCachingPolicy(),
+                randomBoolean()
+            );
+            searcher.setQueryPlanner(new StatisticsQueryPlanner());
+            IndexSearcher plain = newSearcher(reader);
+            for (int i = 0; i < 20; i++) {
+                BooleanQuery.Builder builder = new BooleanQuery.Builder();
+                int numClauses = randomIntBetween(1, 4);
+                for (int c = 0; c < numClauses; c++) {
+                    Query clause = switch (randomIntBetween(0, 2)) {
+                        case 0 -> new TermQuery(new Term("status", randomFrom("active", "deleted")));
+                        case 1 -> new TermQuery(new Term("tag", randomFrom("even", "odd")));
+                        default -> {
+                            int lower = randomIntBetween(-10, NUM_DOCS + 10);
+                            yield IntPoint.newRangeQuery("number", lower, lower + randomIntBetween(0, NUM_DOCS * 2));
+                        }
+                    };
+                    builder.add(clause, randomFrom(Occur.MUST, Occur.FILTER, Occur.SHOULD, Occur.MUST_NOT));
+                }
+                Query query = builder.build();
+                assertThat(query.toString(), searcher.count(query), equalTo(plain.count(query)));
+            }
+        }
+    }
+
+    public void testDecisionsAreProfiled() throws IOException {
+        try (Directory directory = indexDocs(); DirectoryReader reader = DirectoryReader.open(directory)) {
+            ContextIndexSearcher searcher = new ContextIndexSearcher(
+                reader,
+                IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(),
+                IndexSearcher.getDefaultQueryCachingPolicy(),
+                randomBoolean()
+            );
+            QueryProfiler profiler = new QueryProfiler();
+            searcher.setProfiler(profiler);
+            searcher.setQueryPlanner(new StatisticsQueryPlanner());
+            Query query = new BooleanQuery.Builder().add(new TermQuery(new Term("tag", "odd")), Occur.MUST)
+                .add(new TermQuery(new Term("status", "active")), Occur.FILTER)
+                .build();
+            assertThat(searcher.rewrite(query), equalTo(new TermQuery(new Term("tag", "odd"))));
+            assertThat(profiler.getPlannerDecisions(), contains("[status:active] matches all documents"));
+        }
+    }
+}
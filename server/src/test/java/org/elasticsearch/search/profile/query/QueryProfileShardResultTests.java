@@ -37,7 +37,16 @@ public class QueryProfileShardResultTests extends AbstractXContentSerializingTes
         }
 
         Long vectorOperationsCount = randomBoolean() ? null : randomNonNegativeLong();
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount);
+        List<String> plannerDecisions = randomList(0, 3, () -> randomAlphaOfLengthBetween(5, 20));
+        int skippedSegments = randomBoolean() ? 0 : randomIntBetween(1, 100);
+        return new QueryProfileShardResult(
+            queryProfileResults,
+            rewriteTime,
+            profileCollector,
+            vectorOperationsCount,
+            plannerDecisions,
+            skippedSegments
+        );
     }
 
     @Override
@@ -0,0 +1,259 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.sort.MinAndMax;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class SegmentSkippingCollectorTests extends ESTestCase {
+
+    private static final String FIELD = "timestamp";
+
+    private static Directory indexDocs(int numSegments, int docsPerSegment, LongUnaryOperator value) throws IOException {
+        Directory directory = newDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            int doc = 0;
+            for (int s = 0; s < numSegments; s++) {
+                for (int i = 0; i < docsPerSegment; i++) {
+                    long v = value.applyAsLong(doc++);
+                    Document document = new Document();
+                    document.add(new LongPoint(FIELD, v));
+                    document.add(new SortedNumericDocValuesField(FIELD, v));
+                    writer.addDocument(document);
+                }
+                writer.commit();
+            }
+        }
+        return directory;
+    }
+
+    private static MinAndMax<?>[] segmentMinAndMaxes(DirectoryReader reader) throws IOException {
+        MinAndMax<?>[] minAndMaxes = new MinAndMax<?>[reader.leaves().size()];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            PointValues values = leaf.reader().getPointValues(FIELD);
+            minAndMaxes[leaf.ord] = new MinAndMax<>(
+                LongPoint.decodeDimension(values.getMinPackedValue(), 0),
+                LongPoint.decodeDimension(values.getMaxPackedValue(), 0)
+            );
+        }
+        return minAndMaxes;
+    }
+
+    private record Result(TopFieldDocs topDocs, int skippedSegments) {}
+
+    private static Result search(
+        DirectoryReader reader,
+        SegmentSkippingCollector.Segments segments,
+        Sort sort,
+        int numHits,
+        long minHitsBeforeSkipping,
+        @Nullable FieldDoc after
+    ) throws IOException {
+        ContextIndexSearcher searcher = new ContextIndexSearcher(
+            reader,
+            IndexSearcher.getDefaultSimilarity(),
+            IndexSearcher.getDefaultQueryCache(),
+            IndexSearcher.getDefaultQueryCachingPolicy(),
+            randomBoolean()
+        );
+        searcher.setLeafOrder(segments.leafOrder());
+        TopFieldCollectorManager topFieldCollectorManager = new TopFieldCollectorManager(sort, numHits, after, 1);
+        return searcher.search(new MatchAllDocsQuery(), new CollectorManager<SegmentSkippingCollector, Result>() {
+            @Override
+            public SegmentSkippingCollector newCollector() {
+                return new SegmentSkippingCollector(
+                    topFieldCollectorManager.newCollector(),
+                    segments,
+                    numHits,
+                    after == null,
+                    minHitsBeforeSkipping
+                );
+            }
+
+            @Override
+            public Result reduce(Collection<SegmentSkippingCollector> collectors) throws IOException {
+                List<TopFieldCollector> topFieldCollectors = new ArrayList<>();
+                int skippedSegments = 0;
+                for (SegmentSkippingCollector collector : collectors) {
+                    topFieldCollectors.add((TopFieldCollector) collector.getCollector());
+                    skippedSegments += collector.getSkippedSegments();
+                }
+                return new Result(topFieldCollectorManager.reduce(topFieldCollectors), skippedSegments);
+            }
+        });
+    }
+
+    private static void assertSameTopHits(TopFieldDocs expected, TopFieldDocs actual) {
+        assertThat(actual.scoreDocs.length, equalTo(expected.scoreDocs.length));
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            assertThat(actual.scoreDocs[i].doc, equalTo(expected.scoreDocs[i].doc));
+            assertArrayEquals(((FieldDoc) expected.scoreDocs[i]).fields, ((FieldDoc) actual.scoreDocs[i]).fields);
+        }
+    }
+
+    public void testLatestHitsOnTimeSeries() throws IOException {
+        int numSegments = randomIntBetween(3, 8);
+        try (
+            Directory directory = indexDocs(numSegments, 100, doc -> 1_000L * doc);
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            Sort sort = new Sort(new SortedNumericSortField(FIELD, SortField.Type.LONG, true));
+            SegmentSkippingCollector.Segments segments = new SegmentSkippingCollector.Segments(segmentMinAndMaxes(reader), true, null);
+            Result result = search(reader, segments, sort, 10, 0, null);
+            // only the most recent segment is collected
+            assertThat(result.skippedSegments(), equalTo(numSegments - 1));
+            assertSameTopHits(new IndexSearcher(reader).search(new MatchAllDocsQuery(), 10, sort), result.topDocs());
+            assertThat(((FieldDoc) result.topDocs().scoreDocs[0]).fields[0], equalTo(1_000L * (numSegments * 100 - 1)));
+
+            // the segments cannot be skipped before enough hits were counted
+            result = search(reader, segments, sort, 10, 1_000_000, null);
+            assertThat(result.skippedSegments(), equalTo(0));
+        }
+    }
+
+    public void testSameTopHits() throws IOException {
+        try (
+            Directory directory = indexDocs(randomIntBetween(2, 8), randomIntBetween(1, 50), doc -> randomLongBetween(-1000, 1000));
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            for (int i = 0; i < 10; i++) {
+                boolean reverse = randomBoolean();
+                int numHits = randomIntBetween(1, 100);
+                Sort sort = new Sort(new SortedNumericSortField(FIELD, SortField.Type.LONG, reverse));
+                SegmentSkippingCollector.Segments segments = new SegmentSkippingCollector.Segments(
+                    segmentMinAndMaxes(reader),
+                    reverse,
+                    null
+                );
+                Result result = search(reader, segments, sort, numHits, 0, null);
+                assertSameTopHits(new IndexSearcher(reader).search(new MatchAllDocsQuery(), numHits, sort), result.topDocs());
+            }
+        }
+    }
+
+    public void testBottomSortValue() throws IOException {
+        try (
+            Directory directory = indexDocs(4, 10, doc -> doc);
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            Sort sort = new Sort(new SortedNumericSortField(FIELD, SortField.Type.LONG, false));
+            // the other shards already found hits up to 20, so the segments whose values are all greater than 20 cannot compete
+            SegmentSkippingCollector.Segments segments = new SegmentSkippingCollector.Segments(segmentMinAndMaxes(reader), false, 20L);
+            Result result = search(reader, segments, sort, 100, 0, null);
+            // the segment whose minimum is 20 is collected since its hits may win ties
+            assertThat(result.skippedSegments(), equalTo(1));
+            assertThat(result.topDocs().scoreDocs.length, equalTo(30));
+
+            // a bottom sort value of another type is ignored
+            segments = new SegmentSkippingCollector.Segments(segmentMinAndMaxes(reader), false, 20.0);
+            result = search(reader, segments, sort, 100, 0, null);
+            assertThat(result.skippedSegments(), equalTo(0));
+            assertThat(result.topDocs().scoreDocs.length, equalTo(40));
+        }
+    }
+
+    public void testLeafOrder() throws IOException {
+        try (
+            Directory directory = indexDocs(5, 10, doc -> doc);
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            MinAndMax<?>[] minAndMaxes = segmentMinAndMaxes(reader);
+            SegmentSkippingCollector.Segments segments = new SegmentSkippingCollector.Segments(minAndMaxes, true, null);
+            List<LeafReaderContext> leaves = new ArrayList<>(reader.leaves());
+            leaves.sort(segments.leafOrder());
+            // the ranges don't overlap, so the segment with the greatest values comes first
+            for (int i = 1; i < leaves.size(); i++) {
+                long previousMax = (Long) minAndMaxes[leaves.get(i - 1).ord].getMax();
+                long max = (Long) minAndMaxes[leaves.get(i).ord].getMax();
+                assertThat(previousMax, greaterThan(max));
+            }
+
+            // a segment whose range is unknown may hold hits with the same values as the other segments
+            MinAndMax<?>[] withUnknown = minAndMaxes.clone();
+            withUnknown[randomIntBetween(0, withUnknown.length - 1)] = null;
+            assertNull(new SegmentSkippingCollector.Segments(withUnknown, true, null).leafOrder());
+
+            // so may segments whose ranges overlap, even on a single value
+            MinAndMax<?>[] overlapping = minAndMaxes.clone();
+            overlapping[1] = new MinAndMax<>((Long) minAndMaxes[0].getMax(), (Long) minAndMaxes[1].getMax());
+            assertNull(new SegmentSkippingCollector.Segments(overlapping, randomBoolean(), null).leafOrder());
+        }
+    }
+
+    public void testTiesAcrossSegments() throws IOException {
+        int numSegments = randomIntBetween(2, 6);
+        try (
+            Directory directory = indexDocs(numSegments, randomIntBetween(3, 20), doc -> doc % 3);
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            boolean reverse = randomBoolean();
+            Sort sort = new Sort(new SortedNumericSortField(FIELD, SortField.Type.LONG, reverse));
+            SegmentSkippingCollector.Segments segments = new SegmentSkippingCollector.Segments(segmentMinAndMaxes(reader), reverse, null);
+            // every segment holds every value, so the segments are visited in the order of the reader
+            assertNull(segments.leafOrder());
+
+            TopFieldDocs expected = new IndexSearcher(reader).search(new MatchAllDocsQuery(), reader.maxDoc(), sort);
+            int numHits = randomIntBetween(1, 5);
+            Result result = search(reader, segments, sort, numHits, 0, null);
+            assertSameTopHits(new IndexSearcher(reader).search(new MatchAllDocsQuery(), numHits, sort), result.topDocs());
+
+            // paging with search_after returns every hit once, ties being broken on the doc id
+            List<Integer> pagedDocs = new ArrayList<>();
+            FieldDoc after = null;
+            while (true) {
+                TopFieldDocs page = search(reader, segments, sort, numHits, 0, after).topDocs();
+                if (page.scoreDocs.length == 0) {
+                    break;
+                }
+                for (ScoreDoc scoreDoc : page.scoreDocs) {
+                    pagedDocs.add(scoreDoc.doc);
+                }
+                after = (FieldDoc) page.scoreDocs[page.scoreDocs.length - 1];
+            }
+            List<Integer> expectedDocs = new ArrayList<>();
+            for (ScoreDoc scoreDoc : expected.scoreDocs) {
+                expectedDocs.add(scoreDoc.doc);
+            }
+            assertThat(pagedDocs, equalTo(expectedDocs));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.scheduler;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+public class SearchTaskSchedulerTests extends ESTestCase {
+
+    private static final String TENANT_HEADER = "X-Tenant";
+
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    // like the thread pools, the executor runs the tasks with the thread context they were submitted with
+    private final Executor executor = command -> pending.add(threadContext.preserveContext(command));
+    private final List<String> executed = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+
+    private SearchTaskScheduler newScheduler(Settings settings, int maxConcurrency) {
+        Settings nodeSettings = Settings.builder()
+            .put(SearchTaskScheduler.SEARCH_SCHEDULER_ENABLED_SETTING.getKey(), true)
+            .put(SearchTaskScheduler.CLASS_HEADER_SETTING.getKey(), TENANT_HEADER)
+            .put(settings)
+            .build();
+        return new SearchTaskScheduler(
+            nodeSettings,
+            ClusterSettings.createBuiltInClusterSettings(nodeSettings),
+            threadContext,
+            maxConcurrency,
+            nanoTime::get
+        );
+    }
+
+    private void submit(SearchTaskScheduler scheduler, String tenant, String name, long costNanos) {
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader(TENANT_HEADER, tenant);
+            scheduler.execute(executor, SearchTaskScheduler.Kind.QUERY, new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    assertThat(threadContext.getHeader(TENANT_HEADER), equalTo(tenant));
+                    nanoTime.addAndGet(costNanos);
+                    executed.add(name);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    throw new AssertionError(e);
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    assertThat(e, instanceOf(EsRejectedExecutionException.class));
+                    rejected.add(name);
+                }
+            });
+        }
+    }
+
+    private void runPending() {
+        Runnable next;
+        while ((next = pending.poll()) != null) {
+            next.run();
+        }
+    }
+
+    public void testCheapTasksAreNotStarvedByExpensiveOnes() {
+        SearchTaskScheduler scheduler = newScheduler(Settings.EMPTY, 1);
+        // let the scheduler learn the cost of the tasks of both tenants
+        submit(scheduler, "heavy", "heavy-0", 100_000_000);
+        runPending();
+        submit(scheduler, "light", "light-0", 1_000_000);
+        runPending();
+        executed.clear();
+
+        for (int i = 1; i <= 5; i++) {
+            submit(scheduler, "heavy", "heavy-" + i, 100_000_000);
+        }
+        for (int i = 1; i <= 5; i++) {
+            submit(scheduler, "light", "light-" + i, 1_000_000);
+        }
+        // only one task runs at a time
+        assertThat(pending, hasSize(1));
+        runPending();
+
+        assertThat(executed, hasSize(10));
+        assertThat(rejected, empty());
+        // the light tenant does not have to wait for the five heavy tasks that were queued before its own tasks
+        assertThat(executed.indexOf("light-5"), lessThan(executed.indexOf("heavy-3")));
+
+        SearchSchedulerStats stats = scheduler.stats();
+        assertThat(stats.running(), equalTo(0));
+        assertThat(stats.queue(), equalTo(0));
+        assertThat(stats.classes().get("heavy").dispatched(), equalTo(6L));
+        assertThat(stats.classes().get("light").dispatched(), equalTo(6L));
+    }
+
+    public void testWeights() {
+        SearchTaskScheduler scheduler = newScheduler(
+            Settings.builder().put(SearchTaskScheduler.CLASS_WEIGHT_SETTING.getConcreteSettingForNamespace("gold").getKey(), 3.0).build(),
+            1
+        );
+        submit(scheduler, "blocker", "blocker", 1_000_000);
+        for (int i = 0; i < 4; i++) {
+            submit(scheduler, "bronze", "bronze-" + i, 1_000_000);
+            submit(scheduler, "gold", "gold-" + i, 1_000_000);
+        }
+        runPending();
+        assertThat(executed, hasSize(9));
+        // gold gets three times the share of bronze
+        assertThat(executed.indexOf("gold-3"), lessThan(executed.indexOf("bronze-2")));
+        assertThat(scheduler.stats().classes().get("gold").weight(), equalTo(3.0));
+    }
+
+    public void testShedding() {
+        SearchTaskScheduler scheduler = newScheduler(
+            Settings.builder()
+                .put(SearchTaskScheduler.MAX_QUEUE_SIZE_SETTING.getKey(), 10)
+                .put(SearchTaskScheduler.SHEDDING_THRESHOLD_SETTING.getKey(), 0.5)
+                .build(),
+            1
+        );
+        // the first task is dispatched right away, the other ones are queued
+        submit(scheduler, "a", "a-0", 1);
+        submit(scheduler, "b", "b-0", 1);
+        for (int i = 1; i <= 5; i++) {
+            submit(scheduler, "a", "a-" + i, 1);
+        }
+        assertThat(scheduler.stats().queue(), equalTo(6));
+        assertThat(rejected, empty());
+
+        // beyond the shedding threshold, the class that holds more than its fair share of the queue is shed
+        submit(scheduler, "a", "a-6", 1);
+        assertThat(rejected, contains("a-6"));
+        for (int i = 1; i <= 4; i++) {
+            submit(scheduler, "b", "b-" + i, 1);
+        }
+        assertThat(rejected, contains("a-6"));
+        // once the queue is full every task is rejected
+        submit(scheduler, "b", "b-5", 1);
+        assertThat(rejected, contains("a-6", "b-5"));
+
+        SearchSchedulerStats stats = scheduler.stats();
+        assertThat(stats.queue(), equalTo(10));
+        assertThat(stats.classes().get("a").shed(), equalTo(1L));
+        assertThat(stats.classes().get("a").rejected(), equalTo(0L));
+        assertThat(stats.classes().get("b").shed(), equalTo(0L));
+        assertThat(stats.classes().get("b").rejected(), equalTo(1L));
+
+        runPending();
+        assertThat(executed, hasSize(11));
+        assertThat(scheduler.stats().queue(), equalTo(0));
+    }
+
+    public void testQueueTime() {
+        SearchTaskScheduler scheduler = newScheduler(Settings.EMPTY, 1);
+        submit(scheduler, "a", "a-0", 0);
+        submit(scheduler, "a", "a-1", 0);
+        nanoTime.addAndGet(5_000_000);
+        runPending();
+        SearchSchedulerStats.ClassStats stats = scheduler.stats().classes().get("a");
+        assertThat(stats.dispatched(), equalTo(2L));
+        assertThat(stats.queueTimeNanos(), equalTo(5_000_000L));
+    }
+
+    public void testDefaultClass() {
+        SearchTaskScheduler scheduler = newScheduler(Settings.EMPTY, 1);
+        scheduler.execute(executor, SearchTaskScheduler.Kind.FETCH, new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                executed.add("task");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        runPending();
+        assertThat(executed, contains("task"));
+        assertThat(scheduler.stats().classes().keySet(), contains(SearchTaskScheduler.DEFAULT_CLASS));
+    }
+
+    public void testTooManyClasses() {
+        SearchTaskScheduler scheduler = newScheduler(Settings.EMPTY, SearchTaskScheduler.MAX_CLASSES * 2);
+        for (int i = 0; i < SearchTaskScheduler.MAX_CLASSES * 2; i++) {
+            submit(scheduler, "tenant-" + i, "task-" + i, 1);
+        }
+        runPending();
+        SearchSchedulerStats stats = scheduler.stats();
+        assertThat(stats.classes().size(), equalTo(SearchTaskScheduler.MAX_CLASSES));
+        assertThat(stats.classes().get(SearchTaskScheduler.OTHER_CLASS).dispatched(), equalTo(SearchTaskScheduler.MAX_CLASSES + 1L));
+    }
+
+    public void testDisable() {
+        Settings settings = Settings.builder()
+            .put(SearchTaskScheduler.SEARCH_SCHEDULER_ENABLED_SETTING.getKey(), true)
+            .put(SearchTaskScheduler.CLASS_HEADER_SETTING.getKey(), TENANT_HEADER)
+            .build();
+        ClusterSettings clusterSettings = ClusterSettings.createBuiltInClusterSettings(settings);
+        SearchTaskScheduler scheduler = new SearchTaskScheduler(settings, clusterSettings, threadContext, 1, nanoTime::get);
+        for (int i = 0; i < 3; i++) {
+            submit(scheduler, "a", "a-" + i, 1);
+        }
+        assertThat(pending, hasSize(1));
+
+        clusterSettings.applySettings(Settings.builder().put(SearchTaskScheduler.SEARCH_SCHEDULER_ENABLED_SETTING.getKey(), false).build());
+        assertFalse(scheduler.isEnabled());
+        // the queued tasks are handed over to the executor
+        assertThat(pending, hasSize(3));
+        submit(scheduler, "a", "a-3", 1);
+        assertThat(pending, hasSize(4));
+        runPending();
+        assertThat(executed, contains("a-0", "a-1", "a-2", "a-3"));
+    }
+
+    public void testCredentialsHeaderIsRejected() {
+        Settings settings = Settings.builder().put(SearchTaskScheduler.CLASS_HEADER_SETTING.getKey(), "authorization").build();
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> SearchTaskScheduler.CLASS_HEADER_SETTING.get(settings)
+        );
+        assertThat(e.getMessage(), equalTo("[search.scheduler.class_header] must not be a credentials header, got [authorization]"));
+    }
+}
@@ -66,6 +66,7 @@ import org.elasticsearch.script.ScriptCompiler;
 import org.elasticsearch.script.ScriptContext;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.AggregationSpillService;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.internal.SubSearchContext;
 import org.elasticsearch.search.lookup.SearchLookup;
@@ -554,6 +555,11 @@ public abstract class MapperServiceTestCase extends FieldTypeTestCase {
                 throw new UnsupportedOperationException();
             }
 
+            @Override
+            public AggregationSpillService spillService() {
+                throw new UnsupportedOperationException();
+            }
+
             @Override
             public MappedFieldType getFieldType(String path) {
                 return mapperService.fieldType(path);
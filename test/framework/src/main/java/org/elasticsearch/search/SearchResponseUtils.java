@@ -664,6 +664,8 @@ public enum SearchResponseUtils {
         long rewriteTime = 0;
         Long vectorOperationsCount = null;
         CollectorResult collector = null;
+        List<String> plannerDecisions = new ArrayList<>();
+        int skippedSegments = 0;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
                 currentFieldName = parser.currentName();
@@ -672,6 +674,8 @@ public enum SearchResponseUtils {
                     rewriteTime = parser.longValue();
                 } else if (QueryProfileShardResult.VECTOR_OPERATIONS_COUNT.equals(currentFieldName)) {
                     vectorOperationsCount = parser.longValue();
+                } else if (QueryProfileShardResult.SKIPPED_SEGMENTS.equals(currentFieldName)) {
+                    skippedSegments = parser.intValue();
                 } else {
                     parser.skipChildren();
                 }
@@ -684,6 +688,10 @@ public enum SearchResponseUtils {
                     while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
                         collector = parseCollectorResult(parser);
                     }
+                } else if (QueryProfileShardResult.PLANNER.equals(currentFieldName)) {
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                        plannerDecisions.add(parser.text());
+                    }
                 } else {
                     parser.skipChildren();
                 }
@@ -691,7 +699,14 @@ public enum SearchResponseUtils {
                 parser.skipChildren();
             }
         }
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, collector, vectorOperationsCount);
+        return new QueryProfileShardResult(
+            queryProfileResults,
+            rewriteTime,
+            collector,
+            vectorOperationsCount,
+            plannerDecisions,
+            skippedSegments
+        );
     }
 
     public static SearchHits parseSearchHits(XContentParser parser) throws IOException {
@@ -136,6 +136,7 @@ import org.elasticsearch.search.aggregations.metrics.MultiValueAggregation;
 import org.elasticsearch.search.aggregations.metrics.NumericMetricsAggregation;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.AggregationContext.ProductionAggregationContext;
+import org.elasticsearch.search.aggregations.support.AggregationSpillService;
 import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 import org.elasticsearch.search.aggregations.support.SamplingContext;
 import org.elasticsearch.search.aggregations.support.TimeSeriesIndexSearcher;
@@ -266,6 +267,50 @@ public abstract class AggregatorTestCase extends ESTestCase {
         return aggregator;
     }
 
+    /**
+     * Asserts that the aggregation produces the same result whether the docs of the reader
+     * are collected one at a time with {@link LeafBucketCollector#collect(int, long)} or in
+     * blocks of random sizes with {@link LeafBucketCollector#collect(int[], int, long)}.
+     */
+    protected void assertSameResultWhenCollectingInBlocks(
+        AggregationBuilder aggregationBuilder,
+        IndexReader reader,
+        MappedFieldType... fieldTypes
+    ) throws IOException {
+        AggregationContext context = createAggregationContext(reader, new MatchAllDocsQuery(), fieldTypes);
+        Aggregator perDoc = createAggregator(aggregationBuilder, context);
+        collectAllDocs(perDoc, reader, false);
+        Aggregator inBlocks = createAggregator(aggregationBuilder, context);
+        collectAllDocs(inBlocks, reader, true);
+        assertThat(inBlocks.buildTopLevel(), equalTo(perDoc.buildTopLevel()));
+    }
+
+    private static void collectAllDocs(Aggregator aggregator, IndexReader reader, boolean inBlocks) throws IOException {
+        aggregator.preCollection();
+        for (LeafReaderContext ctx : reader.leaves()) {
+            LeafBucketCollector leafCollector = aggregator.getLeafCollector(new AggregationExecutionContext(ctx, null, null, null));
+            int maxDoc = ctx.reader().maxDoc();
+            if (inBlocks) {
+                int start = 0;
+                while (start < maxDoc) {
+                    int count = randomIntBetween(1, Math.min(maxDoc - start, LeafBucketCollector.BATCH_SIZE));
+                    // the array may be larger than the block
+                    int[] docs = new int[count + randomIntBetween(0, 3)];
+                    for (int i = 0; i < count; i++) {
+                        docs[i] = start + i;
+                    }
+                    leafCollector.collect(docs, count, 0);
+                    start += count;
+                }
+            } else {
+                for (int doc = 0; doc < maxDoc; doc++) {
+                    leafCollector.collect(doc, 0);
+                }
+            }
+        }
+        aggregator.postCollection();
+    }
+
     /**
      * Create a {@linkplain AggregationContext} for testing an {@link Aggregator}.
      * While {@linkplain AggregationContext} is {@link Releasable} the caller is
@@ -433,6 +478,7 @@ public abstract class AggregatorTestCase extends ESTestCase {
             searchExecutionContext,
             new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService),
             ClusterSettings.createBuiltInClusterSettings(),
+            new AggregationSpillService(createTempDir(), ClusterSettings.createBuiltInClusterSettings()),
             bytesToPreallocate,
             () -> query,
             null,